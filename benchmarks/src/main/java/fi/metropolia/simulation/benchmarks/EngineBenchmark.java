@@ -0,0 +1,69 @@
+package fi.metropolia.simulation.benchmarks;
+
+import fi.metropolia.simulation.framework.Trace;
+import fi.metropolia.simulation.model.CampNetworkConfig;
+import fi.metropolia.simulation.model.SimulationEngine;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A complete 30-day run of the default camp in streaming statistics mode, at several mean inter-arrival
+ * times (minutes), without and with engine self-profiling. The "events" counter is the number of B events processed per second; run with {@code -prof gc}
+ * (or through {@link #main(String[])}) to add the allocation rate and bytes per run.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark {
+    private static final double DURATION = 43200;   // 30 days
+    private static final long SEED = 42;
+
+    @Param({"5", "20", "60"})
+    double arrivalMean;
+
+    @Param({"false", "true"})
+    boolean profiling;
+
+    /** Events processed, reported by JMH as events per second next to the runs per second */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long events;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Trace.setTraceLevel(Trace.Level.ERR);
+    }
+
+    @Benchmark
+    public int run(Counters counters) {
+        CampNetworkConfig config = CampNetworkConfig.defaultCamp(arrivalMean,
+                3.0, 5.0, 3.0, 6.0, 4.0, 7.0, 10.0, 15.0, 6.0, 1.0, 5.0, 1.0, 5.0, 1.0);
+        SimulationEngine engine = new SimulationEngine(config);
+        engine.setView(null);
+        engine.setStreamingStatistics(true);
+        engine.setSeed(SEED);
+        engine.setSimulationDuration(DURATION);
+        engine.setProfiling(profiling);
+        engine.startSimulation();
+        counters.events += engine.getEventCount();
+        return engine.getTotalSurvivorsProcessed();
+    }
+
+    /** Run this benchmark with the GC profiler */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EngineBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
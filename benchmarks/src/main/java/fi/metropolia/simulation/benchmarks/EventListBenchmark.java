@@ -0,0 +1,46 @@
+package fi.metropolia.simulation.benchmarks;
+
+import eduni.distributions.Negexp;
+import fi.metropolia.simulation.framework.Event;
+import fi.metropolia.simulation.framework.EventList;
+import fi.metropolia.simulation.framework.Trace;
+import fi.metropolia.simulation.model.RescueCampEventType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hold model on the event list: remove the next event and schedule a new one a random time after it, so the
+ * number of pending events stays constant. The counts cover a quiet camp (one arrival and a few services
+ * pending) up to a large configured network with long queues.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventListBenchmark {
+    @Param({"8", "64", "1024"})
+    int pending;
+
+    private EventList eventList;
+    private Negexp delay;
+    private RescueCampEventType[] types;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Trace.setTraceLevel(Trace.Level.ERR);
+        eventList = new EventList();
+        delay = new Negexp(10, 42);
+        types = RescueCampEventType.values();
+        for (int i = 0; i < pending; i++) eventList.add(new Event(types[i % types.length], delay.sample()));
+    }
+
+    @Benchmark
+    public Event removeAndAdd() {
+        Event next = eventList.remove();
+        eventList.add(new Event(next.getType(), next.getTime() + delay.sample()));
+        return next;
+    }
+}
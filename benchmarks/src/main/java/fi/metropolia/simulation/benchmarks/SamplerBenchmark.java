@@ -0,0 +1,62 @@
+package fi.metropolia.simulation.benchmarks;
+
+import eduni.distributions.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One sample from each eduni.distributions generator, with parameters in the range the camp uses
+ * (minutes for the continuous ones).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SamplerBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"random", "uniform", "negexp", "normal", "lognormal", "erlang", "gamma", "weibull", "beta",
+            "betaprime", "cauchy", "chisquare", "fdistribution", "invgamma", "logistic", "pareto", "tstudent",
+            "bernoulli", "binomial", "geometric", "pascal", "poisson"})
+    String distribution;
+
+    private ContinuousGenerator continuous;   // exactly one of the two is set
+    private DiscreteGenerator discrete;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (distribution) {
+            case "random":        continuous = new RandomGenerator(SEED); break;
+            case "uniform":       continuous = new Uniform(3, 5, SEED); break;
+            case "negexp":        continuous = new Negexp(20, SEED); break;
+            case "normal":        continuous = new Normal(6, 1, SEED); break;
+            case "lognormal":     continuous = new LogNormal(6, 1, SEED); break;
+            case "erlang":        continuous = new Erlang(3, 2, SEED); break;
+            case "gamma":         continuous = new Gamma(2, 3, SEED); break;
+            case "weibull":       continuous = new Weibull(5, 2, SEED); break;
+            case "beta":          continuous = new Beta(2, 5, SEED); break;
+            case "betaprime":     continuous = new BetaPrime(2, 5, SEED); break;
+            case "cauchy":        continuous = new Cauchy(5, 1, SEED); break;
+            case "chisquare":     continuous = new ChiSquare(4, SEED); break;
+            case "fdistribution": continuous = new FDistribution(5, 10, SEED); break;
+            case "invgamma":      continuous = new Invgamma(2, 3, SEED); break;
+            case "logistic":      continuous = new Logistic(5, 1, SEED); break;
+            case "pareto":        continuous = new Pareto(1, 3, SEED); break;
+            case "tstudent":      continuous = new Tstudent(5, SEED); break;
+            case "bernoulli":     discrete = new Bernoulli(0.3, SEED); break;
+            case "binomial":      discrete = new Binomial(0.3, 20, SEED); break;
+            case "geometric":     discrete = new Geometric(0.3, SEED); break;
+            case "pascal":        discrete = new Pascal(0.3, 5, SEED); break;
+            case "poisson":       discrete = new Poisson(4, SEED); break;
+            default: throw new IllegalArgumentException("Unknown distribution " + distribution);
+        }
+    }
+
+    @Benchmark
+    public double sample() {
+        return continuous != null ? continuous.sample() : discrete.sample();
+    }
+}
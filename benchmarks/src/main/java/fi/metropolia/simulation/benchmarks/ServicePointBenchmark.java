@@ -0,0 +1,63 @@
+package fi.metropolia.simulation.benchmarks;
+
+import eduni.distributions.RandomGenerator;
+import eduni.distributions.Uniform;
+import fi.metropolia.simulation.framework.Clock;
+import fi.metropolia.simulation.framework.EventList;
+import fi.metropolia.simulation.framework.Trace;
+import fi.metropolia.simulation.model.RescueCampEventType;
+import fi.metropolia.simulation.model.RescueCampServicePoint;
+import fi.metropolia.simulation.model.Survivor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One survivor through a station: join the queue, start the service of the survivor at the head (sampling
+ * and scheduling its completion), complete it. The queue holds a fixed number of survivors throughout, so
+ * the statistics updates run with a realistic queue in place. Survivors come from a pool created up front.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ServicePointBenchmark {
+    private static final int POOL = 4096;
+
+    @Param({"0", "32"})
+    int queued;
+
+    private EventList eventList;
+    private RescueCampServicePoint station;
+    private Survivor[] survivors;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Trace.setTraceLevel(Trace.Level.ERR);
+        Clock.getInstance().reset();
+        eventList = new EventList();
+        station = new RescueCampServicePoint(new Uniform(3, 5, 42), eventList,
+                RescueCampEventType.REGISTRATION_COMPLETE, "Registration");
+        RandomGenerator random = new RandomGenerator(7);
+        survivors = new Survivor[POOL];
+        for (int i = 0; i < POOL; i++) survivors[i] = new Survivor(i, random);
+        for (int i = 0; i < queued; i++) station.addSurvivorToQueue(nextSurvivor());
+    }
+
+    private Survivor nextSurvivor() {
+        Survivor survivor = survivors[next];
+        next = (next + 1) % POOL;
+        return survivor;
+    }
+
+    @Benchmark
+    public Survivor enqueueAndServe() {
+        station.addSurvivorToQueue(nextSurvivor());
+        station.beginServiceForSurvivor();
+        Clock.getInstance().setClock(eventList.remove().getTime());
+        return station.removeSurvivorFromQueue();
+    }
+}
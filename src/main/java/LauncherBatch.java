@@ -0,0 +1,81 @@
+import fi.metropolia.simulation.batch.Scenario;
+import fi.metropolia.simulation.batch.ScenarioRunner;
+import fi.metropolia.simulation.batch.ScenarioSummary;
+import fi.metropolia.simulation.framework.Trace;
+import fi.metropolia.simulation.statistics.RunningStatistics;
+import fi.metropolia.simulation.statistics.StudentT;
+import fi.metropolia.simulation.statistics.LogHistogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Headless batch launcher: runs every scenario file of a directory with many replications in parallel
+ * and writes a JSON summary per scenario.
+ * <p>
+ * Usage: {@code LauncherBatch <scenario-directory | scenario.properties> [threads]}
+ */
+public class LauncherBatch {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) usage();
+        int threads = args.length > 1 ? parseThreads(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        // No per-event tracing in batch mode
+        Trace.setTraceLevel(Trace.Level.ERR);
+
+        List<Scenario> scenarios = new ArrayList<>();
+        for (Path file : scenarioFiles(Paths.get(args[0]))) scenarios.add(Scenario.load(file));
+        if (scenarios.isEmpty()) {
+            System.err.println("No scenario files found in " + args[0]);
+            System.exit(1);
+        }
+
+        System.out.println("Running " + scenarios.size() + " scenario(s) on " + threads + " thread(s)");
+        long start = System.currentTimeMillis();
+        List<ScenarioSummary> summaries;
+        try (ScenarioRunner runner = new ScenarioRunner(threads)) {
+            summaries = runner.runAll(scenarios);
+        }
+        for (ScenarioSummary summary : summaries) {
+            Scenario scenario = summary.getScenario();
+            RunningStatistics timeInCamp = new RunningStatistics();
+            summary.getRuns().forEach(run -> timeInCamp.add(run.getMeanTimeInCamp()));
+            LogHistogram pooled = summary.getPooledTimeInCamp();
+            System.out.printf("%-24s %3d runs  time in camp %.2f +/- %.2f  p95 %.2f  -> %s%n",
+                    scenario.getName(), summary.getRuns().size(), timeInCamp.getMean(),
+                    StudentT.halfWidth(timeInCamp, 0.95), pooled.getPercentile(95), scenario.getSummaryPath());
+        }
+        System.out.println("Finished in " + (System.currentTimeMillis() - start) + " milliseconds");
+        if (summaries.size() < scenarios.size()) System.exit(1);
+    }
+
+    private static void usage() {
+        System.err.println("Usage: LauncherBatch <scenario-directory | scenario.properties> [threads]");
+        System.exit(2);
+    }
+
+    private static int parseThreads(String text) {
+        try {
+            int threads = Integer.parseInt(text.trim());
+            if (threads >= 1) return threads;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        System.err.println("threads must be a positive whole number: " + text);
+        usage();
+        return 0;   // not reached
+    }
+
+    private static List<Path> scenarioFiles(Path path) throws IOException {
+        if (!Files.isDirectory(path)) return List.of(path);
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".properties")).sorted().toList();
+        }
+    }
+}
@@ -2,20 +2,49 @@ import fi.metropolia.simulation.model.SimulationEngine; // FIXED: correct packag
 import fi.metropolia.simulation.csv.CsvExporter;
 import fi.metropolia.simulation.framework.Trace;
 import fi.metropolia.simulation.model.Survivor;
+import fi.metropolia.simulation.view.console.ThrottledConsoleView;
 
+import java.nio.file.Path;
 import java.util.List;
 
 /**
  * Main class to run the rescue camp simulation
+ * <p>
+ * Usage: {@code LauncherCLI [--progress [reportEvery]] [--profile]}, options in any order. With
+ * {@code --progress} the console shows a progress line per second and the report of every n-th settled
+ * survivor (default 100) through a buffered writer, instead of the full trace. With {@code --profile} the
+ * results end with the engine's self-profile (events per type, handler latency, B/C-phase time, events/s).
  */
 public class LauncherCLI {
 
     public static void main(String[] args) {
+        boolean progress = false;
+        boolean profile = false;
+        int reportEvery = 100;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--progress" -> {
+                    progress = true;
+                    if (i + 1 < args.length && !args[i + 1].startsWith("--")) reportEvery = parseReportEvery(args[++i]);
+                }
+                case "--profile" -> profile = true;
+                default -> {
+                    System.err.println("Unknown argument: " + args[i]);
+                    usage();
+                }
+            }
+        }
+
         // Configure trace level for monitoring simulation progress
-        Trace.setTraceLevel(Trace.Level.INFO);
+        Trace.setTraceLevel(progress ? Trace.Level.WAR : Trace.Level.INFO);
 
         // Create and configure rescue camp simulation engine
         SimulationEngine rescueCampSimulation = new SimulationEngine();
+        if (progress) {
+            rescueCampSimulation.setView(new ThrottledConsoleView(1000, reportEvery));
+        }
+
+        rescueCampSimulation.setProfiling(profile);
 
         // --- Set initial staffing ---
         rescueCampSimulation.setMedicalWorkers(5);
@@ -31,11 +60,17 @@ public class LauncherCLI {
         double simulationDurationMinutes = 480.0;
         rescueCampSimulation.setSimulationDuration(simulationDurationMinutes);
 
+        // Write the temporary home assignments of this run
+        rescueCampSimulation.setAssignmentCsvPath(Path.of("survivor_assignments.csv"));
+
+        // Sample station queues every 5 simulated minutes for plotting
+        rescueCampSimulation.setTimeSeriesInterval(5.0);
+
         System.out.println("=".repeat(60));
         System.out.println("RESCUE CAMP SIMULATION STARTING");
         System.out.println("=".repeat(60));
         System.out.println("Simulation duration: " + simulationDurationMinutes + " minutes (8 hours)");
-        System.out.println("Trace monitoring level: " + Trace.Level.INFO);
+        System.out.println("Trace monitoring level: " + (progress ? Trace.Level.WAR : Trace.Level.INFO));
         System.out.println("Simulating rescue camp operations...");
         System.out.println("-".repeat(60));
 
@@ -49,7 +84,28 @@ public class LauncherCLI {
         CsvExporter.writeSurvivorsToCsv("survivors.csv", survivors);
         System.out.println("Exported " + survivors.size() + " survivors to survivors.csv");
 
+        // Export station state over time
+        CsvExporter.writeTimeSeriesToCsv("station_timeseries.csv", rescueCampSimulation.getTimeSeries());
+        System.out.println("Exported " + rescueCampSimulation.getTimeSeries().size() + " station samples to station_timeseries.csv");
+
         System.out.println("\nRescue camp simulation completed successfully!");
         System.out.println("Real-time execution duration: " + (simulationEndTime - simulationStartTime) + " milliseconds");
     }
+
+    private static void usage() {
+        System.err.println("Usage: LauncherCLI [--progress [reportEvery]] [--profile]");
+        System.exit(2);
+    }
+
+    private static int parseReportEvery(String text) {
+        try {
+            int reportEvery = Integer.parseInt(text.trim());
+            if (reportEvery >= 0) return reportEvery;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        System.err.println("reportEvery must be a whole number, 0 for no survivor reports: " + text);
+        usage();
+        return 0;   // not reached
+    }
 }
@@ -0,0 +1,45 @@
+import fi.metropolia.simulation.csv.CsvExporter;
+import fi.metropolia.simulation.framework.Clock;
+import fi.metropolia.simulation.framework.Trace;
+import fi.metropolia.simulation.journal.JournalReplay;
+import fi.metropolia.simulation.view.console.RescueCampSimulationView;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Regenerates the report of an earlier run from its event journal, without simulating again.
+ * <p>
+ * Usage: {@code LauncherReplay <journal> [survivors.csv]}
+ */
+public class LauncherReplay {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: LauncherReplay <journal> [survivors.csv]");
+            System.exit(2);
+        }
+        Trace.setTraceLevel(Trace.Level.ERR);
+
+        long start = System.currentTimeMillis();
+        JournalReplay replay = JournalReplay.replay(Path.of(args[0]));
+        long end = System.currentTimeMillis();
+        Clock.getInstance().setClock(replay.getEndTime());   // time-weighted station figures run up to the end
+
+        new RescueCampSimulationView().displayFinalResults(
+                replay.getEndTime(),
+                replay.getTotalSurvivorArrivals(),
+                replay.getTotalSurvivorsProcessed(),
+                List.of(),   // per-survivor reports are left out; export them with the second argument
+                replay.getServicePoints(),
+                replay.getTimeInCampTally(),
+                replay.getSurvivorWaitingTimeTally());
+
+        if (args.length > 1) {
+            CsvExporter.writeSurvivorsToCsv(args[1], replay.getAllSurvivors());
+            System.out.println("Exported " + replay.getAllSurvivors().size() + " survivors to " + args[1]);
+        }
+        System.out.println("Replayed " + replay.getRecordCount() + " journal records in " + (end - start) + " milliseconds");
+    }
+}
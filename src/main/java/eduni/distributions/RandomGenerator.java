@@ -38,6 +38,28 @@ public class RandomGenerator implements ContinuousGenerator {
     public long nextLong() {
 	return seed = (a * seed) % m;
     }
+
+    /**
+     * @param steps Number of draws to skip
+     * @return The multiplier that advances the sequence by <code>steps</code> draws at
+     * once: <code>a<sup>steps</sup> mod m</code>, computed by repeated squaring
+     */
+    public long jumpMultiplier(long steps) {
+	long result = 1, power = a;
+	for (long n = steps; n > 0; n >>= 1) {
+	    if ((n & 1) != 0) result = (result * power) % m;
+	    power = (power * power) % m;
+	}
+	return result;
+    }
+
+    /**
+     * Skip ahead in the sequence
+     * @param multiplier A multiplier from <code>jumpMultiplier</code>
+     */
+    public void jump(long multiplier) {
+	seed = (multiplier * seed) % m;
+    }
     
     // ----- implements Seedable { -----
     public void setSeed(long seed) { this.seed = seed; }
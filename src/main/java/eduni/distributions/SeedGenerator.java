@@ -2,10 +2,12 @@ package eduni.distributions;
 
 /** A SeedGenerator is a DiscreteGenerator which produces well-spaced seeds
  *  according to its spacing attribute. It relies on a <code>RandomGenerator</code>
+ *  and jumps the whole spacing at once, so seeds can be spread over the full cycle.
  */
 public class SeedGenerator implements DiscreteGenerator {
     private static long root = 4851L; // The root seed
     private int spacing;
+    private long jump; // a^spacing mod m
     private boolean not_sampled = true; // to use the assigned seed (id Costas)
     private RandomGenerator source;
 
@@ -13,6 +15,7 @@ public class SeedGenerator implements DiscreteGenerator {
     public SeedGenerator (long seed, int spacing) { 
 	source = new RandomGenerator(seed);
 	this.spacing = spacing;
+	this.jump = source.jumpMultiplier(spacing);
     }
 
     // ----- implements Seedable { -----
@@ -24,8 +27,7 @@ public class SeedGenerator implements DiscreteGenerator {
     // ----- implements DiscreteGenerator { -----
     public long sample() {
 	if (not_sampled) not_sampled = false;
-	else
-	    for (int i=0; i<spacing; i++) source.nextLong();
+	else source.jump(jump);
 	return getSeed();
     }
 
@@ -1,47 +1,236 @@
-
-
-// This is sample code for a simple JavaFX GUI application.
-
 package fi.metropolia.simulation;
 
+import fi.metropolia.simulation.controller.MotionFeed;
+import fi.metropolia.simulation.controller.SnapshotPublisher;
+import fi.metropolia.simulation.framework.Pacer;
+import fi.metropolia.simulation.framework.Trace;
+import fi.metropolia.simulation.model.CampNetworkConfig;
+import fi.metropolia.simulation.model.RescueCampServicePoint;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.StationTimeSeries;
+import fi.metropolia.simulation.view.charts.QueueLengthChart;
+import fi.metropolia.simulation.view.gui.CampAnimationView;
+import fi.metropolia.simulation.view.gui.DashboardView;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * JavaFX launcher: runs the simulation on a background thread and shows a live dashboard and an
+ * animation of the survivors. The engine runs flat out or paced; the views sample its state once per frame.
+ * When a run ends its station time series is charted; series can be saved and opened again.
+ * Staffing and the arrival rate can be changed, and the run paused, stepped or stopped, while it runs.
+ */
 public class LauncherGUI extends Application {
+    private static final long SNAPSHOT_INTERVAL_MILLIS = 16;   // about one snapshot per 60 Hz frame
+    private static final int SERIES_SAMPLES = 1000;             // station time series samples per run
+    private static final String[] SPEEDS = {"Max", "1x", "10x", "60x", "600x"};
+    private static final String[] STATIONS = {
+            CampNetworkConfig.MEDICAL, CampNetworkConfig.REGISTRATION, CampNetworkConfig.COMMUNICATION,
+            CampNetworkConfig.SUPPLIES, CampNetworkConfig.ACCOMMODATION, CampNetworkConfig.CHILD_SHELTER,
+            CampNetworkConfig.ADULT_SHELTER};
+
+    private SimulationEngine engine;   // engine of the current run
+    private Pacer pacer;               // pacer of the current run
+    private SnapshotPublisher publisher;   // dashboard feed of the current run
+    private MotionFeed feed;               // animation feed of the current run
+    private boolean paused;
+
+    private final Button startButton = new Button("Start Simulation");
+    private final Button pauseButton = new Button("Pause");
+    private final Button stepButton = new Button("Step");
+    private final Button stopButton = new Button("Stop");
+    private final Button workersButton = new Button("Set workers");
+    private final Button arrivalButton = new Button("Set arrival mean");
+
+    /** @return Speed factor of a SPEEDS entry */
+    private static double speedOf(String choice) {
+        return choice.equals("Max") ? Double.POSITIVE_INFINITY
+                : Double.parseDouble(choice.substring(0, choice.length() - 1));
+    }
+
     @Override
     public void start(Stage primaryStage) {
-        primaryStage.setTitle("Simulation GUI");
+        primaryStage.setTitle("Rescue Camp Simulation");
+        Trace.setTraceLevel(Trace.Level.WAR);   // the dashboard replaces the event trace
 
-        // Create UI components
-        Label welcomeLabel = new Label("Welcome to Metropolia Simulator!");
-        Button startButton = new Button("Start Simulation");
+        TextField durationField = new TextField("43200");
+        durationField.setPrefColumnCount(8);
+        TextField seedField = new TextField("42");
+        seedField.setPrefColumnCount(6);
+        ChoiceBox<String> speedChoice = new ChoiceBox<>();
+        speedChoice.getItems().addAll(SPEEDS);
+        speedChoice.setValue(SPEEDS[0]);
+        speedChoice.setOnAction(e -> {
+            if (pacer != null) pacer.setSpeedFactor(speedOf(speedChoice.getValue()));
+        });
+        ChoiceBox<String> stationChoice = new ChoiceBox<>();
+        stationChoice.getItems().addAll(STATIONS);
+        stationChoice.setValue(STATIONS[0]);
+        TextField workersField = new TextField("2");
+        workersField.setPrefColumnCount(3);
+        TextField arrivalField = new TextField("60");
+        arrivalField.setPrefColumnCount(5);
         Button exitButton = new Button("Exit");
+        DashboardView dashboard = new DashboardView();
+        CampAnimationView animation = new CampAnimationView(940, 380);
+        Tab animationTab = new Tab("Animation", animation);
+        // Movements are only passed on while they are drawn; the engine never waits for the animation
+        animationTab.setOnSelectionChanged(e -> {
+            if (feed != null) feed.setEnabled(animationTab.isSelected());
+        });
+        QueueLengthChart queueChart = new QueueLengthChart();
+        FileChooser seriesChooser = new FileChooser();
+        seriesChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Station time series", "*.rqts"));
+        Button openSeriesButton = new Button("Open series...");
+        Button saveSeriesButton = new Button("Save series...");
+        saveSeriesButton.setDisable(true);
+        setRunning(false);
 
-        // Add button actions
         startButton.setOnAction(e -> {
-            System.out.println("Starting simulation...");
-            // Add your simulation logic here
+            double duration;
+            long seed;
+            try {
+                duration = Double.parseDouble(durationField.getText().trim());
+                seed = Long.parseLong(seedField.getText().trim());
+            } catch (NumberFormatException ex) {
+                dashboard.setStatus("Duration and seed must be numbers");
+                return;
+            }
+
+            engine = new SimulationEngine();
+            engine.setView(null);
+            engine.setStreamingStatistics(true);
+            engine.setSeed(seed);
+            engine.setSimulationDuration(duration);
+            engine.setTimeSeriesInterval(duration / SERIES_SAMPLES);
+            pacer = new Pacer(speedOf(speedChoice.getValue()));
+            pacer.setMaxIdleGap(1.0);   // quiet stretches pass within a second
+            engine.setPacer(pacer);
+            publisher = new SnapshotPublisher(SNAPSHOT_INTERVAL_MILLIS);
+            engine.addListener(publisher);
+            feed = new MotionFeed(16);
+            feed.setEnabled(animationTab.isSelected());
+            engine.addListener(feed);
+            List<String> stationNames = engine.getServicePoints().stream()
+                    .map(RescueCampServicePoint::getServicePointName).collect(Collectors.toList());
+            animation.watch(feed, pacer, stationNames);
+            SimulationEngine run = engine;
+            dashboard.watch(publisher, () -> {
+                setRunning(false);
+                // The final snapshot is published after the last sample, so the series is complete here
+                StationTimeSeries series = run.getTimeSeries();
+                if (series != null) {
+                    queueChart.show(series);
+                    saveSeriesButton.setDisable(false);
+                }
+            });
+            setRunning(true);
+
+            Thread simulation = new Thread(engine::startSimulation, "simulation");
+            simulation.setDaemon(true);
+            simulation.setUncaughtExceptionHandler((t, ex) -> Platform.runLater(() -> {
+                dashboard.setStatus("Simulation failed: " + ex);
+                setRunning(false);
+            }));
+            simulation.start();
+        });
+
+        pauseButton.setOnAction(e -> {
+            paused = !paused;
+            if (paused) {
+                engine.getControl().pause();
+                publisher.refresh();   // show the state the run stopped in
+            } else {
+                engine.getControl().resume();
+            }
+            pauseButton.setText(paused ? "Resume" : "Pause");
+            stepButton.setDisable(!paused);
+        });
+        stepButton.setOnAction(e -> engine.getControl().step());
+        stopButton.setOnAction(e -> engine.getControl().stop());
+        workersButton.setOnAction(e -> {
+            try {
+                engine.changeWorkers(stationChoice.getValue(), Integer.parseInt(workersField.getText().trim()));
+            } catch (NumberFormatException ex) {
+                dashboard.setStatus("Workers must be a whole number");
+            }
+        });
+        arrivalButton.setOnAction(e -> {
+            try {
+                double mean = Double.parseDouble(arrivalField.getText().trim());
+                if (!(mean > 0)) throw new NumberFormatException();
+                engine.changeArrivalMean(mean);
+            } catch (NumberFormatException ex) {
+                dashboard.setStatus("Arrival mean must be a number greater than 0");
+            }
+        });
+
+        openSeriesButton.setOnAction(e -> {
+            File file = seriesChooser.showOpenDialog(primaryStage);
+            if (file == null) return;
+            queueChart.load(file.toPath());
+            saveSeriesButton.setDisable(queueChart.getSeries() == null);
+        });
+        saveSeriesButton.setOnAction(e -> {
+            seriesChooser.setInitialFileName("station_timeseries.rqts");
+            File file = seriesChooser.showSaveDialog(primaryStage);
+            if (file != null) queueChart.save(file.toPath());
         });
 
         exitButton.setOnAction(e -> primaryStage.close());
+        primaryStage.setOnHidden(e -> animation.stop());
 
         // Layout
-        VBox root = new VBox(10);
-        root.setPadding(new Insets(20));
-        root.getChildren().addAll(welcomeLabel, startButton, exitButton);
+        HBox runControls = new HBox(10, new Label("Duration (min)"), durationField, new Label("Seed"), seedField,
+                new Label("Speed"), speedChoice, startButton, pauseButton, stepButton, stopButton, exitButton);
+        HBox liveControls = new HBox(10, new Label("Station"), stationChoice, workersField, workersButton,
+                new Label("Mean inter-arrival (min)"), arrivalField, arrivalButton);
+        VBox controls = new VBox(8, runControls, liveControls);
+        controls.setPadding(new Insets(12));
+        VBox queues = new VBox(8, new HBox(10, openSeriesButton, saveSeriesButton), queueChart);
+        queues.setPadding(new Insets(12, 12, 0, 12));
+        TabPane tabs = new TabPane(new Tab("Dashboard", dashboard), animationTab,
+                new Tab("Queues", queues));
+        tabs.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+        BorderPane root = new BorderPane(tabs);
+        root.setTop(controls);
 
         // Create scene and show
-        Scene scene = new Scene(root, 300, 200);
+        Scene scene = new Scene(root, 1040, 520);
         primaryStage.setScene(scene);
         primaryStage.show();
     }
 
+    /** Enable the controls that act on a running simulation, or the start button */
+    private void setRunning(boolean running) {
+        paused = false;
+        pauseButton.setText("Pause");
+        startButton.setDisable(running);
+        pauseButton.setDisable(!running);
+        stepButton.setDisable(true);
+        stopButton.setDisable(!running);
+        workersButton.setDisable(!running);
+        arrivalButton.setDisable(!running);
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
-}
\ No newline at end of file
+}
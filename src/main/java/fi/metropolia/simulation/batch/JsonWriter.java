@@ -0,0 +1,114 @@
+package fi.metropolia.simulation.batch;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Minimal streaming JSON writer for machine-readable run summaries. Handles commas and string escaping;
+ * the caller is responsible for balancing objects and arrays. Non-finite numbers are written as null.
+ */
+public class JsonWriter {
+    private final Writer out;
+    private boolean first = true;       // nothing written yet in the current object/array
+    private boolean afterName = false;  // a member name was just written; its value follows inline
+    private int depth = 0;
+
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    public JsonWriter beginObject() throws IOException { return open('{'); }
+    public JsonWriter endObject() throws IOException { return close('}'); }
+    public JsonWriter beginArray() throws IOException { return open('['); }
+    public JsonWriter endArray() throws IOException { return close(']'); }
+
+    /**
+     * Write an object member name; the next call writes its value
+     */
+    public JsonWriter name(String name) throws IOException {
+        separator();
+        string(name);
+        out.write(": ");
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        separator();
+        if (value == null) out.write("null");
+        else string(value);
+        first = false;
+        return this;
+    }
+
+    public JsonWriter value(double value) throws IOException {
+        separator();
+        out.write(Double.isFinite(value) ? Double.toString(value) : "null");
+        first = false;
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        separator();
+        out.write(Long.toString(value));
+        first = false;
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        separator();
+        out.write(Boolean.toString(value));
+        first = false;
+        return this;
+    }
+
+    private JsonWriter open(char bracket) throws IOException {
+        separator();
+        out.write(bracket);
+        depth++;
+        first = true;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        depth--;
+        if (!first) newline();
+        out.write(bracket);
+        first = false;
+        if (depth == 0) out.write('\n');
+        return this;
+    }
+
+    private void separator() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth == 0) return;
+        if (!first) out.write(',');
+        newline();
+    }
+
+    private void newline() throws IOException {
+        out.write('\n');
+        for (int i = 0; i < depth; i++) out.write("  ");
+    }
+
+    private void string(String s) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20) out.write(String.format("\\u%04x", (int) c));
+                    else out.write(c);
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,95 @@
+package fi.metropolia.simulation.batch;
+
+import fi.metropolia.simulation.model.RescueCampServicePoint;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.statistics.LogHistogram;
+import fi.metropolia.simulation.statistics.Tally;
+
+import java.util.List;
+
+/**
+ * Key figures of one finished replication, detached from the engine so the engine can be released.
+ * Per-station values are parallel arrays in station order.
+ */
+public class ReplicationResult {
+    final int replication;
+    final long seed;
+    final long startMillis;              // wall clock at the start and end of the replication
+    final long endMillis;
+    final long wallTimeMillis;
+    final double simulatedTime;
+    final int arrivals;
+    final int processed;
+    final double meanTimeInCamp;
+    final double meanWaitingTime;
+    final LogHistogram timeInCampHistogram;
+    final double warmupTruncationTime;   // NaN if not detected
+    final double statisticsStartTime;
+    final byte[] timeInCampSketch;       // serialized KllSketch, a few KB
+    final byte[] waitingTimeSketch;
+
+    final String[] stationNames;
+    final int[] served;
+    final double[] meanWait;
+    final double[] p95Wait;
+    final double[] meanService;
+    final double[] utilization;
+    final double[] averageInStation;
+    final double[] averageInQueue;
+
+    ReplicationResult(int replication, long seed, long startMillis, long endMillis, double simulatedTime,
+                      SimulationEngine engine) {
+        this.replication = replication;
+        this.seed = seed;
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+        this.wallTimeMillis = endMillis - startMillis;
+        this.simulatedTime = simulatedTime;
+        this.arrivals = engine.getTotalSurvivorArrivals();
+        this.processed = engine.getTotalSurvivorsProcessed();
+        this.meanTimeInCamp = engine.getTimeInCampTally().getMean();
+        this.meanWaitingTime = engine.getSurvivorWaitingTimeTally().getMean();
+        this.timeInCampHistogram = engine.getTimeInCampTally().getHistogram();
+        this.warmupTruncationTime = engine.getWarmupTruncationTime();
+        this.statisticsStartTime = engine.getStatisticsStartTime();
+        this.timeInCampSketch = engine.getTimeInCampSketch().toBytes();
+        this.waitingTimeSketch = engine.getWaitingTimeSketch().toBytes();
+
+        // Time-weighted figures are read on the replication's own thread, where its clock lives
+        List<RescueCampServicePoint> stations = engine.getServicePoints();
+        int n = stations.size();
+        stationNames = new String[n];
+        served = new int[n];
+        meanWait = new double[n];
+        p95Wait = new double[n];
+        meanService = new double[n];
+        utilization = new double[n];
+        averageInStation = new double[n];
+        averageInQueue = new double[n];
+        for (int i = 0; i < n; i++) {
+            RescueCampServicePoint sp = stations.get(i);
+            Tally wait = sp.getWaitingTimeTally();
+            stationNames[i] = sp.getServicePointName();
+            served[i] = sp.getTotalServed();
+            meanWait[i] = wait.getMean();
+            p95Wait[i] = wait.getPercentile(95);
+            meanService[i] = sp.getServiceTimeTally().getMean();
+            utilization[i] = sp.getUtilization();
+            averageInStation[i] = sp.getAverageNumberInStation();
+            averageInQueue[i] = sp.getAverageNumberInQueue();
+        }
+    }
+
+    public int getReplication() { return replication; }
+    public long getSeed() { return seed; }
+    public int getArrivals() { return arrivals; }
+    public int getProcessed() { return processed; }
+    public double getMeanTimeInCamp() { return meanTimeInCamp; }
+    public double getMeanWaitingTime() { return meanWaitingTime; }
+    public double getWarmupTruncationTime() { return warmupTruncationTime; }
+    public double getStatisticsStartTime() { return statisticsStartTime; }
+    /** @return Serialized quantile sketch of time in camp (KllSketch.fromBytes reads it) */
+    public byte[] getTimeInCampSketch() { return timeInCampSketch.clone(); }
+    /** @return Serialized quantile sketch of total waiting time */
+    public byte[] getWaitingTimeSketch() { return waitingTimeSketch.clone(); }
+}
@@ -0,0 +1,174 @@
+package fi.metropolia.simulation.batch;
+
+import fi.metropolia.simulation.model.CampNetworkConfig;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+/**
+ * One batch scenario: a camp configuration plus run settings, loaded from a properties file.
+ * <p>
+ * The camp part uses the {@link CampNetworkConfig} keys (without a {@code stations} key a scenario
+ * only overrides the default camp, e.g. {@code station.medical.workers = 3}). Run settings:
+ * <pre>
+ * run.name = baseline                # default: file name without extension
+ * run.horizon = 480                  # simulated minutes per replication
+ * run.seed = 12345                   # base seed; replication seeds are derived from it
+ * run.replications = 10
+ * run.sample_interval = 5            # optional station time series, simulated minutes
+ * run.warmup_detection = true        # optional, discard the warm-up detected by MSER-5
+ * output.summary = baseline.summary.json
+ * output.survivors = survivors-{replication}.csv.gz     # optional, per replication (.gz: compressed)
+ * output.timeseries = timeseries-{replication}.csv      # optional, needs run.sample_interval
+ * output.assignments = assignments-{replication}.csv    # optional, temporary home assignments
+ * output.results = results-{replication}.rqc            # optional, columnar binary results
+ * output.journal = journal-{replication}.rqj            # optional, event journal for replay
+ * </pre>
+ * Relative output paths are resolved against the scenario file's directory.
+ */
+public class Scenario {
+    public static final String REPLICATION_PLACEHOLDER = "{replication}";
+
+    private final String name;
+    private final CampNetworkConfig camp;
+    private final double horizon;
+    private final long seed;
+    private final int replications;
+    private final double sampleInterval;
+    private final boolean warmupDetection;
+    private final Path summaryPath;
+    private final String survivorsCsv;
+    private final String timeSeriesCsv;
+    private final String assignmentsCsv;
+    private final String resultsFile;
+    private final String journalFile;
+    private final Path baseDirectory;
+
+    private Scenario(String name, CampNetworkConfig camp, double horizon, long seed, int replications,
+                     double sampleInterval, boolean warmupDetection, Path summaryPath, String survivorsCsv, String timeSeriesCsv,
+                     String assignmentsCsv, String resultsFile, String journalFile,
+                     Path baseDirectory) {
+        this.name = name;
+        this.camp = camp;
+        this.horizon = horizon;
+        this.seed = seed;
+        this.replications = replications;
+        this.sampleInterval = sampleInterval;
+        this.warmupDetection = warmupDetection;
+        this.summaryPath = summaryPath;
+        this.survivorsCsv = survivorsCsv;
+        this.timeSeriesCsv = timeSeriesCsv;
+        this.assignmentsCsv = assignmentsCsv;
+        this.resultsFile = resultsFile;
+        this.journalFile = journalFile;
+        this.baseDirectory = baseDirectory;
+    }
+
+    /**
+     * @param file scenario properties file
+     * @return The scenario
+     * @throws IOException if the file cannot be read
+     */
+    public static Scenario load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        String fileName = file.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String defaultName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        Path base = file.toAbsolutePath().getParent();
+        return fromProperties(properties, defaultName, base);
+    }
+
+    /**
+     * @param properties  scenario settings
+     * @param defaultName name used if {@code run.name} is missing
+     * @param base        directory relative output paths are resolved against
+     * @return The scenario
+     */
+    public static Scenario fromProperties(Properties properties, String defaultName, Path base) {
+        String name = properties.getProperty("run.name", defaultName).trim();
+        double horizon = Double.parseDouble(properties.getProperty("run.horizon", "480").trim());
+        long seed = Long.parseLong(properties.getProperty("run.seed", "1").trim());
+        int replications = Integer.parseInt(properties.getProperty("run.replications", "1").trim());
+        double sampleInterval = Double.parseDouble(properties.getProperty("run.sample_interval", "0").trim());
+        boolean warmupDetection = Boolean.parseBoolean(properties.getProperty("run.warmup_detection", "false").trim());
+        if (horizon <= 0) throw new IllegalArgumentException(name + ": run.horizon must be greater than 0");
+        if (replications < 1) throw new IllegalArgumentException(name + ": run.replications must be at least 1");
+
+        Path summary = base.resolve(properties.getProperty("output.summary", name + ".summary.json").trim());
+        String survivors = trimOrNull(properties.getProperty("output.survivors"));
+        String timeSeries = trimOrNull(properties.getProperty("output.timeseries"));
+        String assignments = trimOrNull(properties.getProperty("output.assignments"));
+        String results = trimOrNull(properties.getProperty("output.results"));
+        String journal = trimOrNull(properties.getProperty("output.journal"));
+        if (timeSeries != null && sampleInterval <= 0) {
+            throw new IllegalArgumentException(name + ": output.timeseries needs run.sample_interval");
+        }
+        return new Scenario(name, CampNetworkConfig.fromProperties(properties), horizon, seed, replications,
+                sampleInterval, warmupDetection, summary, survivors, timeSeries, assignments, results, journal, base);
+    }
+
+    private static String trimOrNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * @return Base seeds of all replications. They are drawn from a generator seeded with run.seed,
+     * so replications do not start on neighbouring (correlated) seeds.
+     */
+    public long[] replicationSeeds() {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] seeds = new long[replications];
+        for (int i = 0; i < replications; i++) seeds[i] = random.nextLong();
+        return seeds;
+    }
+
+    /**
+     * @param pattern     output path, possibly containing {@link #REPLICATION_PLACEHOLDER}
+     * @param replication replication index
+     * @return The resolved output path for that replication
+     */
+    public Path replicationPath(String pattern, int replication) {
+        String path = pattern.contains(REPLICATION_PLACEHOLDER)
+                ? pattern.replace(REPLICATION_PLACEHOLDER, Integer.toString(replication))
+                : (replications > 1 ? insertSuffix(pattern, "-" + replication) : pattern);
+        return baseDirectory.resolve(path);
+    }
+
+    /** Insert the suffix before the file's extension; a ".gz" ending counts as part of it (s.csv.gz -> s-1.csv.gz) */
+    private static String insertSuffix(String path, String suffix) {
+        String compressed = path.endsWith(".gz") ? ".gz" : "";
+        String stem = path.substring(0, path.length() - compressed.length());
+        int dot = stem.lastIndexOf('.');
+        return dot > stem.lastIndexOf('/') + 1
+                ? stem.substring(0, dot) + suffix + stem.substring(dot) + compressed
+                : stem + suffix + compressed;
+    }
+
+    public String getName() { return name; }
+    public CampNetworkConfig getCamp() { return camp; }
+    public double getHorizon() { return horizon; }
+    public long getSeed() { return seed; }
+    public int getReplications() { return replications; }
+    public double getSampleInterval() { return sampleInterval; }
+    public boolean isWarmupDetection() { return warmupDetection; }
+    public Path getSummaryPath() { return summaryPath; }
+    /** @return Survivor CSV path pattern, or null if not requested */
+    public String getSurvivorsCsv() { return survivorsCsv; }
+    /** @return Time series CSV path pattern, or null if not requested */
+    public String getTimeSeriesCsv() { return timeSeriesCsv; }
+    /** @return Assignment CSV path pattern, or null if not requested */
+    public String getAssignmentsCsv() { return assignmentsCsv; }
+    /** @return Columnar results path pattern, or null if not requested */
+    public String getResultsFile() { return resultsFile; }
+    /** @return Event journal path pattern, or null if not requested */
+    public String getJournalFile() { return journalFile; }
+    public Path getBaseDirectory() { return baseDirectory; }
+}
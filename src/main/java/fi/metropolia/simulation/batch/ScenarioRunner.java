@@ -0,0 +1,137 @@
+package fi.metropolia.simulation.batch;
+
+import fi.metropolia.simulation.csv.CsvExporter;
+import fi.metropolia.simulation.framework.Clock;
+import fi.metropolia.simulation.jfr.ReplicationEvent;
+import fi.metropolia.simulation.model.SimulationEngine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the replications of many scenarios concurrently on a fixed thread pool, headless (no console view),
+ * and writes one JSON summary per scenario. Every replication owns its engine, random streams and
+ * (per-thread) clock, so replications share no mutable state.
+ */
+public class ScenarioRunner implements AutoCloseable {
+    private final ExecutorService executor;
+
+    /**
+     * @param threads number of replications to run at the same time
+     */
+    public ScenarioRunner(int threads) {
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "scenario-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Run every replication of every scenario and write the summaries. Replications of all scenarios are
+     * queued up front so the pool stays busy; a failing scenario is reported and skipped.
+     *
+     * @param scenarios scenarios to run
+     * @return Summaries of the scenarios that completed
+     */
+    public List<ScenarioSummary> runAll(List<Scenario> scenarios) {
+        List<List<Future<ReplicationResult>>> pending = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            List<Future<ReplicationResult>> futures = new ArrayList<>();
+            long[] seeds = scenario.replicationSeeds();
+            for (int r = 0; r < seeds.length; r++) {
+                final int replication = r;
+                futures.add(executor.submit(() -> runReplication(scenario, replication, seeds[replication])));
+            }
+            pending.add(futures);
+        }
+
+        List<ScenarioSummary> summaries = new ArrayList<>();
+        for (int i = 0; i < scenarios.size(); i++) {
+            Scenario scenario = scenarios.get(i);
+            try {
+                List<ReplicationResult> results = new ArrayList<>();
+                for (Future<ReplicationResult> future : pending.get(i)) results.add(future.get());
+                ScenarioSummary summary = new ScenarioSummary(scenario, results);
+                summary.writeJson(scenario.getSummaryPath());
+                summaries.add(summary);
+            } catch (ExecutionException e) {
+                System.err.println("Scenario " + scenario.getName() + " failed: " + e.getCause());
+            } catch (IOException e) {
+                System.err.println("Writing summary of " + scenario.getName() + " failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Run one replication on the calling thread
+     *
+     * @param scenario    scenario settings
+     * @param replication replication index
+     * @param seed        base seed of this replication
+     * @return The replication's key figures
+     * @throws IOException if a requested output file cannot be written
+     */
+    public static ReplicationResult runReplication(Scenario scenario, int replication, long seed) throws IOException {
+        long start = System.currentTimeMillis();
+        ReplicationEvent recording = new ReplicationEvent();
+        recording.begin();
+        SimulationEngine engine = new SimulationEngine(scenario.getCamp());
+        engine.setView(null);
+        engine.setStreamingStatistics(true);
+        engine.setSeed(seed);
+        engine.setSimulationDuration(scenario.getHorizon());
+        if (scenario.getSampleInterval() > 0) engine.setTimeSeriesInterval(scenario.getSampleInterval());
+        engine.setWarmupDetection(scenario.isWarmupDetection());
+        if (scenario.getSurvivorsCsv() != null) {
+            engine.setSurvivorCsvPath(createParent(scenario.replicationPath(scenario.getSurvivorsCsv(), replication)));
+        }
+        if (scenario.getResultsFile() != null) {
+            engine.setResultsPath(createParent(scenario.replicationPath(scenario.getResultsFile(), replication)));
+        }
+        if (scenario.getJournalFile() != null) {
+            engine.setJournalPath(createParent(scenario.replicationPath(scenario.getJournalFile(), replication)));
+        }
+        if (scenario.getAssignmentsCsv() != null) {
+            engine.setAssignmentCsvPath(createParent(scenario.replicationPath(scenario.getAssignmentsCsv(), replication)));
+        }
+        engine.startSimulation();
+
+        if (scenario.getTimeSeriesCsv() != null) {
+            Path path = createParent(scenario.replicationPath(scenario.getTimeSeriesCsv(), replication));
+            CsvExporter.writeTimeSeriesToCsv(path.toString(), engine.getTimeSeries());
+        }
+        if (recording.shouldCommit()) {
+            recording.scenario = scenario.getName();
+            recording.replication = replication;
+            recording.seed = seed;
+            recording.horizon = scenario.getHorizon();
+            recording.events = engine.getEventCount();
+            recording.arrivals = engine.getTotalSurvivorArrivals();
+            recording.commit();
+        }
+        return new ReplicationResult(replication, seed, start, System.currentTimeMillis(),
+                Clock.getInstance().getClock(), engine);
+    }
+
+    private static Path createParent(Path path) throws IOException {
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        return path;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
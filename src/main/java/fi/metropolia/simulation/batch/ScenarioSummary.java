@@ -0,0 +1,172 @@
+package fi.metropolia.simulation.batch;
+
+import fi.metropolia.simulation.statistics.KllSketch;
+import fi.metropolia.simulation.statistics.LogHistogram;
+import fi.metropolia.simulation.statistics.RunningStatistics;
+import fi.metropolia.simulation.statistics.StudentT;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Aggregate of all replications of one scenario: across-replication mean and 95% confidence interval of
+ * every key figure, pooled time-in-camp percentiles from the merged histograms, pooled quantiles of time in
+ * camp and waiting time from the merged sketches, and one line per run with its serialized sketches.
+ * Written as JSON for downstream tooling.
+ */
+public class ScenarioSummary {
+    private static final double CONFIDENCE = 0.95;
+
+    private final Scenario scenario;
+    private final List<ReplicationResult> runs;
+    private final long wallTimeMillis;   // first replication start to last replication end
+    private final LogHistogram pooledTimeInCamp = new LogHistogram();
+    private final KllSketch timeInCampSketch = new KllSketch();
+    private final KllSketch waitingTimeSketch = new KllSketch();
+
+    ScenarioSummary(Scenario scenario, List<ReplicationResult> runs) {
+        this.scenario = scenario;
+        this.runs = runs;
+        // Replications of other scenarios share the pool, so the scenario's wall time is measured over its
+        // own runs rather than from the start of the batch
+        long start = Long.MAX_VALUE, end = Long.MIN_VALUE;
+        // The replications have finished; each run's own sketch is merged here, on one thread
+        for (ReplicationResult run : runs) {
+            start = Math.min(start, run.startMillis);
+            end = Math.max(end, run.endMillis);
+            pooledTimeInCamp.add(run.timeInCampHistogram);
+            timeInCampSketch.merge(KllSketch.fromBytes(run.timeInCampSketch));
+            waitingTimeSketch.merge(KllSketch.fromBytes(run.waitingTimeSketch));
+        }
+        this.wallTimeMillis = runs.isEmpty() ? 0 : end - start;
+    }
+
+    public Scenario getScenario() { return scenario; }
+    public List<ReplicationResult> getRuns() { return runs; }
+    public LogHistogram getPooledTimeInCamp() { return pooledTimeInCamp; }
+    public KllSketch getTimeInCampSketch() { return timeInCampSketch; }
+    public KllSketch getWaitingTimeSketch() { return waitingTimeSketch; }
+    /** @return Wall-clock time from the start of the first replication to the end of the last */
+    public long getWallTimeMillis() { return wallTimeMillis; }
+
+    /** Figure of one replication */
+    private interface Figure {
+        double of(ReplicationResult run);
+    }
+
+    private RunningStatistics across(Figure figure) {
+        RunningStatistics stats = new RunningStatistics();
+        for (ReplicationResult run : runs) stats.add(figure.of(run));
+        return stats;
+    }
+
+    /**
+     * Write the summary as JSON
+     *
+     * @param path file to write
+     * @throws IOException if writing fails
+     */
+    public void writeJson(Path path) throws IOException {
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            JsonWriter json = new JsonWriter(writer);
+            json.beginObject();
+            json.name("scenario").value(scenario.getName());
+            json.name("replications").value(runs.size());
+            json.name("horizon").value(scenario.getHorizon());
+            json.name("seed").value(scenario.getSeed());
+            json.name("wallTimeMillis").value(wallTimeMillis);
+            json.name("warmupDetection").value(scenario.isWarmupDetection());
+
+            json.name("arrivals");
+            interval(json, across(r -> r.arrivals));
+            json.name("processed");
+            interval(json, across(r -> r.processed));
+            json.name("meanWaitingTime");
+            interval(json, across(r -> r.meanWaitingTime));
+            json.name("timeInCamp").beginObject();
+            json.name("mean");
+            interval(json, across(r -> r.meanTimeInCamp));
+            json.name("p50").value(pooledTimeInCamp.getPercentile(50));
+            json.name("p95").value(pooledTimeInCamp.getPercentile(95));
+            json.name("p99").value(pooledTimeInCamp.getPercentile(99));
+            json.name("max").value(pooledTimeInCamp.getMax());
+            json.endObject();
+            json.name("quantiles").beginObject();
+            json.name("timeInCamp");
+            quantiles(json, timeInCampSketch);
+            json.name("waitingTime");
+            quantiles(json, waitingTimeSketch);
+            json.endObject();
+
+            json.name("stations").beginArray();
+            String[] names = runs.get(0).stationNames;
+            for (int s = 0; s < names.length; s++) {
+                final int station = s;
+                json.beginObject();
+                json.name("name").value(names[s]);
+                json.name("served");
+                interval(json, across(r -> r.served[station]));
+                json.name("meanWait");
+                interval(json, across(r -> r.meanWait[station]));
+                json.name("p95Wait");
+                interval(json, across(r -> r.p95Wait[station]));
+                json.name("meanService");
+                interval(json, across(r -> r.meanService[station]));
+                json.name("utilization");
+                interval(json, across(r -> r.utilization[station]));
+                json.name("L");
+                interval(json, across(r -> r.averageInStation[station]));
+                json.name("Lq");
+                interval(json, across(r -> r.averageInQueue[station]));
+                json.endObject();
+            }
+            json.endArray();
+
+            json.name("runs").beginArray();
+            for (ReplicationResult run : runs) {
+                json.beginObject();
+                json.name("replication").value(run.replication);
+                json.name("seed").value(run.seed);
+                json.name("simulatedTime").value(run.simulatedTime);
+                json.name("arrivals").value(run.arrivals);
+                json.name("processed").value(run.processed);
+                json.name("meanTimeInCamp").value(run.meanTimeInCamp);
+                if (scenario.isWarmupDetection()) {
+                    json.name("warmupTruncationTime").value(run.warmupTruncationTime);   // null if not detected
+                    json.name("statisticsStartTime").value(run.statisticsStartTime);
+                }
+                json.name("wallTimeMillis").value(run.wallTimeMillis);
+                json.name("sketches").beginObject();
+                json.name("timeInCamp").value(Base64.getEncoder().encodeToString(run.timeInCampSketch));
+                json.name("waitingTime").value(Base64.getEncoder().encodeToString(run.waitingTimeSketch));
+                json.endObject();
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    private static void quantiles(JsonWriter json, KllSketch sketch) throws IOException {
+        json.beginObject();
+        json.name("count").value(sketch.getCount());
+        json.name("p50").value(sketch.getQuantile(0.50));
+        json.name("p95").value(sketch.getQuantile(0.95));
+        json.name("p99").value(sketch.getQuantile(0.99));
+        json.endObject();
+    }
+
+    private static void interval(JsonWriter json, RunningStatistics stats) throws IOException {
+        json.beginObject();
+        json.name("mean").value(stats.getMean());
+        json.name("sd").value(stats.getStandardDeviation());
+        json.name("ci95").value(StudentT.halfWidth(stats, CONFIDENCE));
+        json.endObject();
+    }
+}
@@ -0,0 +1,112 @@
+package fi.metropolia.simulation.controller;
+
+import fi.metropolia.simulation.model.SimulationListener;
+import fi.metropolia.simulation.model.Survivor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passes survivor movements from the simulation thread to one reader thread (an animation) through a
+ * single-producer, single-consumer ring of primitive arrays: no allocation and no locks per movement.
+ * A movement is (time, survivor id, target), where the target is a station index, {@link #ARRIVED} or
+ * {@link #EXITED}.
+ * <p>
+ * The simulation never waits for the reader: a movement that finds the ring full, or the feed disabled
+ * (e.g. while the animation is not on screen), is dropped and counted in {@link #getDropped()}. A reader
+ * that sees the count change has missed movements and should rebuild its picture from the ones that follow.
+ */
+public class MotionFeed implements SimulationListener {
+    /** Target of a survivor entering the camp */
+    public static final int ARRIVED = -1;
+    /** Target of a survivor leaving the camp */
+    public static final int EXITED = -2;
+
+    /** Receives drained movements */
+    public interface Sink {
+        void move(double time, int survivor, int target);
+    }
+
+    private final int mask;
+    private final double[] times;
+    private final int[] survivors;
+    private final int[] targets;
+    private final AtomicLong head = new AtomicLong();   // next slot to write (simulation thread)
+    private final AtomicLong tail = new AtomicLong();   // next slot to read (reader thread)
+    private long cachedTail = 0;                        // producer's last view of tail
+    private final AtomicLong dropped = new AtomicLong(); // written by the simulation thread only
+    private volatile boolean enabled = true;
+
+    /**
+     * @param capacityPowerOfTwo ring capacity as a power of two, e.g. 16 for 65536 movements
+     */
+    public MotionFeed(int capacityPowerOfTwo) {
+        int capacity = 1 << capacityPowerOfTwo;
+        mask = capacity - 1;
+        times = new double[capacity];
+        survivors = new int[capacity];
+        targets = new int[capacity];
+    }
+
+    @Override
+    public void survivorArrived(double time, Survivor survivor) {
+        push(time, survivor.getSurvivorId(), ARRIVED);
+    }
+
+    @Override
+    public void survivorQueued(double time, int station, Survivor survivor) {
+        push(time, survivor.getSurvivorId(), station);
+    }
+
+    @Override
+    public void survivorExited(double time, Survivor survivor) {
+        push(time, survivor.getSurvivorId(), EXITED);
+    }
+
+    private void push(double time, int survivor, int target) {
+        long h = head.get();
+        if (h - cachedTail > mask) cachedTail = tail.get();
+        if (!enabled || h - cachedTail > mask) {
+            dropped.lazySet(dropped.get() + 1);
+            return;
+        }
+        int i = (int) h & mask;
+        times[i] = time;
+        survivors[i] = survivor;
+        targets[i] = target;
+        head.lazySet(h + 1);   // publishes the slot written above
+    }
+
+    /**
+     * Pass every movement published so far to the sink, oldest first; call from the reader thread only
+     *
+     * @return Number of movements drained
+     */
+    public int drain(Sink sink) {
+        long t = tail.get();
+        long h = head.get();
+        for (long k = t; k < h; k++) {
+            int i = (int) k & mask;
+            sink.move(times[i], survivors[i], targets[i]);
+        }
+        tail.lazySet(h);
+        return (int) (h - t);
+    }
+
+    /**
+     * Pass movements on (the default), or drop them all, e.g. while nobody looks at the animation; may be
+     * called from any thread
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /** Drop all movements from now on, since nobody reads any more */
+    public void detach() {
+        enabled = false;
+    }
+
+    /** @return Movements dropped so far because the ring was full or the feed disabled */
+    public long getDropped() {
+        return dropped.get();
+    }
+}
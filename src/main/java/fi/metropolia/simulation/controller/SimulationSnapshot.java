@@ -0,0 +1,62 @@
+package fi.metropolia.simulation.controller;
+
+/**
+ * Immutable picture of a running simulation, taken on the simulation thread by {@link SnapshotPublisher}
+ * and safe to read from any other thread. Station values are indexed in configuration order.
+ */
+public final class SimulationSnapshot {
+    private final double time;
+    private final boolean finished;
+    private final int arrivals;
+    private final int settled;
+    private final double settledPerSecond;
+    private final double meanTimeInCamp;
+    private final double p95TimeInCamp;
+    private final double meanWaitingTime;
+    private final String[] stationNames;
+    private final int[] queueLengths;
+    private final double[] utilizations;
+    private final int[] served;
+    private final double[] p95Waits;
+
+    SimulationSnapshot(double time, boolean finished, int arrivals, int settled, double settledPerSecond,
+                       double meanTimeInCamp, double p95TimeInCamp, double meanWaitingTime,
+                       String[] stationNames, int[] queueLengths, double[] utilizations, int[] served,
+                       double[] p95Waits) {
+        this.time = time;
+        this.finished = finished;
+        this.arrivals = arrivals;
+        this.settled = settled;
+        this.settledPerSecond = settledPerSecond;
+        this.meanTimeInCamp = meanTimeInCamp;
+        this.p95TimeInCamp = p95TimeInCamp;
+        this.meanWaitingTime = meanWaitingTime;
+        this.stationNames = stationNames;
+        this.queueLengths = queueLengths;
+        this.utilizations = utilizations;
+        this.served = served;
+        this.p95Waits = p95Waits;
+    }
+
+    /** @return Simulated time of the snapshot (minutes) */
+    public double getTime() { return time; }
+    /** @return True for the last snapshot of a run */
+    public boolean isFinished() { return finished; }
+    public int getArrivals() { return arrivals; }
+    public int getSettled() { return settled; }
+    /** @return Survivors settled per wall-clock second since the previous snapshot */
+    public double getSettledPerSecond() { return settledPerSecond; }
+    public double getMeanTimeInCamp() { return meanTimeInCamp; }
+    public double getP95TimeInCamp() { return p95TimeInCamp; }
+    public double getMeanWaitingTime() { return meanWaitingTime; }
+
+    public int getStationCount() { return stationNames.length; }
+    public String getStationName(int station) { return stationNames[station]; }
+    /** @return Survivors at the station, waiting or in service */
+    public int getQueueLength(int station) { return queueLengths[station]; }
+    /** @return Fraction of time the station has been serving so far */
+    public double getUtilization(int station) { return utilizations[station]; }
+    public int getServed(int station) { return served[station]; }
+    /** @return 95th percentile waiting time at the station, NaN before the first service */
+    public double getP95Wait(int station) { return p95Waits[station]; }
+}
@@ -0,0 +1,137 @@
+package fi.metropolia.simulation.controller;
+
+import fi.metropolia.simulation.framework.Clock;
+import fi.metropolia.simulation.framework.ControlChannel;
+import fi.metropolia.simulation.framework.Pacer;
+import fi.metropolia.simulation.model.RescueCampServicePoint;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.SimulationListener;
+import fi.metropolia.simulation.model.Survivor;
+import fi.metropolia.simulation.statistics.Tally;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes {@link SimulationSnapshot}s of a run for another thread, typically a UI. Attached to the
+ * engine as a listener, it takes a snapshot on the simulation thread at most once per publish interval
+ * of wall-clock time and swaps it into an {@link AtomicReference}; readers call {@link #latest()} and
+ * never block the simulation, and the simulation never waits for readers. Snapshots nobody read are
+ * simply replaced.
+ * <p>
+ * A run paced at a finite speed is published after every A/B/C cycle that changed the camp: the pacer
+ * already limits how often that happens, and the screen then always shows the state the engine is waiting
+ * in. Single steps of a paused run are published the same way; {@link #refresh()} publishes the state a
+ * run was paused in.
+ */
+public class SnapshotPublisher implements SimulationListener {
+    private static final int CLOCK_CHECK_MASK = 63;   // read the wall clock every 64 callbacks
+
+    private final AtomicReference<SimulationSnapshot> latest = new AtomicReference<>();
+    private final long intervalNanos;
+
+    private RescueCampServicePoint[] stations = new RescueCampServicePoint[0];
+    private String[] stationNames = new String[0];
+    private SimulationEngine engine;
+    private Pacer pacer;
+    private volatile ControlChannel control;   // read by refresh() on other threads
+    private boolean changed = false;   // the camp changed since the last snapshot
+    private int callbacks = 0;
+    private long nextPublishNanos;
+    private long lastPublishNanos;
+    private int settledAtLastPublish = 0;
+
+    /**
+     * @param intervalMillis minimum wall-clock time between snapshots, e.g. 16 for one per 60 Hz frame
+     */
+    public SnapshotPublisher(long intervalMillis) {
+        this.intervalNanos = intervalMillis * 1_000_000L;
+    }
+
+    /** @return The most recent snapshot, or null before the first run started */
+    public SimulationSnapshot latest() { return latest.get(); }
+
+    /**
+     * Publish the current state as soon as the simulation thread is between events, also while the run is
+     * paused (e.g. right after pausing it); thread-safe
+     */
+    public void refresh() {
+        ControlChannel channel = control;
+        if (channel == null) return;
+        channel.submit(() -> {
+            if (engine != null) publish(Clock.getInstance().getClock(), false, System.nanoTime());
+        });
+    }
+
+    @Override
+    public void simulationStarted(double time, SimulationEngine engine) {
+        this.engine = engine;
+        this.pacer = engine.getPacer();
+        this.control = engine.getControl();
+        List<RescueCampServicePoint> points = engine.getServicePoints();
+        stations = points.toArray(new RescueCampServicePoint[0]);
+        stationNames = new String[stations.length];
+        for (int i = 0; i < stations.length; i++) stationNames[i] = stations[i].getServicePointName();
+        callbacks = 0;
+        settledAtLastPublish = 0;
+        lastPublishNanos = System.nanoTime();
+        nextPublishNanos = lastPublishNanos;
+        publish(time, false, lastPublishNanos);
+    }
+
+    @Override
+    public void survivorArrived(double time, Survivor survivor) {
+        changed = true;
+        check(time);
+    }
+
+    @Override
+    public void serviceCompleted(double time, int station, Survivor survivor, int eventOrdinal) {
+        changed = true;
+        check(time);
+    }
+
+    @Override
+    public void eventsProcessed(double time) {
+        if (!changed || pacer == null) return;
+        if (Double.isFinite(pacer.getSpeedFactor()) || control.isPaused()) publish(time, false, System.nanoTime());
+    }
+
+    @Override
+    public void simulationEnded(double time, SimulationEngine engine) {
+        publish(time, true, System.nanoTime());
+        this.engine = null;
+    }
+
+    private void check(double time) {
+        if ((++callbacks & CLOCK_CHECK_MASK) != 0) return;
+        long now = System.nanoTime();
+        if (now >= nextPublishNanos) publish(time, false, now);
+    }
+
+    private void publish(double time, boolean finished, long now) {
+        int n = stations.length;
+        int[] queueLengths = new int[n];
+        double[] utilizations = new double[n];
+        int[] served = new int[n];
+        double[] p95Waits = new double[n];
+        for (int i = 0; i < n; i++) {
+            RescueCampServicePoint sp = stations[i];
+            queueLengths[i] = sp.getCurrentQueueLength();
+            utilizations[i] = time > 0 ? sp.getUtilization() : 0;
+            served[i] = sp.getTotalServed();
+            p95Waits[i] = sp.getWaitingTimeTally().getP95();
+        }
+        Tally timeInCamp = engine.getTimeInCampTally();
+        int settled = engine.getTotalSurvivorsProcessed();
+        double seconds = Math.max(now - lastPublishNanos, 1) / 1e9;
+        latest.set(new SimulationSnapshot(time, finished, engine.getTotalSurvivorArrivals(), settled,
+                (settled - settledAtLastPublish) / seconds, timeInCamp.getMean(), timeInCamp.getP95(),
+                engine.getSurvivorWaitingTimeTally().getMean(), stationNames, queueLengths, utilizations, served,
+                p95Waits));
+        settledAtLastPublish = settled;
+        changed = false;
+        lastPublishNanos = now;
+        nextPublishNanos = now + intervalNanos;
+    }
+}
@@ -0,0 +1,171 @@
+package fi.metropolia.simulation.csv;
+
+import fi.metropolia.simulation.jfr.CsvFlushEvent;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.SimulationListener;
+import fi.metropolia.simulation.model.Survivor;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes the SC-6 / SC-7 temporary home assignments of one run to a CSV file.
+ * <p>
+ * The file is opened once. Rows are encoded into one of two reusable buffers; when a buffer fills up
+ * it is handed to a background thread that writes it to the file while the simulation keeps encoding
+ * into the other buffer. {@link #close()} writes the rest and closes the file. One sink belongs to
+ * one run and is only fed from that run's thread.
+ * <p>
+ * As a {@link SimulationListener} it writes each assignment as it happens and closes the file when the
+ * run ends.
+ */
+public class AssignmentCsvSink implements AutoCloseable, SimulationListener {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int FLUSH_THRESHOLD = BUFFER_SIZE - 512;   // leave room for the row being encoded
+
+    private static final byte[] HEADER = (Survivor.csvHeader() + "\n").getBytes(StandardCharsets.UTF_8);
+    private static final byte[][] AGE_CATEGORIES = CsvRowEncoder.enumNames(Survivor.AgeCategory.values());
+    private static final byte[][] HEALTH_CONDITIONS = CsvRowEncoder.enumNames(Survivor.HealthCondition.values());
+    private static final byte[] STAGE_CHILD = CsvRowEncoder.bytes("SC-6");
+    private static final byte[] STAGE_ADULT = CsvRowEncoder.bytes("SC-7");
+    private static final byte[][] CHILD_HOMES = new byte[Survivor.TempHomeChild.values().length][];
+    private static final byte[][] ADULT_HOMES = new byte[Survivor.TempHomeAdult.values().length][];
+
+    static {
+        for (Survivor.TempHomeChild home : Survivor.TempHomeChild.values()) {
+            CHILD_HOMES[home.ordinal()] = CsvRowEncoder.bytes(Survivor.homeName(home));
+        }
+        for (Survivor.TempHomeAdult home : Survivor.TempHomeAdult.values()) {
+            ADULT_HOMES[home.ordinal()] = CsvRowEncoder.bytes(Survivor.homeName(home));
+        }
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final BlockingQueue<CsvRowEncoder> filled = new ArrayBlockingQueue<>(2);
+    private final BlockingQueue<CsvRowEncoder> free = new ArrayBlockingQueue<>(2);
+    private final CsvRowEncoder endOfRows = new CsvRowEncoder(0);   // tells the writer thread to stop
+    private final Thread writer;
+    private volatile IOException writeError;
+    private CsvRowEncoder current;
+    private int rowCount = 0;
+    private boolean closed = false;
+
+    /**
+     * Create (or truncate) the file and write the header
+     *
+     * @param path CSV file of this run
+     * @throws IOException if the file cannot be opened
+     */
+    public AssignmentCsvSink(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        current = new CsvRowEncoder(BUFFER_SIZE);
+        free.add(new CsvRowEncoder(BUFFER_SIZE));
+        current.bytes(HEADER);
+        writer = new Thread(this::writeLoop, "assignment-csv-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Append the assignment row of a survivor whose temporary home has just been assigned
+     */
+    public void write(Survivor s) {
+        CsvRowEncoder row = current;
+        row.integer(s.getSurvivorId()).comma()
+                .bytes(AGE_CATEGORIES[s.getAgeCategory().ordinal()]).comma()
+                .integer(s.getSurvivorAge()).comma()
+                .bytes(HEALTH_CONDITIONS[s.getHealthCondition().ordinal()]).comma()
+                .bool(s.requiresMedicalTreatment()).comma()
+                .bool(s.requestsCommunicationService()).comma()
+                .bytes(s.getAgeCategory() == Survivor.AgeCategory.CHILD ? STAGE_CHILD : STAGE_ADULT).comma();
+        if (s.getAssignedChildHome() != null) row.bytes(CHILD_HOMES[s.getAssignedChildHome().ordinal()]);
+        else if (s.getAssignedAdultHome() != null) row.bytes(ADULT_HOMES[s.getAssignedAdultHome().ordinal()]);
+        row.comma()
+                .fixed(s.getAssignmentTime(), 4).comma()
+                .fixed(s.getCampArrivalTime(), 4).newline();
+        rowCount++;
+        if (row.length() >= FLUSH_THRESHOLD) handOff();
+    }
+
+    /** Pass the full buffer to the writer thread and continue in the free one */
+    private void handOff() {
+        try {
+            filled.put(current);
+            current = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing " + path, e);
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                CsvRowEncoder block = filled.take();
+                if (block == endOfRows) return;
+                CsvFlushEvent flush = new CsvFlushEvent();
+                flush.begin();
+                try {
+                    if (writeError == null) block.writeTo(channel);
+                } catch (IOException e) {
+                    writeError = e;   // keep draining so the simulation never blocks; reported at close()
+                }
+                if (flush.shouldCommit()) {
+                    flush.file = path.toString();
+                    flush.bytes = block.length();
+                    flush.commit();
+                }
+                block.clear();
+                free.put(block);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write all remaining rows, wait for the writer thread and close the file
+     *
+     * @throws IOException if any write failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (current.length() > 0) handOff();
+            filled.put(endOfRows);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+        if (writeError != null) throw writeError;
+    }
+
+    @Override
+    public void temporaryHomeAssigned(double time, int station, Survivor survivor) {
+        write(survivor);
+    }
+
+    @Override
+    public void simulationEnded(double time, SimulationEngine engine) {
+        try {
+            close();
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    public Path getPath() { return path; }
+    public int getRowCount() { return rowCount; }
+}
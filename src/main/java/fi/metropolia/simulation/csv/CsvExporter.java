@@ -2,33 +2,55 @@ package fi.metropolia.simulation.csv;
 
 
 
+import fi.metropolia.simulation.model.StationTimeSeries;
 import fi.metropolia.simulation.model.Survivor;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
+import java.nio.file.Path;
 
 public class CsvExporter {
-    public static void writeSurvivorsToCsv(String filePath, List<Survivor> survivors) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            // ⬇️ ADD "AssignedHome" to include SC-6/SC-7 result
-            writer.write("ID,Age,AgeCategory,HealthCondition,RequiresMedicalTreatment,RequestsCommunicationService,AssignedHome");
+    /**
+     * Write survivors (one row each) to a CSV file, gzip-compressed if the name ends with {@code .gz}
+     */
+    public static void writeSurvivorsToCsv(String filePath, Iterable<Survivor> survivors) {
+        writeSurvivorsToCsv(filePath, survivors, 1);
+    }
+
+    /**
+     * Write survivors with rows encoded on several threads; worthwhile for millions of survivors
+     */
+    public static void writeSurvivorsToCsv(String filePath, Iterable<Survivor> survivors, int encoderThreads) {
+        try (SurvivorCsvWriter writer = SurvivorCsvWriter.open(Path.of(filePath), encoderThreads)) {
+            writer.writeAll(survivors);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Write station time series samples in long format: one row per sample time and station.
+     */
+    public static void writeTimeSeriesToCsv(String filePath, StationTimeSeries series) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath), 1 << 16)) {
+            writer.write("Time,Station,QueueLength,BusyServers,Served");
             writer.newLine();
 
-            for (Survivor s : survivors) {
-                // ⬇️ write assigned home (empty if not yet assigned)
-                String assignedHome = s.getAssignedHomeName();
-                writer.write(
-                        s.getSurvivorId() + "," +
-                                s.getSurvivorAge() + "," +
-                                s.getAgeCategory() + "," +
-                                s.getHealthCondition() + "," +
-                                s.requiresMedicalTreatment() + "," +
-                                s.requestsCommunicationService() + "," +
-                                (assignedHome == null ? "" : assignedHome)
-                );
-                writer.newLine();
+            for (int i = 0; i < series.size(); i++) {
+                String time = Double.toString(series.getSampleTime(i));
+                for (int s = 0; s < series.getStationCount(); s++) {
+                    writer.write(time);
+                    writer.write(',');
+                    writer.write(series.getStationName(s));
+                    writer.write(',');
+                    writer.write(Integer.toString(series.getQueueLengths(s)[i]));
+                    writer.write(',');
+                    writer.write(Integer.toString(series.getBusyServers(s)[i]));
+                    writer.write(',');
+                    writer.write(Integer.toString(series.getServedCounts(s)[i]));
+                    writer.newLine();
+                }
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -0,0 +1,171 @@
+package fi.metropolia.simulation.csv;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer that CSV rows are encoded into directly, without intermediate strings.
+ * Numbers are formatted by hand (fixed-point for decimals) and constant values such as enum names
+ * are meant to be encoded once with {@link #bytes(String)} and appended as bytes.
+ * Reused across rows: {@link #clear()} keeps the allocated array.
+ */
+public class CsvRowEncoder {
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+    // Above this magnitude value * 10^decimals could overflow a long; such values use Double.toString
+    private static final double FIXED_POINT_LIMIT = 1e9;
+
+    private byte[] buffer;
+    private int length;
+
+    public CsvRowEncoder(int initialCapacity) {
+        this.buffer = new byte[Math.max(64, initialCapacity)];
+    }
+
+    /**
+     * @param s constant text
+     * @return Its UTF-8 bytes, escaped for CSV, for appending with {@link #bytes(byte[])}
+     */
+    public static byte[] bytes(String s) {
+        CsvRowEncoder encoder = new CsvRowEncoder(s.length() + 8);
+        encoder.text(s);
+        return Arrays.copyOf(encoder.buffer, encoder.length);
+    }
+
+    /**
+     * @param values enum constants, e.g. {@code AgeCategory.values()}
+     * @return Encoded names indexed by ordinal
+     */
+    public static byte[][] enumNames(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (Enum<?> value : values) names[value.ordinal()] = bytes(value.name());
+        return names;
+    }
+
+    public CsvRowEncoder bytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+        return this;
+    }
+
+    public CsvRowEncoder comma() {
+        ensureCapacity(1);
+        buffer[length++] = ',';
+        return this;
+    }
+
+    public CsvRowEncoder newline() {
+        ensureCapacity(1);
+        buffer[length++] = '\n';
+        return this;
+    }
+
+    /**
+     * Append text, quoted if it contains a comma, quote or line break
+     */
+    public CsvRowEncoder text(String s) {
+        if (s == null) return this;
+        boolean needsQuotes = false;
+        boolean ascii = true;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') needsQuotes = true;
+            else if (c >= 0x80) ascii = false;
+        }
+        if (!needsQuotes && ascii) {
+            ensureCapacity(s.length());
+            for (int i = 0; i < s.length(); i++) buffer[length++] = (byte) s.charAt(i);
+            return this;
+        }
+        String escaped = needsQuotes ? '"' + s.replace("\"", "\"\"") + '"' : s;
+        return bytes(escaped.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public CsvRowEncoder bool(boolean value) {
+        ensureCapacity(5);
+        if (value) {
+            buffer[length++] = 't'; buffer[length++] = 'r'; buffer[length++] = 'u'; buffer[length++] = 'e';
+        } else {
+            buffer[length++] = 'f'; buffer[length++] = 'a'; buffer[length++] = 'l'; buffer[length++] = 's';
+            buffer[length++] = 'e';
+        }
+        return this;
+    }
+
+    public CsvRowEncoder integer(long value) {
+        ensureCapacity(20);
+        if (value == Long.MIN_VALUE) return bytes(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) digits++;
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    /**
+     * Append a decimal with a fixed number of fraction digits, like {@code String.format("%.4f")} for
+     * decimals = 4 (rounding half away from zero on the binary value). NaN is written as an empty field.
+     *
+     * @param value    number to write
+     * @param decimals fraction digits, 0..9
+     */
+    public CsvRowEncoder fixed(double value, int decimals) {
+        if (Double.isNaN(value)) return this;
+        if (Double.isInfinite(value) || Math.abs(value) >= FIXED_POINT_LIMIT) {
+            return bytes(Double.toString(value).getBytes(StandardCharsets.US_ASCII));
+        }
+        long scale = POWERS_OF_TEN[decimals];
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            ensureCapacity(1);
+            buffer[length++] = '-';
+        }
+        integer(scaled / scale);
+        if (decimals == 0) return this;
+        ensureCapacity(decimals + 1);
+        buffer[length++] = '.';
+        long fraction = scaled % scale;
+        for (int i = length + decimals - 1; i >= length; i--) {
+            buffer[i] = (byte) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        length += decimals;
+        return this;
+    }
+
+    public int length() { return length; }
+
+    /** Forget the content, keeping the allocated array */
+    public void clear() { length = 0; }
+
+    /**
+     * Write the whole content to a channel (looping until everything is written)
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer view = ByteBuffer.wrap(buffer, 0, length);
+        while (view.hasRemaining()) channel.write(view);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
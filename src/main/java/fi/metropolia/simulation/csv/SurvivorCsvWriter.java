@@ -0,0 +1,239 @@
+package fi.metropolia.simulation.csv;
+
+import fi.metropolia.simulation.jfr.CsvFlushEvent;
+import fi.metropolia.simulation.model.RescueCampServicePoint;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.SimulationListener;
+import fi.metropolia.simulation.model.Survivor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming survivor CSV writer. Survivors are passed one at a time with {@link #write(Survivor)}, so
+ * the caller never needs the full list; rows are encoded straight into reusable byte buffers.
+ * <p>
+ * With more than one encoder thread, survivors are collected into chunks that are encoded in parallel
+ * and written in their original order. Files ending in {@code .gz} are gzip-compressed.
+ * Survivors must not change after they are passed in. I/O errors are reported by {@link #close()}.
+ * <p>
+ * As a {@link SimulationListener} it writes a row when a survivor leaves the camp and, when the run
+ * ends, rows for the survivors still in the camp before closing the file.
+ */
+public class SurvivorCsvWriter implements AutoCloseable, SimulationListener {
+    public static final String HEADER =
+            "ID,Age,AgeCategory,HealthCondition,RequiresMedicalTreatment,RequestsCommunicationService,AssignedHome";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int CHUNK_SIZE = 4096;           // survivors per parallel encoding task
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
+    private static final byte[][] AGE_CATEGORIES = CsvRowEncoder.enumNames(Survivor.AgeCategory.values());
+    private static final byte[][] HEALTH_CONDITIONS = CsvRowEncoder.enumNames(Survivor.HealthCondition.values());
+    private static final byte[][] CHILD_HOMES = new byte[Survivor.TempHomeChild.values().length][];
+    private static final byte[][] ADULT_HOMES = new byte[Survivor.TempHomeAdult.values().length][];
+
+    static {
+        for (Survivor.TempHomeChild home : Survivor.TempHomeChild.values()) {
+            CHILD_HOMES[home.ordinal()] = CsvRowEncoder.bytes(Survivor.homeName(home));
+        }
+        for (Survivor.TempHomeAdult home : Survivor.TempHomeAdult.values()) {
+            ADULT_HOMES[home.ordinal()] = CsvRowEncoder.bytes(Survivor.homeName(home));
+        }
+    }
+
+    private final OutputStream out;
+    private final String file;   // for flight recorder events, null if not known
+    private IOException writeError;
+    private int rowCount = 0;
+    private boolean closed = false;
+
+    // Sequential mode
+    private final CsvRowEncoder encoder;
+
+    // Parallel mode (executor is null in sequential mode)
+    private final ExecutorService executor;
+    private final int maxChunksInFlight;
+    private final ArrayDeque<Future<CsvRowEncoder>> inFlight = new ArrayDeque<>();
+    private final ConcurrentLinkedQueue<CsvRowEncoder> freeEncoders = new ConcurrentLinkedQueue<>();
+    private Survivor[] chunk;
+    private int chunkLength = 0;
+
+    /**
+     * Open a survivor CSV file (gzip-compressed if the name ends with {@code .gz}) and write the header
+     *
+     * @param path           file to create or replace
+     * @param encoderThreads threads encoding rows in parallel, 1 to encode on the calling thread
+     * @return The writer
+     * @throws IOException if the file cannot be opened
+     */
+    public static SurvivorCsvWriter open(Path path, int encoderThreads) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        if (path.getFileName().toString().endsWith(".gz")) out = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        return new SurvivorCsvWriter(out, encoderThreads, path.toString());
+    }
+
+    /**
+     * @param out            destination, closed by {@link #close()}
+     * @param encoderThreads threads encoding rows in parallel, 1 to encode on the calling thread
+     */
+    public SurvivorCsvWriter(OutputStream out, int encoderThreads) {
+        this(out, encoderThreads, null);
+    }
+
+    private SurvivorCsvWriter(OutputStream out, int encoderThreads, String file) {
+        this.out = out;
+        this.file = file;
+        this.encoder = new CsvRowEncoder(BUFFER_SIZE);
+        if (encoderThreads > 1) {
+            executor = Executors.newFixedThreadPool(encoderThreads, runnable -> {
+                Thread thread = new Thread(runnable, "survivor-csv-encoder");
+                thread.setDaemon(true);
+                return thread;
+            });
+            maxChunksInFlight = encoderThreads * 2;
+            chunk = new Survivor[CHUNK_SIZE];
+        } else {
+            executor = null;
+            maxChunksInFlight = 0;
+        }
+        encoder.bytes(HEADER.getBytes(StandardCharsets.US_ASCII)).newline();
+        flushEncoder();
+    }
+
+    /**
+     * Append one survivor row
+     */
+    public void write(Survivor s) {
+        rowCount++;
+        if (executor == null) {
+            encodeRow(encoder, s);
+            if (encoder.length() >= BUFFER_SIZE) flushEncoder();
+            return;
+        }
+        chunk[chunkLength++] = s;
+        if (chunkLength == CHUNK_SIZE) submitChunk();
+    }
+
+    /**
+     * Append a row for every survivor
+     */
+    public void writeAll(Iterable<Survivor> survivors) {
+        for (Survivor s : survivors) write(s);
+    }
+
+    private static void encodeRow(CsvRowEncoder row, Survivor s) {
+        row.integer(s.getSurvivorId()).comma()
+                .integer(s.getSurvivorAge()).comma()
+                .bytes(AGE_CATEGORIES[s.getAgeCategory().ordinal()]).comma()
+                .bytes(HEALTH_CONDITIONS[s.getHealthCondition().ordinal()]).comma()
+                .bool(s.requiresMedicalTreatment()).comma()
+                .bool(s.requestsCommunicationService()).comma();
+        if (s.getAssignedChildHome() != null) row.bytes(CHILD_HOMES[s.getAssignedChildHome().ordinal()]);
+        else if (s.getAssignedAdultHome() != null) row.bytes(ADULT_HOMES[s.getAssignedAdultHome().ordinal()]);
+        row.newline();
+    }
+
+    private void flushEncoder() {
+        writeBlock(encoder);
+        encoder.clear();
+    }
+
+    private void writeBlock(CsvRowEncoder block) {
+        if (writeError != null) return;
+        CsvFlushEvent flush = new CsvFlushEvent();
+        flush.begin();
+        try {
+            block.writeTo(out);
+        } catch (IOException e) {
+            writeError = e;
+        }
+        if (flush.shouldCommit()) {
+            flush.file = file;
+            flush.bytes = block.length();
+            flush.commit();
+        }
+    }
+
+    /** Encode the collected chunk on the pool; write finished chunks in order to bound memory */
+    private void submitChunk() {
+        final Survivor[] survivors = chunk;
+        final int length = chunkLength;
+        chunk = new Survivor[CHUNK_SIZE];
+        chunkLength = 0;
+        inFlight.add(executor.submit(() -> {
+            CsvRowEncoder block = freeEncoders.poll();
+            if (block == null) block = new CsvRowEncoder(BUFFER_SIZE);
+            for (int i = 0; i < length; i++) encodeRow(block, survivors[i]);
+            return block;
+        }));
+        while (inFlight.size() > maxChunksInFlight) writeOldestChunk();
+    }
+
+    private void writeOldestChunk() {
+        try {
+            CsvRowEncoder block = inFlight.poll().get();
+            writeBlock(block);
+            block.clear();
+            freeEncoders.add(block);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing survivor CSV", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Encoding survivor CSV rows failed", e.getCause());
+        }
+    }
+
+    /**
+     * Write all remaining rows and close the destination
+     *
+     * @throws IOException if any write failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            flushEncoder();
+            if (executor != null) {
+                if (chunkLength > 0) submitChunk();
+                while (!inFlight.isEmpty()) writeOldestChunk();
+            }
+        } finally {
+            if (executor != null) executor.shutdownNow();
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (writeError == null) writeError = e;
+            }
+        }
+        if (writeError != null) throw writeError;
+    }
+
+    @Override
+    public void survivorExited(double time, Survivor survivor) {
+        write(survivor);
+    }
+
+    @Override
+    public void simulationEnded(double time, SimulationEngine engine) {
+        for (RescueCampServicePoint sp : engine.getServicePoints()) writeAll(sp.getSurvivorsInStation());
+        try {
+            close();
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    public int getRowCount() { return rowCount; }
+}
@@ -7,7 +7,7 @@ import eduni.distributions.ContinuousGenerator;
  * This is based on the current clock time and a random generator.
  */
 public class ArrivalProcess {
-    private final ContinuousGenerator generator;
+    private ContinuousGenerator generator;
     private final EventList eventList;
     private final IEventType type;
 
@@ -31,4 +31,27 @@ public class ArrivalProcess {
         Event t = new Event(type, Clock.getInstance().getClock() + generator.sample());
         eventList.add(t);
     }
+
+    /**
+     * Draw the following inter-arrival times from another generator; the arrival already on the event
+     * list is kept.
+     *
+     * @param g New generator for survivor inter-arrival times
+     */
+    public void setGenerator(ContinuousGenerator g) {
+        this.generator = g;
+    }
+
+    public ContinuousGenerator getGenerator() {
+        return generator;
+    }
+
+    /**
+     * Reset the inter-arrival time generator to a new seed.
+     *
+     * @param seed New seed for the generator
+     */
+    public void setSeed(long seed) {
+        generator.setSeed(seed);
+    }
 }
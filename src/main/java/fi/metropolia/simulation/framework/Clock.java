@@ -1,21 +1,19 @@
 package fi.metropolia.simulation.framework;
 
 /**
- * Singleton for holding global simulation time
+ * Per-thread singleton for holding simulation time. Each thread sees its own clock, so independent
+ * replications can run on separate threads without sharing (or contending on) the simulation time.
  */
 public class Clock {
     private double clock;
-    private static Clock instance;
+    private static final ThreadLocal<Clock> instance = ThreadLocal.withInitial(Clock::new);
 
     private Clock() {
         clock = 0;
     }
 
     public static Clock getInstance() {
-        if (instance == null) {
-            instance = new Clock();
-        }
-        return instance;
+        return instance.get();
     }
 
     public void setClock(double clock) {
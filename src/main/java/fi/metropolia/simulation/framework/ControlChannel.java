@@ -0,0 +1,122 @@
+package fi.metropolia.simulation.framework;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Commands for a running {@link Engine}, sent from any thread (GUI, API) and applied on the simulation
+ * thread at the start of an A-phase, so every change happens at one consistent simulated time between
+ * events. Commands wait in a lock-free queue; while nothing was sent the engine only reads one volatile flag
+ * per cycle.
+ * <p>
+ * Besides arbitrary actions ({@link #submit(Runnable)}, {@link #submitAt(double, Runnable)}) the channel
+ * pauses, single-steps, resumes and stops the engine. A paused engine parks its thread (and pauses its
+ * {@link Pacer}) until the next command.
+ */
+public class ControlChannel {
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private volatile boolean signalled = false;
+    private volatile Thread simulationThread;
+
+    // Owned by the simulation thread
+    private final PriorityQueue<TimedCommand> timed = new PriorityQueue<>();
+    private long timedSequence = 0;
+    private volatile boolean paused = false;
+    private boolean stopped = false;
+    private int steps = 0;
+
+    private static final class TimedCommand implements Comparable<TimedCommand> {
+        final double time;
+        final long sequence;
+        final Runnable action;
+
+        TimedCommand(double time, long sequence, Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(TimedCommand other) {
+            int byTime = Double.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Run an action on the simulation thread before the next event; thread-safe
+     */
+    public void submit(Runnable action) {
+        commands.add(action);
+        signalled = true;
+        Thread t = simulationThread;
+        if (t != null) LockSupport.unpark(t);
+    }
+
+    /**
+     * Run an action on the simulation thread once the simulation reaches the given time, i.e. before the
+     * first event after it; thread-safe
+     *
+     * @param simulatedTime when the action applies
+     */
+    public void submitAt(double simulatedTime, Runnable action) {
+        submit(() -> timed.add(new TimedCommand(simulatedTime, timedSequence++, action)));
+    }
+
+    /** Stop processing events until {@link #resume()} or {@link #step()} */
+    public void pause() { submit(() -> paused = true); }
+
+    /** Continue processing events */
+    public void resume() {
+        submit(() -> {
+            paused = false;
+            steps = 0;
+        });
+    }
+
+    /** While paused, process one A/B/C cycle and pause again */
+    public void step() { submit(() -> steps++); }
+
+    /** End the run; the engine reports its results as if the simulation time had been reached */
+    public void stop() { submit(() -> stopped = true); }
+
+    /** Forget a stop of the previous run; commands sent before this run are kept */
+    void begin() {
+        stopped = false;
+    }
+
+    /**
+     * Apply the commands due before the next event; called by the engine at the start of each A-phase
+     *
+     * @param nextEventTime time the clock is about to advance to
+     * @param pacer         pacer of the engine, paused while the engine is paused; may be null
+     * @return False if the run was stopped
+     */
+    boolean process(double nextEventTime, Pacer pacer) {
+        if (!signalled && !paused && (timed.isEmpty() || timed.peek().time > nextEventTime)) return true;
+        simulationThread = Thread.currentThread();
+        boolean pausedPacer = false;
+        while (true) {
+            signalled = false;
+            for (Runnable command; (command = commands.poll()) != null; ) command.run();
+            while (!timed.isEmpty() && timed.peek().time <= nextEventTime) timed.poll().action.run();
+            if (stopped || !paused) break;
+            if (steps > 0) {
+                steps--;
+                break;
+            }
+            if (pacer != null && !pausedPacer && !pacer.isPaused()) {
+                pacer.pause();
+                pausedPacer = true;
+            }
+            if (!signalled) LockSupport.park(this);
+            if (Thread.currentThread().isInterrupted()) stopped = true;
+        }
+        if (pausedPacer) pacer.resume();
+        return !stopped;
+    }
+
+    /** @return True while the engine is paused (as seen by the simulation thread) */
+    public boolean isPaused() { return paused; }
+}
@@ -1,5 +1,7 @@
 package fi.metropolia.simulation.framework;
 
+import fi.metropolia.simulation.jfr.EventBatchEvent;
+
 /**
  * Engine implements a three-phase simulator. See <a href="https://www.jstor.org/stable/2584330">Three-Phase Simulator</a>
  * <p>
@@ -10,6 +12,23 @@ public abstract class Engine {
     private double simulationTime = 0;    // time when the simulation will be stopped
     private Clock clock;                  // to simplify the code (clock.getClock() instead of Clock.getInstance().getClock())
     protected EventList eventList;        // events to be processed are stored here
+    private Pacer pacer;                  // null: run as fast as possible
+    private final ControlChannel control = new ControlChannel();   // commands from other threads
+
+    // Incremental execution state
+    private boolean started = false;
+    private boolean finished = false;
+    private double time = 0;              // simulation time between slices
+    private long eventCount = 0;          // B-events processed so far
+
+    // Self-profiling (null: off)
+    private EngineProfile profile;
+    private long sliceStartNanos;
+
+    // Flight recorder: the open event batch, null while JFR does not record batches
+    private EventBatchEvent batch;
+    private long batchStartEvents;
+    private int batchCycles;
 
     /**
      * Service Points are created in fi.metropolia.simulation.model-package’s class inheriting the Engine class
@@ -28,24 +47,246 @@ public abstract class Engine {
         simulationTime = time;
     }
 
+    /**
+     * @return Ending time of the simulation
+     */
+    public double getSimulationTime() {
+        return simulationTime;
+    }
+
+    /**
+     * Run in scaled wall-clock time instead of as fast as possible
+     *
+     * @param pacer Pacer mapping simulated to wall-clock time, or null to run unpaced
+     */
+    public void setPacer(Pacer pacer) {
+        this.pacer = pacer;
+    }
+
+    public Pacer getPacer() {
+        return pacer;
+    }
+
+    /**
+     * @return Channel for changing, pausing, stepping or stopping the engine from other threads while it runs
+     */
+    public ControlChannel getControl() {
+        return control;
+    }
+
+    /**
+     * Turn self-profiling on or off. Call before the run or between slices; turning it on starts a new
+     * profile.
+     *
+     * @param enabled true to count and time events (see {@link EngineProfile})
+     */
+    public void setProfiling(boolean enabled) {
+        profile = enabled ? new EngineProfile() : null;
+    }
+
+    /** @return The profile of this run, or null if profiling is off */
+    public EngineProfile getProfile() {
+        return profile;
+    }
+
     /**
      * The starting point of the simulator. Returns when the simulation ends.
      */
     public void run() {
-        initialize(); // e.g., schedule the first survivor arrival
+        runUntil(Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Process one A/B/C cycle: advance the clock to the next event time, run all B-events due then and
+     * try the C-events. The first call initializes the run; when the run is over, {@link #results()} is
+     * called and false returned.
+     * <p>
+     * Slices ({@code step}, {@link #runUntil(double)}, {@link #runFor(long)}) may be called from any
+     * thread, one at a time; the calling thread's {@link Clock} is set to the engine's time for the slice.
+     *
+     * @return True if the run continues
+     */
+    public boolean step() {
+        if (!enter()) return false;
+        return leave(cycle());
+    }
+
+    /**
+     * Process every event up to and including the given simulated time, or until the run ends
+     *
+     * @param until simulated time to stop at
+     */
+    public void runUntil(double until) {
+        if (!enter()) return;
+        boolean more = true;
+        while (more && currentTime() <= until) more = cycle();
+        leave(more);
+    }
 
-        while (simulate()) {
-            Trace.out(Trace.Level.INFO, "\nA-phase: time is " + currentTime());
-            clock.setClock(currentTime());
+    /**
+     * Process at least the given number of B-events (completing the A/B/C cycle of the last one), or
+     * until the run ends
+     *
+     * @param events number of events to process
+     */
+    public void runFor(long events) {
+        if (!enter()) return;
+        long target = eventCount + events;
+        boolean more = true;
+        while (more && eventCount < target) more = cycle();
+        leave(more);
+    }
+
+    /**
+     * End the run now, as if the simulation time had been reached, and report the results
+     */
+    public void finish() {
+        if (enter()) leave(false);
+    }
 
+    /** @return True once the first slice has initialized the run */
+    public boolean isStarted() {
+        return started;
+    }
+
+    /** @return True once the run has ended and its results have been reported */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /** @return Simulation time reached so far (time of the last processed event) */
+    public double getCurrentTime() {
+        return time;
+    }
+
+    /** @return Number of B-events processed so far */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Continue a run restored from a checkpoint: the event list already holds the pending events, and the
+     * first slice starts at the given time. Call before the first slice.
+     *
+     * @param time       simulation time of the checkpoint
+     * @param eventCount B-events processed before the checkpoint
+     */
+    protected void restoreProgress(double time, long eventCount) {
+        if (started) throw new IllegalStateException("Engine: cannot restore a run that has already started");
+        this.time = time;
+        this.eventCount = eventCount;
+    }
+
+    /** Start a slice on the calling thread; initializes the run on the first call */
+    private boolean enter() {
+        if (finished) return false;
+        clock = Clock.getInstance();    // the clock of the thread running this slice
+        clock.setClock(time);
+        if (profile != null) sliceStartNanos = System.nanoTime();
+        if (!started) {
+            started = true;
+            initialize(); // e.g., schedule the first survivor arrival
+            control.begin();
+            if (pacer != null) pacer.start(clock.getClock());
+        }
+        beginBatch();
+        return true;
+    }
+
+    /** End a slice; report the results if the run is over */
+    private boolean leave(boolean more) {
+        time = clock.getClock();
+        if (profile != null) profile.addWallTime(System.nanoTime() - sliceStartNanos);
+        endBatch();
+        if (!more) {
+            finished = true;
+            results();
+        }
+        return more;
+    }
+
+    /**
+     * One A/B/C cycle
+     *
+     * @return False if the run is over (simulation time reached or stopped)
+     */
+    private boolean cycle() {
+        if (!simulate() || !control.process(currentTime(), pacer)) return false;
+        if (pacer != null) pacer.awaitTime(Math.min(currentTime(), simulationTime));
+        Trace.out(Trace.Level.INFO, "\nA-phase: time is " + currentTime());
+        beforeClockAdvance(currentTime());
+        clock.setClock(currentTime());
+
+        if (profile != null) {
+            profiledPhases();
+        } else {
             Trace.out(Trace.Level.INFO, "\nB-phase:");
             runBEvents();
 
             Trace.out(Trace.Level.INFO, "\nC-phase:");
             tryCEvents();
         }
+        if (++batchCycles == EventBatchEvent.CYCLES) {
+            endBatch();
+            beginBatch();
+        }
+        return true;
+    }
+
+    /** Open an event batch, if the flight recorder records them */
+    private void beginBatch() {
+        batchCycles = 0;
+        EventBatchEvent event = new EventBatchEvent();
+        if (!event.isEnabled()) {
+            batch = null;
+            return;
+        }
+        event.begin();
+        event.simulationStartTime = clock.getClock();
+        batchStartEvents = eventCount;
+        batch = event;
+    }
 
-        results();
+    /** Commit the open event batch, then let the model record its samples */
+    private void endBatch() {
+        if (batch != null) {
+            batch.end();
+            if (batch.shouldCommit()) {
+                batch.simulationEndTime = clock.getClock();
+                batch.events = eventCount - batchStartEvents;
+                batch.totalEvents = eventCount;
+                batch.commit();
+            }
+            batch = null;
+        }
+        recordSamples();
+    }
+
+    /**
+     * The B- and C-phase of a cycle with profiling: every event is counted, and the handlers and phases
+     * the profile samples are timed
+     */
+    private void profiledPhases() {
+        EngineProfile p = profile;
+        boolean timedCycle = p.beginCycle(eventList.size());
+        Trace.out(Trace.Level.INFO, "\nB-phase:");
+        long bStart = timedCycle ? System.nanoTime() : 0;
+        while (eventList.getNextEventTime() == clock.getClock()) {
+            Event event = eventList.remove();
+            IEventType type = event.getType();
+            if (p.event(type)) {
+                long start = System.nanoTime();
+                runEvent(event);
+                p.latency(type, System.nanoTime() - start);
+            } else {
+                runEvent(event);
+            }
+            eventCount++;
+        }
+        long cStart = timedCycle ? System.nanoTime() : 0;
+        Trace.out(Trace.Level.INFO, "\nC-phase:");
+        tryCEvents();
+        if (timedCycle) p.phases(cStart - bStart, System.nanoTime() - cStart);
     }
 
     /**
@@ -54,6 +295,7 @@ public abstract class Engine {
     private void runBEvents() {
         while (eventList.getNextEventTime() == clock.getClock()) {
             runEvent(eventList.remove());
+            eventCount++;
         }
     }
 
@@ -71,6 +313,23 @@ public abstract class Engine {
         return clock.getClock() < simulationTime;
     }
 
+    /**
+     * Called in the A-phase just before the clock jumps to the next event time. The model state is
+     * constant between the current clock time and newTime, so anything sampled here can be computed lazily.
+     * Does nothing by default.
+     *
+     * @param newTime Time the clock is about to be set to
+     */
+    protected void beforeClockAdvance(double newTime) {
+    }
+
+    /**
+     * Called at the end of every event batch ({@link EventBatchEvent}) and slice, whether or not the flight
+     * recorder is running, for the model to record its own flight recorder samples. Does nothing by default.
+     */
+    protected void recordSamples() {
+    }
+
     /**
      * Execute event actions (e.g., removing a survivor from a queue)
      * Defined in fi.metropolia.simulation.model-package’s class inheriting Engine
@@ -93,8 +352,9 @@ public abstract class Engine {
 
     /**
      * Show/analyze measurement parameters collected during the simulation.
-     * Called at the end of the simulation.
+     * Called by the engine once at the end of the simulation; may also be called between slices for
+     * interim statistics ({@link #isFinished()} tells which).
      * Defined in fi.metropolia.simulation.model-package’s class inheriting Engine
      */
-    protected abstract void results();
+    public abstract void results();
 }
@@ -33,6 +33,24 @@ public class EventList {
         eventlist.add(t);
     }
 
+    /**
+     * @return The pending events in the list's internal order; adding them in this order to an empty
+     * list rebuilds the same list, including the order of events with equal times
+     */
+    public Event[] toArray() {
+        return eventlist.toArray(new Event[0]);
+    }
+
+    /** @return Number of pending events */
+    public int size() {
+        return eventlist.size();
+    }
+
+    /** Remove every pending event */
+    public void clear() {
+        eventlist.clear();
+    }
+
     /**
      * Check the time of the next event. This does not retrieve the event from the list.
      *
@@ -3,6 +3,13 @@ package fi.metropolia.simulation.framework;
 /**
  * Interface to make the simulator engine independent of the event type, i.e.,
  * it is possible to use different event enumerations without modifying the core of the simulator.
+ * <p>
+ * Every event type has a small, dense ordinal so that models can dispatch with an array lookup.
+ * Enumerations get this for free from {@link Enum#ordinal()}.
  */
 public interface IEventType {
+    /**
+     * @return Index of this event type, unique among the event types of one model
+     */
+    int ordinal();
 }
@@ -0,0 +1,182 @@
+package fi.metropolia.simulation.framework;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ties simulated time to wall-clock time. Simulated time is in minutes; at speed 1 one simulated minute
+ * takes one wall-clock minute, at speed 60 one second. An {@link Engine} with a pacer waits in the A-phase
+ * until the wall clock reaches the time of the next event.
+ * <p>
+ * Waits longer than a few milliseconds park the thread and the last stretch is spun, so events are
+ * released within microseconds of their due time. Long gaps between events can be capped in wall-clock
+ * time ({@link #setMaxIdleGap(double)}), and the speed, pause and resume can be changed from any thread
+ * while the simulation runs. When the engine falls behind, events run as fast as possible until it has
+ * caught up; the lag is available from {@link #getLagMillis()} and reported through {@link Trace}
+ * (WAR) at most once per second.
+ */
+public class Pacer {
+    private static final long SPIN_NANOS = 2_000_000;        // spin the last 2 ms instead of parking
+    private static final long LAG_TOLERANCE_NANOS = 5_000_000;
+    private static final long LAG_REPORT_INTERVAL_NANOS = 1_000_000_000;
+
+    // Mapping: wall time = wallAnchor + (simulated time - simAnchor) * nanosPerMinute
+    private double nanosPerMinute;
+    private double speed;
+    private long wallAnchor;
+    private double simAnchor;
+    private double released = 0;          // time of the last event released to the engine
+    private long maxIdleGapNanos = Long.MAX_VALUE;
+    private boolean paused = false;
+    private double pausedAt;
+
+    private volatile Thread waiter;
+    private volatile long lagNanos = 0;
+    private volatile long maxLagNanos = 0;
+    private long nextLagReport = 0;
+
+    /**
+     * @param speed simulated time per wall-clock time; 1 is real time, {@code Double.POSITIVE_INFINITY}
+     *              runs unpaced
+     */
+    public Pacer(double speed) {
+        setSpeedFactor(speed);
+        start(0);
+    }
+
+    /**
+     * Anchor simulated time to the current wall-clock time; called by the engine when a run starts
+     *
+     * @param simulatedTime clock time the run starts from
+     */
+    public synchronized void start(double simulatedTime) {
+        released = simulatedTime;
+        simAnchor = simulatedTime;
+        wallAnchor = System.nanoTime();
+        pausedAt = simulatedTime;
+        lagNanos = 0;
+        maxLagNanos = 0;
+    }
+
+    /**
+     * Block until the wall clock reaches the given simulated time (or at once if it already has)
+     *
+     * @param simulatedTime time of the next event
+     */
+    public void awaitTime(double simulatedTime) {
+        waiter = Thread.currentThread();
+        while (!Thread.currentThread().isInterrupted()) {
+            long remaining;
+            synchronized (this) {
+                if (paused) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    continue;
+                }
+                long now = System.nanoTime();
+                remaining = wallTime(simulatedTime) - now;
+                if (remaining > maxIdleGapNanos) {
+                    // Compress the idle stretch: the rest of the gap passes in maxIdleGap
+                    simAnchor = simulatedTime;
+                    wallAnchor = now + maxIdleGapNanos;
+                    remaining = maxIdleGapNanos;
+                }
+                if (remaining <= 0) {
+                    released = simulatedTime;
+                    recordLag(-remaining, simulatedTime, now);
+                    return;
+                }
+            }
+            if (remaining > SPIN_NANOS) LockSupport.parkNanos(this, remaining - SPIN_NANOS);
+            else Thread.onSpinWait();
+        }
+    }
+
+    private long wallTime(double simulatedTime) {
+        return wallAnchor + (long) ((simulatedTime - simAnchor) * nanosPerMinute);
+    }
+
+    private void recordLag(long lag, double simulatedTime, long now) {
+        lagNanos = lag;
+        if (lag > maxLagNanos) maxLagNanos = lag;
+        if (lag > LAG_TOLERANCE_NANOS && now >= nextLagReport) {
+            nextLagReport = now + LAG_REPORT_INTERVAL_NANOS;
+            Trace.out(Trace.Level.WAR, String.format("Pacer: %.1f ms behind the wall clock at time %.2f",
+                    lag / 1e6, simulatedTime));
+        }
+    }
+
+    /**
+     * @return Simulated time corresponding to the wall clock now: between the last released event and the
+     * next one while running, frozen while paused. Views use it to interpolate between events.
+     */
+    public synchronized double getPresentTime() {
+        if (paused) return pausedAt;
+        if (nanosPerMinute == 0) return released;
+        return Math.max(released, simAnchor + (System.nanoTime() - wallAnchor) / nanosPerMinute);
+    }
+
+    /** Re-anchor the mapping at the present so changes take effect from now on */
+    private void reanchor() {
+        double present = getPresentTime();
+        simAnchor = present;
+        wallAnchor = System.nanoTime();
+    }
+
+    /**
+     * Change the speed, also while running; simulated time does not jump
+     *
+     * @param speed simulated time per wall-clock time, greater than 0; infinity runs unpaced
+     */
+    public synchronized void setSpeedFactor(double speed) {
+        if (!(speed > 0)) throw new IllegalArgumentException("Pacer: speed must be greater than 0");
+        if (wallAnchor != 0) reanchor();
+        this.speed = speed;
+        this.nanosPerMinute = Double.isInfinite(speed) ? 0 : 60e9 / speed;
+        wake();
+    }
+
+    public synchronized double getSpeedFactor() { return speed; }
+
+    /**
+     * Limit the wall-clock time spent waiting for a single event, so quiet periods pass quickly
+     *
+     * @param seconds longest wait in wall-clock seconds, {@code Double.POSITIVE_INFINITY} for no limit
+     */
+    public synchronized void setMaxIdleGap(double seconds) {
+        this.maxIdleGapNanos = Double.isInfinite(seconds) ? Long.MAX_VALUE : (long) (seconds * 1e9);
+        wake();
+    }
+
+    /** Stop simulated time until {@link #resume()} */
+    public synchronized void pause() {
+        if (paused) return;
+        pausedAt = getPresentTime();
+        paused = true;
+    }
+
+    /** Continue from where the simulation was paused */
+    public synchronized void resume() {
+        if (!paused) return;
+        paused = false;
+        simAnchor = pausedAt;
+        wallAnchor = System.nanoTime();
+        notifyAll();
+        wake();
+    }
+
+    public synchronized boolean isPaused() { return paused; }
+
+    private void wake() {
+        Thread t = waiter;
+        if (t != null) LockSupport.unpark(t);
+    }
+
+    /** @return How far behind the wall clock the last event was released, in milliseconds */
+    public double getLagMillis() { return lagNanos / 1e6; }
+
+    /** @return Largest lag of the run, in milliseconds */
+    public double getMaxLagMillis() { return maxLagNanos / 1e6; }
+}
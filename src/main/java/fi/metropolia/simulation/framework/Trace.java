@@ -39,6 +39,14 @@ public class Trace {
         traceLevel = (lvl != null) ? lvl : Level.INFO;
     }
 
+    /**
+     * @param lvl severity level
+     * @return true if messages of that level are printed; check before building expensive messages
+     */
+    public static boolean isEnabled(Level lvl) {
+        return lvl.ordinal() >= traceLevel.ordinal();
+    }
+
     /**
      * Print the given diagnostic message to the console
      *
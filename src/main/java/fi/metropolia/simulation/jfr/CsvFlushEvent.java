@@ -0,0 +1,28 @@
+package fi.metropolia.simulation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One block of encoded CSV rows written to its file
+ */
+@Name("fi.metropolia.simulation.CsvFlush")
+@Label("CSV Flush")
+@Category({"Rescue Camp Simulation", "Output"})
+@Description("A buffer of CSV rows written to a file")
+@Enabled(false)
+@StackTrace(false)
+public class CsvFlushEvent extends Event {
+    @Label("File")
+    public String file;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,41 @@
+package fi.metropolia.simulation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A batch of A/B/C cycles run by the engine: wall-clock duration, the simulated time span it covered and
+ * the B-events it processed. The engine records one per {@value #CYCLES} cycles and one at the end of
+ * each slice; with a pacer the duration includes the pacing waits.
+ */
+@Name("fi.metropolia.simulation.EventBatch")
+@Label("Event Batch")
+@Category({"Rescue Camp Simulation", "Engine"})
+@Description("A/B/C cycles processed by the simulation engine")
+@Enabled(false)
+@StackTrace(false)
+public class EventBatchEvent extends Event {
+    /** Cycles per batch */
+    public static final int CYCLES = 1024;
+
+    @Label("Simulation Start Time")
+    @Description("Simulated time when the batch started, minutes")
+    public double simulationStartTime;
+
+    @Label("Simulation End Time")
+    @Description("Simulated time when the batch ended, minutes")
+    public double simulationEndTime;
+
+    @Label("Events")
+    @Description("B-events processed in the batch")
+    public long events;
+
+    @Label("Total Events")
+    @Description("B-events processed by the run up to the end of the batch")
+    public long totalEvents;
+}
@@ -0,0 +1,40 @@
+package fi.metropolia.simulation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One replication of a batch scenario, from engine creation until its outputs are written
+ */
+@Name("fi.metropolia.simulation.Replication")
+@Label("Replication")
+@Category({"Rescue Camp Simulation", "Batch"})
+@Description("A replication of a batch scenario")
+@Enabled(false)
+@StackTrace(false)
+public class ReplicationEvent extends Event {
+    @Label("Scenario")
+    public String scenario;
+
+    @Label("Replication")
+    public int replication;
+
+    @Label("Seed")
+    public long seed;
+
+    @Label("Horizon")
+    @Description("Simulated minutes")
+    public double horizon;
+
+    @Label("Events")
+    @Description("B-events processed")
+    public long events;
+
+    @Label("Arrivals")
+    public int arrivals;
+}
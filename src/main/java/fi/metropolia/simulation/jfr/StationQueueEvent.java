@@ -0,0 +1,39 @@
+package fi.metropolia.simulation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Queue sample of one station, taken by the engine at the end of every event batch (see
+ * {@link EventBatchEvent}), so the samples follow the engine's wall-clock progress.
+ */
+@Name("fi.metropolia.simulation.StationQueue")
+@Label("Station Queue")
+@Category({"Rescue Camp Simulation", "Stations"})
+@Description("Survivors at a service point")
+@Enabled(false)
+@StackTrace(false)
+public class StationQueueEvent extends Event {
+    @Label("Station")
+    public String station;
+
+    @Label("Simulation Time")
+    @Description("Simulated time of the sample, minutes")
+    public double simulationTime;
+
+    @Label("Queue Length")
+    @Description("Survivors waiting or in service")
+    public int queueLength;
+
+    @Label("In Service")
+    public boolean inService;
+
+    @Label("Served")
+    @Description("Survivors served so far")
+    public int served;
+}
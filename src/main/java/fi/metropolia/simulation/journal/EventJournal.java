@@ -0,0 +1,186 @@
+package fi.metropolia.simulation.journal;
+
+import fi.metropolia.simulation.model.RescueCampServicePoint;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.SimulationListener;
+import fi.metropolia.simulation.model.Survivor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Append-only binary log of everything that happened in one run, written to a memory-mapped file.
+ * <p>
+ * Each record is {@value #RECORD_SIZE} bytes (little-endian): double time, int kind, int station,
+ * int survivor, int aux, double value. The random draws of the run are recorded as outcomes (survivor
+ * attributes, service durations, assigned homes), so {@link JournalReplay} can rebuild all statistics
+ * without random numbers or an event list.
+ * <p>
+ * Header: int magic "RQEJ", int version, long record count (filled in at close), int station count,
+ * then per station its name (length-prefixed UTF-8), workers and completion event type ordinal.
+ * <p>
+ * The journal is a {@link SimulationListener}: attached to an engine it records the run and is closed
+ * when the run ends.
+ */
+public class EventJournal implements AutoCloseable, SimulationListener {
+    static final int MAGIC = 0x5251454A;   // "RQEJ"
+    static final int VERSION = 1;
+    static final int RECORD_SIZE = 32;
+    static final int COUNT_OFFSET = 8;
+    private static final long WINDOW_SIZE = RECORD_SIZE * (1L << 20);   // 32 MiB mapped at a time
+
+    // Record kinds
+    /** A survivor arrived; aux = age | injured << 8 | requests communication << 9 */
+    public static final int ARRIVAL = 0;
+    /** A survivor joined a station's queue */
+    public static final int QUEUE = 1;
+    /** Service started; value = service duration, aux = assigned home code (0 if none) */
+    public static final int SERVICE_START = 2;
+    /** Service completed; aux = ordinal of the completion event type */
+    public static final int SERVICE_END = 3;
+    /** A survivor left the camp */
+    public static final int EXIT = 4;
+    /** The run ended at the record's time */
+    public static final int END = 5;
+    /** The engine reset its statistics at the record's time; value = time the kept observations are from */
+    public static final int RESET = 6;
+
+    static final int INJURED_BIT = 1 << 8;
+    static final int COMMUNICATION_BIT = 1 << 9;
+
+    private final FileChannel channel;
+    private final long dataStart;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long recordCount = 0;
+    private boolean closed = false;
+
+    /**
+     * Create (or replace) a journal file
+     *
+     * @param path     file to write
+     * @param stations service points, indexed like the station field of the records
+     * @throws IOException if the file cannot be created
+     */
+    public EventJournal(Path path, List<RescueCampServicePoint> stations) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        int headerSize = 20;
+        byte[][] names = new byte[stations.size()][];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = stations.get(i).getServicePointName().getBytes(StandardCharsets.UTF_8);
+            headerSize += 12 + names[i].length;
+        }
+        // Records start at a multiple of the record size so they never straddle a mapping window
+        dataStart = (headerSize + RECORD_SIZE - 1) / RECORD_SIZE * RECORD_SIZE;
+        ByteBuffer header = ByteBuffer.allocate((int) dataStart).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(0).putInt(names.length);
+        for (int i = 0; i < names.length; i++) {
+            RescueCampServicePoint station = stations.get(i);
+            header.putInt(names[i].length).put(names[i]);
+            header.putInt(station.getWorkers()).putInt(station.getScheduledEventType().ordinal());
+        }
+        header.position(0);
+        while (header.hasRemaining()) channel.write(header);
+        mapWindow(dataStart);
+    }
+
+    private void mapWindow(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_WRITE, start, WINDOW_SIZE);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Append one record
+     */
+    public void record(double time, int kind, int station, int survivor, int aux, double value) {
+        if (!window.hasRemaining()) {
+            try {
+                mapWindow(windowStart + WINDOW_SIZE);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot extend event journal", e);
+            }
+        }
+        window.putDouble(time).putInt(kind).putInt(station).putInt(survivor).putInt(aux).putDouble(value);
+        recordCount++;
+    }
+
+    @Override
+    public void survivorArrived(double time, Survivor s) {
+        int aux = s.getSurvivorAge()
+                | (s.getHealthCondition() == Survivor.HealthCondition.INJURED ? INJURED_BIT : 0)
+                | (s.requestsCommunicationService() ? COMMUNICATION_BIT : 0);
+        record(time, ARRIVAL, -1, s.getSurvivorId(), aux, 0);
+    }
+
+    @Override
+    public void survivorQueued(double time, int station, Survivor s) {
+        record(time, QUEUE, station, s.getSurvivorId(), 0, 0);
+    }
+
+    @Override
+    public void serviceStarted(double time, int station, Survivor s, double duration) {
+        record(time, SERVICE_START, station, s.getSurvivorId(), s.getAssignedHomeCode(), duration);
+    }
+
+    @Override
+    public void serviceCompleted(double time, int station, Survivor s, int eventOrdinal) {
+        record(time, SERVICE_END, station, s.getSurvivorId(), eventOrdinal, 0);
+    }
+
+    @Override
+    public void survivorExited(double time, Survivor s) {
+        record(time, EXIT, -1, s.getSurvivorId(), 0, 0);
+    }
+
+    @Override
+    public void statisticsReset(double time, double since) {
+        record(time, RESET, -1, 0, 0, since);
+    }
+
+    /** Record the end of the run and close the file */
+    @Override
+    public void simulationEnded(double time, SimulationEngine engine) {
+        record(time, END, -1, 0, 0, 0);
+        try {
+            close();
+        } catch (IOException e) {
+            System.err.println("Journal write failed: " + e.getMessage());
+        }
+    }
+
+    public long getRecordCount() { return recordCount; }
+
+    /**
+     * Store the record count, cut the file to its content and close it
+     *
+     * @throws IOException if finishing the file fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            window.force();
+            window = null;
+            ByteBuffer count = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(recordCount);
+            count.flip();
+            channel.write(count, COUNT_OFFSET);
+            try {
+                channel.truncate(dataStart + recordCount * RECORD_SIZE);
+            } catch (IOException e) {
+                // Some platforms refuse while the mapping is alive; readers stop at the record count anyway
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
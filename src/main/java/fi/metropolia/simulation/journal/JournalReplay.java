@@ -0,0 +1,213 @@
+package fi.metropolia.simulation.journal;
+
+import fi.metropolia.simulation.framework.Clock;
+import fi.metropolia.simulation.model.RescueCampServicePoint;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.StationEventType;
+import fi.metropolia.simulation.model.Survivor;
+import fi.metropolia.simulation.statistics.ObservationBuffer;
+import fi.metropolia.simulation.statistics.Tally;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rebuilds the statistics of a finished run from its {@link EventJournal}: every service point's tallies
+ * and time-weighted figures, every survivor and the overall tallies, exactly as the run produced them.
+ * No random numbers are drawn and no events are scheduled; the journal is read sequentially from a
+ * memory-mapped file, so new reports can be produced for old runs without simulating again.
+ * <p>
+ * Replay drives the calling thread's {@link Clock} and sets it back afterwards. The time-weighted station
+ * figures run up to the end of the replayed run: read them at {@link #getEndTime()}, e.g.
+ * {@code station.getUtilization(replay.getEndTime())}.
+ * <p>
+ * Until the warm-up reset the replay keeps the same bounded buffer of observations as the engine did, so a
+ * reset that counts the observations after the truncation point again is repeated exactly.
+ */
+public class JournalReplay {
+    private static final long MAX_WINDOW = EventJournal.RECORD_SIZE * (1L << 24);   // 512 MiB
+
+    private final List<RescueCampServicePoint> stations = new ArrayList<>();
+    private final List<Survivor> survivors = new ArrayList<>();                  // index = id - 1
+    private final List<Survivor> fullyProcessedSurvivors = new ArrayList<>();
+    private final Tally timeInCampTally = new Tally("Time in camp");
+    private final Tally survivorWaitingTimeTally = new Tally("Total waiting time");
+    private int totalSurvivorArrivals = 0;
+    private int totalSurvivorsProcessed = 0;
+    private double endTime = 0;
+    private double statisticsStartTime = 0;
+    private long recordCount;
+    private ObservationBuffer warmupBuffer = new ObservationBuffer(SimulationEngine.WARMUP_BUFFER_SIZE);
+
+    private JournalReplay() {
+    }
+
+    /**
+     * @param path journal written by {@link EventJournal}
+     * @return The rebuilt run
+     * @throws IOException if the file cannot be read, is not a journal or is inconsistent
+     */
+    public static JournalReplay replay(Path path) throws IOException {
+        JournalReplay replay = new JournalReplay();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long dataStart = replay.readHeader(channel, path);
+            Clock clock = Clock.getInstance();
+            double callerTime = clock.getClock();
+            clock.reset();
+            try {
+                replay.readRecords(channel, dataStart, path);
+            } finally {
+                clock.setClock(callerTime);
+            }
+        }
+        return replay;
+    }
+
+    private void readRecords(FileChannel channel, long dataStart, Path path) throws IOException {
+        Clock clock = Clock.getInstance();
+        for (long done = 0; done < recordCount; ) {
+            long records = Math.min(recordCount - done, MAX_WINDOW / EventJournal.RECORD_SIZE);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY,
+                    dataStart + done * EventJournal.RECORD_SIZE, records * EventJournal.RECORD_SIZE);
+            window.order(ByteOrder.LITTLE_ENDIAN);
+            for (long r = 0; r < records; r++) {
+                double time = window.getDouble();
+                int kind = window.getInt();
+                int station = window.getInt();
+                int survivor = window.getInt();
+                int aux = window.getInt();
+                double value = window.getDouble();
+                clock.setClock(time);
+                apply(kind, station, survivor, aux, value, time, path);
+            }
+            done += records;
+        }
+    }
+
+    private long readHeader(FileChannel channel, Path path) throws IOException {
+        ByteBuffer fixed = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+        while (fixed.hasRemaining() && channel.read(fixed) >= 0) { }
+        fixed.flip();
+        if (fixed.remaining() < 20 || fixed.getInt() != EventJournal.MAGIC) {
+            throw new IOException("Not an event journal: " + path);
+        }
+        if (fixed.getInt() != EventJournal.VERSION) throw new IOException("Unsupported journal version: " + path);
+        recordCount = fixed.getLong();
+        int stationCount = fixed.getInt();
+
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 20,
+                Math.min(channel.size() - 20, 1 << 20));
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < stationCount; i++) {
+            byte[] name = new byte[header.getInt()];
+            header.get(name);
+            int workers = header.getInt();
+            int eventOrdinal = header.getInt();
+            String stationName = new String(name, StandardCharsets.UTF_8);
+            RescueCampServicePoint station = new RescueCampServicePoint(
+                    null, null, new StationEventType(stationName, eventOrdinal), stationName);
+            station.setWorkers(workers);
+            stations.add(station);
+        }
+        long headerSize = 20 + header.position();
+        return (headerSize + EventJournal.RECORD_SIZE - 1) / EventJournal.RECORD_SIZE * EventJournal.RECORD_SIZE;
+    }
+
+    private void apply(int kind, int station, int id, int aux, double value, double time, Path path) throws IOException {
+        switch (kind) {
+            case EventJournal.ARRIVAL: {
+                Survivor.HealthCondition health = (aux & EventJournal.INJURED_BIT) != 0
+                        ? Survivor.HealthCondition.INJURED : Survivor.HealthCondition.HEALTHY;
+                Survivor survivor = Survivor.restore(id, time, aux & 0xFF, health,
+                        (aux & EventJournal.COMMUNICATION_BIT) != 0);
+                if (id != survivors.size() + 1) throw inconsistent(path, "unexpected survivor id " + id);
+                survivors.add(survivor);
+                totalSurvivorArrivals++;
+                break;
+            }
+            case EventJournal.QUEUE:
+                stations.get(station).addSurvivorToQueue(survivor(id, path));
+                break;
+            case EventJournal.SERVICE_START: {
+                RescueCampServicePoint sp = stations.get(station);
+                Survivor survivor = survivor(id, path);
+                List<Survivor> queue = sp.getSurvivorsInStation();
+                if (queue.isEmpty() || queue.get(0) != survivor) throw inconsistent(path, "service start out of order");
+                if (!survivor.hasAssignment()) survivor.restoreTemporaryHome(aux, time);
+                if (warmupBuffer != null) warmupBuffer.add(time, station, time - survivor.getQueueEntryTime());
+                sp.startService(value);
+                break;
+            }
+            case EventJournal.SERVICE_END:
+                if (stations.get(station).removeSurvivorFromQueue() != survivor(id, path)) {
+                    throw inconsistent(path, "service end out of order");
+                }
+                break;
+            case EventJournal.EXIT: {
+                Survivor survivor = survivor(id, path);
+                survivor.setProcessingCompletionTime(time);
+                totalSurvivorsProcessed++;
+                timeInCampTally.add(survivor.getTotalTimeInCamp());
+                survivorWaitingTimeTally.add(survivor.getTotalWaitingTime());
+                fullyProcessedSurvivors.add(survivor);
+                if (warmupBuffer != null) {
+                    warmupBuffer.add(time, SimulationEngine.TIME_IN_CAMP_SERIES, survivor.getTotalTimeInCamp());
+                    warmupBuffer.add(time, SimulationEngine.TOTAL_WAITING_SERIES, survivor.getTotalWaitingTime());
+                }
+                break;
+            }
+            case EventJournal.RESET:
+                for (RescueCampServicePoint sp : stations) sp.resetStatistics(time);
+                timeInCampTally.reset();
+                survivorWaitingTimeTally.reset();
+                if (value < time && warmupBuffer != null) {   // value: time the kept observations are from
+                    warmupBuffer.replayAfter(value, this::replayObservation);
+                    warmupBuffer = null;   // the engine stops buffering after the warm-up
+                }
+                statisticsStartTime = time;
+                break;
+            case EventJournal.END:
+                endTime = time;
+                break;
+            default:
+                throw inconsistent(path, "unknown record kind " + kind);
+        }
+    }
+
+    private void replayObservation(int series, double value) {
+        if (series == SimulationEngine.TIME_IN_CAMP_SERIES) timeInCampTally.add(value);
+        else if (series == SimulationEngine.TOTAL_WAITING_SERIES) survivorWaitingTimeTally.add(value);
+        else stations.get(series).addWaitingObservation(value);
+    }
+
+    private Survivor survivor(int id, Path path) throws IOException {
+        if (id < 1 || id > survivors.size()) throw inconsistent(path, "unknown survivor " + id);
+        return survivors.get(id - 1);
+    }
+
+    private static IOException inconsistent(Path path, String detail) {
+        return new IOException("Inconsistent event journal " + path + ": " + detail);
+    }
+
+    /** @return Service points in configuration order, with their statistics */
+    public List<RescueCampServicePoint> getServicePoints() { return Collections.unmodifiableList(stations); }
+    public List<Survivor> getAllSurvivors() { return Collections.unmodifiableList(survivors); }
+    public List<Survivor> getFullyProcessedSurvivors() { return Collections.unmodifiableList(fullyProcessedSurvivors); }
+    public Tally getTimeInCampTally() { return timeInCampTally; }
+    public Tally getSurvivorWaitingTimeTally() { return survivorWaitingTimeTally; }
+    public int getTotalSurvivorArrivals() { return totalSurvivorArrivals; }
+    public int getTotalSurvivorsProcessed() { return totalSurvivorsProcessed; }
+    public double getEndTime() { return endTime; }
+    /** @return Time of the last statistics reset in the run, 0 if there was none */
+    public double getStatisticsStartTime() { return statisticsStartTime; }
+    public long getRecordCount() { return recordCount; }
+}
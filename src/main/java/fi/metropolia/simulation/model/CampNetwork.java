@@ -0,0 +1,150 @@
+package fi.metropolia.simulation.model;
+
+import eduni.distributions.ContinuousGenerator;
+import eduni.distributions.SeedGenerator;
+import fi.metropolia.simulation.framework.EventList;
+import fi.metropolia.simulation.framework.IEventType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MODEL: A {@link CampNetworkConfig} compiled into array-indexed tables.
+ * <p>
+ * Stations are numbered in configuration order. Every station's completion event type has an ordinal, and
+ * {@link #stationIndexForEvent(int)} maps that ordinal back to the station with one array lookup. Next hops
+ * are precompiled {@link Router}s indexed by station.
+ */
+public final class CampNetwork {
+    /** Ordinal of the survivor arrival event, shared by every camp */
+    public static final int ARRIVAL_ORDINAL = RescueCampEventType.SURVIVOR_ARRIVAL.ordinal();
+
+    private final RescueCampServicePoint[] stations;
+    private final String[] keys;
+    private final Router[] routers;
+    private final Router arrivalRouter;
+    private final int[] stationIndexByOrdinal;      // event type ordinal -> station index, -1 if none
+    private final IEventType[] eventTypeByOrdinal;
+
+    private CampNetwork(RescueCampServicePoint[] stations, String[] keys, Router[] routers, Router arrivalRouter,
+                        int[] stationIndexByOrdinal, IEventType[] eventTypeByOrdinal) {
+        this.stations = stations;
+        this.keys = keys;
+        this.routers = routers;
+        this.arrivalRouter = arrivalRouter;
+        this.stationIndexByOrdinal = stationIndexByOrdinal;
+        this.eventTypeByOrdinal = eventTypeByOrdinal;
+    }
+
+    /**
+     * Create the service points and routing tables of a camp
+     *
+     * @param config        camp description
+     * @param eventList     event list the service points schedule their completions on
+     * @param seeds         seed sequence; one seed is taken per station, in configuration order
+     * @param routingRandom Uniform(0,1) stream for probabilistic routes
+     * @return The compiled network
+     */
+    public static CampNetwork compile(CampNetworkConfig config, EventList eventList, SeedGenerator seeds,
+                                      ContinuousGenerator routingRandom) {
+        List<CampNetworkConfig.StationConfig> specs = List.copyOf(config.getStations());
+        int n = specs.size();
+        if (n == 0) throw new IllegalArgumentException("A camp needs at least one station");
+
+        // Event type ordinals: built-in stations reuse their RescueCampEventType, others follow it
+        RescueCampEventType[] builtIn = RescueCampEventType.values();
+        IEventType[] stationTypes = new IEventType[n];
+        int nextOrdinal = builtIn.length;
+        for (int i = 0; i < n; i++) {
+            CampNetworkConfig.StationConfig spec = specs.get(i);
+            stationTypes[i] = spec.getEventType() != null
+                    ? RescueCampEventType.valueOf(spec.getEventType())
+                    : new StationEventType(spec.getKey().toUpperCase() + "_COMPLETE", nextOrdinal++);
+        }
+
+        IEventType[] eventTypeByOrdinal = Arrays.copyOf(builtIn, nextOrdinal, IEventType[].class);
+        int[] stationIndexByOrdinal = new int[nextOrdinal];
+        Arrays.fill(stationIndexByOrdinal, -1);
+
+        RescueCampServicePoint[] stations = new RescueCampServicePoint[n];
+        String[] keys = new String[n];
+        Map<String, Integer> indexByKey = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            CampNetworkConfig.StationConfig spec = specs.get(i);
+            int ordinal = stationTypes[i].ordinal();
+            if (ordinal == ARRIVAL_ORDINAL || stationIndexByOrdinal[ordinal] >= 0) {
+                throw new IllegalArgumentException("Event type " + stationTypes[i] + " used by more than one station");
+            }
+            stationIndexByOrdinal[ordinal] = i;
+            eventTypeByOrdinal[ordinal] = stationTypes[i];
+
+            RescueCampServicePoint sp = new RescueCampServicePoint(
+                    spec.getDistribution().create(seeds.sample()), eventList, stationTypes[i], spec.getName());
+            sp.setWorkers(spec.getWorkers());
+            sp.setFixedServiceTime(spec.getFixedServiceTime());
+            sp.setAssignsTemporaryHome(spec.assignsTemporaryHome());
+            sp.setIndex(i);
+            stations[i] = sp;
+            keys[i] = spec.getKey();
+            indexByKey.put(spec.getKey(), i);
+        }
+
+        Router[] routers = new Router[n];
+        for (int i = 0; i < n; i++) {
+            routers[i] = Router.compile(specs.get(i).getRoute(), indexByKey, routingRandom);
+        }
+        Router arrivalRouter = Router.compile(config.getArrivalRoute(), indexByKey, routingRandom);
+
+        return new CampNetwork(stations, keys, routers, arrivalRouter, stationIndexByOrdinal, eventTypeByOrdinal);
+    }
+
+    /**
+     * Reseed every station's service time generator, taking seeds in station order
+     *
+     * @param seeds seed sequence
+     */
+    public void reseed(SeedGenerator seeds) {
+        for (RescueCampServicePoint sp : stations) sp.setSeed(seeds.sample());
+    }
+
+    /**
+     * @param ordinal event type ordinal
+     * @return Index of the station completing with this event type, -1 if none
+     */
+    public int stationIndexForEvent(int ordinal) { return stationIndexByOrdinal[ordinal]; }
+
+    /**
+     * @param ordinal event type ordinal
+     * @return The event type with this ordinal (null for unused built-in ordinals)
+     */
+    public IEventType eventType(int ordinal) { return eventTypeByOrdinal[ordinal]; }
+
+    /** @return One past the largest event type ordinal */
+    public int getEventTypeCount() { return eventTypeByOrdinal.length; }
+
+    public int getStationCount() { return stations.length; }
+    public RescueCampServicePoint getStation(int index) { return stations[index]; }
+    public String getStationKey(int index) { return keys[index]; }
+    public Router getRouter(int index) { return routers[index]; }
+    public Router getArrivalRouter() { return arrivalRouter; }
+
+    /**
+     * @param key station key
+     * @return Index of the station with this key
+     * @throws IllegalArgumentException if there is no such station
+     */
+    public int indexOf(String key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) return i;
+        }
+        throw new IllegalArgumentException("Unknown station: " + key);
+    }
+
+    /** @return The stations in index order (shared array; do not modify) */
+    RescueCampServicePoint[] stations() { return stations; }
+
+    /** @return The stations in index order */
+    public List<RescueCampServicePoint> getStations() { return Arrays.asList(stations.clone()); }
+}
@@ -0,0 +1,251 @@
+package fi.metropolia.simulation.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * MODEL: Declarative description of the rescue camp: service points, their service time distributions
+ * and staffing, and the routing network between them. {@link CampNetwork} compiles it into dispatch tables.
+ * <p>
+ * A configuration can be built in code or loaded from a properties file:
+ * <pre>
+ * arrival.distribution = negexp(20)
+ * arrival.route = requires_medical -&gt; medical; registration
+ *
+ * stations = medical, registration, ...
+ * station.medical.name = Medical Treatment Station
+ * station.medical.distribution = uniform(10,15)
+ * station.medical.workers = 5
+ * station.medical.event = MEDICAL_TREATMENT_COMPLETE
+ * station.medical.route = registration
+ * station.child_shelter.service_time = 5
+ * station.child_shelter.assigns_home = true
+ * </pre>
+ * A route is a list of {@code condition -> target} entries separated by {@code ;}, tried in order; an entry
+ * without a condition always matches. A condition joins terms with {@code &}: a {@link SurvivorAttribute}
+ * name, a negated name ({@code !injured}) or a probability ({@code 0.4}) that the entry is taken when the
+ * other terms hold. The target is a station key or {@code exit}. Survivors matching no entry leave the camp.
+ * <p>
+ * If the {@code stations} key is missing, the file only overrides settings of the {@link #defaultCamp()}.
+ */
+public class CampNetworkConfig {
+    public static final String EXIT = "exit";
+
+    // Station keys of the default camp
+    public static final String MEDICAL = "medical";                 // SC-4
+    public static final String REGISTRATION = "registration";       // SC-1
+    public static final String COMMUNICATION = "communication";     // SC-2
+    public static final String SUPPLIES = "supplies";               // SC-3
+    public static final String ACCOMMODATION = "accommodation";     // SC-5
+    public static final String CHILD_SHELTER = "child_shelter";     // SC-6
+    public static final String ADULT_SHELTER = "adult_shelter";     // SC-7
+
+    private DistributionSpec arrivalDistribution = new DistributionSpec("negexp", 20.0);
+    private String arrivalRoute = EXIT;
+    private final Map<String, StationConfig> stations = new LinkedHashMap<>();
+
+    /**
+     * Settings of one service point
+     */
+    public static class StationConfig {
+        private final String key;
+        private String name;
+        private DistributionSpec distribution;
+        private int workers = 1;
+        private double fixedServiceTime = Double.NaN;
+        private boolean assignsTemporaryHome = false;
+        private String eventType;
+        private String route = EXIT;
+
+        StationConfig(String key, String name, DistributionSpec distribution) {
+            this.key = key;
+            this.name = name;
+            this.distribution = distribution;
+        }
+
+        public StationConfig setName(String name) { this.name = name; return this; }
+        public StationConfig setDistribution(DistributionSpec distribution) { this.distribution = distribution; return this; }
+        public StationConfig setWorkers(int workers) { this.workers = workers; return this; }
+        /** Replace sampled base service times with a constant (still divided by the number of workers) */
+        public StationConfig setFixedServiceTime(double minutes) { this.fixedServiceTime = minutes; return this; }
+        public StationConfig setAssignsTemporaryHome(boolean assigns) { this.assignsTemporaryHome = assigns; return this; }
+        /** Use a {@link RescueCampEventType} constant as this station's completion event */
+        public StationConfig setEventType(String eventType) { this.eventType = eventType; return this; }
+        public StationConfig setRoute(String route) { this.route = route; return this; }
+
+        public String getKey() { return key; }
+        public String getName() { return name; }
+        public DistributionSpec getDistribution() { return distribution; }
+        public int getWorkers() { return workers; }
+        public double getFixedServiceTime() { return fixedServiceTime; }
+        public boolean assignsTemporaryHome() { return assignsTemporaryHome; }
+        public String getEventType() { return eventType; }
+        public String getRoute() { return route; }
+    }
+
+    public CampNetworkConfig setArrivalDistribution(DistributionSpec distribution) {
+        this.arrivalDistribution = distribution;
+        return this;
+    }
+
+    public CampNetworkConfig setArrivalRoute(String route) {
+        this.arrivalRoute = route;
+        return this;
+    }
+
+    /**
+     * Add a service point; stations are compiled in the order they are added
+     *
+     * @param key          Identifier used in routes
+     * @param name         Display name
+     * @param distribution Base service time distribution
+     * @return The new station's settings, for further configuration
+     */
+    public StationConfig addStation(String key, String name, DistributionSpec distribution) {
+        if (EXIT.equals(key)) throw new IllegalArgumentException("'" + EXIT + "' is reserved");
+        if (stations.containsKey(key)) throw new IllegalArgumentException("Duplicate station: " + key);
+        StationConfig station = new StationConfig(key, name, distribution);
+        stations.put(key, station);
+        return station;
+    }
+
+    /**
+     * @param key Station key
+     * @return The station's settings
+     * @throws IllegalArgumentException if there is no such station
+     */
+    public StationConfig getStation(String key) {
+        StationConfig station = stations.get(key);
+        if (station == null) throw new IllegalArgumentException("Unknown station: " + key);
+        return station;
+    }
+
+    public boolean hasStation(String key) { return stations.containsKey(key); }
+    public Collection<StationConfig> getStations() { return Collections.unmodifiableCollection(stations.values()); }
+    public DistributionSpec getArrivalDistribution() { return arrivalDistribution; }
+    public String getArrivalRoute() { return arrivalRoute; }
+
+    /**
+     * @return The seven-station camp (SC-4 -> SC-1 -> SC-2/SC-3 -> SC-5 -> SC-6/SC-7) with default parameters
+     */
+    public static CampNetworkConfig defaultCamp() {
+        return defaultCamp(20.0, 3.0, 5.0, 3.0, 6.0, 4.0, 7.0, 10.0, 15.0, 6.0, 1.0, 5.0, 1.0, 5.0, 1.0);
+    }
+
+    /**
+     * @return The seven-station camp with the given distribution parameters
+     */
+    public static CampNetworkConfig defaultCamp(
+            double arrivalMean,
+            double regMin, double regMax,
+            double comMin, double comMax,
+            double supMin, double supMax,
+            double medMin, double medMax,
+            double accMean, double accSd,
+            double childMean, double childSd,
+            double adultMean, double adultSd
+    ) {
+        CampNetworkConfig config = new CampNetworkConfig()
+                .setArrivalDistribution(new DistributionSpec("negexp", arrivalMean))
+                // Route based on requirement-derived medical need (children always true; adults if injured)
+                .setArrivalRoute("requires_medical -> " + MEDICAL + "; " + REGISTRATION);
+
+        config.addStation(MEDICAL, "Medical Treatment Station", new DistributionSpec("uniform", medMin, medMax))
+                .setWorkers(5).setEventType("MEDICAL_TREATMENT_COMPLETE")
+                .setRoute(REGISTRATION);
+        // Only adults may visit the Communication Center (SC-2) if they request it; children go to Supplies (SC-3)
+        config.addStation(REGISTRATION, "Registration Desk", new DistributionSpec("uniform", regMin, regMax))
+                .setWorkers(2).setEventType("REGISTRATION_COMPLETE")
+                .setRoute("adult & requests_communication -> " + COMMUNICATION + "; " + SUPPLIES);
+        config.addStation(COMMUNICATION, "Communication Center", new DistributionSpec("uniform", comMin, comMax))
+                .setWorkers(2).setEventType("COMMUNICATION_SERVICE_COMPLETE")
+                .setRoute(SUPPLIES);
+        config.addStation(SUPPLIES, "Supplies Distribution Point", new DistributionSpec("uniform", supMin, supMax))
+                .setWorkers(2).setEventType("SUPPLIES_DISTRIBUTION_COMPLETE")
+                .setRoute(ACCOMMODATION);
+        config.addStation(ACCOMMODATION, "Accommodation Center", new DistributionSpec("normal", accMean, accSd))
+                .setWorkers(2).setEventType("ACCOMMODATION_CENTER_COMPLETE")
+                .setRoute("child -> " + CHILD_SHELTER + "; " + ADULT_SHELTER);
+        config.addStation(CHILD_SHELTER, "Child Shelter Assignment", new DistributionSpec("normal", childMean, childSd))
+                .setWorkers(2).setEventType("CHILD_SHELTER_ASSIGNMENT_COMPLETE")
+                .setFixedServiceTime(5).setAssignsTemporaryHome(true);
+        config.addStation(ADULT_SHELTER, "Adult Shelter Assignment", new DistributionSpec("normal", adultMean, adultSd))
+                .setWorkers(2).setEventType("ADULT_SHELTER_ASSIGNMENT_COMPLETE")
+                .setFixedServiceTime(5).setAssignsTemporaryHome(true);
+        return config;
+    }
+
+    /**
+     * Load a configuration from a properties file (see the class comment for the format)
+     *
+     * @param path file to read
+     * @return The configuration
+     * @throws IOException if the file cannot be read
+     */
+    public static CampNetworkConfig load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties);
+    }
+
+    /**
+     * Build a configuration from properties; keys outside the camp format are ignored
+     *
+     * @param properties camp settings
+     * @return The configuration
+     */
+    public static CampNetworkConfig fromProperties(Properties properties) {
+        CampNetworkConfig config;
+        String stationList = properties.getProperty("stations");
+        if (stationList == null) {
+            config = defaultCamp();
+        } else {
+            config = new CampNetworkConfig();
+            for (String key : splitList(stationList)) {
+                String distribution = properties.getProperty("station." + key + ".distribution");
+                if (distribution == null) {
+                    throw new IllegalArgumentException("Missing station." + key + ".distribution");
+                }
+                config.addStation(key, key, DistributionSpec.parse(distribution));
+            }
+        }
+
+        String arrival = properties.getProperty("arrival.distribution");
+        if (arrival != null) config.setArrivalDistribution(DistributionSpec.parse(arrival));
+        String arrivalRoute = properties.getProperty("arrival.route");
+        if (arrivalRoute != null) config.setArrivalRoute(arrivalRoute.trim());
+
+        for (StationConfig station : config.stations.values()) {
+            String prefix = "station." + station.key + ".";
+            String value;
+            if ((value = properties.getProperty(prefix + "name")) != null) station.setName(value.trim());
+            if ((value = properties.getProperty(prefix + "distribution")) != null) station.setDistribution(DistributionSpec.parse(value));
+            if ((value = properties.getProperty(prefix + "workers")) != null) station.setWorkers(Integer.parseInt(value.trim()));
+            if ((value = properties.getProperty(prefix + "service_time")) != null) station.setFixedServiceTime(Double.parseDouble(value.trim()));
+            if ((value = properties.getProperty(prefix + "assigns_home")) != null) station.setAssignsTemporaryHome(Boolean.parseBoolean(value.trim()));
+            if ((value = properties.getProperty(prefix + "event")) != null) station.setEventType(value.trim());
+            if ((value = properties.getProperty(prefix + "route")) != null) station.setRoute(value.trim());
+        }
+        return config;
+    }
+
+    static List<String> splitList(String list) {
+        List<String> items = new ArrayList<>();
+        for (String item : list.split(",")) {
+            if (!item.isBlank()) items.add(item.trim());
+        }
+        return items;
+    }
+}
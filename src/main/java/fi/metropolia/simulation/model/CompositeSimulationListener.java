@@ -0,0 +1,75 @@
+package fi.metropolia.simulation.model;
+
+import java.util.List;
+
+/**
+ * Forwards every callback to several listeners, in order. Use {@link #of(List)}, which avoids the
+ * composite altogether for zero or one listeners.
+ */
+public final class CompositeSimulationListener implements SimulationListener {
+    private final SimulationListener[] listeners;
+
+    private CompositeSimulationListener(SimulationListener[] listeners) {
+        this.listeners = listeners;
+    }
+
+    /**
+     * @param listeners listeners to notify, in order
+     * @return {@link SimulationListener#NONE} for no listeners, the listener itself for one, else a composite
+     */
+    public static SimulationListener of(List<SimulationListener> listeners) {
+        if (listeners.isEmpty()) return SimulationListener.NONE;
+        if (listeners.size() == 1) return listeners.get(0);
+        return new CompositeSimulationListener(listeners.toArray(new SimulationListener[0]));
+    }
+
+    @Override
+    public void simulationStarted(double time, SimulationEngine engine) {
+        for (SimulationListener l : listeners) l.simulationStarted(time, engine);
+    }
+
+    @Override
+    public void survivorArrived(double time, Survivor survivor) {
+        for (SimulationListener l : listeners) l.survivorArrived(time, survivor);
+    }
+
+    @Override
+    public void survivorQueued(double time, int station, Survivor survivor) {
+        for (SimulationListener l : listeners) l.survivorQueued(time, station, survivor);
+    }
+
+    @Override
+    public void serviceStarted(double time, int station, Survivor survivor, double duration) {
+        for (SimulationListener l : listeners) l.serviceStarted(time, station, survivor, duration);
+    }
+
+    @Override
+    public void temporaryHomeAssigned(double time, int station, Survivor survivor) {
+        for (SimulationListener l : listeners) l.temporaryHomeAssigned(time, station, survivor);
+    }
+
+    @Override
+    public void serviceCompleted(double time, int station, Survivor survivor, int eventOrdinal) {
+        for (SimulationListener l : listeners) l.serviceCompleted(time, station, survivor, eventOrdinal);
+    }
+
+    @Override
+    public void survivorExited(double time, Survivor survivor) {
+        for (SimulationListener l : listeners) l.survivorExited(time, survivor);
+    }
+
+    @Override
+    public void eventsProcessed(double time) {
+        for (SimulationListener l : listeners) l.eventsProcessed(time);
+    }
+
+    @Override
+    public void statisticsReset(double time, double since) {
+        for (SimulationListener l : listeners) l.statisticsReset(time, since);
+    }
+
+    @Override
+    public void simulationEnded(double time, SimulationEngine engine) {
+        for (SimulationListener l : listeners) l.simulationEnded(time, engine);
+    }
+}
@@ -0,0 +1,96 @@
+package fi.metropolia.simulation.model;
+
+import eduni.distributions.*;
+
+import java.util.Locale;
+
+/**
+ * MODEL: Textual description of a service or inter-arrival time distribution, e.g. {@code uniform(3,5)}.
+ * <p>
+ * Parameters are passed to the matching {@code eduni.distributions} constructor in the same order:
+ * {@code uniform(min,max)}, {@code normal(mean,variance)}, {@code negexp(mean)},
+ * {@code lognormal(mean,variance)}, {@code erlang(shape,scale)}, {@code gamma(scale,shape)},
+ * {@code weibull(scale,shape)} and {@code constant(value)}.
+ */
+public final class DistributionSpec {
+    private final String type;
+    private final double[] parameters;
+
+    public DistributionSpec(String type, double... parameters) {
+        this.type = type.toLowerCase(Locale.ROOT);
+        this.parameters = parameters.clone();
+        int expected = this.type.equals("negexp") || this.type.equals("constant") ? 1 : 2;
+        switch (this.type) {
+            case "uniform": case "normal": case "negexp": case "lognormal":
+            case "erlang": case "gamma": case "weibull": case "constant":
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown distribution: " + type);
+        }
+        if (parameters.length != expected) {
+            throw new IllegalArgumentException(type + " takes " + expected + " parameter(s)");
+        }
+    }
+
+    /**
+     * @param text e.g. {@code normal(6, 1)}
+     * @return The parsed specification
+     */
+    public static DistributionSpec parse(String text) {
+        String s = text.trim();
+        int open = s.indexOf('(');
+        if (open < 0 || !s.endsWith(")")) {
+            throw new IllegalArgumentException("Distribution must look like name(p1,p2): " + text);
+        }
+        String[] parts = s.substring(open + 1, s.length() - 1).split(",");
+        double[] parameters = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) parameters[i] = Double.parseDouble(parts[i].trim());
+        return new DistributionSpec(s.substring(0, open).trim(), parameters);
+    }
+
+    /**
+     * @param seed Seed of the generator's random stream
+     * @return A new generator for this distribution
+     */
+    public ContinuousGenerator create(long seed) {
+        double a = parameters[0];
+        double b = parameters.length > 1 ? parameters[1] : 0;
+        switch (type) {
+            case "uniform":   return new Uniform(a, b, seed);
+            case "normal":    return new Normal(a, b, seed);
+            case "negexp":    return new Negexp(a, seed);
+            case "lognormal": return new LogNormal(a, b, seed);
+            case "erlang":    return new Erlang(a, b, seed);
+            case "gamma":     return new Gamma(a, b, seed);
+            case "weibull":   return new Weibull(a, b, seed);
+            default:          return new Constant(a);
+        }
+    }
+
+    public String getType() { return type; }
+    public double getParameter(int i) { return parameters[i]; }
+    public int getParameterCount() { return parameters.length; }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(type).append('(');
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(parameters[i]);
+        }
+        return sb.append(')').toString();
+    }
+
+    /** Deterministic "distribution"; seeding has no effect */
+    private static final class Constant implements ContinuousGenerator {
+        private final double value;
+        private long seed;
+
+        Constant(double value) { this.value = value; }
+
+        public double sample() { return value; }
+        public void setSeed(long seed) { this.seed = seed; }
+        public long getSeed() { return seed; }
+        public void reseed() { }
+    }
+}
@@ -4,24 +4,30 @@ import eduni.distributions.ContinuousGenerator;
 import fi.metropolia.simulation.framework.Clock;
 import fi.metropolia.simulation.framework.Event;
 import fi.metropolia.simulation.framework.EventList;
+import fi.metropolia.simulation.framework.IEventType;
+import fi.metropolia.simulation.statistics.Tally;
+import fi.metropolia.simulation.statistics.TimeWeightedStatistic;
 
-import java.util.LinkedList;
-import java.io.BufferedWriter;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 
 public class RescueCampServicePoint {
     private final LinkedList<Survivor> survivorQueue = new LinkedList<>();
     private final ContinuousGenerator serviceTimeGenerator;
     private final EventList campEventList;
-    private final RescueCampEventType scheduledEventType;
+    private final IEventType scheduledEventType;
     private boolean serviceInProgress = false;
     private final String servicePointName;
 
     private int workers = 1;
+    private int index = 0;                          // position in the compiled CampNetwork
+    private double fixedServiceTime = Double.NaN;   // replaces sampled base durations when set
+    private boolean assignsTemporaryHome = false;   // SC-6 / SC-7 behaviour
 
     // Stats
     private int totalSurvivorsServed = 0;
@@ -30,27 +36,54 @@ public class RescueCampServicePoint {
     private int maximumQueueLength = 0;
     private double maxWaitingTimeObserved = 0;
     private double localMaxWaitingTime = 0;
+    private double currentServiceStartTime = 0;
+    private double currentServiceDuration = 0;
+    private final Tally waitingTimeTally;   // time from joining this queue to service start
+    private final Tally serviceTimeTally;   // time from service start to service completion
+    private final Tally sojournTimeTally;   // time from joining this queue to service completion
 
-    // CSV file path
-    private static final Path ASSIGNMENT_CSV = Path.of("survivor_assignments.csv");
+    // Time-weighted accumulators, updated only when the station state changes
+    private final TimeWeightedStatistic numberInStation = new TimeWeightedStatistic(); // L: waiting + in service
+    private final TimeWeightedStatistic numberInQueue = new TimeWeightedStatistic();   // Lq: waiting only
+    private final TimeWeightedStatistic busy = new TimeWeightedStatistic();            // 1 while serving
 
     public RescueCampServicePoint(ContinuousGenerator serviceTimeGenerator,
                                   EventList campEventList,
-                                  RescueCampEventType scheduledEventType,
+                                  IEventType scheduledEventType,
                                   String servicePointName) {
         this.serviceTimeGenerator = serviceTimeGenerator;
         this.campEventList = campEventList;
         this.scheduledEventType = scheduledEventType;
         this.servicePointName = servicePointName;
+        this.waitingTimeTally = new Tally(servicePointName + " waiting time");
+        this.serviceTimeTally = new Tally(servicePointName + " service time");
+        this.sojournTimeTally = new Tally(servicePointName + " sojourn time");
     }
 
     // Worker controls
     public void setWorkers(int n) { this.workers = Math.max(1, n); }
     public int getWorkers() { return workers; }
 
+    /** Use a constant base service time instead of sampling (NaN to sample again) */
+    public void setFixedServiceTime(double minutes) { this.fixedServiceTime = minutes; }
+    /** Assign a temporary home when service starts */
+    public void setAssignsTemporaryHome(boolean assigns) { this.assignsTemporaryHome = assigns; }
+    public boolean isAssigningTemporaryHome() { return assignsTemporaryHome; }
+    void setIndex(int index) { this.index = index; }
+    public int getIndex() { return index; }
+    public IEventType getScheduledEventType() { return scheduledEventType; }
+
+    /** Reset the service time generator to a new seed */
+    public void setSeed(long seed) { serviceTimeGenerator.setSeed(seed); }
+
+    /** @return Survivors waiting or in service here, in queue order */
+    public List<Survivor> getSurvivorsInStation() { return Collections.unmodifiableList(survivorQueue); }
+
     public void addSurvivorToQueue(Survivor survivor) {
+        survivor.setQueueEntryTime(Clock.getInstance().getClock());
         survivorQueue.add(survivor);
         updateMaximumQueueLength();
+        updateTimeWeightedStatistics();
     }
 
     public Survivor removeSurvivorFromQueue() {
@@ -58,20 +91,19 @@ public class RescueCampServicePoint {
         Survivor survivor = survivorQueue.poll();
         if (survivor != null) {
             totalSurvivorsServed++;
-            double serviceTime = Clock.getInstance().getClock() - survivor.getCampArrivalTime();
+            double currentTime = Clock.getInstance().getClock();
+            double serviceTime = currentTime - currentServiceStartTime;
             cumulativeServiceTime += serviceTime;
-            double waitingTime = survivor.getTotalWaitingTime();
-            cumulativeWaitingTime += waitingTime;
-            if (waitingTime > maxWaitingTimeObserved) maxWaitingTimeObserved = waitingTime;
-            if (waitingTime > localMaxWaitingTime) localMaxWaitingTime = waitingTime;
+            serviceTimeTally.add(serviceTime);
+            sojournTimeTally.add(currentTime - survivor.getQueueEntryTime());
         }
+        updateTimeWeightedStatistics();
         return survivor;
     }
 
     public void beginServiceForSurvivor() {
         if (serviceInProgress || survivorQueue.isEmpty()) return;
         Survivor currentSurvivor = survivorQueue.peek();
-        serviceInProgress = true;
 
         double baseServiceDuration = serviceTimeGenerator.sample();
         double actualServiceDuration = calculateActualServiceTime(currentSurvivor, baseServiceDuration);
@@ -79,80 +111,138 @@ public class RescueCampServicePoint {
         actualServiceDuration = actualServiceDuration / Math.max(1, workers);
         actualServiceDuration = Math.max(0.0001, actualServiceDuration);
 
-        recordServiceStartTime(currentSurvivor);
+        startService(actualServiceDuration);
         Event serviceCompletionEvent =
                 new Event(scheduledEventType, Clock.getInstance().getClock() + actualServiceDuration);
         campEventList.add(serviceCompletionEvent);
     }
 
-    private double calculateActualServiceTime(Survivor survivor, double baseDuration) {
-        double serviceDuration = baseDuration;
-        switch (scheduledEventType) {
-            case CHILD_SHELTER_ASSIGNMENT_COMPLETE:
-            case ADULT_SHELTER_ASSIGNMENT_COMPLETE:
-                serviceDuration = 5;
-                break;
-            default:
-                break;
+    /**
+     * Start serving the survivor at the head of the queue for a known duration, without sampling or
+     * scheduling the completion event (used directly when replaying a journal)
+     *
+     * @param duration service duration, already adjusted for the number of workers
+     */
+    public void startService(double duration) {
+        if (serviceInProgress || survivorQueue.isEmpty()) return;
+        serviceInProgress = true;
+        currentServiceDuration = duration;
+        recordServiceStartTime(survivorQueue.peek());
+        updateTimeWeightedStatistics();
+    }
+
+    /**
+     * Discard the waiting, service and occupancy statistics collected so far (e.g. the warm-up) and collect
+     * again from the given time. The run counts (served, cumulative service time) are kept.
+     *
+     * @param time current simulation time
+     */
+    public void resetStatistics(double time) {
+        cumulativeWaitingTime = 0;
+        maxWaitingTimeObserved = 0;
+        localMaxWaitingTime = 0;
+        maximumQueueLength = survivorQueue.size();
+        waitingTimeTally.reset();
+        serviceTimeTally.reset();
+        sojournTimeTally.reset();
+        numberInStation.reset(time);
+        numberInQueue.reset(time);
+        busy.reset(time);
+    }
+
+    /**
+     * Count one waiting time in the waiting statistics, e.g. one observed before a reset but after the
+     * truncation point of the warm-up
+     *
+     * @param waitingTime time from joining this queue to service start
+     */
+    public void addWaitingObservation(double waitingTime) {
+        cumulativeWaitingTime += waitingTime;
+        waitingTimeTally.add(waitingTime);
+        if (waitingTime > maxWaitingTimeObserved) maxWaitingTimeObserved = waitingTime;
+        if (waitingTime > localMaxWaitingTime) localMaxWaitingTime = waitingTime;
+    }
+
+    /**
+     * Write the station's state for an engine checkpoint: random stream, staffing, queue (as survivor ids),
+     * service in progress and all statistics. The survivors themselves are written by the engine.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeLong(serviceTimeGenerator.getSeed());
+        out.writeInt(workers);
+        out.writeInt(survivorQueue.size());
+        for (Survivor survivor : survivorQueue) out.writeInt(survivor.getSurvivorId());
+        out.writeBoolean(serviceInProgress);
+        out.writeDouble(currentServiceStartTime);
+        out.writeDouble(currentServiceDuration);
+        out.writeInt(totalSurvivorsServed);
+        out.writeDouble(cumulativeServiceTime);
+        out.writeDouble(cumulativeWaitingTime);
+        out.writeInt(maximumQueueLength);
+        out.writeDouble(maxWaitingTimeObserved);
+        out.writeDouble(localMaxWaitingTime);
+        waitingTimeTally.writeState(out);
+        serviceTimeTally.writeState(out);
+        sojournTimeTally.writeState(out);
+        numberInStation.writeState(out);
+        numberInQueue.writeState(out);
+        busy.writeState(out);
+    }
+
+    /**
+     * Replace the state with one written by {@link #writeState(DataOutput)}
+     *
+     * @param survivors survivors of the checkpoint by id
+     */
+    void readState(DataInput in, Map<Integer, Survivor> survivors) throws IOException {
+        serviceTimeGenerator.setSeed(in.readLong());
+        workers = in.readInt();
+        survivorQueue.clear();
+        for (int n = in.readInt(); n > 0; n--) {
+            Survivor survivor = survivors.get(in.readInt());
+            if (survivor == null) throw new IOException("Checkpoint: unknown survivor in queue of " + servicePointName);
+            survivorQueue.add(survivor);
         }
-        return serviceDuration;
+        serviceInProgress = in.readBoolean();
+        currentServiceStartTime = in.readDouble();
+        currentServiceDuration = in.readDouble();
+        totalSurvivorsServed = in.readInt();
+        cumulativeServiceTime = in.readDouble();
+        cumulativeWaitingTime = in.readDouble();
+        maximumQueueLength = in.readInt();
+        maxWaitingTimeObserved = in.readDouble();
+        localMaxWaitingTime = in.readDouble();
+        waitingTimeTally.readState(in);
+        serviceTimeTally.readState(in);
+        sojournTimeTally.readState(in);
+        numberInStation.readState(in);
+        numberInQueue.readState(in);
+        busy.readState(in);
+    }
+
+    private double calculateActualServiceTime(Survivor survivor, double baseDuration) {
+        return Double.isNaN(fixedServiceTime) ? baseDuration : fixedServiceTime;
     }
 
     private void recordServiceStartTime(Survivor survivor) {
         double currentTime = Clock.getInstance().getClock();
-        double waitingTime = currentTime - survivor.getCampArrivalTime();
+        double waitingTime = currentTime - survivor.getQueueEntryTime();
         survivor.addWaitingTime(waitingTime);
-        if (waitingTime > maxWaitingTimeObserved) maxWaitingTimeObserved = waitingTime;
-        if (waitingTime > localMaxWaitingTime) localMaxWaitingTime = waitingTime;
+        addWaitingObservation(waitingTime);
+        currentServiceStartTime = currentTime;
 
-        switch (scheduledEventType) {
-            case MEDICAL_TREATMENT_COMPLETE:
-                survivor.setMedicalTreatmentStartTime(currentTime);
-                break;
-            case REGISTRATION_COMPLETE:
-                survivor.setRegistrationStartTime(currentTime);
-                break;
-            case COMMUNICATION_SERVICE_COMPLETE:
-                survivor.setCommunicationServiceStartTime(currentTime);
-                break;
-            case SUPPLIES_DISTRIBUTION_COMPLETE:
-                survivor.setSuppliesDistributionStartTime(currentTime);
-                break;
-            case ACCOMMODATION_CENTER_COMPLETE:
-                survivor.setAccommodationCenterStartTime(currentTime);
-                break;
-            case CHILD_SHELTER_ASSIGNMENT_COMPLETE:
-                survivor.setChildShelterAssignmentStartTime(currentTime);
-                survivor.assignTemporaryHome();   // assign 50/50
-                appendAssignmentCsvRow(survivor);
-                break;
-            case ADULT_SHELTER_ASSIGNMENT_COMPLETE:
-                survivor.setAdultShelterAssignmentStartTime(currentTime);
-                survivor.assignTemporaryHome();   // assign 40/30/30
-                appendAssignmentCsvRow(survivor);
-                break;
-            default:
-                break;
+        if (assignsTemporaryHome) {
+            survivor.assignTemporaryHome();   // children 50/50, adults 40/30/30
         }
     }
 
-    private void appendAssignmentCsvRow(Survivor s) {
-        try {
-            boolean exists = Files.exists(ASSIGNMENT_CSV);
-            try (BufferedWriter out = Files.newBufferedWriter(
-                    ASSIGNMENT_CSV, StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
-
-                if (!exists) {
-                    out.write(Survivor.csvHeader());
-                    out.newLine();
-                }
-                out.write(s.toCsvRow());
-                out.newLine();
-            }
-        } catch (IOException e) {
-            System.err.println("CSV write failed: " + e.getMessage());
-        }
+    private void updateTimeWeightedStatistics() {
+        double currentTime = Clock.getInstance().getClock();
+        int inStation = survivorQueue.size();
+        int inService = serviceInProgress ? 1 : 0;
+        numberInStation.update(currentTime, inStation);
+        numberInQueue.update(currentTime, inStation - inService);
+        busy.update(currentTime, inService);
     }
 
     private void updateMaximumQueueLength() {
@@ -164,6 +254,10 @@ public class RescueCampServicePoint {
     // === FIXED methods ===
     public boolean isServiceInProgress() { return serviceInProgress; }
     public boolean hasSurvivorsInQueue() { return !survivorQueue.isEmpty(); }
+    /** @return The survivor being served, or null if the station is idle */
+    public Survivor getSurvivorInService() { return serviceInProgress ? survivorQueue.peek() : null; }
+    /** @return Duration of the current (or last) service */
+    public double getCurrentServiceDuration() { return currentServiceDuration; }
     public int getCurrentQueueLength() { return survivorQueue.size(); }  // ✅ added
 
     // Getters
@@ -176,4 +270,22 @@ public class RescueCampServicePoint {
     public int getTotalServed() { return totalSurvivorsServed; }
     public double getMaxWaitingTime() { return maxWaitingTimeObserved; }
     public double getLocalMaxWaitingTime() { return localMaxWaitingTime; }
+    public Tally getWaitingTimeTally() { return waitingTimeTally; }
+    public Tally getServiceTimeTally() { return serviceTimeTally; }
+    public Tally getSojournTimeTally() { return sojournTimeTally; }
+
+    // Time-weighted statistics up to the current clock time
+    /** @return L, time-average number of survivors at this station (waiting or in service) */
+    public double getAverageNumberInStation() { return numberInStation.getTimeAverage(Clock.getInstance().getClock()); }
+    /** @return Lq, time-average number of survivors waiting for service */
+    public double getAverageNumberInQueue() { return numberInQueue.getTimeAverage(Clock.getInstance().getClock()); }
+    /** @return Fraction of time the station was serving someone */
+    public double getUtilization() { return busy.getTimeAverage(Clock.getInstance().getClock()); }
+    /** @return Simulated minutes the station spent serving */
+    public double getBusyTime() { return busy.getArea(Clock.getInstance().getClock()); }
+
+    // The same, up to an explicit time (e.g. the end of a replayed run)
+    public double getAverageNumberInStation(double now) { return numberInStation.getTimeAverage(now); }
+    public double getAverageNumberInQueue(double now) { return numberInQueue.getTimeAverage(now); }
+    public double getUtilization(double now) { return busy.getTimeAverage(now); }
 }
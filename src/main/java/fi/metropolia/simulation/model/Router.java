@@ -0,0 +1,108 @@
+package fi.metropolia.simulation.model;
+
+import eduni.distributions.ContinuousGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MODEL: Compiled routing decision for one place in the camp (arrival or a service point).
+ * Entries are parallel arrays checked in order: survivor attribute bits against a mask/value pair,
+ * then an optional probability. The first match gives the next station index, -1 meaning exit.
+ */
+public final class Router {
+    public static final int EXIT = -1;
+
+    private final int[] masks;
+    private final int[] values;
+    private final double[] probabilities;
+    private final int[] targets;
+    private final ContinuousGenerator random;
+
+    private Router(int[] masks, int[] values, double[] probabilities, int[] targets, ContinuousGenerator random) {
+        this.masks = masks;
+        this.values = values;
+        this.probabilities = probabilities;
+        this.targets = targets;
+        this.random = random;
+    }
+
+    /**
+     * @param survivor survivor to route
+     * @return Index of the next station, or {@link #EXIT}
+     */
+    public int next(Survivor survivor) {
+        int flags = survivor.getAttributeFlags();
+        for (int i = 0; i < targets.length; i++) {
+            if ((flags & masks[i]) == values[i] && (probabilities[i] >= 1 || random.sample() < probabilities[i])) {
+                return targets[i];
+            }
+        }
+        return EXIT;
+    }
+
+    /**
+     * Compile a route description (see {@link CampNetworkConfig}).
+     *
+     * @param route        e.g. {@code adult & requests_communication -> communication; supplies}
+     * @param stationIndex station key to index
+     * @param random       Uniform(0,1) stream for probabilistic entries
+     * @return The compiled router
+     */
+    static Router compile(String route, Map<String, Integer> stationIndex, ContinuousGenerator random) {
+        List<int[]> conditions = new ArrayList<>();
+        List<Double> probabilities = new ArrayList<>();
+        List<Integer> targets = new ArrayList<>();
+
+        for (String entry : route.split(";")) {
+            if (entry.isBlank()) continue;
+            String condition = "";
+            String target = entry.trim();
+            int arrow = entry.indexOf("->");
+            if (arrow >= 0) {
+                condition = entry.substring(0, arrow);
+                target = entry.substring(arrow + 2).trim();
+            }
+
+            int mask = 0, value = 0;
+            double probability = 1;
+            for (String term : condition.split("&")) {
+                term = term.trim();
+                if (term.isEmpty()) continue;
+                if (Character.isDigit(term.charAt(0)) || term.charAt(0) == '.') {
+                    probability *= Double.parseDouble(term);
+                } else if (term.startsWith("!")) {
+                    mask |= SurvivorAttribute.parse(term.substring(1)).bit();
+                } else {
+                    int bit = SurvivorAttribute.parse(term).bit();
+                    mask |= bit;
+                    value |= bit;
+                }
+            }
+
+            int targetIndex;
+            if (CampNetworkConfig.EXIT.equals(target)) {
+                targetIndex = EXIT;
+            } else {
+                Integer index = stationIndex.get(target);
+                if (index == null) throw new IllegalArgumentException("Route to unknown station: " + target);
+                targetIndex = index;
+            }
+            conditions.add(new int[]{mask, value});
+            probabilities.add(probability);
+            targets.add(targetIndex);
+        }
+
+        int n = targets.size();
+        int[] masks = new int[n], values = new int[n], targetArray = new int[n];
+        double[] probabilityArray = new double[n];
+        for (int i = 0; i < n; i++) {
+            masks[i] = conditions.get(i)[0];
+            values[i] = conditions.get(i)[1];
+            probabilityArray[i] = probabilities.get(i);
+            targetArray[i] = targets.get(i);
+        }
+        return new Router(masks, values, probabilityArray, targetArray, random);
+    }
+}
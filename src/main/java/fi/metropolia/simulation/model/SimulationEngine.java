@@ -1,9 +1,25 @@
 package fi.metropolia.simulation.model;
 
 import eduni.distributions.*;
+import fi.metropolia.simulation.csv.AssignmentCsvSink;
+import fi.metropolia.simulation.csv.SurvivorCsvWriter;
 import fi.metropolia.simulation.framework.*;
+import fi.metropolia.simulation.jfr.StationQueueEvent;
+import fi.metropolia.simulation.journal.EventJournal;
+import fi.metropolia.simulation.results.ColumnarResultsWriter;
+import fi.metropolia.simulation.statistics.KllSketch;
+import fi.metropolia.simulation.statistics.MserWarmup;
+import fi.metropolia.simulation.statistics.ObservationBuffer;
+import fi.metropolia.simulation.statistics.Tally;
 import fi.metropolia.simulation.view.console.RescueCampSimulationView;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -12,30 +28,37 @@ import java.util.*;
  */
 public class SimulationEngine extends Engine {
 
-    // View reference
+    // Console view (null for headless runs); also registered in listeners
     private RescueCampSimulationView view;
 
-    // Survivor arrival process
+    // Listeners attached by the caller, and the listener notified during the current run
+    private final List<SimulationListener> listeners = new ArrayList<>();
+    private SimulationListener listener = SimulationListener.NONE;
+
+    // Survivor arrival process and its current inter-arrival distribution
     private ArrivalProcess survivorArrivalProcess;
+    private DistributionSpec arrivalDistribution;
+
+    // Rescue camp service points and routing, compiled from the camp configuration (Models)
+    private final CampNetworkConfig campConfig;
+    private CampNetwork network;
+    private RescueCampServicePoint[] servicePoints;   // network stations, cached for the C-phase loop
+
+    // Event dispatch table indexed by event type ordinal
+    private EventHandler[] eventHandlers;
 
-    // Rescue camp service points (Models)
-    private RescueCampServicePoint medicalTreatmentStation;   // SC-4
-    private RescueCampServicePoint registrationDesk;          // SC-1
-    private RescueCampServicePoint communicationCenter;       // SC-2
-    private RescueCampServicePoint suppliesDistributionPoint; // SC-3
-    private RescueCampServicePoint accommodationCenter;       // SC-5
-    private RescueCampServicePoint childShelterAssignment;    // SC-6
-    private RescueCampServicePoint adultShelterAssignment;    // SC-7
-
-    // ---- Distribution parameters (defaults preserved) ----
-    private double arrivalMean = 20.0;   // Negexp mean
-    private double regMin = 3.0,   regMax = 5.0;   // Uniform for Registration
-    private double comMin = 3.0,   comMax = 6.0;   // Uniform for Communication
-    private double supMin = 4.0,   supMax = 7.0;   // Uniform for Supplies
-    private double medMin = 10.0,  medMax = 15.0;  // Uniform for Medical
-    private double accMean = 6.0,  accSd  = 1.0;   // Normal for Accommodation
-    private double childMean = 5.0, childSd = 1.0; // Normal for Child Shelter
-    private double adultMean = 5.0, adultSd = 1.0; // Normal for Adult Shelter
+    /** Action run for one event type */
+    private interface EventHandler {
+        void handle();
+    }
+
+    // ---- Random number streams (all owned by this engine, so replications do not share state) ----
+    private static final int GENERATOR_CYCLE = 2147483646;   // 2^31 - 2, the cycle of RandomGenerator
+    private long seed = System.currentTimeMillis() % Integer.MAX_VALUE;
+    private SeedGenerator seedGenerator;
+    private ContinuousGenerator survivorAttributeGenerator; // Uniform(0,1) for survivor attributes and homes
+    private ContinuousGenerator routingGenerator;           // Uniform(0,1) for probabilistic routes
+    private int nextSurvivorId = 1;
 
     // Camp operation statistics
     private int totalSurvivorArrivals = 0;
@@ -47,13 +70,54 @@ public class SimulationEngine extends Engine {
     // Keep fully processed survivors
     private final List<Survivor> fullyProcessedSurvivors = new ArrayList<>();
 
+    // Streaming statistics mode: survivors are summarized and released instead of kept in the lists above
+    private boolean streamingStatistics = false;
+    private final Tally timeInCampTally = new Tally("Time in camp");
+    private final Tally survivorWaitingTimeTally = new Tally("Total waiting time");
+    // Mergeable quantile sketches of the same two figures, for combining replications
+    private KllSketch timeInCampSketch = new KllSketch();
+    private KllSketch waitingTimeSketch = new KllSketch();
+
+    // Output files of this run, each written by a listener created at start (disabled when the path is null)
+    private Path assignmentCsvPath;
+    private Path survivorCsvPath;
+    private Path resultsPath;
+    private Path journalPath;
+
+    // Periodic station snapshots (disabled when the interval is 0)
+    private double timeSeriesInterval = 0;
+    private StationTimeSeries timeSeries;
+
+    // Warm-up detection: MSER-5 over the waiting times of all stations, in service start order.
+    // The detector and the buffer are dropped once the truncation point is known.
+    private boolean warmupDetection = false;
+    private MserWarmup warmupDetector;
+    private ObservationBuffer warmupBuffer;   // recent observations, replayed after the truncation point
+    private double warmupTruncationTime = Double.NaN;   // detected end of the warm-up
+    private long warmupDroppedObservations = 0;         // did not fit the buffer, so not replayed
+    private double statisticsStartTime = 0;              // when the statistics were last reset
+
+    // Checkpoints: "RQCP" blob format; set when this engine continues a checkpointed run
+    private static final int CHECKPOINT_MAGIC = 0x52514350;
+    private static final int CHECKPOINT_VERSION = 1;
+    private boolean restored = false;
+
+    /**
+     * Observations kept while the warm-up is being detected: waiting times at service start and, per
+     * survivor leaving the camp, time in camp and total waiting time. Those made after the truncation point
+     * are counted again once the statistics have been reset; older ones are dropped when it is full.
+     */
+    public static final int WARMUP_BUFFER_SIZE = 1 << 16;
+    /** Buffer series of the time in camp of a survivor leaving the camp; stations are series 0, 1, ... */
+    public static final int TIME_IN_CAMP_SERIES = -1;
+    /** Buffer series of the total waiting time of a survivor leaving the camp */
+    public static final int TOTAL_WAITING_SERIES = -2;
+
     // ---- Constructors ----
 
     /** Default: uses the same parameters you had before */
     public SimulationEngine() {
-        this.view = new RescueCampSimulationView();
-        initializeCampServicePoints();
-        initializeSurvivorArrivalProcess();
+        this(CampNetworkConfig.defaultCamp());
     }
 
     /** Parameterized: same distributions, caller may override parameters */
@@ -67,181 +131,125 @@ public class SimulationEngine extends Engine {
             double childMean, double childSd,
             double adultMean, double adultSd
     ) {
-        this.view = new RescueCampSimulationView();
-
-        // Assign overrides (no validation beyond basic assignment for minimal change)
-        this.arrivalMean = arrivalMean;
-        this.regMin = regMin;     this.regMax = regMax;
-        this.comMin = comMin;     this.comMax = comMax;
-        this.supMin = supMin;     this.supMax = supMax;
-        this.medMin = medMin;     this.medMax = medMax;
-        this.accMean = accMean;   this.accSd  = accSd;
-        this.childMean = childMean; this.childSd = childSd;
-        this.adultMean = adultMean; this.adultSd = adultSd;
+        this(CampNetworkConfig.defaultCamp(
+                arrivalMean, regMin, regMax, comMin, comMax, supMin, supMax, medMin, medMax,
+                accMean, accSd, childMean, childSd, adultMean, adultSd));
+    }
 
-        initializeCampServicePoints();
-        initializeSurvivorArrivalProcess();
+    /** Configured: any camp layout, routing and staffing */
+    public SimulationEngine(CampNetworkConfig campConfig) {
+        setView(new RescueCampSimulationView());
+        this.campConfig = campConfig;
+        initializeRandomStreams();
+        initializeCampNetwork();
     }
 
     /**
-     * Initialize all service points with proper distributions
+     * Create the seed sequence all generators draw their seeds from. Generators must be created
+     * (and reseeded in setSeed) in the same order: service points, arrivals, survivor attributes, routing.
      */
-    private void initializeCampServicePoints() {
-        medicalTreatmentStation = new RescueCampServicePoint(
-                new Uniform(medMin, medMax), eventList,
-                RescueCampEventType.MEDICAL_TREATMENT_COMPLETE, "Medical Treatment Station"); // SC-4
-
-        registrationDesk = new RescueCampServicePoint(
-                new Uniform(regMin, regMax), eventList,
-                RescueCampEventType.REGISTRATION_COMPLETE, "Registration Desk"); // SC-1
-
-        communicationCenter = new RescueCampServicePoint(
-                new Uniform(comMin, comMax), eventList,
-                RescueCampEventType.COMMUNICATION_SERVICE_COMPLETE, "Communication Center"); // SC-2
-
-        suppliesDistributionPoint = new RescueCampServicePoint(
-                new Uniform(supMin, supMax), eventList,
-                RescueCampEventType.SUPPLIES_DISTRIBUTION_COMPLETE, "Supplies Distribution Point"); // SC-3
-
-        accommodationCenter = new RescueCampServicePoint(
-                new Normal(accMean, accSd), eventList,
-                RescueCampEventType.ACCOMMODATION_CENTER_COMPLETE, "Accommodation Center"); // SC-5
-
-        childShelterAssignment = new RescueCampServicePoint(
-                new Normal(childMean, childSd), eventList,
-                RescueCampEventType.CHILD_SHELTER_ASSIGNMENT_COMPLETE, "Child Shelter Assignment"); // SC-6
+    private void initializeRandomStreams() {
+        seedGenerator = new SeedGenerator(normalizeSeed(seed), streamSpacing());
+        // The sketches' compaction offsets follow the seed too, so merged replications do not share them
+        timeInCampSketch.setSeed(2 * seed);
+        waitingTimeSketch.setSeed(2 * seed + 1);
+    }
 
-        adultShelterAssignment = new RescueCampServicePoint(
-                new Normal(adultMean, adultSd), eventList,
-                RescueCampEventType.ADULT_SHELTER_ASSIGNMENT_COMPLETE, "Adult Shelter Assignment"); // SC-7
+    /**
+     * @return Draws between consecutive seeds: the generator cycle split evenly between the streams
+     * (one per service point, arrivals, survivor attributes, routing), so no stream can run into the next
+     */
+    private int streamSpacing() {
+        return GENERATOR_CYCLE / (campConfig.getStations().size() + 3);
+    }
 
-        // === Initial staffing ===
-        medicalTreatmentStation.setWorkers(5);
-        registrationDesk.setWorkers(2);
-        communicationCenter.setWorkers(2);
-        suppliesDistributionPoint.setWorkers(2);
-        accommodationCenter.setWorkers(2);
-        childShelterAssignment.setWorkers(2);
-        adultShelterAssignment.setWorkers(2);
+    /** The multiplicative generator needs a seed in 1..2^31-2 */
+    private static long normalizeSeed(long seed) {
+        return Math.floorMod(seed, 2147483646L) + 1;
     }
 
     /**
-     * Initialize survivor arrival process with valid seed
+     * Compile the camp configuration into service points, routers and the event dispatch table,
+     * and create the arrival process and survivor attribute stream with valid seeds
      */
-    private void initializeSurvivorArrivalProcess() {
-        int seed = (int) (System.currentTimeMillis() % Integer.MAX_VALUE);
-        ContinuousGenerator survivorArrivalTimeGenerator = new Negexp(arrivalMean, seed);
+    private void initializeCampNetwork() {
+        routingGenerator = new Uniform(0, 1, 1);    // reseeded below, after the other streams
+        network = CampNetwork.compile(campConfig, eventList, seedGenerator, routingGenerator);
+        servicePoints = network.stations();
+
+        arrivalDistribution = campConfig.getArrivalDistribution();
+        ContinuousGenerator survivorArrivalTimeGenerator = arrivalDistribution.create(seedGenerator.sample());
         survivorArrivalProcess = new ArrivalProcess(
                 survivorArrivalTimeGenerator, eventList, RescueCampEventType.SURVIVOR_ARRIVAL);
+        survivorAttributeGenerator = new Uniform(0, 1, seedGenerator.sample());
+        routingGenerator.setSeed(seedGenerator.sample());
+
+        eventHandlers = new EventHandler[network.getEventTypeCount()];
+        eventHandlers[CampNetwork.ARRIVAL_ORDINAL] = this::handleNewSurvivorArrival;
+        for (int i = 0; i < servicePoints.length; i++) {
+            final int station = i;
+            eventHandlers[servicePoints[i].getScheduledEventType().ordinal()] = () -> handleServiceCompletion(station);
+        }
     }
 
     @Override
     protected void initialize() {
-        Clock.getInstance().reset(); // Ensure clock starts at 0
-        view.displaySimulationStart();
-        survivorArrivalProcess.generateNextEvent(); // Schedule first survivor
+        if (!restored) Clock.getInstance().reset(); // Ensure clock starts at 0
+        if (timeSeriesInterval > 0 && timeSeries == null) {
+            timeSeries = new StationTimeSeries(getServicePoints(), timeSeriesInterval, getSimulationTime());
+        }
+        if (warmupDetection && warmupDetector == null && Double.isNaN(warmupTruncationTime)) {
+            warmupDetector = new MserWarmup();
+            warmupBuffer = new ObservationBuffer(WARMUP_BUFFER_SIZE);
+        }
+        List<SimulationListener> active = new ArrayList<>(listeners);
+        openOutputs(active);
+        listener = CompositeSimulationListener.of(active);
+        listener.simulationStarted(Clock.getInstance().getClock(), this);
+        if (!restored) survivorArrivalProcess.generateNextEvent(); // Schedule first survivor
     }
 
     @Override
     protected void runEvent(Event campEvent) {
-        Survivor survivor;
-
-        switch ((RescueCampEventType) campEvent.getType()) {
-            case SURVIVOR_ARRIVAL:
-                handleNewSurvivorArrival();
-                break;
-
-            case MEDICAL_TREATMENT_COMPLETE: // SC-4 -> SC-1
-                survivor = medicalTreatmentStation.removeSurvivorFromQueue();
-                if (survivor != null) {
-                    view.displaySurvivorProgress(survivor, "Medical Treatment Complete");
-                    registrationDesk.addSurvivorToQueue(survivor);
-                }
-                break;
-
-            case REGISTRATION_COMPLETE: // SC-1 -> SC-2 (adults needing comms) or SC-3
-                survivor = registrationDesk.removeSurvivorFromQueue();
-                if (survivor != null) {
-                    view.displaySurvivorProgress(survivor, "Registration Complete");
-                    routeSurvivorAfterRegistration(survivor);
-                }
-                break;
-
-            case COMMUNICATION_SERVICE_COMPLETE: // SC-2 -> SC-3
-                survivor = communicationCenter.removeSurvivorFromQueue();
-                if (survivor != null) {
-                    view.displaySurvivorProgress(survivor, "Communication Service Complete");
-                    suppliesDistributionPoint.addSurvivorToQueue(survivor);
-                }
-                break;
-
-            case SUPPLIES_DISTRIBUTION_COMPLETE: // SC-3 -> SC-5
-                survivor = suppliesDistributionPoint.removeSurvivorFromQueue();
-                if (survivor != null) {
-                    view.displaySurvivorProgress(survivor, "Supplies Distribution Complete");
-                    accommodationCenter.addSurvivorToQueue(survivor);
-                    view.displayServiceAssignment(survivor, "Accommodation Center");
-                }
-                break;
-
-            case ACCOMMODATION_CENTER_COMPLETE: // SC-5 -> SC-6/SC-7 (by age)
-                survivor = accommodationCenter.removeSurvivorFromQueue();
-                if (survivor != null) {
-                    view.displaySurvivorProgress(survivor, "Accommodation Center Complete");
-                    if (survivor.getAgeCategory() == Survivor.AgeCategory.CHILD) {
-                        childShelterAssignment.addSurvivorToQueue(survivor);
-                        view.displayServiceAssignment(survivor, "Child Shelter Assignment");
-                    } else {
-                        adultShelterAssignment.addSurvivorToQueue(survivor);
-                        view.displayServiceAssignment(survivor, "Adult Shelter Assignment");
-                    }
-                }
-                break;
-
-            case CHILD_SHELTER_ASSIGNMENT_COMPLETE: // SC-6 -> done
-                survivor = childShelterAssignment.removeSurvivorFromQueue();
-                if (survivor != null) completeSurvivorProcessing(survivor);
-                break;
-
-            case ADULT_SHELTER_ASSIGNMENT_COMPLETE: // SC-7 -> done
-                survivor = adultShelterAssignment.removeSurvivorFromQueue();
-                if (survivor != null) completeSurvivorProcessing(survivor);
-                break;
-        }
+        eventHandlers[campEvent.getType().ordinal()].handle();
     }
 
     /**
      * Handle new survivor arrival
      */
     private void handleNewSurvivorArrival() {
-        Survivor newSurvivor = new Survivor();
+        Survivor newSurvivor = new Survivor(nextSurvivorId++, survivorAttributeGenerator);
         totalSurvivorArrivals++;
-        allSurvivors.add(newSurvivor); // record all generated survivors for CSV
-        view.displaySurvivorArrival(newSurvivor);
+        if (!streamingStatistics) allSurvivors.add(newSurvivor); // record all generated survivors for CSV
+        listener.survivorArrived(Clock.getInstance().getClock(), newSurvivor);
 
-        // Route based on requirement-derived medical need (children always true; adults if injured)
-        if (newSurvivor.requiresMedicalTreatment()) {
-            medicalTreatmentStation.addSurvivorToQueue(newSurvivor); // SC-4
-            view.displayServiceAssignment(newSurvivor, "Medical Treatment Station");
-        } else {
-            registrationDesk.addSurvivorToQueue(newSurvivor); // SC-1
-            view.displayServiceAssignment(newSurvivor, "Registration Desk");
-        }
+        routeSurvivor(newSurvivor, network.getArrivalRouter());
 
         survivorArrivalProcess.generateNextEvent(); // Schedule next arrival
     }
 
     /**
-     * Route survivor after registration
+     * Handle a service completion at the given station and send the survivor to the next hop
+     */
+    private void handleServiceCompletion(int station) {
+        RescueCampServicePoint sp = servicePoints[station];
+        Survivor survivor = sp.removeSurvivorFromQueue();
+        if (survivor != null) {
+            listener.serviceCompleted(Clock.getInstance().getClock(), station, survivor, sp.getScheduledEventType().ordinal());
+            routeSurvivor(survivor, network.getRouter(station));
+        }
+    }
+
+    /**
+     * Queue the survivor at the station chosen by the router, or complete processing on exit
      */
-    private void routeSurvivorAfterRegistration(Survivor survivor) {
-        // Only adults may visit the Communication Center (SC-2) if they request it; children go to Supplies (SC-3)
-        if (survivor.getAgeCategory() == Survivor.AgeCategory.ADULT && survivor.requestsCommunicationService()) {
-            communicationCenter.addSurvivorToQueue(survivor); // SC-2
-            view.displayServiceAssignment(survivor, "Communication Center");
+    private void routeSurvivor(Survivor survivor, Router router) {
+        int next = router.next(survivor);
+        if (next == Router.EXIT) {
+            completeSurvivorProcessing(survivor);
         } else {
-            suppliesDistributionPoint.addSurvivorToQueue(survivor); // SC-3
-            view.displayServiceAssignment(survivor, "Supplies Distribution Point");
+            servicePoints[next].addSurvivorToQueue(survivor);
+            listener.survivorQueued(Clock.getInstance().getClock(), next, survivor);
         }
     }
 
@@ -251,57 +259,547 @@ public class SimulationEngine extends Engine {
     private void completeSurvivorProcessing(Survivor survivor) {
         survivor.setProcessingCompletionTime(Clock.getInstance().getClock());
         totalSurvivorsProcessed++;
-        fullyProcessedSurvivors.add(survivor);
-        view.displaySurvivorCompletion(survivor);
+        timeInCampTally.add(survivor.getTotalTimeInCamp());
+        survivorWaitingTimeTally.add(survivor.getTotalWaitingTime());
+        timeInCampSketch.update(survivor.getTotalTimeInCamp());
+        waitingTimeSketch.update(survivor.getTotalWaitingTime());
+        if (!streamingStatistics) fullyProcessedSurvivors.add(survivor);
+        if (warmupBuffer != null) {
+            double now = Clock.getInstance().getClock();
+            warmupBuffer.add(now, TIME_IN_CAMP_SERIES, survivor.getTotalTimeInCamp());
+            warmupBuffer.add(now, TOTAL_WAITING_SERIES, survivor.getTotalWaitingTime());
+        }
+        listener.survivorExited(Clock.getInstance().getClock(), survivor);
+    }
+
+    /**
+     * Feed one waiting time to the warm-up detector; once it has found a truncation point after the start,
+     * the statistics are reset and the buffered observations made after that point are counted again
+     */
+    private void observeWarmup(double time, int station, double wait) {
+        warmupBuffer.add(time, station, wait);
+        if (!warmupDetector.add(time, wait) || !warmupDetector.isDetected()) return;
+        warmupTruncationTime = warmupDetector.getTruncationTime();
+        warmupDetector = null;
+        if (warmupTruncationTime > 0) {
+            warmupDroppedObservations = warmupBuffer.getDropped();
+            resetStatistics(time, warmupTruncationTime);
+            Trace.out(Trace.Level.INFO, String.format("Warm-up ends at %.2f; statistics reset at %.2f (%d observations dropped)",
+                    warmupTruncationTime, statisticsStartTime, warmupDroppedObservations));
+        } else {
+            Trace.out(Trace.Level.INFO, "No warm-up detected; statistics kept from the start");
+        }
+        warmupBuffer = null;
+    }
+
+    /** Count one buffered observation again after a warm-up reset */
+    private void replayObservation(int series, double value) {
+        if (series == TIME_IN_CAMP_SERIES) {
+            timeInCampTally.add(value);
+            timeInCampSketch.update(value);
+        } else if (series == TOTAL_WAITING_SERIES) {
+            survivorWaitingTimeTally.add(value);
+            waitingTimeSketch.update(value);
+        } else {
+            servicePoints[series].addWaitingObservation(value);
+        }
     }
 
     @Override
-    protected void tryCEvents() {
-        RescueCampServicePoint[] allServicePoints = {
-                medicalTreatmentStation, registrationDesk, communicationCenter, suppliesDistributionPoint,
-                accommodationCenter, childShelterAssignment, adultShelterAssignment
-        };
+    protected void beforeClockAdvance(double newTime) {
+        if (timeSeries == null) return;
+        // The last advance jumps past the horizon; the grid ends there, with the state before that event
+        if (newTime > getSimulationTime()) timeSeries.sampleThrough(getSimulationTime());
+        else timeSeries.sampleUntil(newTime);
+    }
 
-        for (RescueCampServicePoint sp : allServicePoints) {
+    @Override
+    protected void tryCEvents() {
+        for (int i = 0; i < servicePoints.length; i++) {
+            RescueCampServicePoint sp = servicePoints[i];
             if (!sp.isServiceInProgress() && sp.hasSurvivorsInQueue()) {
                 sp.beginServiceForSurvivor();
-                view.displayServiceStart(sp);
+                double now = Clock.getInstance().getClock();
+                Survivor survivor = sp.getSurvivorInService();
+                listener.serviceStarted(now, i, survivor, sp.getCurrentServiceDuration());
+                if (warmupDetector != null) observeWarmup(now, i, now - survivor.getQueueEntryTime());
+                if (sp.isAssigningTemporaryHome()) listener.temporaryHomeAssigned(now, i, survivor);
             }
         }
+        listener.eventsProcessed(Clock.getInstance().getClock());
+    }
+
+    /**
+     * Create the listeners writing this run's output files; a file that cannot be opened is reported
+     * and skipped
+     */
+    private void openOutputs(List<SimulationListener> active) {
+        try {
+            if (assignmentCsvPath != null) active.add(new AssignmentCsvSink(assignmentCsvPath));
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+        try {
+            if (survivorCsvPath != null) active.add(SurvivorCsvWriter.open(survivorCsvPath, 1));
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+        try {
+            if (resultsPath != null) active.add(new ColumnarResultsWriter(resultsPath));
+        } catch (IOException e) {
+            System.err.println("Results write failed: " + e.getMessage());
+        }
+        try {
+            if (journalPath != null) active.add(new EventJournal(journalPath, getServicePoints()));
+        } catch (IOException e) {
+            System.err.println("Journal write failed: " + e.getMessage());
+        }
     }
 
+    /** Record a queue sample of every station, if the flight recorder records them */
     @Override
-    protected void results() {
-        List<RescueCampServicePoint> allServicePoints = Arrays.asList(
-                medicalTreatmentStation, registrationDesk, communicationCenter, suppliesDistributionPoint,
-                accommodationCenter, childShelterAssignment, adultShelterAssignment
-        );
+    protected void recordSamples() {
+        double now = Clock.getInstance().getClock();
+        for (RescueCampServicePoint sp : servicePoints) {
+            StationQueueEvent sample = new StationQueueEvent();
+            if (!sample.isEnabled()) return;
+            sample.station = sp.getServicePointName();
+            sample.simulationTime = now;
+            sample.queueLength = sp.getCurrentQueueLength();
+            sample.inService = sp.isServiceInProgress();
+            sample.served = sp.getTotalServed();
+            sample.commit();
+        }
+    }
 
-        view.displayFinalResults(
-                Clock.getInstance().getClock(),
-                totalSurvivorArrivals,
-                totalSurvivorsProcessed,
-                fullyProcessedSurvivors,
-                allServicePoints
-        );
+    /**
+     * At the end of the run: complete the outputs and show the final results. Before that (between slices
+     * of step / runUntil / runFor): show the statistics so far on the console view, if there is one.
+     */
+    @Override
+    public void results() {
+        if (!isFinished()) {
+            Clock.getInstance().setClock(getCurrentTime());   // time-weighted figures are evaluated now
+            if (view != null) {
+                view.displayInterimResults(getCurrentTime(), totalSurvivorArrivals, totalSurvivorsProcessed,
+                        getServicePoints(), timeInCampTally, survivorWaitingTimeTally);
+                view.displayWarmup(this);
+                view.displayProfile(this);
+            }
+            return;
+        }
+        double now = Clock.getInstance().getClock();
+        if (timeSeries != null) timeSeries.sampleThrough(Math.min(now, getSimulationTime()));
+        listener.simulationEnded(now, this);   // outputs complete their files, the view prints the summary
+        listener = SimulationListener.NONE;
     }
 
+    /**
+     * @return All service points in configuration order (default camp: SC-4, SC-1, SC-2, SC-3, SC-5, SC-6, SC-7)
+     */
+    public List<RescueCampServicePoint> getServicePoints() {
+        return network.getStations();
+    }
+
+    /** @return The compiled camp layout and routing */
+    public CampNetwork getNetwork() { return network; }
+
     // ---- External control methods ----
     public void setSimulationDuration(double minutes) { setSimulationTime(minutes); }
     public void startSimulation() { run(); }
 
+    /**
+     * Replace the console view. The view is a listener like any other; without one the run is headless.
+     *
+     * @param view Console view to report progress to, or null to run headless
+     */
+    public void setView(RescueCampSimulationView view) {
+        if (this.view != null) listeners.remove(this.view);
+        this.view = view;
+        if (view != null) listeners.add(0, view);
+    }
+
+    /**
+     * Attach a listener to every following run, after the ones already attached. Listeners are called
+     * on the simulation thread and must not block it. Set before startSimulation().
+     */
+    public void addListener(SimulationListener l) { listeners.add(Objects.requireNonNull(l)); }
+    public void removeListener(SimulationListener l) { listeners.remove(l); }
+
+    /**
+     * Streaming statistics mode keeps only constant-size aggregates: survivors are released as soon
+     * as they leave the camp and are not collected for CSV export. Set before startSimulation().
+     *
+     * @param enabled true to summarize survivors on the fly instead of retaining them
+     */
+    public void setStreamingStatistics(boolean enabled) { this.streamingStatistics = enabled; }
+    public boolean isStreamingStatistics() { return streamingStatistics; }
+
+    /**
+     * Sample every station's queue length, busy servers and served count at a fixed simulated interval.
+     * Set before startSimulation().
+     *
+     * @param minutes Simulated time between samples, 0 to disable
+     */
+    public void setTimeSeriesInterval(double minutes) { this.timeSeriesInterval = minutes; }
+
+    /**
+     * Detect the end of the warm-up (the camp starts empty) with the MSER-5 rule on the waiting times of all
+     * stations, and discard the statistics collected until then. Since the statistics are summaries, they
+     * are reset when the truncation point has been detected, which is some time after it; the waiting times
+     * and survivor figures observed in between are kept in a bounded buffer ({@value #WARMUP_BUFFER_SIZE}
+     * observations) and counted again. Time-weighted station figures start at the reset. Nothing is reset
+     * when the truncation point is the start of the run. Set before startSimulation().
+     *
+     * @param enabled true to truncate the warm-up automatically
+     */
+    public void setWarmupDetection(boolean enabled) { this.warmupDetection = enabled; }
+    public boolean isWarmupDetection() { return warmupDetection; }
+
+    /** @return Detected end of the warm-up in simulated minutes, NaN if not (yet) detected */
+    public double getWarmupTruncationTime() { return warmupTruncationTime; }
+
+    /**
+     * @return Observations made before the warm-up reset that did not fit the buffer and were not counted
+     * again, whether or not they lie after the truncation point; 0 if none or no reset
+     */
+    public long getWarmupDroppedObservations() { return warmupDroppedObservations; }
+
+    /** @return Simulation time the reported statistics were collected from (0 unless they were reset) */
+    public double getStatisticsStartTime() { return statisticsStartTime; }
+
+    /**
+     * Discard the statistics collected so far and collect again from the current simulation time: waiting,
+     * service and sojourn tallies, time-weighted station figures, time in camp and total waiting time.
+     * Arrival, served and processed counts and retained survivors are kept.
+     */
+    public void resetStatistics() {
+        double now = Clock.getInstance().getClock();
+        resetStatistics(now, now);
+    }
+
+    /**
+     * Reset the statistics at the current time and count the buffered observations made after {@code since}
+     * again
+     */
+    private void resetStatistics(double now, double since) {
+        for (RescueCampServicePoint sp : servicePoints) sp.resetStatistics(now);
+        timeInCampTally.reset();
+        survivorWaitingTimeTally.reset();
+        timeInCampSketch.reset();
+        waitingTimeSketch.reset();
+        if (since < now && warmupBuffer != null) warmupBuffer.replayAfter(since, this::replayObservation);
+        statisticsStartTime = now;
+        listener.statisticsReset(now, since);
+    }
+
+    /**
+     * Write every SC-6 / SC-7 temporary home assignment of this run to a CSV file. The file is
+     * replaced when the run starts and complete once startSimulation() returns.
+     *
+     * @param path CSV file for this run, or null (default) to not write assignments
+     */
+    public void setAssignmentCsvPath(Path path) { this.assignmentCsvPath = path; }
+
+    /**
+     * Write every survivor of this run to a CSV file while the simulation runs: one row when the survivor
+     * leaves the camp, plus rows for those still in the camp at the end. Works in streaming statistics
+     * mode, so survivors need not be retained. A name ending in {@code .gz} writes a gzip file.
+     *
+     * @param path CSV file for this run, or null (default) to not write it
+     */
+    public void setSurvivorCsvPath(Path path) { this.survivorCsvPath = path; }
+
+    /**
+     * Write survivors and station statistics of this run to a columnar binary file while the simulation
+     * runs (see ColumnarResultsWriter). Works in streaming statistics mode.
+     *
+     * @param path results file for this run, or null (default) to not write it
+     */
+    public void setResultsPath(Path path) { this.resultsPath = path; }
+
+    /**
+     * Record every arrival, queue entry, service start and end, exit and statistics reset of this run in a
+     * binary journal, from which JournalReplay rebuilds all statistics without simulating again. A journal
+     * starts from an empty camp, so a run restored from a checkpoint cannot record one.
+     *
+     * @param path journal file for this run, or null (default) to not record one
+     * @throws IllegalStateException if this engine was restored from a checkpoint
+     */
+    public void setJournalPath(Path path) {
+        if (path != null && restored) throw new IllegalStateException("A restored run cannot record an event journal");
+        this.journalPath = path;
+    }
+
+    /** @return The sampled series, or null if sampling was not enabled */
+    public StationTimeSeries getTimeSeries() { return timeSeries; }
+
+    // ---- aggregate statistics (available in both modes) ----
+    public int getTotalSurvivorArrivals() { return totalSurvivorArrivals; }
+    public int getTotalSurvivorsProcessed() { return totalSurvivorsProcessed; }
+    public Tally getTimeInCampTally() { return timeInCampTally; }
+    public Tally getSurvivorWaitingTimeTally() { return survivorWaitingTimeTally; }
+    /** @return Quantile sketch of time in camp; merge it with other runs' sketches for pooled quantiles */
+    public KllSketch getTimeInCampSketch() { return timeInCampSketch; }
+    /** @return Quantile sketch of total waiting time */
+    public KllSketch getWaitingTimeSketch() { return waitingTimeSketch; }
+
+    /**
+     * Reseed every random stream of this engine (service times, arrivals, survivor attributes).
+     * Two engines with the same seed and parameters produce the same run. Set before startSimulation().
+     *
+     * @param seed Base seed for this replication
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        initializeRandomStreams();
+        network.reseed(seedGenerator);
+        survivorArrivalProcess.setSeed(seedGenerator.sample());
+        survivorAttributeGenerator.setSeed(seedGenerator.sample());
+        routingGenerator.setSeed(seedGenerator.sample());
+    }
+
+    public long getSeed() { return seed; }
+
+    // ---- checkpoints ----
+
+    /**
+     * Capture the complete state of this run between slices as a compact binary blob: clock, pending events,
+     * every station's queue, staffing and statistics, survivor records, random stream states, aggregate
+     * statistics, warm-up detection and the sampled time series. {@link #restoreCheckpoint(byte[])} continues the run from it
+     * in another engine with the same camp layout, producing exactly the events this run would have.
+     * Listeners, output files, pacing and commands still pending on the control channel are not included.
+     *
+     * @return The checkpoint
+     * @throws IllegalStateException if the run has not started or is already finished
+     */
+    public byte[] checkpoint() {
+        if (!isStarted() || isFinished()) {
+            throw new IllegalStateException("Checkpoint needs a started, unfinished run (call between slices)");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeInt(CHECKPOINT_VERSION);
+            out.writeInt(servicePoints.length);
+            for (RescueCampServicePoint sp : servicePoints) out.writeUTF(sp.getServicePointName());
+
+            // Progress and settings
+            out.writeDouble(getCurrentTime());
+            out.writeLong(getEventCount());
+            out.writeDouble(getSimulationTime());
+            out.writeLong(seed);
+            out.writeBoolean(streamingStatistics);
+            out.writeInt(nextSurvivorId);
+            out.writeInt(totalSurvivorArrivals);
+            out.writeInt(totalSurvivorsProcessed);
+
+            // Random streams
+            out.writeUTF(arrivalDistribution.getType());
+            out.writeByte(arrivalDistribution.getParameterCount());
+            for (int i = 0; i < arrivalDistribution.getParameterCount(); i++) out.writeDouble(arrivalDistribution.getParameter(i));
+            out.writeLong(survivorArrivalProcess.getGenerator().getSeed());
+            out.writeLong(survivorAttributeGenerator.getSeed());
+            out.writeLong(routingGenerator.getSeed());
+
+            // Survivors: every retained one, then those still in the camp (written once each)
+            Map<Integer, Survivor> survivors = new LinkedHashMap<>();
+            for (Survivor s : allSurvivors) survivors.put(s.getSurvivorId(), s);
+            for (RescueCampServicePoint sp : servicePoints) {
+                for (Survivor s : sp.getSurvivorsInStation()) survivors.putIfAbsent(s.getSurvivorId(), s);
+            }
+            out.writeInt(survivors.size());
+            for (Survivor s : survivors.values()) s.writeState(out);
+            out.writeInt(allSurvivors.size());
+            for (Survivor s : allSurvivors) out.writeInt(s.getSurvivorId());
+            out.writeInt(fullyProcessedSurvivors.size());
+            for (Survivor s : fullyProcessedSurvivors) out.writeInt(s.getSurvivorId());
+
+            // Stations, statistics, events
+            for (RescueCampServicePoint sp : servicePoints) sp.writeState(out);
+            timeInCampTally.writeState(out);
+            survivorWaitingTimeTally.writeState(out);
+            timeInCampSketch.writeState(out);
+            waitingTimeSketch.writeState(out);
+            out.writeDouble(statisticsStartTime);
+            out.writeDouble(warmupTruncationTime);
+            out.writeLong(warmupDroppedObservations);
+            out.writeBoolean(warmupDetection);
+            out.writeBoolean(warmupDetector != null);
+            if (warmupDetector != null) {
+                warmupDetector.writeState(out);
+                warmupBuffer.writeState(out);
+            }
+            Event[] events = eventList.toArray();
+            out.writeInt(events.length);
+            for (Event e : events) {
+                out.writeShort(e.getType().ordinal());
+                out.writeDouble(e.getTime());
+            }
+            out.writeBoolean(timeSeries != null);
+            if (timeSeries != null) {
+                out.writeDouble(timeSeries.getInterval());
+                timeSeries.writeState(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // not thrown by in-memory streams
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Continue a run from a checkpoint. Call on a new engine with the same camp layout, before it starts;
+     * listeners, the view and output paths may be set before or after. The run continues with the
+     * checkpoint's staffing, arrival distribution, duration and statistics mode, which may then be changed
+     * like in a new run, e.g. to branch a warmed-up camp into staffing variants. Outputs of the continued
+     * run cover the events from the checkpoint time on.
+     *
+     * @param checkpoint blob from {@link #checkpoint()}
+     * @throws IllegalArgumentException if the blob is not a checkpoint of this camp layout
+     * @throws IllegalStateException    if this engine has already started or has a journal path
+     */
+    public void restoreCheckpoint(byte[] checkpoint) {
+        if (isStarted()) throw new IllegalStateException("Checkpoints can only be restored into a new engine");
+        if (journalPath != null) throw new IllegalStateException("A restored run cannot record an event journal");
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(checkpoint))) {
+            if (in.readInt() != CHECKPOINT_MAGIC) throw new IllegalArgumentException("Not a simulation checkpoint");
+            if (in.readInt() != CHECKPOINT_VERSION) throw new IllegalArgumentException("Unsupported checkpoint version");
+            int stationCount = in.readInt();
+            if (stationCount != servicePoints.length) {
+                throw new IllegalArgumentException("Checkpoint has " + stationCount + " stations, this camp " + servicePoints.length);
+            }
+            for (RescueCampServicePoint sp : servicePoints) {
+                String name = in.readUTF();
+                if (!name.equals(sp.getServicePointName())) {
+                    throw new IllegalArgumentException("Checkpoint station " + name + " does not match " + sp.getServicePointName());
+                }
+            }
+
+            double time = in.readDouble();
+            long eventCount = in.readLong();
+            setSimulationTime(in.readDouble());
+            seed = in.readLong();
+            streamingStatistics = in.readBoolean();
+            nextSurvivorId = in.readInt();
+            totalSurvivorArrivals = in.readInt();
+            totalSurvivorsProcessed = in.readInt();
+
+            String type = in.readUTF();
+            double[] parameters = new double[in.readUnsignedByte()];
+            for (int i = 0; i < parameters.length; i++) parameters[i] = in.readDouble();
+            arrivalDistribution = new DistributionSpec(type, parameters);
+            survivorArrivalProcess.setGenerator(arrivalDistribution.create(in.readLong()));
+            survivorAttributeGenerator.setSeed(in.readLong());
+            routingGenerator.setSeed(in.readLong());
+
+            Map<Integer, Survivor> survivors = new HashMap<>();
+            for (int n = in.readInt(); n > 0; n--) {
+                Survivor s = Survivor.readState(in, survivorAttributeGenerator);
+                survivors.put(s.getSurvivorId(), s);
+            }
+            allSurvivors.clear();
+            for (int n = in.readInt(); n > 0; n--) allSurvivors.add(survivors.get(in.readInt()));
+            fullyProcessedSurvivors.clear();
+            for (int n = in.readInt(); n > 0; n--) fullyProcessedSurvivors.add(survivors.get(in.readInt()));
+
+            for (RescueCampServicePoint sp : servicePoints) sp.readState(in, survivors);
+            timeInCampTally.readState(in);
+            survivorWaitingTimeTally.readState(in);
+            timeInCampSketch = KllSketch.readState(in);
+            waitingTimeSketch = KllSketch.readState(in);
+            statisticsStartTime = in.readDouble();
+            warmupTruncationTime = in.readDouble();
+            warmupDroppedObservations = in.readLong();
+            warmupDetection = in.readBoolean();
+            warmupDetector = null;
+            warmupBuffer = null;
+            if (in.readBoolean()) {
+                warmupDetector = new MserWarmup();
+                warmupDetector.readState(in);
+                warmupBuffer = new ObservationBuffer(WARMUP_BUFFER_SIZE);
+                warmupBuffer.readState(in);
+            }
+            eventList.clear();
+            for (int n = in.readInt(); n > 0; n--) {
+                eventList.add(new Event(network.eventType(in.readShort()), in.readDouble()));
+            }
+            if (in.readBoolean()) {
+                timeSeriesInterval = in.readDouble();
+                timeSeries = new StationTimeSeries(getServicePoints(), timeSeriesInterval, getSimulationTime());
+                timeSeries.readState(in);
+            }
+            restoreProgress(time, eventCount);
+            restored = true;
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof IllegalArgumentException) throw (IllegalArgumentException) e;
+            throw new IllegalArgumentException("Corrupt simulation checkpoint: " + e, e);
+        }
+    }
+
+    /**
+     * Copy this run in memory, e.g. to branch it into variants that continue in parallel on other threads.
+     * Equivalent to restoring {@link #checkpoint()} into a new headless engine with the same camp layout.
+     *
+     * @return A new engine at the same point of the same run
+     */
+    public SimulationEngine fork() {
+        SimulationEngine copy = new SimulationEngine(campConfig);
+        copy.setView(null);
+        copy.restoreCheckpoint(checkpoint());
+        return copy;
+    }
+
     // ---- accessors for CSV export ----
     public List<Survivor> getAllSurvivors() { return Collections.unmodifiableList(allSurvivors); }
     public List<Survivor> getFullyProcessedSurvivors() { return Collections.unmodifiableList(fullyProcessedSurvivors); }
 
     // ---- worker controls ----
-    public void setMedicalWorkers(int n)       { medicalTreatmentStation.setWorkers(n); }
-    public void setRegistrationWorkers(int n)  { registrationDesk.setWorkers(n); }
-    public void setCommunicationWorkers(int n) { communicationCenter.setWorkers(n); }
-    public void setSuppliesWorkers(int n)      { suppliesDistributionPoint.setWorkers(n); }
-    public void setAccommodationWorkers(int n) { accommodationCenter.setWorkers(n); }
-    public void setChildShelterWorkers(int n)  { childShelterAssignment.setWorkers(n); }
-    public void setAdultShelterWorkers(int n)  { adultShelterAssignment.setWorkers(n); }
+    /** Set the number of workers of the station with the given configuration key */
+    public void setWorkers(String stationKey, int n) { servicePoints[network.indexOf(stationKey)].setWorkers(n); }
+
+    /**
+     * Change the number of workers of a station while the simulation runs; thread-safe. Applies from the
+     * next event on; services already in progress keep their duration.
+     */
+    public void changeWorkers(String stationKey, int n) {
+        int station = network.indexOf(stationKey);
+        getControl().submit(() -> servicePoints[station].setWorkers(n));
+    }
+
+    /**
+     * Change the number of workers of a station when the simulation reaches the given time; thread-safe,
+     * e.g. {@code changeWorkers(240, CampNetworkConfig.MEDICAL, 7)} for two more medical staff at hour 4
+     */
+    public void changeWorkers(double atTime, String stationKey, int n) {
+        int station = network.indexOf(stationKey);
+        getControl().submitAt(atTime, () -> servicePoints[station].setWorkers(n));
+    }
+
+    /**
+     * Draw the following inter-arrival times from another distribution while the simulation runs;
+     * thread-safe. The arrival already scheduled is kept, and the new generator continues the random
+     * stream of the old one, so runs with the same seed and commands stay reproducible.
+     */
+    public void changeArrivalDistribution(DistributionSpec distribution) {
+        getControl().submit(() -> {
+            arrivalDistribution = distribution;
+            survivorArrivalProcess.setGenerator(distribution.create(survivorArrivalProcess.getGenerator().getSeed()));
+        });
+    }
+
+    /** Switch to exponential inter-arrival times with the given mean while the simulation runs; thread-safe */
+    public void changeArrivalMean(double mean) {
+        if (!(mean > 0)) throw new IllegalArgumentException("Arrival mean must be greater than 0");
+        changeArrivalDistribution(new DistributionSpec("negexp", mean));
+    }
+
+    public void setMedicalWorkers(int n)       { setWorkers(CampNetworkConfig.MEDICAL, n); }
+    public void setRegistrationWorkers(int n)  { setWorkers(CampNetworkConfig.REGISTRATION, n); }
+    public void setCommunicationWorkers(int n) { setWorkers(CampNetworkConfig.COMMUNICATION, n); }
+    public void setSuppliesWorkers(int n)      { setWorkers(CampNetworkConfig.SUPPLIES, n); }
+    public void setAccommodationWorkers(int n) { setWorkers(CampNetworkConfig.ACCOMMODATION, n); }
+    public void setChildShelterWorkers(int n)  { setWorkers(CampNetworkConfig.CHILD_SHELTER, n); }
+    public void setAdultShelterWorkers(int n)  { setWorkers(CampNetworkConfig.ADULT_SHELTER, n); }
 }
 
 
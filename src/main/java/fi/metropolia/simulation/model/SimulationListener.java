@@ -0,0 +1,53 @@
+package fi.metropolia.simulation.model;
+
+/**
+ * Observer of a running simulation. The engine calls these methods on the simulation thread as the
+ * camp state changes; all methods default to doing nothing, so a listener overrides only what it needs.
+ * Arguments are the simulation time, station indexes (configuration order, as in
+ * {@link SimulationEngine#getServicePoints()}) and the survivor concerned; nothing is formatted or
+ * allocated for the call.
+ * <p>
+ * Console views, file outputs and metrics collectors are listeners. A run without listeners uses
+ * {@link #NONE}, whose empty methods the JIT removes from the event loop.
+ */
+public interface SimulationListener {
+
+    /** Listener that ignores everything */
+    SimulationListener NONE = new SimulationListener() { };
+
+    /** The run is about to process its first event */
+    default void simulationStarted(double time, SimulationEngine engine) { }
+
+    /** A new survivor arrived at the camp (before being routed) */
+    default void survivorArrived(double time, Survivor survivor) { }
+
+    /** A survivor joined the queue of a station */
+    default void survivorQueued(double time, int station, Survivor survivor) { }
+
+    /** A station started serving a survivor for the given duration */
+    default void serviceStarted(double time, int station, Survivor survivor, double duration) { }
+
+    /** A station assigned (SC-6 / SC-7) a temporary home to the survivor it started serving */
+    default void temporaryHomeAssigned(double time, int station, Survivor survivor) { }
+
+    /** A station finished serving a survivor; eventOrdinal is the completion event type */
+    default void serviceCompleted(double time, int station, Survivor survivor, int eventOrdinal) { }
+
+    /** A survivor left the camp */
+    default void survivorExited(double time, Survivor survivor) { }
+
+    /**
+     * The events due at this time, and the services they let start, have been processed; the engine may now
+     * wait (pacer, pause) before the next event
+     */
+    default void eventsProcessed(double time) { }
+
+    /**
+     * The engine discarded its statistics and collects again from this time. After a warm-up the waiting
+     * times and survivor figures observed after {@code since} were counted again; otherwise since == time.
+     */
+    default void statisticsReset(double time, double since) { }
+
+    /** The run is over; engine statistics are final and survivors still in the camp are in the station queues */
+    default void simulationEnded(double time, SimulationEngine engine) { }
+}
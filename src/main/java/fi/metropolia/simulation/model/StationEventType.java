@@ -0,0 +1,27 @@
+package fi.metropolia.simulation.model;
+
+import fi.metropolia.simulation.framework.IEventType;
+
+/**
+ * MODEL: Service completion event type for a service point defined only in the camp configuration.
+ * The built-in stations use {@link RescueCampEventType}; extra stations get ordinals after its constants.
+ */
+public final class StationEventType implements IEventType {
+    private final String name;
+    private final int ordinal;
+
+    public StationEventType(String name, int ordinal) {
+        this.name = name;
+        this.ordinal = ordinal;
+    }
+
+    @Override
+    public int ordinal() {
+        return ordinal;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
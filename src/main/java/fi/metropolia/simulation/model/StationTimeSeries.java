@@ -0,0 +1,184 @@
+package fi.metropolia.simulation.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MODEL: Periodic snapshots of every service point's state at a fixed simulated interval.
+ * <p>
+ * Sample i is taken at time i * interval. Values are stored column-wise in preallocated primitive arrays
+ * (one array per station and quantity). Sampling is lazy: the engine calls {@link #sampleUntil(double)}
+ * before each clock advance and the series fills in every grid point the clock jumps over, since station
+ * state cannot change between events. The grid ends at the simulation horizon.
+ */
+public class StationTimeSeries {
+    private static final int BINARY_MAGIC = 0x52515453; // "RQTS"
+
+    private final String[] stationNames;
+    private final double interval;
+    private RescueCampServicePoint[] stations;
+    private int[][] queueLength;   // survivors waiting (not in service)
+    private int[][] busyServers;   // 1 while the station is serving someone
+    private int[][] served;        // cumulative survivors served
+    private int size = 0;
+
+    /**
+     * @param stations Service points to sample, in column order
+     * @param interval Simulated time between samples (minutes)
+     * @param horizon  Expected simulation length; used to preallocate the columns
+     */
+    public StationTimeSeries(List<RescueCampServicePoint> stations, double interval, double horizon) {
+        this(namesOf(stations), interval, (int) Math.floor(horizon / interval) + 1);
+        this.stations = stations.toArray(new RescueCampServicePoint[0]);
+    }
+
+    private StationTimeSeries(String[] stationNames, double interval, int capacity) {
+        if (interval <= 0) throw new IllegalArgumentException("StationTimeSeries: interval must be greater than 0");
+        this.stationNames = stationNames;
+        this.interval = interval;
+        int n = stationNames.length;
+        int initialCapacity = Math.max(1, capacity);
+        queueLength = new int[n][initialCapacity];
+        busyServers = new int[n][initialCapacity];
+        served = new int[n][initialCapacity];
+    }
+
+    private static String[] namesOf(List<RescueCampServicePoint> stations) {
+        String[] names = new String[stations.size()];
+        for (int i = 0; i < names.length; i++) names[i] = stations.get(i).getServicePointName();
+        return names;
+    }
+
+    /**
+     * Record all grid points strictly before the given time using the current station state.
+     *
+     * @param time Time the clock is about to advance to
+     */
+    public void sampleUntil(double time) {
+        if (stations == null) return;
+        while (size * interval < time) {
+            recordSample();
+        }
+    }
+
+    /**
+     * Record all grid points up to and including the given time (used at the end of the simulation).
+     *
+     * @param time Current simulation time
+     */
+    public void sampleThrough(double time) {
+        if (stations == null) return;
+        while (size * interval <= time) {
+            recordSample();
+        }
+    }
+
+    private void recordSample() {
+        if (size == queueLength[0].length) grow();
+        for (int s = 0; s < stations.length; s++) {
+            RescueCampServicePoint sp = stations[s];
+            int inService = sp.isServiceInProgress() ? 1 : 0;
+            queueLength[s][size] = sp.getCurrentQueueLength() - inService;
+            busyServers[s][size] = inService;
+            served[s][size] = sp.getTotalSurvivorsServed();
+        }
+        size++;
+    }
+
+    private void grow() {
+        int capacity = queueLength[0].length * 2;
+        for (int s = 0; s < stationNames.length; s++) {
+            queueLength[s] = Arrays.copyOf(queueLength[s], capacity);
+            busyServers[s] = Arrays.copyOf(busyServers[s], capacity);
+            served[s] = Arrays.copyOf(served[s], capacity);
+        }
+    }
+
+    /** Write the samples taken so far (for engine checkpoints) */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int[][] column : new int[][][]{queueLength, busyServers, served}) {
+            for (int s = 0; s < stationNames.length; s++) {
+                for (int i = 0; i < size; i++) out.writeInt(column[s][i]);
+            }
+        }
+    }
+
+    /** Replace the samples with those written by {@link #writeState(DataOutput)} */
+    void readState(DataInput in) throws IOException {
+        int n = in.readInt();
+        while (queueLength[0].length < n) grow();
+        for (int[][] column : new int[][][]{queueLength, busyServers, served}) {
+            for (int s = 0; s < stationNames.length; s++) {
+                for (int i = 0; i < n; i++) column[s][i] = in.readInt();
+            }
+        }
+        size = n;
+    }
+
+    // Getters (column arrays are not copied; only the first size() entries are valid)
+    public int size() { return size; }
+    public double getInterval() { return interval; }
+    public double getSampleTime(int i) { return i * interval; }
+    public int getStationCount() { return stationNames.length; }
+    public String getStationName(int station) { return stationNames[station]; }
+    public int[] getQueueLengths(int station) { return queueLength[station]; }
+    public int[] getBusyServers(int station) { return busyServers[station]; }
+    public int[] getServedCounts(int station) { return served[station]; }
+
+    /**
+     * Write the series in a compact binary form: header, station names, then each column in turn.
+     *
+     * @param path file to write
+     * @throws IOException if writing fails
+     */
+    public void writeBinary(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(BINARY_MAGIC);
+            out.writeDouble(interval);
+            out.writeInt(stationNames.length);
+            out.writeInt(size);
+            for (String name : stationNames) out.writeUTF(name);
+            for (int[][] column : new int[][][]{queueLength, busyServers, served}) {
+                for (int s = 0; s < stationNames.length; s++) {
+                    for (int i = 0; i < size; i++) out.writeInt(column[s][i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a series written by {@link #writeBinary(Path)}, e.g. to chart it in the GUI's Queues tab.
+     *
+     * @param path file to read
+     * @return The series; it cannot sample further since it is not attached to live service points
+     * @throws IOException if reading fails or the file is not a time series
+     */
+    public static StationTimeSeries readBinary(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != BINARY_MAGIC) throw new IOException("Not a station time series: " + path);
+            double interval = in.readDouble();
+            int stationCount = in.readInt();
+            int size = in.readInt();
+            String[] names = new String[stationCount];
+            for (int s = 0; s < stationCount; s++) names[s] = in.readUTF();
+            StationTimeSeries series = new StationTimeSeries(names, interval, size);
+            for (int[][] column : new int[][][]{series.queueLength, series.busyServers, series.served}) {
+                for (int s = 0; s < stationCount; s++) {
+                    for (int i = 0; i < size; i++) column[s][i] = in.readInt();
+                }
+            }
+            series.size = size;
+            return series;
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package fi.metropolia.simulation.model;
 
+import eduni.distributions.ContinuousGenerator;
 import fi.metropolia.simulation.framework.Clock;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Locale;
 
 public class Survivor {
@@ -18,8 +23,8 @@ public class Survivor {
         EVERGREEN_CARE_CENTER
     }
 
-    private static int nextSurvivorId = 1;
     private final int survivorId;
+    private final ContinuousGenerator random;   // uniform(0,1) stream owned by the simulation engine
     private int survivorAge;
     private HealthCondition healthCondition;
     private AgeCategory ageCategory;
@@ -28,30 +33,72 @@ public class Survivor {
     private final double campArrivalTime;
     private double processingCompletionTime;
     private double totalWaitingTime = 0;
+    private double queueEntryTime;      // when the survivor joined the current service point queue
 
     // Service requirements (derived)
     private boolean requiresMedicalTreatment;
     private boolean requestsCommunicationService; // <-- children must be FALSE
     private boolean isFullyProcessed = false;
+    private int attributeFlags;                   // SurvivorAttribute bits, for routing
 
     // === NEW: assignment result + time ===
     private TempHomeChild assignedChildHome = null;
     private TempHomeAdult assignedAdultHome = null;
     private double assignmentTime = Double.NaN;
 
-    public Survivor() {
-        this.survivorId = nextSurvivorId++;
+    /**
+     * @param survivorId Identifier, unique within one simulation run
+     * @param random     Uniform(0,1) generator used for attribute and home assignment sampling
+     */
+    public Survivor(int survivorId, ContinuousGenerator random) {
+        this.survivorId = survivorId;
+        this.random = random;
         this.campArrivalTime = Clock.getInstance().getClock();
         generateSurvivorAttributes();
     }
 
+    private Survivor(int survivorId, double campArrivalTime, ContinuousGenerator random) {
+        this.survivorId = survivorId;
+        this.random = random;
+        this.campArrivalTime = campArrivalTime;
+    }
+
+    /**
+     * Recreate a survivor from recorded attributes (e.g. when replaying a journal). The survivor has no
+     * random stream: its temporary home must be restored with {@link #restoreTemporaryHome(int, double)}.
+     *
+     * @param survivorId             identifier
+     * @param campArrivalTime        arrival time
+     * @param age                    age in years
+     * @param healthCondition        health on arrival
+     * @param requestsCommunication  whether the survivor asked for the communication service
+     * @return The survivor
+     */
+    public static Survivor restore(int survivorId, double campArrivalTime, int age,
+                                   HealthCondition healthCondition, boolean requestsCommunication) {
+        return restore(survivorId, campArrivalTime, age, healthCondition, requestsCommunication, null);
+    }
+
+    private static Survivor restore(int survivorId, double campArrivalTime, int age, HealthCondition healthCondition,
+                                    boolean requestsCommunication, ContinuousGenerator random) {
+        Survivor survivor = new Survivor(survivorId, campArrivalTime, random);
+        survivor.survivorAge = age;
+        survivor.ageCategory = (age < 18) ? AgeCategory.CHILD : AgeCategory.ADULT;
+        survivor.healthCondition = healthCondition;
+        survivor.requiresMedicalTreatment =
+                (survivor.ageCategory == AgeCategory.CHILD) || (healthCondition == HealthCondition.INJURED);
+        survivor.requestsCommunicationService = requestsCommunication;
+        survivor.attributeFlags = survivor.computeAttributeFlags();
+        return survivor;
+    }
+
     private void generateSurvivorAttributes() {
         // Age 1–80
-        this.survivorAge = (int) (Math.random() * 80) + 1;
+        this.survivorAge = (int) (random.sample() * 80) + 1;
         this.ageCategory = (survivorAge < 18) ? AgeCategory.CHILD : AgeCategory.ADULT;
 
         // Health: 20% injured (unchanged)
-        this.healthCondition = (Math.random() < 0.2) ? HealthCondition.INJURED : HealthCondition.HEALTHY;
+        this.healthCondition = (random.sample() < 0.2) ? HealthCondition.INJURED : HealthCondition.HEALTHY;
 
         // Medical need (derived)
         this.requiresMedicalTreatment =
@@ -59,14 +106,23 @@ public class Survivor {
 
         // Communication need: children must NOT request; adults 40%
         this.requestsCommunicationService =
-                (ageCategory == AgeCategory.ADULT) && (Math.random() < 0.4);
+                (ageCategory == AgeCategory.ADULT) && (random.sample() < 0.4);
+
+        this.attributeFlags = computeAttributeFlags();
+    }
+
+    private int computeAttributeFlags() {
+        return (ageCategory == AgeCategory.CHILD ? SurvivorAttribute.CHILD.bit() : SurvivorAttribute.ADULT.bit())
+                | (healthCondition == HealthCondition.INJURED ? SurvivorAttribute.INJURED.bit() : SurvivorAttribute.HEALTHY.bit())
+                | (requiresMedicalTreatment ? SurvivorAttribute.REQUIRES_MEDICAL.bit() : 0)
+                | (requestsCommunicationService ? SurvivorAttribute.REQUESTS_COMMUNICATION.bit() : 0);
     }
 
     // === NEW: perform assignment at SC-6/SC-7 ===
     /** Idempotent: safe to call once when SC-6/SC-7 starts. */
     public void assignTemporaryHome() {
         if (hasAssignment()) return;
-        double r = Math.random();
+        double r = random.sample();
         if (ageCategory == AgeCategory.CHILD) {
             // 50% Faithworks, 50% Easter Brook Foundation (SC-6)
             assignedChildHome = (r < 0.5)
@@ -85,25 +141,102 @@ public class Survivor {
         assignmentTime = Clock.getInstance().getClock();
     }
 
+    /**
+     * Compact code of the assigned home: 0 for none, then the child homes, then the adult homes
+     * (in enum order). Used by the binary output formats.
+     */
+    public int getAssignedHomeCode() {
+        if (assignedChildHome != null) return 1 + assignedChildHome.ordinal();
+        if (assignedAdultHome != null) return 1 + TempHomeChild.values().length + assignedAdultHome.ordinal();
+        return 0;
+    }
+
+    /** @return Home names indexed by {@link #getAssignedHomeCode()} code; code 0 is the empty string */
+    public static String[] assignedHomeNames() {
+        TempHomeChild[] child = TempHomeChild.values();
+        TempHomeAdult[] adult = TempHomeAdult.values();
+        String[] names = new String[1 + child.length + adult.length];
+        names[0] = "";
+        for (TempHomeChild home : child) names[1 + home.ordinal()] = homeName(home);
+        for (TempHomeAdult home : adult) names[1 + child.length + home.ordinal()] = homeName(home);
+        return names;
+    }
+
+    /**
+     * Set a recorded home assignment instead of sampling one
+     *
+     * @param homeCode       code from {@link #getAssignedHomeCode()}, 0 for none
+     * @param assignmentTime when the home was assigned
+     */
+    public void restoreTemporaryHome(int homeCode, double assignmentTime) {
+        if (homeCode == 0) return;
+        int childHomes = TempHomeChild.values().length;
+        if (homeCode <= childHomes) assignedChildHome = TempHomeChild.values()[homeCode - 1];
+        else assignedAdultHome = TempHomeAdult.values()[homeCode - 1 - childHomes];
+        this.assignmentTime = assignmentTime;
+    }
+
+    /** Write the complete record (for engine checkpoints) */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(survivorId);
+        out.writeDouble(campArrivalTime);
+        out.writeByte(survivorAge);
+        out.writeByte(healthCondition.ordinal() | (requestsCommunicationService ? 2 : 0) | (isFullyProcessed ? 4 : 0));
+        out.writeDouble(processingCompletionTime);
+        out.writeDouble(totalWaitingTime);
+        out.writeDouble(queueEntryTime);
+        out.writeByte(getAssignedHomeCode());
+        out.writeDouble(assignmentTime);
+    }
+
+    /**
+     * Read a record written by {@link #writeState(DataOutput)}
+     *
+     * @param random Uniform(0,1) stream of the engine the survivor continues in
+     */
+    static Survivor readState(DataInput in, ContinuousGenerator random) throws IOException {
+        int id = in.readInt();
+        double arrival = in.readDouble();
+        int age = in.readUnsignedByte();
+        int flags = in.readUnsignedByte();
+        Survivor survivor = restore(id, arrival, age, HealthCondition.values()[flags & 1], (flags & 2) != 0, random);
+        survivor.isFullyProcessed = (flags & 4) != 0;
+        survivor.processingCompletionTime = in.readDouble();
+        survivor.totalWaitingTime = in.readDouble();
+        survivor.queueEntryTime = in.readDouble();
+        int homeCode = in.readUnsignedByte();
+        double assigned = in.readDouble();
+        survivor.restoreTemporaryHome(homeCode, assigned);
+        return survivor;
+    }
+
     public boolean hasAssignment() {
         return assignedChildHome != null || assignedAdultHome != null;
     }
 
     public String getAssignedHomeName() {
-        if (assignedChildHome != null) {
-            switch (assignedChildHome) {
-                case FAITHWORKS_CHILDCARE:       return "Faithworks childcare";
-                case EASTER_BROOK_FOUNDATION:    return "Easter Brook Foundation";
-            }
+        if (assignedChildHome != null) return homeName(assignedChildHome);
+        if (assignedAdultHome != null) return homeName(assignedAdultHome);
+        return null;
+    }
+
+    /** @return Display name of a child home (SC-6) */
+    public static String homeName(TempHomeChild home) {
+        switch (home) {
+            case FAITHWORKS_CHILDCARE:       return "Faithworks childcare";
+            case EASTER_BROOK_FOUNDATION:    return "Easter Brook Foundation";
         }
-        if (assignedAdultHome != null) {
-            switch (assignedAdultHome) {
-                case CITY_OF_REFUGE_ORPHANAGE_HOME: return "City of Refuge Orphanage Home";
-                case LIFEPATH_CARE_HOME:            return "Lifepath Care Home";
-                case EVERGREEN_CARE_CENTER:         return "Evergreen Care center";
-            }
+        throw new IllegalArgumentException(home.name());
+    }
+
+    /** @return Display name of an adult home (SC-7) */
+    public static String homeName(TempHomeAdult home) {
+        switch (home) {
+            case CITY_OF_REFUGE_ORPHANAGE_HOME: return "City of Refuge Orphanage Home";
+            case LIFEPATH_CARE_HOME:            return "Lifepath Care Home";
+            case EVERGREEN_CARE_CENTER:         return "Evergreen Care center";
         }
-        return null;
+        throw new IllegalArgumentException(home.name());
     }
 
     // === NEW: CSV helpers (header + row for assignments) ===
@@ -162,6 +295,7 @@ public class Survivor {
     }
 
     public void addWaitingTime(double waitTime) { this.totalWaitingTime += waitTime; }
+    public void setQueueEntryTime(double t) { this.queueEntryTime = t; }
 
     // Getters
     public int getSurvivorId() { return survivorId; }
@@ -171,24 +305,12 @@ public class Survivor {
     public double getCampArrivalTime() { return campArrivalTime; }
     public double getProcessingCompletionTime() { return processingCompletionTime; }
     public double getTotalWaitingTime() { return totalWaitingTime; }
+    public double getQueueEntryTime() { return queueEntryTime; }
     public boolean requiresMedicalTreatment() { return requiresMedicalTreatment; }
     public boolean requestsCommunicationService() { return requestsCommunicationService; }
     public boolean isFullyProcessed() { return isFullyProcessed; }
-
-    // Service time setters
-    public void setMedicalTreatmentStartTime(double t) { // Service start timestamps
-        // SC-4
-    }
-    public void setRegistrationStartTime(double t) { // SC-1
-    }
-    public void setCommunicationServiceStartTime(double t) { // SC-2
-    }
-    public void setSuppliesDistributionStartTime(double t) { // SC-3
-    }
-    public void setAccommodationCenterStartTime(double t) { // SC-5
-    }
-    public void setChildShelterAssignmentStartTime(double t) { // SC-6
-    }
-    public void setAdultShelterAssignmentStartTime(double t) { // SC-7
-    }
+    public int getAttributeFlags() { return attributeFlags; }
+    public TempHomeChild getAssignedChildHome() { return assignedChildHome; }
+    public TempHomeAdult getAssignedAdultHome() { return assignedAdultHome; }
+    public double getAssignmentTime() { return assignmentTime; }
 }
@@ -0,0 +1,32 @@
+package fi.metropolia.simulation.model;
+
+import java.util.Locale;
+
+/**
+ * MODEL: Survivor properties that routing conditions can test. Each attribute is one bit of
+ * {@link Survivor#getAttributeFlags()}, so a condition is a mask/value pair checked in one comparison.
+ */
+public enum SurvivorAttribute {
+    CHILD,
+    ADULT,
+    INJURED,
+    HEALTHY,
+    REQUIRES_MEDICAL,
+    REQUESTS_COMMUNICATION;
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * @param name Attribute name as written in a camp configuration, e.g. {@code requires_medical}
+     * @return The attribute
+     */
+    public static SurvivorAttribute parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown survivor attribute in route: " + name);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package fi.metropolia.simulation.results;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Directory of a columnar results file: its tables, their columns and where each column chunk lies.
+ * <p>
+ * File layout:
+ * <pre>
+ * int magic "RQCR", int version
+ * column chunks (little-endian), a row group at a time: every column's chunk for rows 0..n, then n..2n, ...
+ * footer (this directory, written with DataOutputStream)
+ * long footer offset, int magic
+ * </pre>
+ * The footer is at the end so the writer can stream chunks without knowing the row count in advance.
+ */
+class ColumnarLayout {
+    static final int MAGIC = 0x52514352;    // "RQCR"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int TRAILER_SIZE = 12;
+
+    /** How a column's values are stored in a chunk */
+    enum Encoding {
+        /** One signed byte per value */
+        INT8,
+        /** Four bytes per value */
+        INT32,
+        /** Eight bytes per value (IEEE 754) */
+        FLOAT64,
+        /** One byte per value: an index into the column's dictionary */
+        DICT8,
+        /** Four bytes per value: an index into the column's dictionary */
+        DICT32,
+        /** Time in ticks, zigzag varint delta to the previous row of the chunk (first row: delta to 0) */
+        DELTA_TIME,
+        /** Time in ticks relative to the reference column of the same row as varint (offset + 1); 0 = NaN */
+        OFFSET_TIME
+    }
+
+    /** Time resolution of DELTA_TIME and OFFSET_TIME columns: 10^-6 simulated minutes */
+    static final double TICKS_PER_MINUTE = 1_000_000.0;
+
+    static class Chunk {
+        final long offset;
+        final int length;
+        final int rows;
+
+        Chunk(long offset, int length, int rows) {
+            this.offset = offset;
+            this.length = length;
+            this.rows = rows;
+        }
+    }
+
+    static class Column {
+        final String name;
+        final Encoding encoding;
+        final String reference;         // OFFSET_TIME only
+        final String[] dictionary;      // DICT8 / DICT32 only
+        final List<Chunk> chunks = new ArrayList<>();
+
+        Column(String name, Encoding encoding, String reference, String[] dictionary) {
+            this.name = name;
+            this.encoding = encoding;
+            this.reference = reference;
+            this.dictionary = dictionary;
+        }
+    }
+
+    static class Table {
+        final String name;
+        final Map<String, Column> columns = new LinkedHashMap<>();
+        int rowCount = 0;
+
+        Table(String name) {
+            this.name = name;
+        }
+
+        Column add(Column column) {
+            columns.put(column.name, column);
+            return column;
+        }
+    }
+
+    final Map<String, Table> tables = new LinkedHashMap<>();
+
+    Table addTable(String name) {
+        Table table = new Table(name);
+        tables.put(name, table);
+        return table;
+    }
+
+    byte[] toFooter() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(tables.size());
+        for (Table table : tables.values()) {
+            out.writeUTF(table.name);
+            out.writeInt(table.rowCount);
+            out.writeInt(table.columns.size());
+            for (Column column : table.columns.values()) {
+                out.writeUTF(column.name);
+                out.writeByte(column.encoding.ordinal());
+                if (column.encoding == Encoding.OFFSET_TIME) out.writeUTF(column.reference);
+                if (column.dictionary != null) {
+                    out.writeInt(column.dictionary.length);
+                    for (String entry : column.dictionary) out.writeUTF(entry);
+                }
+                out.writeInt(column.chunks.size());
+                for (Chunk chunk : column.chunks) {
+                    out.writeLong(chunk.offset);
+                    out.writeInt(chunk.length);
+                    out.writeInt(chunk.rows);
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static ColumnarLayout fromFooter(DataInputStream in) throws IOException {
+        ColumnarLayout layout = new ColumnarLayout();
+        int tableCount = in.readInt();
+        for (int t = 0; t < tableCount; t++) {
+            Table table = layout.addTable(in.readUTF());
+            table.rowCount = in.readInt();
+            int columnCount = in.readInt();
+            for (int c = 0; c < columnCount; c++) {
+                String name = in.readUTF();
+                Encoding encoding = Encoding.values()[in.readUnsignedByte()];
+                String reference = encoding == Encoding.OFFSET_TIME ? in.readUTF() : null;
+                String[] dictionary = null;
+                if (encoding == Encoding.DICT8 || encoding == Encoding.DICT32) {
+                    dictionary = new String[in.readInt()];
+                    for (int i = 0; i < dictionary.length; i++) dictionary[i] = in.readUTF();
+                }
+                Column column = table.add(new Column(name, encoding, reference, dictionary));
+                int chunkCount = in.readInt();
+                for (int i = 0; i < chunkCount; i++) {
+                    column.chunks.add(new Chunk(in.readLong(), in.readInt(), in.readInt()));
+                }
+            }
+        }
+        return layout;
+    }
+}
@@ -0,0 +1,224 @@
+package fi.metropolia.simulation.results;
+
+import fi.metropolia.simulation.statistics.RunningStatistics;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads files written by {@link ColumnarResultsWriter}. Column chunks are memory-mapped on demand, so
+ * reading one column touches only that column's bytes; all other columns stay on disk.
+ * <p>
+ * Example, mean time in camp by age category without reading any other column:
+ * <pre>
+ * double[] timeInCamp = reader.readOffsets(SURVIVORS, COMPLETION_TIME);
+ * Map&lt;String, RunningStatistics&gt; byAge = reader.groupBy(SURVIVORS, AGE_CATEGORY, timeInCamp);
+ * </pre>
+ */
+public class ColumnarResultsReader implements AutoCloseable {
+    private final Path path;
+    private final FileChannel channel;
+    private final ColumnarLayout layout;
+
+    /**
+     * @param path results file
+     * @throws IOException if the file cannot be read or is not a results file
+     */
+    public ColumnarResultsReader(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < ColumnarLayout.HEADER_SIZE + ColumnarLayout.TRAILER_SIZE) throw notResults();
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, ColumnarLayout.HEADER_SIZE);
+            if (header.getInt() != ColumnarLayout.MAGIC) throw notResults();
+            if (header.getInt() != ColumnarLayout.VERSION) throw new IOException("Unsupported results version: " + path);
+            ByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    size - ColumnarLayout.TRAILER_SIZE, ColumnarLayout.TRAILER_SIZE);
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != ColumnarLayout.MAGIC) throw new IOException("Incomplete results file: " + path);
+            byte[] footer = new byte[(int) (size - ColumnarLayout.TRAILER_SIZE - footerOffset)];
+            channel.map(FileChannel.MapMode.READ_ONLY, footerOffset, footer.length).get(footer);
+            layout = ColumnarLayout.fromFooter(new DataInputStream(new ByteArrayInputStream(footer)));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private IOException notResults() {
+        return new IOException("Not a columnar results file: " + path);
+    }
+
+    /** @return Names of the tables in the file */
+    public List<String> getTableNames() { return new ArrayList<>(layout.tables.keySet()); }
+
+    /** @return Column names of a table, in file order */
+    public List<String> getColumnNames(String table) { return new ArrayList<>(table(table).columns.keySet()); }
+
+    public int getRowCount(String table) { return table(table).rowCount; }
+
+    /** @return Values of a dictionary-encoded column, indexed by code */
+    public String[] getDictionary(String table, String column) {
+        String[] dictionary = column(table, column).dictionary;
+        if (dictionary == null) throw new IllegalArgumentException(column + " is not dictionary-encoded");
+        return dictionary.clone();
+    }
+
+    /**
+     * @return Integer values of an INT8 / INT32 column, or the codes of a dictionary column
+     * @throws IOException if reading fails
+     */
+    public int[] readInts(String table, String column) throws IOException {
+        ColumnarLayout.Column c = column(table, column);
+        int[] values = new int[table(table).rowCount];
+        int row = 0;
+        for (ColumnarLayout.Chunk chunk : c.chunks) {
+            ByteBuffer data = map(chunk);
+            switch (c.encoding) {
+                case INT8:
+                case DICT8:
+                    for (int i = 0; i < chunk.rows; i++) values[row++] = c.encoding == ColumnarLayout.Encoding.DICT8
+                            ? data.get() & 0xFF : data.get();
+                    break;
+                case INT32:
+                case DICT32:
+                    data.asIntBuffer().get(values, row, chunk.rows);
+                    row += chunk.rows;
+                    break;
+                default:
+                    throw new IllegalArgumentException(column + " is not an integer column");
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return Values of a FLOAT64 or time column in minutes; offset columns are resolved against their
+     * reference column, which is read as well. Missing times are NaN.
+     * @throws IOException if reading fails
+     */
+    public double[] readDoubles(String table, String column) throws IOException {
+        ColumnarLayout.Column c = column(table, column);
+        if (c.encoding == ColumnarLayout.Encoding.OFFSET_TIME) {
+            double[] values = readOffsets(table, column);
+            double[] reference = readDoubles(table, c.reference);
+            for (int i = 0; i < values.length; i++) values[i] += reference[i];
+            return values;
+        }
+        double[] values = new double[table(table).rowCount];
+        int row = 0;
+        for (ColumnarLayout.Chunk chunk : c.chunks) {
+            ByteBuffer data = map(chunk);
+            switch (c.encoding) {
+                case FLOAT64:
+                    data.asDoubleBuffer().get(values, row, chunk.rows);
+                    row += chunk.rows;
+                    break;
+                case DELTA_TIME:
+                    long ticks = 0;
+                    for (int i = 0; i < chunk.rows; i++) {
+                        long zigzag = getVarLong(data);
+                        ticks += (zigzag >>> 1) ^ -(zigzag & 1);
+                        values[row++] = ticks / ColumnarLayout.TICKS_PER_MINUTE;
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException(column + " is not a floating point column");
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Read an offset time column without its reference column, e.g. completion time relative to
+     * arrival, which is the time in camp
+     *
+     * @return Offsets in minutes, NaN where the time is missing
+     * @throws IOException if reading fails
+     */
+    public double[] readOffsets(String table, String column) throws IOException {
+        ColumnarLayout.Column c = column(table, column);
+        if (c.encoding != ColumnarLayout.Encoding.OFFSET_TIME) {
+            throw new IllegalArgumentException(column + " is not an offset time column");
+        }
+        double[] values = new double[table(table).rowCount];
+        int row = 0;
+        for (ColumnarLayout.Chunk chunk : c.chunks) {
+            ByteBuffer data = map(chunk);
+            for (int i = 0; i < chunk.rows; i++) {
+                long encoded = getVarLong(data);
+                values[row++] = encoded == 0 ? Double.NaN : (encoded - 1) / ColumnarLayout.TICKS_PER_MINUTE;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Summarize values per category of a dictionary column; NaN values are skipped
+     *
+     * @param table          table of both columns
+     * @param categoryColumn dictionary-encoded column to group by
+     * @param values         one value per row, e.g. from {@link #readOffsets(String, String)}
+     * @return Statistics per dictionary entry, in dictionary order
+     * @throws IOException if reading fails
+     */
+    public Map<String, RunningStatistics> groupBy(String table, String categoryColumn, double[] values) throws IOException {
+        String[] dictionary = getDictionary(table, categoryColumn);
+        int[] codes = readInts(table, categoryColumn);
+        RunningStatistics[] groups = new RunningStatistics[dictionary.length];
+        for (int i = 0; i < groups.length; i++) groups[i] = new RunningStatistics();
+        for (int i = 0; i < codes.length; i++) {
+            if (!Double.isNaN(values[i])) groups[codes[i]].add(values[i]);
+        }
+        Map<String, RunningStatistics> result = new LinkedHashMap<>();
+        for (int i = 0; i < dictionary.length; i++) result.put(dictionary[i], groups[i]);
+        return result;
+    }
+
+    private static long getVarLong(ByteBuffer data) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private MappedByteBuffer map(ColumnarLayout.Chunk chunk) throws IOException {
+        MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, chunk.offset, chunk.length);
+        data.order(ByteOrder.LITTLE_ENDIAN);
+        return data;
+    }
+
+    private ColumnarLayout.Table table(String name) {
+        ColumnarLayout.Table table = layout.tables.get(name);
+        if (table == null) throw new IllegalArgumentException("No table " + name + " in " + path);
+        return table;
+    }
+
+    private ColumnarLayout.Column column(String table, String name) {
+        ColumnarLayout.Column column = table(table).columns.get(name);
+        if (column == null) throw new IllegalArgumentException("No column " + table + "." + name + " in " + path);
+        return column;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,313 @@
+package fi.metropolia.simulation.results;
+
+import fi.metropolia.simulation.model.RescueCampServicePoint;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.SimulationListener;
+import fi.metropolia.simulation.model.Survivor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes the results of one run in a compact columnar binary format: a {@value #SURVIVORS} table with
+ * one row per survivor and a {@value #STATIONS} table with one row per service point. Read it back with
+ * {@link ColumnarResultsReader}.
+ * <p>
+ * Survivors are buffered in primitive arrays and written as one chunk per column every
+ * {@value #CHUNK_ROWS} rows. Enums and homes are dictionary-encoded bytes; arrival times are varint
+ * deltas and the later timestamps varint offsets from the arrival, at 10^-6 minute resolution.
+ * <p>
+ * As a {@link SimulationListener} it writes a row when a survivor leaves the camp and completes the file
+ * (remaining survivors, station table) when the run ends. After the first I/O error the file is abandoned.
+ */
+public class ColumnarResultsWriter implements AutoCloseable, SimulationListener {
+    public static final String SURVIVORS = "survivors";
+    public static final String STATIONS = "stations";
+
+    // Survivor columns
+    public static final String ID = "id";
+    public static final String AGE = "age";
+    public static final String AGE_CATEGORY = "age_category";
+    public static final String HEALTH = "health";
+    public static final String REQUIRES_MEDICAL = "requires_medical";
+    public static final String REQUESTS_COMMUNICATION = "requests_communication";
+    public static final String ASSIGNED_HOME = "assigned_home";
+    public static final String ARRIVAL_TIME = "arrival_time";
+    public static final String COMPLETION_TIME = "completion_time";   // NaN while still in the camp
+    public static final String ASSIGNMENT_TIME = "assignment_time";   // NaN without an assignment
+    public static final String WAITING_TIME = "waiting_time";
+
+    // Station columns
+    public static final String NAME = "name";
+    public static final String WORKERS = "workers";
+    public static final String SERVED = "served";
+    public static final String MAX_QUEUE = "max_queue";
+    public static final String MEAN_WAIT = "mean_wait";
+    public static final String P95_WAIT = "p95_wait";
+    public static final String MEAN_SERVICE = "mean_service";
+    public static final String UTILIZATION = "utilization";
+    public static final String AVERAGE_IN_STATION = "average_in_station";
+    public static final String AVERAGE_IN_QUEUE = "average_in_queue";
+
+    static final int CHUNK_ROWS = 1 << 16;
+
+    private final FileChannel channel;
+    private final ColumnarLayout layout = new ColumnarLayout();
+    private final ColumnarLayout.Table survivors;
+    private final ByteBuffer chunkBuffer = ByteBuffer.allocateDirect(CHUNK_ROWS * 10).order(ByteOrder.LITTLE_ENDIAN);
+    private long position;
+    private boolean closed = false;
+
+    // Buffered survivor rows of the current chunk
+    private final int[] ids = new int[CHUNK_ROWS];
+    private final byte[] ages = new byte[CHUNK_ROWS];
+    private final byte[] ageCategories = new byte[CHUNK_ROWS];
+    private final byte[] healthConditions = new byte[CHUNK_ROWS];
+    private final byte[] requiresMedical = new byte[CHUNK_ROWS];
+    private final byte[] requestsCommunication = new byte[CHUNK_ROWS];
+    private final byte[] homes = new byte[CHUNK_ROWS];
+    private final double[] arrivalTimes = new double[CHUNK_ROWS];
+    private final double[] completionTimes = new double[CHUNK_ROWS];
+    private final double[] assignmentTimes = new double[CHUNK_ROWS];
+    private final double[] waitingTimes = new double[CHUNK_ROWS];
+    private int rows = 0;
+
+    /**
+     * Create (or replace) a results file
+     *
+     * @param path file to write
+     * @throws IOException if the file cannot be opened
+     */
+    public ColumnarResultsWriter(Path path) throws IOException {
+        channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(ColumnarLayout.HEADER_SIZE);
+        header.putInt(ColumnarLayout.MAGIC).putInt(ColumnarLayout.VERSION).flip();
+        writeFully(header);
+
+        survivors = layout.addTable(SURVIVORS);
+        survivors.add(new ColumnarLayout.Column(ID, ColumnarLayout.Encoding.INT32, null, null));
+        survivors.add(new ColumnarLayout.Column(AGE, ColumnarLayout.Encoding.INT8, null, null));
+        survivors.add(new ColumnarLayout.Column(AGE_CATEGORY, ColumnarLayout.Encoding.DICT8, null,
+                names(Survivor.AgeCategory.values())));
+        survivors.add(new ColumnarLayout.Column(HEALTH, ColumnarLayout.Encoding.DICT8, null,
+                names(Survivor.HealthCondition.values())));
+        survivors.add(new ColumnarLayout.Column(REQUIRES_MEDICAL, ColumnarLayout.Encoding.INT8, null, null));
+        survivors.add(new ColumnarLayout.Column(REQUESTS_COMMUNICATION, ColumnarLayout.Encoding.INT8, null, null));
+        survivors.add(new ColumnarLayout.Column(ASSIGNED_HOME, ColumnarLayout.Encoding.DICT8, null,
+                Survivor.assignedHomeNames()));
+        survivors.add(new ColumnarLayout.Column(ARRIVAL_TIME, ColumnarLayout.Encoding.DELTA_TIME, null, null));
+        survivors.add(new ColumnarLayout.Column(COMPLETION_TIME, ColumnarLayout.Encoding.OFFSET_TIME, ARRIVAL_TIME, null));
+        survivors.add(new ColumnarLayout.Column(ASSIGNMENT_TIME, ColumnarLayout.Encoding.OFFSET_TIME, ARRIVAL_TIME, null));
+        survivors.add(new ColumnarLayout.Column(WAITING_TIME, ColumnarLayout.Encoding.FLOAT64, null, null));
+    }
+
+    private static String[] names(Enum<?>[] values) {
+        String[] names = new String[values.length];
+        for (Enum<?> value : values) names[value.ordinal()] = value.name();
+        return names;
+    }
+
+    /**
+     * Append one survivor row. Survivors still in the camp have a NaN completion time.
+     *
+     * @throws IOException if writing a full chunk fails
+     */
+    public void write(Survivor s) throws IOException {
+        int i = rows;
+        ids[i] = s.getSurvivorId();
+        ages[i] = (byte) s.getSurvivorAge();
+        ageCategories[i] = (byte) s.getAgeCategory().ordinal();
+        healthConditions[i] = (byte) s.getHealthCondition().ordinal();
+        requiresMedical[i] = (byte) (s.requiresMedicalTreatment() ? 1 : 0);
+        requestsCommunication[i] = (byte) (s.requestsCommunicationService() ? 1 : 0);
+        homes[i] = (byte) s.getAssignedHomeCode();
+        arrivalTimes[i] = s.getCampArrivalTime();
+        completionTimes[i] = s.isFullyProcessed() ? s.getProcessingCompletionTime() : Double.NaN;
+        assignmentTimes[i] = s.getAssignmentTime();
+        waitingTimes[i] = s.getTotalWaitingTime();
+        if (++rows == CHUNK_ROWS) flushSurvivors();
+    }
+
+    /**
+     * Append a row for every survivor
+     */
+    public void writeAll(Iterable<Survivor> survivors) throws IOException {
+        for (Survivor s : survivors) write(s);
+    }
+
+    private void flushSurvivors() throws IOException {
+        if (rows == 0) return;
+        for (ColumnarLayout.Column column : survivors.columns.values()) {
+            chunkBuffer.clear();
+            switch (column.name) {
+                case ID: for (int i = 0; i < rows; i++) chunkBuffer.putInt(ids[i]); break;
+                case AGE: chunkBuffer.put(ages, 0, rows); break;
+                case AGE_CATEGORY: chunkBuffer.put(ageCategories, 0, rows); break;
+                case HEALTH: chunkBuffer.put(healthConditions, 0, rows); break;
+                case REQUIRES_MEDICAL: chunkBuffer.put(requiresMedical, 0, rows); break;
+                case REQUESTS_COMMUNICATION: chunkBuffer.put(requestsCommunication, 0, rows); break;
+                case ASSIGNED_HOME: chunkBuffer.put(homes, 0, rows); break;
+                case ARRIVAL_TIME: putDeltaTimes(arrivalTimes); break;
+                case COMPLETION_TIME: putOffsetTimes(completionTimes, arrivalTimes); break;
+                case ASSIGNMENT_TIME: putOffsetTimes(assignmentTimes, arrivalTimes); break;
+                case WAITING_TIME: for (int i = 0; i < rows; i++) chunkBuffer.putDouble(waitingTimes[i]); break;
+                default: throw new IllegalStateException("Unknown column " + column.name);
+            }
+            writeChunk(column, rows);
+        }
+        survivors.rowCount += rows;
+        rows = 0;
+    }
+
+    private void putDeltaTimes(double[] times) {
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            long ticks = toTicks(times[i]);
+            long delta = ticks - previous;
+            putVarLong((delta << 1) ^ (delta >> 63));   // zigzag: small negative deltas stay short
+            previous = ticks;
+        }
+    }
+
+    private void putOffsetTimes(double[] times, double[] reference) {
+        for (int i = 0; i < rows; i++) {
+            putVarLong(Double.isNaN(times[i]) ? 0 : toTicks(times[i]) - toTicks(reference[i]) + 1);
+        }
+    }
+
+    static long toTicks(double minutes) {
+        return Math.round(minutes * ColumnarLayout.TICKS_PER_MINUTE);
+    }
+
+    private void putVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            chunkBuffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        chunkBuffer.put((byte) value);
+    }
+
+    private void writeChunk(ColumnarLayout.Column column, int rowCount) throws IOException {
+        chunkBuffer.flip();
+        int length = chunkBuffer.remaining();
+        column.chunks.add(new ColumnarLayout.Chunk(position, length, rowCount));
+        writeFully(chunkBuffer);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) position += channel.write(buffer);
+    }
+
+    /**
+     * Write the station table (once, after the run)
+     *
+     * @param stations service points in configuration order
+     * @throws IOException if writing fails
+     */
+    public void writeStations(List<RescueCampServicePoint> stations) throws IOException {
+        if (layout.tables.containsKey(STATIONS)) throw new IllegalStateException("Stations already written");
+        int n = stations.size();
+        String[] names = new String[n];
+        for (int i = 0; i < n; i++) names[i] = stations.get(i).getServicePointName();
+
+        ColumnarLayout.Table table = layout.addTable(STATIONS);
+        table.rowCount = n;
+        ByteBuffer buffer = ByteBuffer.allocate(n * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < n; i++) buffer.putInt(i);
+        writeStationColumn(table.add(new ColumnarLayout.Column(NAME, ColumnarLayout.Encoding.DICT32, null, names)), buffer, n);
+        String[] intColumns = {WORKERS, SERVED, MAX_QUEUE};
+        for (String name : intColumns) {
+            buffer.clear();
+            for (RescueCampServicePoint sp : stations) {
+                buffer.putInt(name.equals(WORKERS) ? sp.getWorkers()
+                        : name.equals(SERVED) ? sp.getTotalServed() : sp.getMaximumQueueLength());
+            }
+            writeStationColumn(table.add(new ColumnarLayout.Column(name, ColumnarLayout.Encoding.INT32, null, null)), buffer, n);
+        }
+        String[] doubleColumns = {MEAN_WAIT, P95_WAIT, MEAN_SERVICE, UTILIZATION, AVERAGE_IN_STATION, AVERAGE_IN_QUEUE};
+        for (String name : doubleColumns) {
+            buffer.clear();
+            for (RescueCampServicePoint sp : stations) buffer.putDouble(stationValue(sp, name));
+            writeStationColumn(table.add(new ColumnarLayout.Column(name, ColumnarLayout.Encoding.FLOAT64, null, null)), buffer, n);
+        }
+    }
+
+    private static double stationValue(RescueCampServicePoint sp, String column) {
+        switch (column) {
+            case MEAN_WAIT: return sp.getWaitingTimeTally().getMean();
+            case P95_WAIT: return sp.getWaitingTimeTally().getPercentile(95);
+            case MEAN_SERVICE: return sp.getServiceTimeTally().getMean();
+            case UTILIZATION: return sp.getUtilization();
+            case AVERAGE_IN_STATION: return sp.getAverageNumberInStation();
+            case AVERAGE_IN_QUEUE: return sp.getAverageNumberInQueue();
+            default: throw new IllegalArgumentException(column);
+        }
+    }
+
+    private void writeStationColumn(ColumnarLayout.Column column, ByteBuffer buffer, int rowCount) throws IOException {
+        buffer.flip();
+        column.chunks.add(new ColumnarLayout.Chunk(position, buffer.remaining(), rowCount));
+        writeFully(buffer);
+    }
+
+    public int getRowCount() { return survivors.rowCount + rows; }
+
+    @Override
+    public void survivorExited(double time, Survivor survivor) {
+        if (closed) return;
+        try {
+            write(survivor);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void simulationEnded(double time, SimulationEngine engine) {
+        if (closed) return;
+        try {
+            for (RescueCampServicePoint sp : engine.getServicePoints()) writeAll(sp.getSurvivorsInStation());
+            writeStations(engine.getServicePoints());
+            close();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void fail(IOException e) {
+        System.err.println("Results write failed: " + e.getMessage());
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // already reporting the first failure
+        }
+    }
+
+    /**
+     * Write the last chunk and the footer, and close the file
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            flushSurvivors();
+            long footerOffset = position;
+            writeFully(ByteBuffer.wrap(layout.toFooter()));
+            ByteBuffer trailer = ByteBuffer.allocate(ColumnarLayout.TRAILER_SIZE);
+            trailer.putLong(footerOffset).putInt(ColumnarLayout.MAGIC).flip();
+            writeFully(trailer);
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package fi.metropolia.simulation.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * BatchMeans estimates a confidence interval for the steady-state mean of one long, autocorrelated run.
+ * Observations are summed into non-overlapping batches; with enough observations per batch the batch means
+ * are nearly independent and normal, so a Student t interval over them is valid where one over the raw
+ * (correlated) observations would be far too narrow.
+ * <p>
+ * The batch size adapts: batches start with one observation, and whenever all batch slots are full,
+ * neighbouring batches are merged and the batch size doubles. The run always has between half and all of
+ * the slots in complete batches. Memory is constant and adding is O(1) amortized (each merge halves the
+ * slots in use and follows a doubling of the observations).
+ */
+public class BatchMeans {
+    private final double[] sums;      // sums of the complete batches, oldest first
+    private int batches = 0;
+    private long batchSize = 1;
+    private double partialSum = 0;
+    private long partialCount = 0;
+    private long count = 0;
+
+    public BatchMeans() {
+        this(64);
+    }
+
+    /**
+     * @param maxBatches batch slots, even and at least 4; the interval uses between half and all of them
+     */
+    public BatchMeans(int maxBatches) {
+        if (maxBatches < 4 || maxBatches % 2 != 0) {
+            throw new IllegalArgumentException("BatchMeans: maxBatches must be even and at least 4");
+        }
+        sums = new double[maxBatches];
+    }
+
+    /**
+     * Add one observation
+     *
+     * @param x observed value
+     */
+    public void add(double x) {
+        count++;
+        partialSum += x;
+        if (++partialCount < batchSize) return;
+        sums[batches++] = partialSum;
+        partialSum = 0;
+        partialCount = 0;
+        if (batches == sums.length) {
+            int half = batches / 2;
+            for (int j = 0; j < half; j++) sums[j] = sums[2 * j] + sums[2 * j + 1];
+            batches = half;
+            batchSize *= 2;
+        }
+    }
+
+    /**
+     * Forget all observations
+     */
+    public void reset() {
+        batches = 0;
+        batchSize = 1;
+        partialSum = 0;
+        partialCount = 0;
+        count = 0;
+    }
+
+    /** @return Mean of the observations in complete batches, NaN if there are none */
+    public double getMean() {
+        if (batches == 0) return Double.NaN;
+        double sum = 0;
+        for (int j = 0; j < batches; j++) sum += sums[j];
+        return sum / (batches * (double) batchSize);
+    }
+
+    /** @return Sample variance of the batch means, NaN with fewer than two batches */
+    public double getBatchVariance() {
+        if (batches < 2) return Double.NaN;
+        double mean = getMean();
+        double squares = 0;
+        for (int j = 0; j < batches; j++) {
+            double d = sums[j] / batchSize - mean;
+            squares += d * d;
+        }
+        return squares / (batches - 1);
+    }
+
+    /**
+     * @param confidence confidence level, e.g. 0.95
+     * @return Half-width of the two-sided confidence interval around {@link #getMean()}, NaN with fewer than
+     * two batches
+     */
+    public double getHalfWidth(double confidence) {
+        if (batches < 2) return Double.NaN;
+        double t = StudentT.quantile(1 - (1 - confidence) / 2, batches - 1);
+        return t * Math.sqrt(getBatchVariance() / batches);
+    }
+
+    /**
+     * @return Lag-1 autocorrelation of the batch means, NaN with fewer than three batches. Values well above
+     * zero mean the batches are still too small to be independent and the interval is too narrow.
+     */
+    public double getLag1Correlation() {
+        if (batches < 3) return Double.NaN;
+        double mean = getMean();
+        double numerator = 0, denominator = 0;
+        for (int j = 0; j < batches; j++) {
+            double d = sums[j] / batchSize - mean;
+            denominator += d * d;
+            if (j > 0) numerator += d * (sums[j - 1] / batchSize - mean);
+        }
+        return denominator > 0 ? numerator / denominator : 0;
+    }
+
+    public long getCount() { return count; }
+    public int getBatchCount() { return batches; }
+    public long getBatchSize() { return batchSize; }
+
+    /**
+     * Write the complete state (for engine checkpoints); {@link #readState(DataInput)} restores it into an
+     * estimator with the same number of batch slots
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(batches);
+        out.writeLong(batchSize);
+        out.writeDouble(partialSum);
+        out.writeLong(partialCount);
+        out.writeLong(count);
+        for (int j = 0; j < batches; j++) out.writeDouble(sums[j]);
+    }
+
+    /** Replace the state with one written by {@link #writeState(DataOutput)} */
+    public void readState(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (n < 0 || n >= sums.length) throw new IOException("BatchMeans: " + n + " batches do not fit");
+        batches = n;
+        batchSize = in.readLong();
+        partialSum = in.readDouble();
+        partialCount = in.readLong();
+        count = in.readLong();
+        for (int j = 0; j < batches; j++) sums[j] = in.readDouble();
+    }
+}
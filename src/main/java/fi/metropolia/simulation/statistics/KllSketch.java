@@ -0,0 +1,299 @@
+package fi.metropolia.simulation.statistics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * KllSketch estimates quantiles of a stream in small, bounded memory and merges with other sketches, so
+ * the quantiles of many replications can be combined without collecting their observations. Implements
+ * the KLL sketch of Karnin, Lang and Liberty (FOCS 2016): a stack of compactors where level h holds items
+ * of weight 2^h. A full level is sorted and every other item (random offset) is promoted to the next level.
+ * <p>
+ * With the default k = 200 the rank error is about 1.3% and the sketch keeps at most a few hundred values,
+ * independent of the number or range of observations. A sketch is meant to be confined to one thread (one
+ * replication); sketches are merged afterwards with {@link #merge(KllSketch)}. The random offsets come from
+ * the sketch's own generator, so a run is reproducible. Give the sketches of different replications
+ * different seeds ({@link #setSeed(long)}): with the same seed they make the same compaction choices and
+ * their errors do not cancel out when merged.
+ */
+public class KllSketch {
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 2;
+    private static final int MAGIC = 0x524B4C4C;   // "RKLL"
+
+    private final int k;
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private int retained = 0;
+    private int maxRetained;
+    private long count = 0;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private long seed;
+    private long random;   // xorshift state for the compaction offsets
+
+    public KllSketch() {
+        this(200);
+    }
+
+    /**
+     * @param k accuracy parameter, at least 8; the rank error is roughly 2.6 / k
+     */
+    public KllSketch(int k) {
+        this(k, 0);
+    }
+
+    /**
+     * @param k    accuracy parameter, at least 8; the rank error is roughly 2.6 / k
+     * @param seed seed of the compaction offsets
+     */
+    public KllSketch(int k, long seed) {
+        if (k < 8) throw new IllegalArgumentException("KllSketch: k must be at least 8");
+        this.k = k;
+        levels[0] = new double[capacity(0)];
+        maxRetained = capacity(0);
+        setSeed(seed);
+    }
+
+    /**
+     * Restart the compaction offsets from a seed; {@link #reset()} restarts them from the same seed.
+     * Set before the first observation so that a replication is reproducible.
+     *
+     * @param seed any value, e.g. derived from the replication seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        random = initialState(seed);
+    }
+
+    public long getSeed() { return seed; }
+
+    /** @return Nonzero xorshift state scrambled from a seed (SplitMix64), so that nearby seeds diverge at once */
+    private static long initialState(long seed) {
+        long z = seed + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return z != 0 ? z : 0x9E3779B97F4A7C15L;
+    }
+
+    /** @return Capacity of a level with the current number of levels; the top level holds k */
+    private int capacity(int level) {
+        int depth = levels.length - level - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    /**
+     * Add one observation
+     *
+     * @param x observed value
+     */
+    public void update(double x) {
+        if (Double.isNaN(x)) return;
+        if (count == 0 || x < min) min = x;
+        if (count == 0 || x > max) max = x;
+        count++;
+        append(0, x);
+        if (++retained >= maxRetained) compress();
+    }
+
+    private void append(int level, double x) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.max(MIN_CAPACITY, levels[level].length * 2));
+        }
+        levels[level][sizes[level]++] = x;
+    }
+
+    private void addLevel() {
+        int n = levels.length + 1;
+        levels = Arrays.copyOf(levels, n);
+        sizes = Arrays.copyOf(sizes, n);
+        levels[n - 1] = new double[k];
+        maxRetained = 0;
+        for (int h = 0; h < n; h++) maxRetained += capacity(h);
+    }
+
+    /** Compact the lowest full level into the one above until the sketch fits again */
+    private void compress() {
+        for (int h = 0; h < levels.length && retained >= maxRetained; h++) {
+            if (sizes[h] < capacity(h)) continue;
+            if (h + 1 == levels.length) addLevel();
+            double[] items = levels[h];
+            int n = sizes[h];
+            Arrays.sort(items, 0, n);
+            int offset = nextBit();
+            int promoted = 0;
+            // With an odd count the largest item stays at this level
+            int pairs = n / 2;
+            for (int i = 0; i < pairs; i++) {
+                append(h + 1, items[2 * i + offset]);
+                promoted++;
+            }
+            if ((n & 1) != 0) {
+                items[0] = items[n - 1];
+                sizes[h] = 1;
+            } else {
+                sizes[h] = 0;
+            }
+            retained -= 2 * pairs - promoted;
+        }
+    }
+
+    private int nextBit() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return (int) (random >>> 63);
+    }
+
+    /**
+     * Add the observations summarized by another sketch to this one; the other sketch is not changed
+     *
+     * @param other sketch with the same k
+     */
+    public void merge(KllSketch other) {
+        if (other.k != k) throw new IllegalArgumentException("KllSketch: cannot merge sketches with different k");
+        if (other.count == 0) return;
+        while (levels.length < other.levels.length) addLevel();
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) append(h, other.levels[h][i]);
+        }
+        retained += other.retained;
+        if (count == 0 || other.min < min) min = other.min;
+        if (count == 0 || other.max > max) max = other.max;
+        count += other.count;
+        while (retained >= maxRetained) {
+            int before = retained;
+            compress();
+            if (retained == before) break;   // every level below capacity: fits after all
+        }
+    }
+
+    /**
+     * @param q quantile between 0 and 1 (e.g. 0.95)
+     * @return Estimated q-quantile, NaN if nothing has been observed. 0 and 1 give the exact min and max.
+     */
+    public double getQuantile(double q) {
+        if (count == 0) return Double.NaN;
+        if (q <= 0) return min;
+        if (q >= 1) return max;
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int m = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[m] = levels[h][i];
+                weights[m++] = 1L << h;
+            }
+        }
+        // Sort values and weights together by value
+        Integer[] order = new Integer[m];
+        for (int i = 0; i < m; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        long total = 0;
+        for (int i = 0; i < m; i++) total += weights[i];
+        double target = q * total;
+        long cumulative = 0;
+        for (int i = 0; i < m; i++) {
+            cumulative += weights[order[i]];
+            if (cumulative >= target) return values[order[i]];
+        }
+        return max;
+    }
+
+    public long getCount() { return count; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public int getK() { return k; }
+    /** @return Number of values the sketch holds */
+    public int getRetained() { return retained; }
+
+    /**
+     * Forget all observations and restart the compaction offsets from the seed
+     */
+    public void reset() {
+        levels = new double[1][];
+        sizes = new int[1];
+        levels[0] = new double[capacity(0)];
+        maxRetained = capacity(0);
+        retained = 0;
+        count = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+        random = initialState(seed);
+    }
+
+    /**
+     * Write the sketch: header, then the values of each level
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(k);
+        out.writeLong(count);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeLong(seed);
+        out.writeLong(random);
+        out.writeInt(levels.length);
+        for (int h = 0; h < levels.length; h++) {
+            out.writeInt(sizes[h]);
+            for (int i = 0; i < sizes[h]; i++) out.writeDouble(levels[h][i]);
+        }
+    }
+
+    /**
+     * Read a sketch written by {@link #writeState(DataOutput)}
+     *
+     * @throws IOException if reading fails or the data is not a sketch
+     */
+    public static KllSketch readState(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a KLL sketch");
+        KllSketch sketch = new KllSketch(in.readInt());
+        sketch.count = in.readLong();
+        sketch.min = in.readDouble();
+        sketch.max = in.readDouble();
+        sketch.seed = in.readLong();
+        sketch.random = in.readLong();
+        int n = in.readInt();
+        while (sketch.levels.length < n) sketch.addLevel();
+        for (int h = 0; h < n; h++) {
+            int size = in.readInt();
+            sketch.levels[h] = new double[Math.max(size, sketch.capacity(h))];
+            for (int i = 0; i < size; i++) sketch.levels[h][i] = in.readDouble();
+            sketch.sizes[h] = size;
+            sketch.retained += size;
+        }
+        return sketch;
+    }
+
+    /** @return The serialized sketch */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(40 + 8 * retained + 4 * levels.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeState(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // not thrown by in-memory streams
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param bytes sketch from {@link #toBytes()}
+     * @return The sketch
+     * @throws IllegalArgumentException if the bytes are not a sketch
+     */
+    public static KllSketch fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return readState(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Not a KLL sketch: " + e.getMessage(), e);
+        }
+    }
+}
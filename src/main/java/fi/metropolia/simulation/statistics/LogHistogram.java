@@ -0,0 +1,179 @@
+package fi.metropolia.simulation.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * LogHistogram counts observations in fixed, log-spaced buckets (the HDR histogram layout).
+ * <p>
+ * Values are quantized to {@link #getResolution()} units. The first 2^SUB_BUCKET_BITS units get one bucket
+ * each; after that every power of two is split into 2^(SUB_BUCKET_BITS - 1) = 128 equal sub-buckets, so a
+ * bucket is at most 1/128 of its lower edge wide and the relative error of a reported percentile stays
+ * below 0.8% across the whole range. Recording never allocates,
+ * percentile queries walk the bucket array once, and two histograms with the same layout merge by adding
+ * their count arrays.
+ */
+public class LogHistogram {
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;        // linear region size
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;        // sub-buckets per power of two
+
+    /** Default resolution: 0.001 simulated minutes */
+    public static final double DEFAULT_RESOLUTION = 0.001;
+    /** Default highest tracked value: one million simulated minutes (almost two years) */
+    public static final double DEFAULT_MAX_VALUE = 1_000_000;
+
+    private final double resolution;
+    private final long maxUnits;
+    private final long[] counts;
+    private long totalCount = 0;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public LogHistogram() {
+        this(DEFAULT_RESOLUTION, DEFAULT_MAX_VALUE);
+    }
+
+    /**
+     * @param resolution Smallest distinguishable value (values are quantized to multiples of this)
+     * @param maxValue   Highest value tracked exactly; larger values are counted in the last bucket
+     */
+    public LogHistogram(double resolution, double maxValue) {
+        if (resolution <= 0 || maxValue <= resolution) {
+            throw new IllegalArgumentException("LogHistogram: need 0 < resolution < maxValue");
+        }
+        this.resolution = resolution;
+        this.maxUnits = (long) Math.ceil(maxValue / resolution);
+        this.counts = new long[bucketIndex(maxUnits) + 1];
+    }
+
+    /**
+     * Record one observation. Negative values are counted as zero.
+     *
+     * @param value observed value
+     */
+    public void record(double value) {
+        long units = value <= 0 ? 0 : (long) (value / resolution);
+        if (units > maxUnits) units = maxUnits;
+        counts[bucketIndex(units)]++;
+        totalCount++;
+        if (totalCount == 1 || value < min) min = value;
+        if (totalCount == 1 || value > max) max = value;
+    }
+
+    private static int bucketIndex(long units) {
+        if (units < SUB_BUCKET_COUNT) return (int) units;
+        int highestBit = 63 - Long.numberOfLeadingZeros(units);
+        int shift = highestBit - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (units >>> shift) - SUB_BUCKET_HALF;
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + subBucket;
+    }
+
+    private static long bucketLowerUnits(int index) {
+        if (index < SUB_BUCKET_COUNT) return index;
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return (long) subBucket << shift;
+    }
+
+    private static long bucketWidthUnits(int index) {
+        if (index < SUB_BUCKET_COUNT) return 1;
+        return 1L << ((index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1);
+    }
+
+    /**
+     * @param percentile Percentile between 0 and 100 (e.g., 95)
+     * @return Value below which the given share of observations fall, NaN if the histogram is empty.
+     * The result is the upper edge of the matching bucket, clamped to the observed min/max.
+     */
+    public double getPercentile(double percentile) {
+        if (totalCount == 0) return Double.NaN;
+        double p = Math.min(100, Math.max(0, percentile));
+        long target = Math.max(1, (long) Math.ceil(p / 100.0 * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                double upper = (bucketLowerUnits(i) + bucketWidthUnits(i)) * resolution;
+                return Math.max(min, Math.min(max, upper));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Add the counts of another histogram with the same resolution and range to this one.
+     *
+     * @param other histogram to merge into this one
+     */
+    public void add(LogHistogram other) {
+        if (other.counts.length != counts.length || other.resolution != resolution) {
+            throw new IllegalArgumentException("LogHistogram: cannot merge histograms with different layouts");
+        }
+        for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+        if (other.totalCount > 0) {
+            if (totalCount == 0 || other.min < min) min = other.min;
+            if (totalCount == 0 || other.max > max) max = other.max;
+        }
+        totalCount += other.totalCount;
+    }
+
+    /**
+     * Write the counts (only non-empty buckets) and extremes, for engine checkpoints;
+     * {@link #readState(DataInput)} restores them into a histogram of the same layout
+     */
+    public void writeState(DataOutput out) throws IOException {
+        int used = 0;
+        for (long c : counts) if (c != 0) used++;
+        out.writeLong(totalCount);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeInt(used);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            out.writeInt(i);
+            out.writeLong(counts[i]);
+        }
+    }
+
+    /**
+     * Replace the state with one written by {@link #writeState(DataOutput)}
+     *
+     * @throws IOException if the state does not fit this histogram's layout
+     */
+    public void readState(DataInput in) throws IOException {
+        Arrays.fill(counts, 0);
+        totalCount = in.readLong();
+        min = in.readDouble();
+        max = in.readDouble();
+        int used = in.readInt();
+        for (int k = 0; k < used; k++) {
+            int i = in.readInt();
+            if (i < 0 || i >= counts.length) throw new IOException("LogHistogram: bucket " + i + " out of range");
+            counts[i] = in.readLong();
+        }
+    }
+
+    /**
+     * Forget all observations
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+    }
+
+    public long getTotalCount() { return totalCount; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public double getResolution() { return resolution; }
+    public int getBucketCount() { return counts.length; }
+
+    /**
+     * @return The raw bucket counts (not a copy); histograms of equal layout can be merged by adding these
+     */
+    public long[] getCounts() { return counts; }
+}
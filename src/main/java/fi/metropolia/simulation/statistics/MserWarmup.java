@@ -0,0 +1,157 @@
+package fi.metropolia.simulation.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * MserWarmup finds the end of the initial transient of an output series with the MSER-5 rule (White, 1997):
+ * observations are averaged in batches of five, and the truncation point is the number of leading batches d
+ * that minimizes the marginal standard error of the rest,
+ * <pre>
+ *   MSER(d) = sum_{j > d} (Z_j - mean of Z_{d+1..k})^2 / (k - d)^2
+ * </pre>
+ * As usual for MSER, d is searched in the first half of the series only. The truncation point counts as
+ * detected when the minimum lies strictly inside that half; a minimum at its end means the transient may
+ * go on and the series is still too short to tell.
+ * <p>
+ * Memory is bounded: when all batch slots are in use, neighbouring batches are merged and the batch size
+ * doubles (MSER-10, -20, ... from then on). Adding is O(1); the rule is re-evaluated, in O(batches), only
+ * when a batch completes.
+ */
+public class MserWarmup {
+    /** Observations per batch before any merging */
+    public static final int BATCH_SIZE = 5;
+    private static final int MIN_BATCHES = 20;   // batches needed before a truncation point is trusted
+
+    private final double[] means;     // batch means, oldest first
+    private final double[] ends;      // time of each batch's last observation
+    private int batches = 0;
+    private long batchSize = BATCH_SIZE;
+    private double partialSum = 0;
+    private long partialCount = 0;
+    private long count = 0;
+    private int truncation = -1;      // batches to discard, -1 while not detected
+
+    public MserWarmup() {
+        this(256);
+    }
+
+    /**
+     * @param maxBatches batch slots kept, even and at least twice the minimum of {@value #MIN_BATCHES}
+     */
+    public MserWarmup(int maxBatches) {
+        if (maxBatches < 2 * MIN_BATCHES || maxBatches % 2 != 0) {
+            throw new IllegalArgumentException("MserWarmup: maxBatches must be even and at least " + 2 * MIN_BATCHES);
+        }
+        means = new double[maxBatches];
+        ends = new double[maxBatches];
+    }
+
+    /**
+     * Add one observation
+     *
+     * @param time simulated time of the observation
+     * @param x    observed value
+     * @return True if the observation completed a batch (the truncation point may have changed)
+     */
+    public boolean add(double time, double x) {
+        count++;
+        partialSum += x;
+        if (++partialCount < batchSize) return false;
+
+        means[batches] = partialSum / partialCount;
+        ends[batches] = time;
+        batches++;
+        partialSum = 0;
+        partialCount = 0;
+        if (batches == means.length) merge();
+        truncation = evaluate();
+        return true;
+    }
+
+    /** Halve the number of batches by averaging neighbours */
+    private void merge() {
+        int half = batches / 2;
+        for (int j = 0; j < half; j++) {
+            means[j] = (means[2 * j] + means[2 * j + 1]) / 2;
+            ends[j] = ends[2 * j + 1];
+        }
+        batches = half;
+        batchSize *= 2;
+    }
+
+    /** @return Batches to discard, -1 if the minimum is at the end of the first half or there are too few batches */
+    private int evaluate() {
+        int k = batches;
+        if (k < MIN_BATCHES) return -1;
+        int half = k / 2;
+        double sum = 0, sumOfSquares = 0;
+        double best = Double.POSITIVE_INFINITY;
+        int bestD = -1;
+        // Suffix sums from the end; candidates are d = half .. 0
+        for (int d = k - 1; d >= 0; d--) {
+            sum += means[d];
+            sumOfSquares += means[d] * means[d];
+            if (d > half) continue;
+            int n = k - d;
+            double mser = Math.max(0, sumOfSquares - sum * sum / n) / ((double) n * n);
+            if (mser <= best) {   // ties go to the smaller truncation
+                best = mser;
+                bestD = d;
+            }
+        }
+        return bestD < half ? bestD : -1;
+    }
+
+    /** @return True once a truncation point is detected */
+    public boolean isDetected() { return truncation >= 0; }
+
+    /**
+     * @return Simulated time up to which observations belong to the warm-up (0 if there is none), NaN if
+     * not detected yet
+     */
+    public double getTruncationTime() {
+        if (truncation < 0) return Double.NaN;
+        return truncation == 0 ? 0 : ends[truncation - 1];
+    }
+
+    /** @return Number of leading observations in the warm-up, -1 if not detected yet */
+    public long getTruncationCount() { return truncation < 0 ? -1 : truncation * batchSize; }
+
+    public long getCount() { return count; }
+    public long getBatchSize() { return batchSize; }
+
+    /**
+     * Write the complete state (for engine checkpoints); {@link #readState(DataInput)} restores it into a
+     * detector with the same number of batch slots
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(batches);
+        out.writeLong(batchSize);
+        out.writeDouble(partialSum);
+        out.writeLong(partialCount);
+        out.writeLong(count);
+        out.writeInt(truncation);
+        for (int j = 0; j < batches; j++) {
+            out.writeDouble(means[j]);
+            out.writeDouble(ends[j]);
+        }
+    }
+
+    /** Replace the state with one written by {@link #writeState(DataOutput)} */
+    public void readState(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (n < 0 || n >= means.length) throw new IOException("MserWarmup: " + n + " batches do not fit");
+        batches = n;
+        batchSize = in.readLong();
+        partialSum = in.readDouble();
+        partialCount = in.readLong();
+        count = in.readLong();
+        truncation = in.readInt();
+        for (int j = 0; j < batches; j++) {
+            means[j] = in.readDouble();
+            ends[j] = in.readDouble();
+        }
+    }
+}
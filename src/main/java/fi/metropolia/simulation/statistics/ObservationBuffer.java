@@ -0,0 +1,118 @@
+package fi.metropolia.simulation.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * ObservationBuffer keeps the most recent observations of several series, each with its simulated time,
+ * so that statistics which are reset when a warm-up is detected late can take back the observations made
+ * after the truncation point. Memory is bounded: when the buffer is full the oldest observation is
+ * dropped, and those are the least likely to lie after the truncation point.
+ */
+public class ObservationBuffer {
+    /** Receives the observations passed on by {@link #replayAfter(double, Consumer)} */
+    @FunctionalInterface
+    public interface Consumer {
+        void accept(int series, double value);
+    }
+
+    private final double[] times;
+    private final int[] seriesIds;
+    private final double[] values;
+    private int start = 0;   // oldest observation
+    private int size = 0;
+    private long dropped = 0;
+
+    /**
+     * @param capacity observations kept, at least 1
+     */
+    public ObservationBuffer(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("ObservationBuffer: capacity must be at least 1");
+        times = new double[capacity];
+        seriesIds = new int[capacity];
+        values = new double[capacity];
+    }
+
+    /**
+     * Add one observation, dropping the oldest if the buffer is full
+     *
+     * @param time   simulated time of the observation, not before the previous one
+     * @param series series the observation belongs to (caller-defined)
+     * @param value  observed value
+     */
+    public void add(double time, int series, double value) {
+        int i = start + size;
+        if (i >= times.length) i -= times.length;
+        if (size == times.length) {
+            start = start + 1 == times.length ? 0 : start + 1;
+            dropped++;
+        } else {
+            size++;
+        }
+        times[i] = time;
+        seriesIds[i] = series;
+        values[i] = value;
+    }
+
+    /**
+     * Pass the kept observations made strictly after a time to a consumer, oldest first
+     *
+     * @param time     truncation time
+     * @param consumer receives the series and value of each observation
+     * @return Number of observations passed on
+     */
+    public int replayAfter(double time, Consumer consumer) {
+        int passed = 0;
+        for (int k = 0; k < size; k++) {
+            int i = (start + k) % times.length;
+            if (times[i] <= time) continue;
+            consumer.accept(seriesIds[i], values[i]);
+            passed++;
+        }
+        return passed;
+    }
+
+    /**
+     * Forget all observations
+     */
+    public void clear() {
+        start = 0;
+        size = 0;
+        dropped = 0;
+    }
+
+    public int getCapacity() { return times.length; }
+    public int size() { return size; }
+    /** @return Observations dropped because the buffer was full */
+    public long getDropped() { return dropped; }
+
+    /**
+     * Write the kept observations (for engine checkpoints); {@link #readState(DataInput)} restores them into
+     * a buffer of at least the same capacity
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeLong(dropped);
+        for (int k = 0; k < size; k++) {
+            int i = (start + k) % times.length;
+            out.writeDouble(times[i]);
+            out.writeInt(seriesIds[i]);
+            out.writeDouble(values[i]);
+        }
+    }
+
+    /** Replace the observations with ones written by {@link #writeState(DataOutput)} */
+    public void readState(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (n < 0 || n > times.length) throw new IOException("ObservationBuffer: " + n + " observations do not fit");
+        start = 0;
+        size = n;
+        dropped = in.readLong();
+        for (int i = 0; i < n; i++) {
+            times[i] = in.readDouble();
+            seriesIds[i] = in.readInt();
+            values[i] = in.readDouble();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package fi.metropolia.simulation.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * P2Quantile estimates a single quantile of a stream without storing the observations.
+ * Implements the P² algorithm of Jain and Chlamtac (CACM 28(10), 1985): five markers whose
+ * heights are adjusted with piecewise-parabolic interpolation as observations arrive.
+ */
+public class P2Quantile {
+    private final double p;
+    private final double[] heights = new double[5];     // marker heights q[i]
+    private final double[] positions = new double[5];   // actual marker positions n[i]
+    private final double[] desired = new double[5];     // desired marker positions n'[i]
+    private final double[] increments = new double[5];  // desired position increments dn'[i]
+    private long count = 0;
+
+    /**
+     * @param p Quantile to estimate, between 0 and 1 (e.g., 0.95)
+     */
+    public P2Quantile(double p) {
+        if (p <= 0 || p >= 1) throw new IllegalArgumentException("P2Quantile: p must be between 0 and 1");
+        this.p = p;
+        reset();
+    }
+
+    /**
+     * Add one observation
+     *
+     * @param x observed value
+     */
+    public void add(double x) {
+        if (count < 5) {
+            heights[(int) count++] = x;
+            if (count == 5) Arrays.sort(heights);
+            return;
+        }
+        count++;
+
+        int k;
+        if (x < heights[0]) {
+            heights[0] = x;
+            k = 0;
+        } else if (x >= heights[4]) {
+            heights[4] = x;
+            k = 3;
+        } else {
+            k = 0;
+            while (x >= heights[k + 1]) k++;
+        }
+
+        for (int i = k + 1; i < 5; i++) positions[i]++;
+        for (int i = 0; i < 5; i++) desired[i] += increments[i];
+
+        for (int i = 1; i <= 3; i++) {
+            double d = desired[i] - positions[i];
+            if ((d >= 1 && positions[i + 1] - positions[i] > 1) || (d <= -1 && positions[i - 1] - positions[i] < -1)) {
+                int step = d > 0 ? 1 : -1;
+                double candidate = parabolic(i, step);
+                if (heights[i - 1] < candidate && candidate < heights[i + 1]) {
+                    heights[i] = candidate;
+                } else {
+                    heights[i] = linear(i, step);
+                }
+                positions[i] += step;
+            }
+        }
+    }
+
+    private double parabolic(int i, int d) {
+        return heights[i] + d / (positions[i + 1] - positions[i - 1])
+                * ((positions[i] - positions[i - 1] + d) * (heights[i + 1] - heights[i]) / (positions[i + 1] - positions[i])
+                + (positions[i + 1] - positions[i] - d) * (heights[i] - heights[i - 1]) / (positions[i] - positions[i - 1]));
+    }
+
+    private double linear(int i, int d) {
+        return heights[i] + d * (heights[i + d] - heights[i]) / (positions[i + d] - positions[i]);
+    }
+
+    /**
+     * @return Current quantile estimate, NaN if nothing has been observed
+     */
+    public double getQuantile() {
+        if (count == 0) return Double.NaN;
+        if (count < 5) {
+            double[] seen = Arrays.copyOf(heights, (int) count);
+            Arrays.sort(seen);
+            int index = (int) Math.round(p * (count - 1));
+            return seen[index];
+        }
+        return heights[2];
+    }
+
+    /**
+     * Forget all observations
+     */
+    public void reset() {
+        count = 0;
+        for (int i = 0; i < 5; i++) {
+            heights[i] = 0;
+            positions[i] = i + 1;
+        }
+        desired[0] = 1;
+        desired[1] = 1 + 2 * p;
+        desired[2] = 1 + 4 * p;
+        desired[3] = 3 + 2 * p;
+        desired[4] = 5;
+        increments[0] = 0;
+        increments[1] = p / 2;
+        increments[2] = p;
+        increments[3] = (1 + p) / 2;
+        increments[4] = 1;
+    }
+
+    /**
+     * Write the marker state (for engine checkpoints); {@link #readState(DataInput)} restores it into an
+     * estimator of the same quantile
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(count);
+        for (int i = 0; i < 5; i++) {
+            out.writeDouble(heights[i]);
+            out.writeDouble(positions[i]);
+            out.writeDouble(desired[i]);
+        }
+    }
+
+    /** Replace the state with one written by {@link #writeState(DataOutput)} */
+    public void readState(DataInput in) throws IOException {
+        count = in.readLong();
+        for (int i = 0; i < 5; i++) {
+            heights[i] = in.readDouble();
+            positions[i] = in.readDouble();
+            desired[i] = in.readDouble();
+        }
+    }
+
+    public double getProbability() { return p; }
+    public long getCount() { return count; }
+}
@@ -0,0 +1,75 @@
+package fi.metropolia.simulation.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * RunningStatistics keeps count, mean, variance, minimum and maximum of a stream of observations.
+ * Uses Welford's online algorithm, so memory stays constant no matter how many values are added.
+ */
+public class RunningStatistics {
+    private long count = 0;
+    private double mean = 0;
+    private double m2 = 0;      // sum of squared differences from the current mean
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    /**
+     * Add one observation
+     *
+     * @param x observed value
+     */
+    public void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+        if (count == 1 || x < min) min = x;
+        if (count == 1 || x > max) max = x;
+    }
+
+    /**
+     * Forget all observations
+     */
+    public void reset() {
+        count = 0;
+        mean = 0;
+        m2 = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+    }
+
+    /**
+     * Write the complete state (for engine checkpoints); {@link #readState(DataInput)} restores it
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeDouble(mean);
+        out.writeDouble(m2);
+        out.writeDouble(min);
+        out.writeDouble(max);
+    }
+
+    /** Replace the state with one written by {@link #writeState(DataOutput)} */
+    public void readState(DataInput in) throws IOException {
+        count = in.readLong();
+        mean = in.readDouble();
+        m2 = in.readDouble();
+        min = in.readDouble();
+        max = in.readDouble();
+    }
+
+    public long getCount() { return count; }
+    public double getMean() { return count > 0 ? mean : 0; }
+    public double getSum() { return mean * count; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+
+    /**
+     * @return Sample variance (n - 1 in the denominator), 0 with fewer than two observations
+     */
+    public double getVariance() { return count > 1 ? m2 / (count - 1) : 0; }
+
+    public double getStandardDeviation() { return Math.sqrt(getVariance()); }
+}
@@ -0,0 +1,76 @@
+package fi.metropolia.simulation.statistics;
+
+/**
+ * Quantiles of the standard normal and Student's t distributions, for confidence intervals.
+ * The normal quantile uses Acklam's rational approximation (relative error below 1.2e-9); the t quantile
+ * is exact for 1 and 2 degrees of freedom and uses the Cornish-Fisher expansion around the normal otherwise.
+ */
+public final class StudentT {
+    private StudentT() {
+    }
+
+    /**
+     * @param p                probability, between 0 and 1
+     * @param degreesOfFreedom degrees of freedom, at least 1
+     * @return x such that P(T &lt;= x) = p
+     */
+    public static double quantile(double p, long degreesOfFreedom) {
+        if (degreesOfFreedom < 1) throw new IllegalArgumentException("StudentT: need at least one degree of freedom");
+        if (degreesOfFreedom == 1) return Math.tan(Math.PI * (p - 0.5));
+        if (degreesOfFreedom == 2) return (2 * p - 1) / Math.sqrt(2 * p * (1 - p));
+
+        double z = normalQuantile(p);
+        double v = degreesOfFreedom;
+        double z2 = z * z, z3 = z2 * z, z5 = z3 * z2, z7 = z5 * z2, z9 = z7 * z2;
+        return z
+                + (z3 + z) / (4 * v)
+                + (5 * z5 + 16 * z3 + 3 * z) / (96 * v * v)
+                + (3 * z7 + 19 * z5 + 17 * z3 - 15 * z) / (384 * v * v * v)
+                + (79 * z9 + 776 * z7 + 1482 * z5 - 1920 * z3 - 945 * z) / (92160 * v * v * v * v);
+    }
+
+    /**
+     * @param stats      observations
+     * @param confidence confidence level, e.g. 0.95
+     * @return Half-width of the two-sided confidence interval for the mean, NaN with fewer than two observations
+     */
+    public static double halfWidth(RunningStatistics stats, double confidence) {
+        if (stats.getCount() < 2) return Double.NaN;
+        double t = quantile(1 - (1 - confidence) / 2, stats.getCount() - 1);
+        return t * stats.getStandardDeviation() / Math.sqrt(stats.getCount());
+    }
+
+    /**
+     * @param p probability, between 0 and 1
+     * @return x such that P(Z &lt;= x) = p for a standard normal Z
+     */
+    public static double normalQuantile(double p) {
+        if (p <= 0) return Double.NEGATIVE_INFINITY;
+        if (p >= 1) return Double.POSITIVE_INFINITY;
+
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00};
+        final double low = 0.02425;
+
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
@@ -0,0 +1,93 @@
+package fi.metropolia.simulation.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Tally summarizes one observed quantity (e.g., waiting time at a service point) in constant memory:
+ * mean, variance, min and max via {@link RunningStatistics}, and median / 95th / 99th percentile
+ * via {@link P2Quantile} estimators, the full distribution in a {@link LogHistogram} for arbitrary
+ * percentile queries, and {@link BatchMeans} for a confidence interval of the mean within one run.
+ */
+public class Tally {
+    private final String name;
+    private final RunningStatistics statistics = new RunningStatistics();
+    private final P2Quantile median = new P2Quantile(0.50);
+    private final P2Quantile p95 = new P2Quantile(0.95);
+    private final P2Quantile p99 = new P2Quantile(0.99);
+    private final LogHistogram histogram = new LogHistogram();
+    private final BatchMeans batchMeans = new BatchMeans();
+
+    public Tally(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Add one observation
+     *
+     * @param x observed value
+     */
+    public void add(double x) {
+        statistics.add(x);
+        median.add(x);
+        p95.add(x);
+        p99.add(x);
+        histogram.record(x);
+        batchMeans.add(x);
+    }
+
+    /**
+     * Forget all observations
+     */
+    public void reset() {
+        statistics.reset();
+        median.reset();
+        p95.reset();
+        p99.reset();
+        histogram.reset();
+        batchMeans.reset();
+    }
+
+    /**
+     * Write the state of every estimator (for engine checkpoints); {@link #readState(DataInput)} restores it
+     */
+    public void writeState(DataOutput out) throws IOException {
+        statistics.writeState(out);
+        median.writeState(out);
+        p95.writeState(out);
+        p99.writeState(out);
+        histogram.writeState(out);
+        batchMeans.writeState(out);
+    }
+
+    /** Replace the state with one written by {@link #writeState(DataOutput)} */
+    public void readState(DataInput in) throws IOException {
+        statistics.readState(in);
+        median.readState(in);
+        p95.readState(in);
+        p99.readState(in);
+        histogram.readState(in);
+        batchMeans.readState(in);
+    }
+
+    public String getName() { return name; }
+    public long getCount() { return statistics.getCount(); }
+    public double getMean() { return statistics.getMean(); }
+    public double getSum() { return statistics.getSum(); }
+    public double getStandardDeviation() { return statistics.getStandardDeviation(); }
+    public double getVariance() { return statistics.getVariance(); }
+    public double getMin() { return statistics.getMin(); }
+    public double getMax() { return statistics.getMax(); }
+    public double getMedian() { return median.getQuantile(); }
+    public double getP95() { return p95.getQuantile(); }
+    public double getP99() { return p99.getQuantile(); }
+    public LogHistogram getHistogram() { return histogram; }
+    public BatchMeans getBatchMeans() { return batchMeans; }
+
+    /**
+     * @param percentile Percentile between 0 and 100
+     * @return Percentile from the histogram, NaN if nothing has been observed
+     */
+    public double getPercentile(double percentile) { return histogram.getPercentile(percentile); }
+}
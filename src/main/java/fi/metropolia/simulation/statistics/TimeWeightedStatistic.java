@@ -0,0 +1,84 @@
+package fi.metropolia.simulation.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * TimeWeightedStatistic integrates a piecewise-constant quantity (e.g., queue length) over simulated time.
+ * Call {@link #update(double, double)} whenever the quantity changes; the time average is the integral
+ * divided by the observed time span. Each update is O(1).
+ */
+public class TimeWeightedStatistic {
+    private double startTime = 0;
+    private double lastChangeTime = 0;
+    private double value = 0;
+    private double area = 0;
+    private double max = 0;
+
+    /**
+     * Record that the quantity changes to a new value at the given time
+     *
+     * @param time     simulated time of the change
+     * @param newValue value from this time on
+     */
+    public void update(double time, double newValue) {
+        area += value * (time - lastChangeTime);
+        lastChangeTime = time;
+        value = newValue;
+        if (newValue > max) max = newValue;
+    }
+
+    /**
+     * @param now simulated time up to which to integrate
+     * @return Integral of the quantity from the start time to now
+     */
+    public double getArea(double now) {
+        return area + value * (now - lastChangeTime);
+    }
+
+    /**
+     * @param now simulated time up to which to average
+     * @return Time-average of the quantity, 0 if no time has elapsed
+     */
+    public double getTimeAverage(double now) {
+        double span = now - startTime;
+        return span > 0 ? getArea(now) / span : 0;
+    }
+
+    /**
+     * Discard the history and start integrating again from the given time, keeping the current value
+     *
+     * @param time simulated time to restart from
+     */
+    public void reset(double time) {
+        startTime = time;
+        lastChangeTime = time;
+        area = 0;
+        max = value;
+    }
+
+    /**
+     * Write the complete state (for engine checkpoints); {@link #readState(DataInput)} restores it
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(startTime);
+        out.writeDouble(lastChangeTime);
+        out.writeDouble(value);
+        out.writeDouble(area);
+        out.writeDouble(max);
+    }
+
+    /** Replace the state with one written by {@link #writeState(DataOutput)} */
+    public void readState(DataInput in) throws IOException {
+        startTime = in.readDouble();
+        lastChangeTime = in.readDouble();
+        value = in.readDouble();
+        area = in.readDouble();
+        max = in.readDouble();
+    }
+
+    public double getValue() { return value; }
+    public double getMax() { return max; }
+    public double getStartTime() { return startTime; }
+}
@@ -0,0 +1,100 @@
+package fi.metropolia.simulation.view.charts;
+
+import fi.metropolia.simulation.model.StationTimeSeries;
+import javafx.geometry.Insets;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Label;
+import javafx.scene.layout.BorderPane;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * VIEW: Queue length of every station over simulated time, drawn from a {@link StationTimeSeries} - the
+ * series of a finished run, or one saved with {@link StationTimeSeries#writeBinary(Path)} and loaded back.
+ * Long series are drawn with one point per bucket of samples, the longest queue of the bucket, so peaks
+ * are not lost. Used on the FX thread only.
+ */
+public class QueueLengthChart extends BorderPane {
+    private static final int MAX_POINTS = 1000;   // per station
+
+    private final NumberAxis timeAxis = new NumberAxis();
+    private final NumberAxis queueAxis = new NumberAxis();
+    private final LineChart<Number, Number> chart = new LineChart<>(timeAxis, queueAxis);
+    private final Label statusLabel = new Label("No time series yet: finish a run or open a saved series");
+    private StationTimeSeries series;
+
+    public QueueLengthChart() {
+        timeAxis.setLabel("Simulation time (h)");
+        timeAxis.setForceZeroInRange(true);
+        queueAxis.setLabel("Waiting (survivors)");
+        chart.setCreateSymbols(false);
+        chart.setAnimated(false);
+        setPadding(new Insets(12));
+        setTop(statusLabel);
+        setCenter(chart);
+    }
+
+    /**
+     * Draw a series, replacing the one shown
+     *
+     * @param series complete series; it must no longer be sampled by a running engine
+     */
+    public void show(StationTimeSeries series) {
+        this.series = series;
+        List<XYChart.Series<Number, Number>> lines = new ArrayList<>();
+        int size = series.size();
+        int bucket = Math.max(1, (size + MAX_POINTS - 1) / MAX_POINTS);
+        for (int s = 0; s < series.getStationCount(); s++) {
+            XYChart.Series<Number, Number> line = new XYChart.Series<>();
+            line.setName(series.getStationName(s));
+            int[] waiting = series.getQueueLengths(s);
+            for (int from = 0; from < size; from += bucket) {
+                int to = Math.min(size, from + bucket);
+                int peak = 0;
+                for (int i = from; i < to; i++) peak = Math.max(peak, waiting[i]);
+                line.getData().add(new XYChart.Data<>(series.getSampleTime(from) / 60, peak));
+            }
+            lines.add(line);
+        }
+        chart.getData().setAll(lines);
+        statusLabel.setText(String.format("%d samples every %.1f min%s", size, series.getInterval(),
+                bucket > 1 ? String.format(", longest queue per %d samples drawn", bucket) : ""));
+    }
+
+    /**
+     * Load and draw a series saved with {@link StationTimeSeries#writeBinary(Path)}; a file that cannot be
+     * read is reported in the chart's status line
+     */
+    public void load(Path path) {
+        try {
+            show(StationTimeSeries.readBinary(path));
+        } catch (IOException e) {
+            statusLabel.setText("Cannot read time series: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Save the series shown, for loading back later; a failure is reported in the status line
+     *
+     * @return False if there is nothing to save or writing failed
+     */
+    public boolean save(Path path) {
+        if (series == null) return false;
+        try {
+            series.writeBinary(path);
+            statusLabel.setText("Saved " + series.size() + " samples to " + path);
+            return true;
+        } catch (IOException e) {
+            statusLabel.setText("Cannot write time series: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** @return The series shown, null before the first */
+    public StationTimeSeries getSeries() { return series; }
+}
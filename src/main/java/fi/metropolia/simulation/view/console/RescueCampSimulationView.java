@@ -4,19 +4,84 @@ package fi.metropolia.simulation.view.console;
 
 import fi.metropolia.simulation.framework.Trace;
 import fi.metropolia.simulation.model.*;
+import fi.metropolia.simulation.statistics.BatchMeans;
+import fi.metropolia.simulation.statistics.Tally;
 
+import java.io.PrintStream;
 import java.util.List;
 
 /**
  * VIEW: Display and user interface logic for rescue camp simulation
- * Handles all output formatting and presentation logic
+ * Handles all output formatting and presentation logic; attached to the engine as a listener
  */
-public class RescueCampSimulationView {
+public class RescueCampSimulationView implements SimulationListener {
+    protected final PrintStream out;
+    private List<RescueCampServicePoint> servicePoints = List.of();
+
+    /** Print to standard output */
+    public RescueCampSimulationView() {
+        this(System.out);
+    }
+
+    /** @param out where the reports are printed */
+    public RescueCampSimulationView(PrintStream out) {
+        this.out = out;
+    }
+
+    // ---- SimulationListener ----
+
+    @Override
+    public void simulationStarted(double time, SimulationEngine engine) {
+        servicePoints = engine.getServicePoints();
+        displaySimulationStart();
+    }
+
+    @Override
+    public void survivorArrived(double time, Survivor survivor) {
+        displaySurvivorArrival(survivor);
+    }
+
+    @Override
+    public void survivorQueued(double time, int station, Survivor survivor) {
+        if (Trace.isEnabled(Trace.Level.INFO)) displayServiceAssignment(survivor, servicePoints.get(station).getServicePointName());
+    }
+
+    @Override
+    public void serviceStarted(double time, int station, Survivor survivor, double duration) {
+        if (Trace.isEnabled(Trace.Level.INFO)) displayServiceStart(servicePoints.get(station));
+    }
+
+    @Override
+    public void serviceCompleted(double time, int station, Survivor survivor, int eventOrdinal) {
+        if (Trace.isEnabled(Trace.Level.INFO)) displaySurvivorProgress(survivor, servicePoints.get(station).getServicePointName());
+    }
+
+    @Override
+    public void survivorExited(double time, Survivor survivor) {
+        displaySurvivorCompletion(survivor);
+    }
+
+    @Override
+    public void simulationEnded(double time, SimulationEngine engine) {
+        displayFinalResults(
+                time,
+                engine.getTotalSurvivorArrivals(),
+                engine.getTotalSurvivorsProcessed(),
+                engine.getFullyProcessedSurvivors(),
+                engine.getServicePoints(),
+                engine.getTimeInCampTally(),
+                engine.getSurvivorWaitingTimeTally()
+        );
+        displayWarmup(engine);
+        displayProfile(engine);
+    }
+
+    // ---- Display ----
 
     public void displaySimulationStart() {
-        System.out.println("=".repeat(80));
-        System.out.println("RESCUE CAMP SIMULATION STARTING");
-        System.out.println("=".repeat(80));
+        out.println("=".repeat(80));
+        out.println("RESCUE CAMP SIMULATION STARTING");
+        out.println("=".repeat(80));
         Trace.out(Trace.Level.INFO, "=== Rescue Camp Simulation Starting ===");
     }
 
@@ -29,7 +94,7 @@ public class RescueCampSimulationView {
                 survivor.getAgeCategory(),
                 survivor.getHealthCondition()
         );
-        System.out.println(message);
+        out.println(message);
         Trace.out(Trace.Level.INFO, message);
     }
 
@@ -51,72 +116,150 @@ public class RescueCampSimulationView {
     }
 
     public void displaySurvivorCompletion(Survivor survivor) {
-        System.out.println(String.format(
+        out.println(String.format(
                 "*** SETTLEMENT COMPLETE: Survivor #%d successfully settled in rescue camp ***",
                 survivor.getSurvivorId()));
         displaySurvivorDetailedReport(survivor);
     }
 
     private void displaySurvivorDetailedReport(Survivor survivor) {
-        System.out.println("\n=== Survivor #" + survivor.getSurvivorId() + " Processing Complete ===");
-        System.out.println("Camp arrival time: " + String.format("%.2f", survivor.getCampArrivalTime()) + " minutes");
-        System.out.println("Processing completion time: " + String.format("%.2f", survivor.getProcessingCompletionTime()) + " minutes");
-        System.out.println("Total time in camp: " + String.format("%.2f", survivor.getTotalTimeInCamp()) + " minutes");
-        System.out.println("Total waiting time: " + String.format("%.2f", survivor.getTotalWaitingTime()) + " minutes");
-        System.out.println("Age: " + survivor.getSurvivorAge() + " years (" + survivor.getAgeCategory() + ")");
-        System.out.println("Health condition: " + survivor.getHealthCondition());
+        out.println("\n=== Survivor #" + survivor.getSurvivorId() + " Processing Complete ===");
+        out.println("Camp arrival time: " + String.format("%.2f", survivor.getCampArrivalTime()) + " minutes");
+        out.println("Processing completion time: " + String.format("%.2f", survivor.getProcessingCompletionTime()) + " minutes");
+        out.println("Total time in camp: " + String.format("%.2f", survivor.getTotalTimeInCamp()) + " minutes");
+        out.println("Total waiting time: " + String.format("%.2f", survivor.getTotalWaitingTime()) + " minutes");
+        out.println("Age: " + survivor.getSurvivorAge() + " years (" + survivor.getAgeCategory() + ")");
+        out.println("Health condition: " + survivor.getHealthCondition());
         // Family status removed (no-family scenario)
-        System.out.println("Services required: Medical(" + survivor.requiresMedicalTreatment() + "), Communication(" + survivor.requestsCommunicationService() + ")");
-        System.out.println("-".repeat(50));
+        out.println("Services required: Medical(" + survivor.requiresMedicalTreatment() + "), Communication(" + survivor.requestsCommunicationService() + ")");
+        out.println("-".repeat(50));
     }
 
     public void displayServicePointStatistics(RescueCampServicePoint servicePoint) {
         double maxWaitingTime = servicePoint.getMaxWaitingTime(); // Local variable tracking max waiting
-        System.out.println("\n=== Service Point: " + servicePoint.getServicePointName() + " Statistics ===");
-        System.out.println("Total survivors served: " + servicePoint.getTotalServed());
-        System.out.println("Current queue length: " + servicePoint.getCurrentQueueLength());
-        System.out.println("Average service time: " + String.format("%.2f", servicePoint.getAverageServiceTime()) + " minutes");
-        System.out.println("Maximum waiting time observed: " + String.format("%.2f", maxWaitingTime) + " minutes");
-        System.out.println("-".repeat(50));
+        Tally waiting = servicePoint.getWaitingTimeTally();
+        out.println("\n=== Service Point: " + servicePoint.getServicePointName() + " Statistics ===");
+        out.println("Total survivors served: " + servicePoint.getTotalServed());
+        out.println("Current queue length: " + servicePoint.getCurrentQueueLength());
+        out.println("Average service time: " + String.format("%.2f", servicePoint.getAverageServiceTime()) + " minutes");
+        out.println("Maximum waiting time observed: " + String.format("%.2f", maxWaitingTime) + " minutes");
+        out.println(String.format("Time-average in station (L): %.3f, in queue (Lq): %.3f, utilization: %.1f%%",
+                servicePoint.getAverageNumberInStation(),
+                servicePoint.getAverageNumberInQueue(),
+                servicePoint.getUtilization() * 100));
+        displayTally(waiting);
+        displayTally(servicePoint.getServiceTimeTally());
+        displayTally(servicePoint.getSojournTimeTally());
+        out.println("-".repeat(50));
         Trace.out(Trace.Level.INFO, "Service statistics displayed for " + servicePoint.getServicePointName());
     }
 
-    public void displayOverallStatistics(List<Survivor> survivors) {
-        double totalTime = 0;
-        double totalWaiting = 0;
-        int totalSurvivors = survivors.size();
-
-        for (Survivor s : survivors) {
-            totalTime += s.getTotalTimeInCamp();
-            totalWaiting += s.getTotalWaitingTime();
+    private void displayTally(Tally tally) {
+        out.println(String.format(
+                "%s: mean %.2f, sd %.2f, min %.2f, max %.2f minutes (n=%d)",
+                tally.getName(), tally.getMean(), tally.getStandardDeviation(),
+                nanToZero(tally.getMin()), nanToZero(tally.getMax()), tally.getCount()));
+        // Percentiles from the histogram only: one estimator, the one the service levels are stated in
+        out.println(String.format(
+                "  percentiles: p50 %.2f, p90 %.2f, p95 %.2f, p99 %.2f minutes",
+                nanToZero(tally.getPercentile(50)), nanToZero(tally.getPercentile(90)),
+                nanToZero(tally.getPercentile(95)), nanToZero(tally.getPercentile(99))));
+        BatchMeans batches = tally.getBatchMeans();
+        if (batches.getBatchCount() >= 2) {
+            out.println(String.format(
+                    "  mean %.2f +/- %.2f minutes (95%% CI from %d batch means of %d, lag-1 correlation %.2f)",
+                    batches.getMean(), batches.getHalfWidth(0.95), batches.getBatchCount(),
+                    batches.getBatchSize(), nanToZero(batches.getLag1Correlation())));
         }
+    }
+
+    private static double nanToZero(double value) {
+        return Double.isNaN(value) ? 0 : value;
+    }
 
-        System.out.println("\n=== Overall Simulation Statistics ===");
-        System.out.println("Total survivors processed: " + totalSurvivors);
-        System.out.println("Average total time in camp: " + String.format("%.2f", totalTime / totalSurvivors) + " minutes");
-        System.out.println("Average waiting time: " + String.format("%.2f", totalWaiting / totalSurvivors) + " minutes");
-        System.out.println("-".repeat(50));
+    public void displayOverallStatistics(Tally timeInCamp, Tally waitingTime) {
+        out.println("\n=== Overall Simulation Statistics ===");
+        // Differs from the processed total above once a warm-up has been truncated
+        out.println("Survivors in these statistics (after any warm-up truncation): " + timeInCamp.getCount());
+        out.println("Average total time in camp: " + String.format("%.2f", timeInCamp.getMean()) + " minutes");
+        out.println("Average waiting time: " + String.format("%.2f", waitingTime.getMean()) + " minutes");
+        displayTally(timeInCamp);
+        displayTally(waitingTime);
+        out.println("-".repeat(50));
         Trace.out(Trace.Level.INFO, "Overall simulation statistics displayed");
     }
 
+    /**
+     * State the warm-up truncation of a run with warm-up detection (nothing otherwise)
+     */
+    public void displayWarmup(SimulationEngine engine) {
+        if (!engine.isWarmupDetection()) return;
+        if (Double.isNaN(engine.getWarmupTruncationTime())) {
+            out.println("Warm-up (MSER-5): not detected yet; the statistics include the warm-up");
+        } else if (engine.getWarmupTruncationTime() == 0) {
+            out.println("Warm-up (MSER-5): none detected; the statistics cover the whole run");
+        } else {
+            out.println(String.format("Warm-up (MSER-5): ends at %.2f minutes; observations from then on, "
+                    + "time-weighted figures from %.2f minutes", engine.getWarmupTruncationTime(),
+                    engine.getStatisticsStartTime()));
+            if (engine.getWarmupDroppedObservations() > 0) {
+                out.println(String.format("  %d observations made before the reset did not fit the replay buffer "
+                        + "of %d; those after the truncation point are missing from the statistics",
+                        engine.getWarmupDroppedObservations(), SimulationEngine.WARMUP_BUFFER_SIZE));
+            }
+        }
+    }
+
+    /**
+     * Show the engine's self-profile of a run with profiling (nothing otherwise)
+     */
+    public void displayProfile(SimulationEngine engine) {
+        if (engine.getProfile() == null) return;
+        out.println("\n=== Engine Profile ===");
+        out.print(engine.getProfile().format());
+    }
+
+    /**
+     * Statistics of a run that is still going (no survivor reports)
+     */
+    public void displayInterimResults(double currentTime, int totalArrivals, int totalProcessed,
+                                      List<RescueCampServicePoint> servicePoints, Tally timeInCamp, Tally waitingTime) {
+        out.println("\n=== INTERIM RESULTS ===");
+        out.println("Simulation time: " + String.format("%.2f", currentTime) + " minutes");
+        out.println("Total survivors arrived: " + totalArrivals);
+        out.println("Total survivors processed: " + totalProcessed);
+
+        out.println("\n--- Service Point Statistics ---");
+        for (RescueCampServicePoint sp : servicePoints) {
+            displayServicePointStatistics(sp);
+        }
+
+        displayOverallStatistics(timeInCamp, waitingTime);
+        out.flush();
+    }
+
     public void displayFinalResults(double currentTime, int totalArrivals, int totalProcessed,
-                                    List<Survivor> survivors, List<RescueCampServicePoint> servicePoints) {
-        System.out.println("\n=== SIMULATION COMPLETE ===");
-        System.out.println("Simulation time: " + String.format("%.2f", currentTime) + " minutes");
-        System.out.println("Total survivors arrived: " + totalArrivals);
-        System.out.println("Total survivors processed: " + totalProcessed);
-
-        System.out.println("\n--- Individual Survivor Reports ---");
-        for (Survivor s : survivors) {
-            displaySurvivorDetailedReport(s);
+                                    List<Survivor> survivors, List<RescueCampServicePoint> servicePoints,
+                                    Tally timeInCamp, Tally waitingTime) {
+        out.println("\n=== SIMULATION COMPLETE ===");
+        out.println("Simulation time: " + String.format("%.2f", currentTime) + " minutes");
+        out.println("Total survivors arrived: " + totalArrivals);
+        out.println("Total survivors processed: " + totalProcessed);
+
+        // Empty in streaming statistics mode, where survivors are not retained
+        if (!survivors.isEmpty()) {
+            out.println("\n--- Individual Survivor Reports ---");
+            for (Survivor s : survivors) {
+                displaySurvivorDetailedReport(s);
+            }
         }
 
-        System.out.println("\n--- Service Point Statistics ---");
+        out.println("\n--- Service Point Statistics ---");
         for (RescueCampServicePoint sp : servicePoints) {
             displayServicePointStatistics(sp);
         }
 
-        displayOverallStatistics(survivors);
+        displayOverallStatistics(timeInCamp, waitingTime);
         Trace.out(Trace.Level.INFO, "Simulation final results displayed.");
     }
 }
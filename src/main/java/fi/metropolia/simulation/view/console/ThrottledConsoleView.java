@@ -0,0 +1,134 @@
+package fi.metropolia.simulation.view.console;
+
+import fi.metropolia.simulation.model.RescueCampServicePoint;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.Survivor;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Console view for long runs. Output goes through one large buffer instead of a println per line;
+ * live output is limited to a progress line (simulated time, survivors per second, queue lengths) at
+ * most once per interval of wall-clock time, and the per-survivor report is streamed as survivors leave,
+ * one short line for every n-th survivor, instead of being printed again at the end.
+ * The final service point and overall statistics are the same as in {@link RescueCampSimulationView}.
+ * <p>
+ * Routing and service trace lines are not printed in this mode.
+ */
+public class ThrottledConsoleView extends RescueCampSimulationView {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int CLOCK_CHECK_MASK = 255;   // read the wall clock every 256 callbacks
+
+    private final long progressIntervalNanos;
+    private final int reportEvery;
+    private final StringBuilder queues = new StringBuilder(80);
+
+    private List<RescueCampServicePoint> stations = List.of();
+    private long startNanos;
+    private long nextProgressNanos;
+    private int callbacks = 0;
+    private int arrivals = 0;
+    private int exits = 0;
+    private int exitsAtLastProgress = 0;
+    private long lastProgressNanos;
+
+    /**
+     * Print to standard output through a private buffer
+     *
+     * @param progressIntervalMillis wall-clock time between progress lines, 0 for none
+     * @param reportEvery            print the report of every n-th survivor leaving the camp, 0 for none
+     */
+    public ThrottledConsoleView(long progressIntervalMillis, int reportEvery) {
+        this(new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), BUFFER_SIZE), false),
+                progressIntervalMillis, reportEvery);
+    }
+
+    /**
+     * @param out                    where the reports are printed; flushed only at the end of the run
+     * @param progressIntervalMillis wall-clock time between progress lines, 0 for none
+     * @param reportEvery            print the report of every n-th survivor leaving the camp, 0 for none
+     */
+    public ThrottledConsoleView(PrintStream out, long progressIntervalMillis, int reportEvery) {
+        super(out);
+        this.progressIntervalNanos = progressIntervalMillis * 1_000_000L;
+        this.reportEvery = reportEvery;
+    }
+
+    @Override
+    public void simulationStarted(double time, SimulationEngine engine) {
+        stations = engine.getServicePoints();
+        callbacks = arrivals = exits = exitsAtLastProgress = 0;
+        startNanos = lastProgressNanos = System.nanoTime();
+        nextProgressNanos = startNanos + progressIntervalNanos;
+        displaySimulationStart();
+    }
+
+    @Override
+    public void survivorArrived(double time, Survivor survivor) {
+        arrivals++;
+        checkProgress(time);
+    }
+
+    @Override
+    public void survivorQueued(double time, int station, Survivor survivor) {
+    }
+
+    @Override
+    public void serviceStarted(double time, int station, Survivor survivor, double duration) {
+    }
+
+    @Override
+    public void serviceCompleted(double time, int station, Survivor survivor, int eventOrdinal) {
+    }
+
+    @Override
+    public void survivorExited(double time, Survivor survivor) {
+        exits++;
+        if (reportEvery > 0 && exits % reportEvery == 0) printSurvivorLine(survivor);
+        checkProgress(time);
+    }
+
+    @Override
+    public void simulationEnded(double time, SimulationEngine engine) {
+        if (progressIntervalNanos > 0) printProgress(time, System.nanoTime());
+        // Survivors were reported while they left; do not list them again
+        displayFinalResults(time, engine.getTotalSurvivorArrivals(), engine.getTotalSurvivorsProcessed(), List.of(),
+                engine.getServicePoints(), engine.getTimeInCampTally(), engine.getSurvivorWaitingTimeTally());
+        displayWarmup(engine);
+        displayProfile(engine);
+        out.printf("Wall-clock time: %.3f s%n", (System.nanoTime() - startNanos) / 1e9);
+        out.flush();
+    }
+
+    private void checkProgress(double time) {
+        if (progressIntervalNanos == 0 || (++callbacks & CLOCK_CHECK_MASK) != 0) return;
+        long now = System.nanoTime();
+        if (now < nextProgressNanos) return;
+        printProgress(time, now);
+        nextProgressNanos = now + progressIntervalNanos;
+        out.flush();   // progress lines should appear when they are due
+    }
+
+    private void printProgress(double time, long now) {
+        double seconds = Math.max(now - lastProgressNanos, 1) / 1e9;
+        queues.setLength(0);
+        for (RescueCampServicePoint sp : stations) {
+            queues.append(' ').append(sp.getServicePointName()).append('=').append(sp.getCurrentQueueLength());
+        }
+        out.printf("[progress] t=%.1f min, arrived %d, settled %d, %.0f survivors/s, queues%s%n",
+                time, arrivals, exits, (exits - exitsAtLastProgress) / seconds, queues);
+        exitsAtLastProgress = exits;
+        lastProgressNanos = now;
+    }
+
+    private void printSurvivorLine(Survivor s) {
+        out.printf("Survivor #%d settled: arrived %.2f, in camp %.2f, waiting %.2f min, age %d (%s), %s, medical %b, communication %b%n",
+                s.getSurvivorId(), s.getCampArrivalTime(), s.getTotalTimeInCamp(), s.getTotalWaitingTime(),
+                s.getSurvivorAge(), s.getAgeCategory(), s.getHealthCondition(), s.requiresMedicalTreatment(),
+                s.requestsCommunicationService());
+    }
+}
@@ -0,0 +1,277 @@
+package fi.metropolia.simulation.view.gui;
+
+import fi.metropolia.simulation.controller.MotionFeed;
+import fi.metropolia.simulation.framework.Pacer;
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * VIEW: Animation of survivors walking between the service points, drawn on one {@link Canvas}.
+ * <p>
+ * There is no scene graph node per survivor. Survivor state lives in parallel primitive arrays (start and
+ * end point, start time of the current walk), movements arrive from a {@link MotionFeed}, and positions
+ * are interpolated at the present simulated time. Survivors are written as pixels into an int array that
+ * is copied to the canvas in a single image draw. If drawing the survivors exceeds the frame budget,
+ * only every n-th survivor is drawn until it fits again.
+ * <p>
+ * The feed drops movements rather than hold up the simulation. After a gap the view forgets its survivors
+ * and picks them up again as they next move, so it never shows survivors who have left long ago.
+ */
+public class CampAnimationView extends Canvas {
+    private static final double WALK_MINUTES = 2.0;          // simulated time of one walk between stations
+    private static final long DRAW_BUDGET_NANOS = 6_000_000;  // pixel work allowed per frame
+    private static final float CLUSTER_RADIUS = 30;
+    private static final int BACKGROUND = 0xFF1E2228;
+    private static final int WALKING = 0xFFFFB040;
+    private static final int AT_STATION = 0xFF58A6FF;
+    private static final int LEAVING = 0xFF7BD88F;
+
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    private final WritableImage image;
+    private final PixelFormat<IntBuffer> format = PixelFormat.getIntArgbPreInstance();
+
+    // Layout
+    private String[] stationNames = new String[0];
+    private float[] stationX = new float[0];
+    private float[] stationY = new float[0];
+    private final float entryX;
+    private final float entryY;
+    private final float exitX;
+    private final float exitY;
+
+    // Live survivors, slots 0..count-1 (structure of arrays)
+    private int count = 0;
+    private int[] ids = new int[1024];
+    private float[] fromX = new float[1024];
+    private float[] fromY = new float[1024];
+    private float[] toX = new float[1024];
+    private float[] toY = new float[1024];
+    private double[] walkStart = new double[1024];
+    private boolean[] leaving = new boolean[1024];
+    private int[] slotOfId = new int[4096];   // survivor id -> slot, -1 if not in the camp
+    private int[] atStation = new int[0];
+
+    private MotionFeed feed;
+    private long seenDropped = 0;   // feed's dropped count when the survivors were last complete
+    private Pacer pacer;
+    private double latestEventTime = 0;
+    private int stride = 1;
+
+    private final MotionFeed.Sink sink = this::move;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            renderFrame();
+        }
+    };
+
+    public CampAnimationView(int width, int height) {
+        super(width, height);
+        this.width = width;
+        this.height = height;
+        pixels = new int[width * height];
+        image = new WritableImage(width, height);
+        entryX = 20;
+        entryY = height / 2f;
+        exitX = width - 20;
+        exitY = height / 2f;
+        Arrays.fill(slotOfId, -1);
+    }
+
+    /**
+     * Start animating a run
+     *
+     * @param feed         movements of the run
+     * @param pacer        pacer of the run, used for the present time; null to show the latest event time
+     * @param stationNames service point names in configuration order
+     */
+    public void watch(MotionFeed feed, Pacer pacer, List<String> stationNames) {
+        if (this.feed != null) this.feed.detach();
+        this.feed = feed;
+        this.pacer = pacer;
+        int n = stationNames.size();
+        this.stationNames = stationNames.toArray(new String[0]);
+        stationX = new float[n];
+        stationY = new float[n];
+        atStation = new int[n];
+        for (int i = 0; i < n; i++) {
+            stationX[i] = 90 + (width - 180) * (n == 1 ? 0.5f : i / (float) (n - 1));
+            stationY[i] = height * (i % 2 == 0 ? 0.35f : 0.65f);
+        }
+        Arrays.fill(slotOfId, -1);
+        count = 0;
+        seenDropped = feed.getDropped();
+        latestEventTime = 0;
+        stride = 1;
+        timer.start();
+    }
+
+    /** Stop drawing; the feed drops the movements from now on */
+    public void stop() {
+        timer.stop();
+        if (feed != null) feed.detach();
+    }
+
+    private void move(double time, int id, int target) {
+        latestEventTime = time;
+        if (target == MotionFeed.ARRIVED) {
+            int slot = allocate(id);
+            fromX[slot] = toX[slot] = entryX;
+            fromY[slot] = toY[slot] = entryY;
+            walkStart[slot] = time;
+            leaving[slot] = false;
+            return;
+        }
+        int slot = id < slotOfId.length ? slotOfId[id] : -1;
+        if (slot < 0) {
+            // Arrived during a gap in the feed: show the survivor from its next station on
+            if (target == MotionFeed.EXITED) return;
+            slot = allocate(id);
+            fromX[slot] = toX[slot] = entryX;
+            fromY[slot] = toY[slot] = entryY;
+            walkStart[slot] = time;
+            leaving[slot] = false;
+        }
+        double p = progress(slot, time);
+        fromX[slot] = fromX[slot] + (toX[slot] - fromX[slot]) * (float) p;
+        fromY[slot] = fromY[slot] + (toY[slot] - fromY[slot]) * (float) p;
+        walkStart[slot] = time;
+        if (target == MotionFeed.EXITED) {
+            toX[slot] = exitX;
+            toY[slot] = exitY;
+            leaving[slot] = true;
+        } else {
+            // Spread the survivors of a station over a disc, at a fixed place per survivor
+            int h = id * 0x9E3779B9;
+            double angle = (h & 0xFFFF) * (2 * Math.PI / 65536);
+            double radius = CLUSTER_RADIUS * Math.sqrt(((h >>> 16) & 0xFFFF) / 65536.0);
+            toX[slot] = stationX[target] + (float) (radius * Math.cos(angle));
+            toY[slot] = stationY[target] + (float) (radius * Math.sin(angle));
+        }
+    }
+
+    private double progress(int slot, double time) {
+        double p = (time - walkStart[slot]) / WALK_MINUTES;
+        return p <= 0 ? 0 : p >= 1 ? 1 : p;
+    }
+
+    private int allocate(int id) {
+        if (count == ids.length) grow();
+        if (id >= slotOfId.length) {
+            int old = slotOfId.length;
+            slotOfId = Arrays.copyOf(slotOfId, Math.max(old * 2, id + 1));
+            Arrays.fill(slotOfId, old, slotOfId.length, -1);
+        }
+        int slot = count++;
+        ids[slot] = id;
+        slotOfId[id] = slot;
+        return slot;
+    }
+
+    private void grow() {
+        int n = ids.length * 2;
+        ids = Arrays.copyOf(ids, n);
+        fromX = Arrays.copyOf(fromX, n);
+        fromY = Arrays.copyOf(fromY, n);
+        toX = Arrays.copyOf(toX, n);
+        toY = Arrays.copyOf(toY, n);
+        walkStart = Arrays.copyOf(walkStart, n);
+        leaving = Arrays.copyOf(leaving, n);
+    }
+
+    /** Move the last survivor into the freed slot */
+    private void remove(int slot) {
+        slotOfId[ids[slot]] = -1;
+        int last = --count;
+        if (slot == last) return;
+        ids[slot] = ids[last];
+        fromX[slot] = fromX[last];
+        fromY[slot] = fromY[last];
+        toX[slot] = toX[last];
+        toY[slot] = toY[last];
+        walkStart[slot] = walkStart[last];
+        leaving[slot] = leaving[last];
+        slotOfId[ids[slot]] = slot;
+    }
+
+    private void renderFrame() {
+        if (feed != null) {
+            long dropped = feed.getDropped();
+            if (dropped != seenDropped) {
+                // Movements were lost: whoever is shown may have moved on or left
+                seenDropped = dropped;
+                for (int i = 0; i < count; i++) slotOfId[ids[i]] = -1;
+                count = 0;
+            }
+            feed.drain(sink);
+        }
+        double present = pacer != null && !Double.isInfinite(pacer.getSpeedFactor())
+                ? pacer.getPresentTime() : latestEventTime;
+
+        for (int i = count - 1; i >= 0; i--) {
+            if (leaving[i] && present - walkStart[i] >= WALK_MINUTES) remove(i);
+        }
+
+        long start = System.nanoTime();
+        Arrays.fill(pixels, BACKGROUND);
+        for (int i = 0; i < count; i += stride) {
+            double p = progress(i, present);
+            int x = (int) (fromX[i] + (toX[i] - fromX[i]) * p);
+            int y = (int) (fromY[i] + (toY[i] - fromY[i]) * p);
+            if (x < 0 || y < 0 || x >= width - 1 || y >= height - 1) continue;
+            int color = leaving[i] ? LEAVING : p < 1 ? WALKING : AT_STATION;
+            int o = y * width + x;
+            pixels[o] = color;
+            pixels[o + 1] = color;
+            pixels[o + width] = color;
+            pixels[o + width + 1] = color;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (elapsed > DRAW_BUDGET_NANOS) stride++;
+        else if (elapsed < DRAW_BUDGET_NANOS / 3 && stride > 1) stride--;
+
+        GraphicsContext gc = getGraphicsContext2D();
+        image.getPixelWriter().setPixels(0, 0, width, height, format, pixels, 0, width);
+        gc.drawImage(image, 0, 0);
+        drawStations(gc, present);
+    }
+
+    private void drawStations(GraphicsContext gc, double present) {
+        Arrays.fill(atStation, 0);
+        for (int i = 0; i < count; i++) {
+            if (leaving[i] || progress(i, present) < 1) continue;
+            int nearest = nearestStation(toX[i], toY[i]);
+            if (nearest >= 0) atStation[nearest]++;
+        }
+        gc.setStroke(Color.gray(0.6));
+        gc.setFill(Color.gray(0.85));
+        for (int i = 0; i < stationNames.length; i++) {
+            double r = CLUSTER_RADIUS + 4;
+            gc.strokeOval(stationX[i] - r, stationY[i] - r, 2 * r, 2 * r);
+            double labelY = stationY[i] < height / 2f ? stationY[i] - r - 8 : stationY[i] + r + 16;
+            gc.fillText(stationNames[i] + " (" + atStation[i] + ")", stationX[i] - r - 20, labelY);
+        }
+        gc.fillText(String.format("t = %.1f min   survivors in camp: %d%s", present, count,
+                stride > 1 ? "   (drawing 1 in " + stride + ")" : ""), 10, 16);
+    }
+
+    private int nearestStation(float x, float y) {
+        for (int s = 0; s < stationX.length; s++) {
+            float dx = x - stationX[s];
+            float dy = y - stationY[s];
+            if (dx * dx + dy * dy <= CLUSTER_RADIUS * CLUSTER_RADIUS + 1) return s;
+        }
+        return -1;
+    }
+}
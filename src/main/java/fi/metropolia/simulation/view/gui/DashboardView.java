@@ -0,0 +1,119 @@
+package fi.metropolia.simulation.view.gui;
+
+import fi.metropolia.simulation.controller.SimulationSnapshot;
+import fi.metropolia.simulation.controller.SnapshotPublisher;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+
+/**
+ * VIEW: Live dashboard of a running simulation. An {@link AnimationTimer} reads the latest snapshot of a
+ * {@link SnapshotPublisher} once per frame and updates the controls only when a new snapshot arrived, so
+ * the FX thread never waits for the simulation and the simulation never waits for the screen.
+ */
+public class DashboardView extends VBox {
+    private final Label timeLabel = new Label();
+    private final Label survivorsLabel = new Label();
+    private final Label throughputLabel = new Label();
+    private final Label timeInCampLabel = new Label();
+    private final Label statusLabel = new Label("Idle");
+    private final GridPane stationGrid = new GridPane();
+
+    private Label[] queueLabels = new Label[0];
+    private ProgressBar[] utilizationBars = new ProgressBar[0];
+    private Label[] utilizationLabels = new Label[0];
+    private Label[] servedLabels = new Label[0];
+    private Label[] waitLabels = new Label[0];
+
+    private SnapshotPublisher publisher;
+    private SimulationSnapshot shown;
+    private Runnable onFinished = () -> { };
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            SimulationSnapshot snapshot = publisher.latest();
+            if (snapshot == null || snapshot == shown) return;
+            shown = snapshot;
+            show(snapshot);
+            if (snapshot.isFinished()) {
+                stop();
+                statusLabel.setText("Finished");
+                onFinished.run();
+            }
+        }
+    };
+
+    public DashboardView() {
+        super(8);
+        setPadding(new Insets(12));
+        stationGrid.setHgap(12);
+        stationGrid.setVgap(4);
+        getChildren().addAll(statusLabel, timeLabel, survivorsLabel, throughputLabel, timeInCampLabel, stationGrid);
+    }
+
+    /**
+     * Start following a run
+     *
+     * @param publisher  publisher attached to the engine of the run
+     * @param onFinished called on the FX thread once the final snapshot has been shown
+     */
+    public void watch(SnapshotPublisher publisher, Runnable onFinished) {
+        this.publisher = publisher;
+        this.onFinished = onFinished;
+        this.shown = null;
+        statusLabel.setText("Running");
+        timer.start();
+    }
+
+    /** Stop following the run and show the given status instead */
+    public void setStatus(String text) {
+        timer.stop();
+        statusLabel.setText(text);
+    }
+
+    private void show(SimulationSnapshot s) {
+        if (queueLabels.length != s.getStationCount()) buildStationRows(s);
+        timeLabel.setText(String.format("Simulation time: %.1f min (%.1f h)", s.getTime(), s.getTime() / 60));
+        survivorsLabel.setText(String.format("Arrived: %d   Settled: %d", s.getArrivals(), s.getSettled()));
+        throughputLabel.setText(String.format("Throughput: %.0f survivors/s", s.getSettledPerSecond()));
+        timeInCampLabel.setText(String.format("Time in camp: mean %.1f, p95 %.1f min   Waiting: mean %.1f min",
+                orZero(s.getMeanTimeInCamp()), orZero(s.getP95TimeInCamp()), orZero(s.getMeanWaitingTime())));
+        for (int i = 0; i < queueLabels.length; i++) {
+            queueLabels[i].setText(Integer.toString(s.getQueueLength(i)));
+            utilizationBars[i].setProgress(s.getUtilization(i));
+            utilizationLabels[i].setText(String.format("%.0f%%", s.getUtilization(i) * 100));
+            servedLabels[i].setText(Integer.toString(s.getServed(i)));
+            waitLabels[i].setText(String.format("%.1f", orZero(s.getP95Wait(i))));
+        }
+    }
+
+    private void buildStationRows(SimulationSnapshot s) {
+        int n = s.getStationCount();
+        stationGrid.getChildren().clear();
+        stationGrid.addRow(0, new Label("Station"), new Label("In station"), new Label("Utilization"),
+                new Label(""), new Label("Served"), new Label("p95 wait (min)"));
+        queueLabels = new Label[n];
+        utilizationBars = new ProgressBar[n];
+        utilizationLabels = new Label[n];
+        servedLabels = new Label[n];
+        waitLabels = new Label[n];
+        for (int i = 0; i < n; i++) {
+            queueLabels[i] = new Label();
+            utilizationBars[i] = new ProgressBar(0);
+            utilizationBars[i].setPrefWidth(160);
+            utilizationLabels[i] = new Label();
+            servedLabels[i] = new Label();
+            waitLabels[i] = new Label();
+            stationGrid.addRow(i + 1, new Label(s.getStationName(i)), queueLabels[i], utilizationBars[i],
+                    utilizationLabels[i], servedLabels[i], waitLabels[i]);
+        }
+    }
+
+    private static double orZero(double value) {
+        return Double.isNaN(value) ? 0 : value;
+    }
+}
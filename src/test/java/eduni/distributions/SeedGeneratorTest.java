@@ -0,0 +1,42 @@
+package eduni.distributions;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SeedGeneratorTest {
+
+    @Test
+    void jumpMatchesStepping() {
+        RandomGenerator stepped = new RandomGenerator(12345);
+        RandomGenerator jumped = new RandomGenerator(12345);
+        for (int i = 0; i < 100000; i++) stepped.nextLong();
+
+        jumped.jump(jumped.jumpMultiplier(100000));
+
+        assertEquals(stepped.getSeed(), jumped.getSeed());
+    }
+
+    @Test
+    void fullCycleReturnsToTheSeed() {
+        RandomGenerator generator = new RandomGenerator(987654321);
+
+        generator.jump(generator.jumpMultiplier(2147483646L));
+
+        assertEquals(987654321, generator.getSeed());
+    }
+
+    @Test
+    void seedsAreSpacingDrawsApart() {
+        int spacing = 214748364;   // a tenth of the cycle
+        SeedGenerator seeds = new SeedGenerator(42, spacing);
+        RandomGenerator reference = new RandomGenerator(42);
+        long multiplier = reference.jumpMultiplier(spacing);
+
+        assertEquals(42, seeds.sample());   // the first seed is the root itself
+        for (int i = 0; i < 9; i++) {
+            reference.jump(multiplier);
+            assertEquals(reference.getSeed(), seeds.sample());
+        }
+    }
+}
@@ -3,7 +3,7 @@ package fi.metropolia.simulation;
 import fi.metropolia.simulation.framework.Engine;
 import fi.metropolia.simulation.framework.Trace;
 import fi.metropolia.simulation.framework.Trace.Level;
-import fi.metropolia.simulation.controller.SimulationEngine;
+import fi.metropolia.simulation.model.SimulationEngine;
 
 /**
  * Command-line type User Interface
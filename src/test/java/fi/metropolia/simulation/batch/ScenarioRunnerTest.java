@@ -0,0 +1,101 @@
+package fi.metropolia.simulation.batch;
+
+import fi.metropolia.simulation.framework.Trace;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScenarioRunnerTest {
+
+    @BeforeAll
+    static void quiet() {
+        Trace.setTraceLevel(Trace.Level.ERR);
+    }
+
+    private static Path scenarioFile(Path dir, String name, String... lines) throws Exception {
+        Path file = dir.resolve(name + ".properties");
+        Files.write(file, List.of(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    void runsReplicationsAndWritesTheJsonSummary(@TempDir Path dir) throws Exception {
+        Scenario scenario = Scenario.load(scenarioFile(dir, "small",
+                "run.horizon = 600", "run.seed = 5", "run.replications = 2",
+                "output.summary = out/small.json", "output.survivors = out/survivors.csv"));
+
+        List<ScenarioSummary> summaries;
+        try (ScenarioRunner runner = new ScenarioRunner(2)) {
+            summaries = runner.runAll(List.of(scenario));
+        }
+
+        assertEquals(1, summaries.size());
+        ScenarioSummary summary = summaries.get(0);
+        assertEquals(2, summary.getRuns().size());
+        long start = Math.min(summary.getRuns().get(0).startMillis, summary.getRuns().get(1).startMillis);
+        long end = Math.max(summary.getRuns().get(0).endMillis, summary.getRuns().get(1).endMillis);
+        assertEquals(end - start, summary.getWallTimeMillis());
+
+        String json = Files.readString(dir.resolve("out/small.json"));
+        assertTrue(json.startsWith("{\n  \"scenario\": \"small\",\n  \"replications\": 2,"), json);
+        assertTrue(json.contains("\"horizon\": 600.0,"));
+        assertTrue(json.contains("\"seed\": 5,"));
+        assertTrue(json.contains("\"wallTimeMillis\": " + summary.getWallTimeMillis() + ","));
+        assertTrue(json.contains("\"quantiles\": {"));
+        for (String station : summary.getRuns().get(0).stationNames) {
+            assertTrue(json.contains("\"name\": \"" + station + "\","), station);
+        }
+        long[] seeds = scenario.replicationSeeds();
+        for (int r = 0; r < 2; r++) {
+            assertTrue(json.contains("\"replication\": " + r + ","));
+            assertTrue(json.contains("\"seed\": " + seeds[r] + ","));
+            assertTrue(Files.size(dir.resolve("out/survivors-" + r + ".csv")) > 0);
+        }
+        assertFalse(json.contains("NaN") || json.contains("Infinity"));
+    }
+
+    @Test
+    void failingScenarioIsSkipped(@TempDir Path dir) throws Exception {
+        Files.writeString(dir.resolve("blocker"), "a file where the output directory should be");
+        Scenario broken = Scenario.load(scenarioFile(dir, "broken",
+                "run.horizon = 100", "output.survivors = blocker/survivors.csv"));
+        Scenario fine = Scenario.load(scenarioFile(dir, "fine", "run.horizon = 100"));
+
+        List<ScenarioSummary> summaries;
+        try (ScenarioRunner runner = new ScenarioRunner(1)) {
+            summaries = runner.runAll(List.of(broken, fine));
+        }
+
+        assertEquals(1, summaries.size());
+        assertEquals("fine", summaries.get(0).getScenario().getName());
+        assertTrue(Files.exists(dir.resolve("fine.summary.json")));
+        assertFalse(Files.exists(dir.resolve("broken.summary.json")));
+    }
+
+    @Test
+    void jsonWriterWritesNonFiniteNumbersAsNull() throws Exception {
+        StringWriter out = new StringWriter();
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        json.name("mean").value(Double.NaN);
+        json.name("max").value(Double.POSITIVE_INFINITY);
+        json.name("min").value(Double.NEGATIVE_INFINITY);
+        json.name("p95").value(2.5);
+        json.name("label").value((String) null);
+        json.name("runs").beginArray().value(1L).value("a\"b").endArray();
+        json.endObject();
+
+        assertEquals("{\n  \"mean\": null,\n  \"max\": null,\n  \"min\": null,\n  \"p95\": 2.5,\n"
+                + "  \"label\": null,\n  \"runs\": [\n    1,\n    \"a\\\"b\"\n  ]\n}\n", out.toString());
+    }
+}
@@ -0,0 +1,84 @@
+package fi.metropolia.simulation.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScenarioTest {
+    private static final Path BASE = Path.of("/scenarios");
+
+    private static Scenario scenario(String... keyValues) {
+        Properties properties = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2) properties.setProperty(keyValues[i], keyValues[i + 1]);
+        return Scenario.fromProperties(properties, "file-name", BASE);
+    }
+
+    @Test
+    void parsesRunSettingsAndOutputs() {
+        Scenario scenario = scenario(
+                "run.name", " extra ", "run.horizon", "600", "run.seed", "77", "run.replications", "4",
+                "run.sample_interval", "5", "run.warmup_detection", "true",
+                "output.summary", "out/extra.json", "output.timeseries", "ts-{replication}.csv",
+                "output.survivors", " ", "station.medical.workers", "3");
+
+        assertEquals("extra", scenario.getName());
+        assertEquals(600, scenario.getHorizon());
+        assertEquals(77, scenario.getSeed());
+        assertEquals(4, scenario.getReplications());
+        assertEquals(5, scenario.getSampleInterval());
+        assertTrue(scenario.isWarmupDetection());
+        assertEquals(BASE.resolve("out/extra.json"), scenario.getSummaryPath());
+        assertEquals("ts-{replication}.csv", scenario.getTimeSeriesCsv());
+        assertNull(scenario.getSurvivorsCsv());   // blank means not requested
+        assertNull(scenario.getJournalFile());
+        assertEquals(3, scenario.getCamp().getStation("medical").getWorkers());
+    }
+
+    @Test
+    void defaultsAndInvalidSettings() {
+        Scenario scenario = scenario();
+        assertEquals("file-name", scenario.getName());
+        assertEquals(480, scenario.getHorizon());
+        assertEquals(1, scenario.getReplications());
+        assertFalse(scenario.isWarmupDetection());
+        assertEquals(BASE.resolve("file-name.summary.json"), scenario.getSummaryPath());
+
+        assertThrows(IllegalArgumentException.class, () -> scenario("run.horizon", "0"));
+        assertThrows(IllegalArgumentException.class, () -> scenario("run.replications", "0"));
+        assertThrows(IllegalArgumentException.class, () -> scenario("output.timeseries", "ts.csv"));
+    }
+
+    @Test
+    void replicationPathFillsPlaceholderOrAddsSuffix() {
+        Scenario many = scenario("run.replications", "3");
+        assertEquals(BASE.resolve("out/s-2.csv"), many.replicationPath("out/s-{replication}.csv", 2));
+        assertEquals(BASE.resolve("out/s-2.csv.gz"), many.replicationPath("out/s.csv.gz", 2));
+        assertEquals(BASE.resolve("out/s-2.csv"), many.replicationPath("out/s.csv", 2));
+        assertEquals(BASE.resolve("out.d/journal-1"), many.replicationPath("out.d/journal", 1));
+        assertEquals(BASE.resolve("journal-0"), many.replicationPath("journal", 0));
+
+        Scenario single = scenario("run.replications", "1");
+        assertEquals(BASE.resolve("out/s.csv"), single.replicationPath("out/s.csv", 0));
+        assertEquals(BASE.resolve("out/s-0.csv"), single.replicationPath("out/s-{replication}.csv", 0));
+    }
+
+    @Test
+    void replicationSeedsAreReproducibleAndDistinct() {
+        long[] seeds = scenario("run.seed", "9", "run.replications", "50").replicationSeeds();
+        assertEquals(50, seeds.length);
+        assertArrayEquals(seeds, scenario("run.seed", "9", "run.replications", "50").replicationSeeds());
+        assertEquals(50, Arrays.stream(seeds).distinct().count());
+        assertFalse(Arrays.equals(seeds, scenario("run.seed", "10", "run.replications", "50").replicationSeeds()));
+        // More replications extend the list rather than changing it
+        assertArrayEquals(Arrays.copyOf(seeds, 10), scenario("run.seed", "9", "run.replications", "10").replicationSeeds());
+    }
+}
@@ -0,0 +1,94 @@
+package fi.metropolia.simulation.controller;
+
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.SimulationListener;
+import fi.metropolia.simulation.model.Survivor;
+import fi.metropolia.simulation.model.TestEngines;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MotionFeedTest {
+
+    /** Counts the movements a run produces */
+    private static class Movements implements SimulationListener {
+        long count = 0;
+
+        @Override
+        public void survivorArrived(double time, Survivor survivor) { count++; }
+        @Override
+        public void survivorQueued(double time, int station, Survivor survivor) { count++; }
+        @Override
+        public void survivorExited(double time, Survivor survivor) { count++; }
+    }
+
+    private static List<double[]> drainAll(MotionFeed feed) {
+        List<double[]> moves = new ArrayList<>();
+        feed.drain((time, survivor, target) -> moves.add(new double[]{time, survivor, target}));
+        return moves;
+    }
+
+    @Test
+    void largeRingDeliversEveryMovementInOrderWhileTheSimulationRuns() throws Exception {
+        SimulationEngine engine = TestEngines.streaming(4, 10000);
+        MotionFeed feed = new MotionFeed(20);   // holds the whole run
+        engine.addListener(feed);
+
+        Thread simulation = new Thread(engine::startSimulation, "simulation");
+        simulation.start();
+        List<double[]> moves = new ArrayList<>();
+        MotionFeed.Sink sink = (time, survivor, target) -> moves.add(new double[]{time, survivor, target});
+        while (simulation.isAlive()) feed.drain(sink);
+        simulation.join();
+        feed.drain(sink);
+
+        int arrived = 0;
+        int exited = 0;
+        double previous = 0;
+        for (double[] move : moves) {
+            if (move[0] < previous) throw new AssertionError("movement out of order at " + move[0]);
+            previous = move[0];
+            if (move[2] == MotionFeed.ARRIVED) arrived++;
+            if (move[2] == MotionFeed.EXITED) exited++;
+        }
+        assertEquals(0, feed.getDropped());
+        assertEquals(engine.getTotalSurvivorArrivals(), arrived);
+        assertEquals(engine.getTotalSurvivorsProcessed(), exited);
+    }
+
+    @Test
+    void fullRingDropsMovementsInsteadOfWaitingForTheReader() {
+        SimulationEngine engine = TestEngines.streaming(4, 10000);
+        MotionFeed feed = new MotionFeed(4);   // 16 slots and nobody reads during the run
+        Movements movements = new Movements();
+        engine.addListener(feed);
+        engine.addListener(movements);
+
+        engine.startSimulation();   // would never return if the simulation waited for the reader
+
+        List<double[]> moves = drainAll(feed);
+        assertEquals(16, moves.size());
+        assertEquals(movements.count - 16, feed.getDropped());
+        assertEquals(MotionFeed.ARRIVED, moves.get(0)[2], 0.0);   // the first movements are kept
+    }
+
+    @Test
+    void disabledFeedDropsEverything() {
+        SimulationEngine engine = TestEngines.streaming(4, 2000);
+        MotionFeed feed = new MotionFeed(16);
+        Movements movements = new Movements();
+        engine.addListener(feed);
+        engine.addListener(movements);
+        feed.setEnabled(false);
+
+        engine.startSimulation();
+
+        assertTrue(drainAll(feed).isEmpty());
+        assertTrue(movements.count > 0);
+        assertEquals(movements.count, feed.getDropped());
+    }
+}
@@ -0,0 +1,116 @@
+package fi.metropolia.simulation.controller;
+
+import fi.metropolia.simulation.framework.ControlChannel;
+import fi.metropolia.simulation.framework.Pacer;
+import fi.metropolia.simulation.model.RescueCampServicePoint;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.SimulationListener;
+import fi.metropolia.simulation.model.TestEngines;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotPublisherTest {
+
+    @Test
+    void publishesTheFinalStateOfABackgroundRun() throws Exception {
+        SimulationEngine engine = TestEngines.streaming(9, 50000);
+        SnapshotPublisher publisher = new SnapshotPublisher(1);
+        engine.addListener(publisher);
+
+        Thread simulation = new Thread(engine::startSimulation, "simulation");
+        simulation.start();
+        simulation.join();
+
+        SimulationSnapshot last = publisher.latest();
+        assertNotNull(last);
+        assertTrue(last.isFinished());
+        assertEquals(engine.getTotalSurvivorArrivals(), last.getArrivals());
+        assertEquals(engine.getTotalSurvivorsProcessed(), last.getSettled());
+        assertEquals(engine.getTimeInCampTally().getMean(), last.getMeanTimeInCamp(), 0.0);
+        List<RescueCampServicePoint> stations = engine.getServicePoints();
+        assertEquals(stations.size(), last.getStationCount());
+        for (int i = 0; i < stations.size(); i++) {
+            assertEquals(stations.get(i).getServicePointName(), last.getStationName(i));
+            assertEquals(stations.get(i).getTotalServed(), last.getServed(i));
+            assertEquals(stations.get(i).getCurrentQueueLength(), last.getQueueLength(i));
+            assertTrue(last.getUtilization(i) >= 0 && last.getUtilization(i) <= 1);
+        }
+    }
+
+    private static final long HOUR_MILLIS = 3_600_000;   // longer than any test: only cycle ends publish
+
+    @Test
+    void pacedRunIsPublishedAfterEveryCycle() {
+        SimulationEngine engine = TestEngines.streaming(9, 300);
+        engine.setPacer(new Pacer(60000));   // a simulated minute per millisecond
+        SnapshotPublisher publisher = new SnapshotPublisher(HOUR_MILLIS);
+        engine.addListener(publisher);
+        int[] cycles = {0};
+        engine.addListener(new SimulationListener() {
+            @Override
+            public void eventsProcessed(double time) {
+                SimulationSnapshot shown = publisher.latest();
+                assertEquals(time, shown.getTime(), 0.0);
+                assertEquals(engine.getTotalSurvivorArrivals(), shown.getArrivals());
+                assertEquals(engine.getTotalSurvivorsProcessed(), shown.getSettled());
+                cycles[0]++;
+            }
+        });
+
+        engine.startSimulation();
+
+        assertTrue(cycles[0] > 10, "cycles: " + cycles[0]);
+    }
+
+    @Test
+    void pausedRunShowsItsStateAndEverySingleStep() throws Exception {
+        SimulationEngine engine = TestEngines.streaming(9, 1_000_000);
+        engine.setPacer(new Pacer(Double.POSITIVE_INFINITY));
+        SnapshotPublisher publisher = new SnapshotPublisher(HOUR_MILLIS);
+        engine.addListener(publisher);
+        ControlChannel control = engine.getControl();
+        control.submitAt(500, () -> {
+            control.pause();
+            publisher.refresh();
+        });
+
+        Thread simulation = new Thread(engine::startSimulation, "simulation");
+        simulation.start();
+        try {
+            awaitTrue(() -> control.isPaused() && publisher.latest().getTime() >= 500);
+            SimulationSnapshot atPause = publisher.latest();
+            assertEquals(engine.getTotalSurvivorArrivals(), atPause.getArrivals());
+            assertEquals(engine.getTotalSurvivorsProcessed(), atPause.getSettled());
+
+            for (int step = 0; step < 3; step++) {
+                SimulationSnapshot before = publisher.latest();
+                control.step();
+                awaitTrue(() -> publisher.latest() != before);
+                SimulationSnapshot after = publisher.latest();
+                assertNotSame(before, after);
+                assertTrue(after.getTime() > before.getTime());
+                assertEquals(engine.getTotalSurvivorArrivals(), after.getArrivals());
+                assertEquals(engine.getTotalSurvivorsProcessed(), after.getSettled());
+            }
+        } finally {
+            control.stop();
+            simulation.join(5000);
+        }
+        assertTrue(publisher.latest().isFinished());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package fi.metropolia.simulation.csv;
+
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.Survivor;
+import fi.metropolia.simulation.model.TestEngines;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AssignmentCsvSinkTest {
+
+    @Test
+    void writesOneRowPerAssignmentInTheSurvivorRowFormat(@TempDir Path dir) throws Exception {
+        Path csv = dir.resolve("assignments.csv");
+        SimulationEngine engine = TestEngines.retaining(5, 25000);
+        engine.setAssignmentCsvPath(csv);
+        engine.startSimulation();
+
+        List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        Set<String> expected = engine.getAllSurvivors().stream()
+                .filter(Survivor::hasAssignment)
+                .map(Survivor::toCsvRow)
+                .collect(Collectors.toSet());
+
+        assertEquals(Survivor.csvHeader(), lines.get(0));
+        assertTrue(expected.size() > 1000, "enough rows to fill several buffers");
+        assertEquals(expected.size(), lines.size() - 1);
+        assertEquals(expected, Set.copyOf(lines.subList(1, lines.size())));
+    }
+
+    @Test
+    void fixedPointMatchesFormattedDecimals() throws Exception {
+        double[] values = {0, 0.5, 1.23456, 12.00005, 479.99999, 123456.78901, -3.25};
+        for (double value : values) {
+            CsvRowEncoder encoder = new CsvRowEncoder(16);
+            encoder.fixed(value, 4);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            encoder.writeTo(out);
+            assertEquals(String.format(Locale.US, "%.4f", value), out.toString(StandardCharsets.US_ASCII));
+        }
+    }
+}
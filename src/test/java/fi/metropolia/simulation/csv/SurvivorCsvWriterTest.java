@@ -0,0 +1,58 @@
+package fi.metropolia.simulation.csv;
+
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.TestEngines;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SurvivorCsvWriterTest {
+
+    private static SimulationEngine run(long seed, boolean streaming, Path survivorCsv) {
+        SimulationEngine engine = TestEngines.retaining(seed, 50000);
+        engine.setStreamingStatistics(streaming);
+        engine.setSurvivorCsvPath(survivorCsv);
+        engine.startSimulation();
+        return engine;
+    }
+
+    @Test
+    void parallelAndCompressedOutputMatchesSequential(@TempDir Path dir) throws Exception {
+        SimulationEngine engine = run(7, false, null);
+        Path sequential = dir.resolve("sequential.csv");
+        Path parallel = dir.resolve("parallel.csv");
+        Path compressed = dir.resolve("parallel.csv.gz");
+        CsvExporter.writeSurvivorsToCsv(sequential.toString(), engine.getAllSurvivors());
+        CsvExporter.writeSurvivorsToCsv(parallel.toString(), engine.getAllSurvivors(), 3);
+        CsvExporter.writeSurvivorsToCsv(compressed.toString(), engine.getAllSurvivors(), 3);
+
+        List<String> expected = Files.readAllLines(sequential, StandardCharsets.UTF_8);
+        assertEquals(engine.getAllSurvivors().size() + 1, expected.size());
+        assertEquals(expected, Files.readAllLines(parallel, StandardCharsets.UTF_8));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(compressed))) {
+            assertEquals(String.join("\n", expected) + "\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void streamedDuringRunContainsEverySurvivor(@TempDir Path dir) throws Exception {
+        Path streamed = dir.resolve("streamed.csv");
+        Path exported = dir.resolve("exported.csv");
+        run(9, true, streamed);
+        CsvExporter.writeSurvivorsToCsv(exported.toString(), run(9, false, null).getAllSurvivors());
+
+        List<String> streamedLines = Files.readAllLines(streamed, StandardCharsets.UTF_8);
+        List<String> exportedLines = Files.readAllLines(exported, StandardCharsets.UTF_8);
+        assertEquals(exportedLines.size(), streamedLines.size());
+        assertEquals(new HashSet<>(exportedLines), new HashSet<>(streamedLines));
+    }
+}
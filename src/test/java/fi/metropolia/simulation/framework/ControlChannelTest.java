@@ -0,0 +1,69 @@
+package fi.metropolia.simulation.framework;
+
+import fi.metropolia.simulation.model.CampNetworkConfig;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.SimulationListener;
+import fi.metropolia.simulation.model.Survivor;
+import fi.metropolia.simulation.model.TestEngines;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ControlChannelTest {
+
+    private static SimulationEngine engine() {
+        return TestEngines.streaming(21, 20000);
+    }
+
+    @Test
+    void timedChangesApplyAtTheSameSimulatedTimeInEveryRun() {
+        SimulationEngine plain = engine();
+        plain.startSimulation();
+
+        double[] means = new double[2];
+        for (int i = 0; i < 2; i++) {
+            SimulationEngine changed = engine();
+            changed.changeWorkers(240, CampNetworkConfig.MEDICAL, 1);
+            changed.getControl().submitAt(5000, () -> changed.changeArrivalMean(10));
+            changed.startSimulation();
+            means[i] = changed.getTimeInCampTally().getMean();
+            assertTrue(changed.getTotalSurvivorArrivals() > plain.getTotalSurvivorArrivals());
+        }
+        assertEquals(means[0], means[1], 0.0);
+        assertNotEquals(plain.getTimeInCampTally().getMean(), means[0]);
+    }
+
+    @Test
+    void pausedEngineStepsOnRequestAndStops() throws Exception {
+        SimulationEngine engine = engine();
+        AtomicInteger arrivals = new AtomicInteger();
+        engine.addListener(new SimulationListener() {
+            @Override
+            public void survivorArrived(double time, Survivor survivor) {
+                arrivals.incrementAndGet();
+            }
+        });
+        engine.getControl().pause();
+        Thread simulation = new Thread(engine::startSimulation, "simulation");
+        simulation.start();
+
+        Thread.sleep(100);
+        assertEquals(0, arrivals.get(), "paused before the first event");
+        engine.getControl().step();   // the first event is the first arrival
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (arrivals.get() == 0 && System.nanoTime() < deadline) Thread.sleep(5);
+        assertEquals(1, arrivals.get());
+        assertTrue(simulation.isAlive());
+
+        engine.getControl().stop();
+        simulation.join(5000);
+        assertFalse(simulation.isAlive());
+        assertEquals(1, engine.getTotalSurvivorArrivals());
+    }
+}
@@ -0,0 +1,49 @@
+package fi.metropolia.simulation.framework;
+
+import fi.metropolia.simulation.model.RescueCampEventType;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.TestEngines;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EngineProfileTest {
+
+    private static SimulationEngine engine() {
+        return TestEngines.streaming(8, 10000);
+    }
+
+    @Test
+    void profileCountsEveryEventWithoutChangingTheRun() {
+        SimulationEngine plain = engine();
+        plain.startSimulation();
+        assertNull(plain.getProfile());
+
+        SimulationEngine profiled = engine();
+        profiled.setProfiling(true);
+        profiled.runUntil(5000);
+        profiled.run();
+        EngineProfile profile = profiled.getProfile();
+
+        assertEquals(plain.getEventCount(), profiled.getEventCount());
+        assertEquals(plain.getTimeInCampTally().getMean(), profiled.getTimeInCampTally().getMean(), 0.0);
+        assertEquals(profiled.getEventCount(), profile.getEventCount());
+        long byType = 0;
+        for (RescueCampEventType type : RescueCampEventType.values()) {
+            byType += profile.getEventCount(type.ordinal());
+            // Every type that occurred has its first event timed
+            assertEquals(profile.getEventCount(type.ordinal()) > 0,
+                    !Double.isNaN(profile.getMeanLatencyNanos(type.ordinal())), type.name());
+        }
+        assertEquals(profile.getEventCount(), byType);
+        assertEquals(plain.getTotalSurvivorArrivals(), profile.getEventCount(RescueCampEventType.SURVIVOR_ARRIVAL.ordinal()));
+        assertTrue(profile.getCycleCount() > 0 && profile.getCycleCount() <= profile.getEventCount());
+        assertTrue(profile.getPeakPendingEvents() >= 1);
+        assertTrue(profile.getBPhaseNanos() > 0 && profile.getCPhaseNanos() > 0);
+        assertTrue(profile.getEventsPerSecond() > 0);
+        assertFalse(profile.format().isEmpty());
+    }
+}
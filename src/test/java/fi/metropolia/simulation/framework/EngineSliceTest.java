@@ -0,0 +1,82 @@
+package fi.metropolia.simulation.framework;
+
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.TestEngines;
+import fi.metropolia.simulation.view.console.RescueCampSimulationView;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EngineSliceTest {
+
+    private static SimulationEngine engine() {
+        return TestEngines.streaming(8, 10000);
+    }
+
+    @Test
+    void slicedRunMatchesOneRun() throws Exception {
+        SimulationEngine whole = engine();
+        whole.startSimulation();
+        assertTrue(whole.isFinished());
+
+        SimulationEngine sliced = engine();
+        assertTrue(sliced.step());
+        sliced.runFor(500);
+        assertTrue(sliced.getEventCount() >= 501);
+
+        // Continue on another thread: the engine carries its time across threads
+        Thread other = new Thread(() -> sliced.runUntil(4000));
+        other.start();
+        other.join();
+        assertTrue(sliced.getCurrentTime() <= 4000);
+        assertFalse(sliced.isFinished());
+
+        assertInterimResultsLeaveRunUntouched(sliced);
+        while (sliced.step()) {
+            if (sliced.getEventCount() % 1000 == 0) sliced.runUntil(sliced.getCurrentTime() + 100);
+        }
+        assertTrue(sliced.isFinished());
+        assertFalse(sliced.step());
+
+        assertEquals(whole.getEventCount(), sliced.getEventCount());
+        assertEquals(whole.getTotalSurvivorArrivals(), sliced.getTotalSurvivorArrivals());
+        assertEquals(whole.getTimeInCampTally().getMean(), sliced.getTimeInCampTally().getMean(), 0.0);
+    }
+
+    private static void assertInterimResultsLeaveRunUntouched(SimulationEngine engine) {
+        long events = engine.getEventCount();
+        double time = engine.getCurrentTime();
+        int arrivals = engine.getTotalSurvivorArrivals();
+        int processed = engine.getTotalSurvivorsProcessed();
+        long settled = engine.getTimeInCampTally().getCount();
+        double meanInCamp = engine.getTimeInCampTally().getMean();
+
+        // A view attached for the call only, so the run itself prints nothing
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        engine.setView(new RescueCampSimulationView(new PrintStream(bytes, true, StandardCharsets.UTF_8)));
+        engine.results();
+        engine.setView(null);
+
+        String printed = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(printed.contains("=== INTERIM RESULTS ==="), printed);
+        assertTrue(printed.contains("Simulation time: " + String.format("%.2f", time) + " minutes"), printed);
+        assertTrue(printed.contains("Total survivors arrived: " + arrivals), printed);
+        assertTrue(printed.contains("Total survivors processed: " + processed), printed);
+        assertFalse(printed.contains("SIMULATION COMPLETE"), printed);
+
+        assertFalse(engine.isFinished());
+        assertEquals(events, engine.getEventCount());
+        assertEquals(time, engine.getCurrentTime(), 0.0);
+        assertEquals(time, Clock.getInstance().getClock(), 0.0);
+        assertEquals(arrivals, engine.getTotalSurvivorArrivals());
+        assertEquals(processed, engine.getTotalSurvivorsProcessed());
+        assertEquals(settled, engine.getTimeInCampTally().getCount());
+        assertEquals(meanInCamp, engine.getTimeInCampTally().getMean(), 0.0);
+    }
+}
@@ -0,0 +1,47 @@
+package fi.metropolia.simulation.framework;
+
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.TestEngines;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PacerTest {
+
+    private static SimulationEngine engine(Pacer pacer) {
+        SimulationEngine engine = TestEngines.retaining(3, 60);
+        engine.setPacer(pacer);
+        return engine;
+    }
+
+    @Test
+    void scaledRunTakesItsWallClockTimeAndMatchesTheUnpacedRun() {
+        SimulationEngine unpaced = engine(null);
+        unpaced.startSimulation();
+
+        SimulationEngine paced = engine(new Pacer(7200));   // 60 simulated minutes in 0.5 s
+        long start = System.nanoTime();
+        paced.startSimulation();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertTrue(seconds >= 0.45 && seconds < 3, "took " + seconds + " s");
+        assertEquals(unpaced.getTotalSurvivorArrivals(), paced.getTotalSurvivorArrivals());
+        assertEquals(unpaced.getTimeInCampTally().getMean(), paced.getTimeInCampTally().getMean(), 0.0);
+    }
+
+    @Test
+    void pausedTimeStandsStill() throws Exception {
+        Pacer pacer = new Pacer(60);
+        pacer.start(10);
+        Thread.sleep(50);
+        pacer.pause();
+        double pausedAt = pacer.getPresentTime();
+        Thread.sleep(50);
+        assertEquals(pausedAt, pacer.getPresentTime(), 0.0);
+        assertTrue(pausedAt > 10 && pausedAt < 11, "present " + pausedAt);
+        pacer.resume();
+        Thread.sleep(20);
+        assertTrue(pacer.getPresentTime() > pausedAt);
+    }
+}
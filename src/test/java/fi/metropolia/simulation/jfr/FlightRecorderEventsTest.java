@@ -0,0 +1,56 @@
+package fi.metropolia.simulation.jfr;
+
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.TestEngines;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecorderEventsTest {
+
+    @Test
+    void batchesCoverTheRunAndStationsAreSampled(@TempDir Path dir) throws Exception {
+        assertFalse(new EventBatchEvent().isEnabled(), "disabled unless a recording enables it");
+
+        SimulationEngine engine = TestEngines.streaming(8, 20000);
+        Path file = dir.resolve("run.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EventBatchEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(StationQueueEvent.class);
+            recording.start();
+            engine.runUntil(10000);
+            engine.run();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        long events = 0, batches = 0;
+        double lastEnd = 0;
+        Set<String> stations = new HashSet<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            String type = event.getEventType().getName();
+            if (type.equals("fi.metropolia.simulation.EventBatch")) {
+                batches++;
+                events += event.getLong("events");
+                assertTrue(event.getDouble("simulationStartTime") >= lastEnd - 1e-9);
+                lastEnd = event.getDouble("simulationEndTime");
+            } else if (type.equals("fi.metropolia.simulation.StationQueue")) {
+                stations.add(event.getString("station"));
+            }
+        }
+        assertEquals(engine.getEventCount(), events);
+        assertTrue(batches > engine.getEventCount() / EventBatchEvent.CYCLES, "one per full batch plus slice ends");
+        assertEquals(engine.getServicePoints().size(), stations.size());
+    }
+}
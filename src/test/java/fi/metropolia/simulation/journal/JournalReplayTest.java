@@ -0,0 +1,141 @@
+package fi.metropolia.simulation.journal;
+
+import fi.metropolia.simulation.framework.Clock;
+import fi.metropolia.simulation.model.RescueCampServicePoint;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.Survivor;
+import fi.metropolia.simulation.model.TestEngines;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalReplayTest {
+
+    @Test
+    void replayRebuildsTheStatisticsOfTheRun(@TempDir Path dir) throws Exception {
+        Path journal = dir.resolve("run.rqj");
+        SimulationEngine engine = TestEngines.retaining(17, 30000);
+        engine.setJournalPath(journal);
+        engine.startSimulation();
+
+        JournalReplay replay = JournalReplay.replay(journal);
+
+        assertEquals(engine.getTotalSurvivorArrivals(), replay.getTotalSurvivorArrivals());
+        assertEquals(engine.getTotalSurvivorsProcessed(), replay.getTotalSurvivorsProcessed());
+        assertEquals(engine.getTimeInCampTally().getMean(), replay.getTimeInCampTally().getMean(), 0);
+        assertEquals(engine.getSurvivorWaitingTimeTally().getPercentile(95),
+                replay.getSurvivorWaitingTimeTally().getPercentile(95), 0);
+
+        List<RescueCampServicePoint> expected = engine.getServicePoints();
+        List<RescueCampServicePoint> rebuilt = replay.getServicePoints();
+        assertEquals(expected.size(), rebuilt.size());
+        for (int i = 0; i < expected.size(); i++) {
+            RescueCampServicePoint e = expected.get(i);
+            RescueCampServicePoint r = rebuilt.get(i);
+            assertEquals(e.getServicePointName(), r.getServicePointName());
+            assertEquals(e.getTotalServed(), r.getTotalServed());
+            assertEquals(e.getMaximumQueueLength(), r.getMaximumQueueLength());
+            assertEquals(e.getWaitingTimeTally().getMean(), r.getWaitingTimeTally().getMean(), 0);
+            assertEquals(e.getServiceTimeTally().getPercentile(99), r.getServiceTimeTally().getPercentile(99), 0);
+            assertEquals(e.getUtilization(), r.getUtilization(replay.getEndTime()), 0);
+            assertEquals(e.getAverageNumberInQueue(), r.getAverageNumberInQueue(replay.getEndTime()), 0);
+        }
+
+        List<Survivor> survivors = engine.getAllSurvivors();
+        assertEquals(survivors.size(), replay.getAllSurvivors().size());
+        for (int i = 0; i < survivors.size(); i++) {
+            Survivor e = survivors.get(i);
+            Survivor r = replay.getAllSurvivors().get(i);
+            assertEquals(e.getSurvivorAge(), r.getSurvivorAge());
+            assertEquals(e.getAttributeFlags(), r.getAttributeFlags());
+            assertEquals(e.getAssignedHomeName(), r.getAssignedHomeName());
+            assertEquals(e.getAssignmentTime(), r.getAssignmentTime(), 0);
+            assertEquals(e.getTotalWaitingTime(), r.getTotalWaitingTime(), 0);
+        }
+    }
+
+    @Test
+    void replayRepeatsTheStatisticsReset(@TempDir Path dir) throws Exception {
+        Path journal = dir.resolve("reset.rqj");
+        SimulationEngine engine = TestEngines.retaining(23, 20000);
+        engine.setJournalPath(journal);
+        engine.runUntil(5000);
+        engine.resetStatistics();
+        engine.run();
+
+        JournalReplay replay = JournalReplay.replay(journal);
+
+        assertTrue(engine.getStatisticsStartTime() > 0);
+        assertEquals(engine.getStatisticsStartTime(), replay.getStatisticsStartTime(), 0);
+        assertEquals(engine.getTimeInCampTally().getCount(), replay.getTimeInCampTally().getCount());
+        assertTrue(replay.getTimeInCampTally().getCount() < replay.getTotalSurvivorsProcessed());
+        assertEquals(engine.getTimeInCampTally().getMean(), replay.getTimeInCampTally().getMean(), 0);
+        assertEquals(engine.getSurvivorWaitingTimeTally().getMean(), replay.getSurvivorWaitingTimeTally().getMean(), 0);
+        for (int i = 0; i < engine.getServicePoints().size(); i++) {
+            RescueCampServicePoint e = engine.getServicePoints().get(i);
+            RescueCampServicePoint r = replay.getServicePoints().get(i);
+            assertEquals(e.getWaitingTimeTally().getCount(), r.getWaitingTimeTally().getCount());
+            assertEquals(e.getMaximumQueueLength(), r.getMaximumQueueLength());
+            assertEquals(e.getUtilization(), r.getUtilization(replay.getEndTime()), 0);
+        }
+    }
+
+    @Test
+    void replayRepeatsTheWarmupTruncation(@TempDir Path dir) throws Exception {
+        Path journal = dir.resolve("warmup.rqj");
+        SimulationEngine engine = TestEngines.retaining(7, 20000);
+        engine.setWarmupDetection(true);
+        engine.setJournalPath(journal);
+        engine.startSimulation();
+
+        JournalReplay replay = JournalReplay.replay(journal);
+
+        assertTrue(engine.getWarmupTruncationTime() > 0);
+        assertEquals(engine.getStatisticsStartTime(), replay.getStatisticsStartTime(), 0);
+        assertEquals(engine.getTimeInCampTally().getCount(), replay.getTimeInCampTally().getCount());
+        assertEquals(engine.getTimeInCampTally().getMean(), replay.getTimeInCampTally().getMean(), 0);
+        assertEquals(engine.getSurvivorWaitingTimeTally().getMean(), replay.getSurvivorWaitingTimeTally().getMean(), 0);
+        for (int i = 0; i < engine.getServicePoints().size(); i++) {
+            RescueCampServicePoint e = engine.getServicePoints().get(i);
+            RescueCampServicePoint r = replay.getServicePoints().get(i);
+            assertEquals(e.getWaitingTimeTally().getCount(), r.getWaitingTimeTally().getCount());
+            assertEquals(e.getWaitingTimeTally().getMean(), r.getWaitingTimeTally().getMean(), 0);
+            assertEquals(e.getMaxWaitingTime(), r.getMaxWaitingTime(), 0);
+        }
+    }
+
+    @Test
+    void replayLeavesTheCallersClockAlone(@TempDir Path dir) throws Exception {
+        Path journal = dir.resolve("clock.rqj");
+        SimulationEngine engine = TestEngines.retaining(29, 2000);
+        engine.setJournalPath(journal);
+        engine.startSimulation();
+
+        Clock.getInstance().setClock(123.5);
+        JournalReplay replay = JournalReplay.replay(journal);
+
+        assertEquals(123.5, Clock.getInstance().getClock(), 0);
+        assertTrue(replay.getEndTime() >= 2000);
+    }
+
+    @Test
+    void restoredRunCannotRecordAJournal(@TempDir Path dir) {
+        SimulationEngine original = TestEngines.retaining(31, 2000);
+        original.runUntil(1000);
+        byte[] checkpoint = original.checkpoint();
+
+        SimulationEngine restored = TestEngines.headless();
+        restored.restoreCheckpoint(checkpoint);
+        assertThrows(IllegalStateException.class, () -> restored.setJournalPath(dir.resolve("a.rqj")));
+
+        SimulationEngine journaled = TestEngines.headless();
+        journaled.setJournalPath(dir.resolve("b.rqj"));
+        assertThrows(IllegalStateException.class, () -> journaled.restoreCheckpoint(checkpoint));
+    }
+}
@@ -0,0 +1,56 @@
+package fi.metropolia.simulation.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CampNetworkTest {
+
+    private static SimulationEngine run(CampNetworkConfig config, long seed, double minutes) {
+        SimulationEngine engine = TestEngines.headless(config);
+        engine.setStreamingStatistics(true);
+        engine.setSeed(seed);
+        engine.setSimulationDuration(minutes);
+        engine.startSimulation();
+        return engine;
+    }
+
+    @Test
+    void defaultCampFileMatchesBuiltInDefault() throws Exception {
+        Properties properties = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("/fi/metropolia/simulation/default-camp.properties")) {
+            properties.load(in);
+        }
+        SimulationEngine fromFile = run(CampNetworkConfig.fromProperties(properties), 11, 2000);
+        SimulationEngine builtIn = run(CampNetworkConfig.defaultCamp(), 11, 2000);
+
+        assertTrue(builtIn.getTimeInCampTally().getCount() > 0);
+        assertEquals(builtIn.getTimeInCampTally().getCount(), fromFile.getTimeInCampTally().getCount());
+        assertEquals(builtIn.getTimeInCampTally().getMean(), fromFile.getTimeInCampTally().getMean(), 1e-12);
+    }
+
+    @Test
+    void longChainOfConfiguredStationsIsTraversed() {
+        int stations = 40;
+        CampNetworkConfig config = new CampNetworkConfig()
+                .setArrivalDistribution(new DistributionSpec("negexp", 10))
+                .setArrivalRoute("s0");
+        for (int i = 0; i < stations; i++) {
+            config.addStation("s" + i, "Station " + i, new DistributionSpec("uniform", 1, 2))
+                    .setRoute(i + 1 < stations ? "s" + (i + 1) : CampNetworkConfig.EXIT);
+        }
+
+        SimulationEngine engine = run(config, 3, 5000);
+
+        long completed = engine.getTimeInCampTally().getCount();
+        assertTrue(completed > 0);
+        for (RescueCampServicePoint sp : engine.getServicePoints()) {
+            assertTrue(sp.getTotalServed() >= completed);
+        }
+        assertTrue(engine.getTimeInCampTally().getMin() >= stations);
+    }
+}
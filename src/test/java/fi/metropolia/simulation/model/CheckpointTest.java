@@ -0,0 +1,80 @@
+package fi.metropolia.simulation.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckpointTest {
+
+    private static SimulationEngine engine(boolean streaming) {
+        SimulationEngine engine = TestEngines.retaining(5, 6000);
+        engine.setStreamingStatistics(streaming);
+        engine.setTimeSeriesInterval(60);
+        return engine;
+    }
+
+    private static void assertSameRun(SimulationEngine expected, SimulationEngine actual) {
+        assertEquals(expected.getEventCount(), actual.getEventCount());
+        assertEquals(expected.getTotalSurvivorArrivals(), actual.getTotalSurvivorArrivals());
+        assertEquals(expected.getTotalSurvivorsProcessed(), actual.getTotalSurvivorsProcessed());
+        assertEquals(expected.getTimeInCampTally().getMean(), actual.getTimeInCampTally().getMean(), 0.0);
+        assertEquals(expected.getTimeInCampTally().getP95(), actual.getTimeInCampTally().getP95(), 0.0);
+        assertEquals(expected.getSurvivorWaitingTimeTally().getPercentile(99),
+                actual.getSurvivorWaitingTimeTally().getPercentile(99), 0.0);
+        List<RescueCampServicePoint> a = expected.getServicePoints(), b = actual.getServicePoints();
+        for (int i = 0; i < a.size(); i++) {
+            assertEquals(a.get(i).getTotalServed(), b.get(i).getTotalServed());
+            assertEquals(a.get(i).getUtilization(), b.get(i).getUtilization(), 0.0);
+            assertEquals(a.get(i).getWaitingTimeTally().getMedian(), b.get(i).getWaitingTimeTally().getMedian(), 0.0);
+        }
+        StationTimeSeries x = expected.getTimeSeries(), y = actual.getTimeSeries();
+        assertEquals(x.size(), y.size());
+        for (int s = 0; s < x.getStationCount(); s++) {
+            for (int i = 0; i < x.size(); i++) assertEquals(x.getQueueLengths(s)[i], y.getQueueLengths(s)[i]);
+        }
+    }
+
+    @Test
+    void restoredRunContinuesExactly() {
+        for (boolean streaming : new boolean[]{true, false}) {
+            SimulationEngine original = engine(streaming);
+            original.runUntil(480);   // warm up for 8 hours
+            byte[] checkpoint = original.checkpoint();
+            original.run();
+
+            SimulationEngine restored = TestEngines.headless();
+            restored.restoreCheckpoint(checkpoint);
+            restored.run();
+
+            assertTrue(restored.isFinished());
+            assertSameRun(original, restored);
+            assertEquals(original.getAllSurvivors().size(), restored.getAllSurvivors().size());
+            assertEquals(original.getFullyProcessedSurvivors().size(), restored.getFullyProcessedSurvivors().size());
+        }
+    }
+
+    @Test
+    void forksBranchIndependently() throws Exception {
+        SimulationEngine warm = engine(true);
+        warm.runUntil(480);
+        SimulationEngine same = warm.fork();
+        SimulationEngine staffed = warm.fork();
+        staffed.setWorkers(CampNetworkConfig.MEDICAL, 6);
+
+        Thread branch = new Thread(staffed::run);
+        branch.start();
+        same.run();
+        branch.join();
+        warm.run();
+
+        assertSameRun(warm, same);
+        assertNotEquals(warm.getTimeInCampTally().getMean(), staffed.getTimeInCampTally().getMean());
+        assertThrows(IllegalStateException.class, warm::checkpoint);
+        assertThrows(IllegalArgumentException.class, () -> engine(true).restoreCheckpoint(new byte[]{1, 2, 3}));
+    }
+}
@@ -0,0 +1,80 @@
+package fi.metropolia.simulation.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CompositeSimulationListenerTest {
+
+    /** Writes "name:callback@time" for every callback into a shared log */
+    private static SimulationListener recorder(String name, List<String> log) {
+        return new SimulationListener() {
+            @Override
+            public void simulationStarted(double time, SimulationEngine engine) { log.add(name + ":started@" + time); }
+            @Override
+            public void survivorArrived(double time, Survivor survivor) { log.add(name + ":arrived@" + time); }
+            @Override
+            public void survivorQueued(double time, int station, Survivor survivor) { log.add(name + ":queued" + station + "@" + time); }
+            @Override
+            public void serviceStarted(double time, int station, Survivor survivor, double duration) {
+                log.add(name + ":service" + station + "+" + duration + "@" + time);
+            }
+            @Override
+            public void temporaryHomeAssigned(double time, int station, Survivor survivor) { log.add(name + ":home" + station + "@" + time); }
+            @Override
+            public void serviceCompleted(double time, int station, Survivor survivor, int eventOrdinal) {
+                log.add(name + ":completed" + station + "#" + eventOrdinal + "@" + time);
+            }
+            @Override
+            public void survivorExited(double time, Survivor survivor) { log.add(name + ":exited@" + time); }
+            @Override
+            public void statisticsReset(double time, double since) { log.add(name + ":reset" + since + "@" + time); }
+            @Override
+            public void eventsProcessed(double time) { log.add(name + ":processed@" + time); }
+            @Override
+            public void simulationEnded(double time, SimulationEngine engine) { log.add(name + ":ended@" + time); }
+        };
+    }
+
+    @Test
+    void noneOrOneListenerNeedsNoComposite() {
+        List<String> log = new ArrayList<>();
+        SimulationListener only = recorder("a", log);
+
+        assertSame(SimulationListener.NONE, CompositeSimulationListener.of(List.of()));
+        assertSame(only, CompositeSimulationListener.of(List.of(only)));
+    }
+
+    @Test
+    void forwardsEveryCallbackToAllListenersInOrder() {
+        List<String> log = new ArrayList<>();
+        SimulationListener both = CompositeSimulationListener.of(List.of(recorder("a", log), recorder("b", log)));
+
+        both.simulationStarted(0, null);
+        both.survivorArrived(1, null);
+        both.survivorQueued(2, 3, null);
+        both.serviceStarted(4, 3, null, 5);
+        both.temporaryHomeAssigned(6, 5, null);
+        both.serviceCompleted(7, 3, null, 9);
+        both.survivorExited(8, null);
+        both.statisticsReset(10, 9.5);
+        both.eventsProcessed(10.5);
+        both.simulationEnded(11, null);
+
+        assertEquals(List.of(
+                "a:started@0.0", "b:started@0.0",
+                "a:arrived@1.0", "b:arrived@1.0",
+                "a:queued3@2.0", "b:queued3@2.0",
+                "a:service3+5.0@4.0", "b:service3+5.0@4.0",
+                "a:home5@6.0", "b:home5@6.0",
+                "a:completed3#9@7.0", "b:completed3#9@7.0",
+                "a:exited@8.0", "b:exited@8.0",
+                "a:reset9.5@10.0", "b:reset9.5@10.0",
+                "a:processed@10.5", "b:processed@10.5",
+                "a:ended@11.0", "b:ended@11.0"), log);
+    }
+}
@@ -0,0 +1,89 @@
+package fi.metropolia.simulation.model;
+
+import fi.metropolia.simulation.csv.CsvExporter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StationTimeSeriesTest {
+
+    /** One arrival every 10 minutes, served in exactly 3 minutes by a single station */
+    private static SimulationEngine clockwork(double minutes) {
+        CampNetworkConfig config = new CampNetworkConfig()
+                .setArrivalDistribution(new DistributionSpec("constant", 10))
+                .setArrivalRoute("desk");
+        config.addStation("desk", "Desk", new DistributionSpec("constant", 3)).setRoute(CampNetworkConfig.EXIT);
+        SimulationEngine engine = TestEngines.headless(config);
+        engine.setStreamingStatistics(true);
+        engine.setTimeSeriesInterval(5);
+        engine.setSimulationDuration(minutes);
+        engine.startSimulation();
+        return engine;
+    }
+
+    @Test
+    void samplesStationStateAtGridPointsUpToTheHorizon() {
+        // Events at 10, 13, 20, 23, 30, 33, 40, 43 and then 50, beyond the horizon
+        StationTimeSeries series = clockwork(44).getTimeSeries();
+
+        assertEquals(9, series.size());   // 0, 5, ..., 40; not 45 although the clock reaches 50
+        assertEquals(40, series.getSampleTime(series.size() - 1));
+        int[] busy = {0, 0, 1, 0, 1, 0, 1, 0, 1};
+        int[] served = {0, 0, 0, 1, 1, 2, 2, 3, 3};
+        for (int i = 0; i < series.size(); i++) {
+            assertEquals(busy[i], series.getBusyServers(0)[i], "busy at " + series.getSampleTime(i));
+            assertEquals(served[i], series.getServedCounts(0)[i], "served at " + series.getSampleTime(i));
+            assertEquals(0, series.getQueueLengths(0)[i], "waiting at " + series.getSampleTime(i));
+        }
+    }
+
+    @Test
+    void gridPointAtTheHorizonIsSampled() {
+        StationTimeSeries series = clockwork(45).getTimeSeries();
+
+        assertEquals(10, series.size());
+        assertEquals(45, series.getSampleTime(9));
+        assertEquals(0, series.getBusyServers(0)[9]);
+        assertEquals(4, series.getServedCounts(0)[9]);
+    }
+
+    @Test
+    void binaryFileRoundTrips(@TempDir Path dir) throws Exception {
+        StationTimeSeries series = clockwork(200).getTimeSeries();
+        Path file = dir.resolve("series.bin");
+
+        series.writeBinary(file);
+        StationTimeSeries read = StationTimeSeries.readBinary(file);
+
+        assertEquals(series.size(), read.size());
+        assertEquals(series.getInterval(), read.getInterval());
+        assertEquals(series.getStationCount(), read.getStationCount());
+        assertEquals("Desk", read.getStationName(0));
+        int n = series.size();
+        assertArrayEquals(Arrays.copyOf(series.getQueueLengths(0), n), Arrays.copyOf(read.getQueueLengths(0), n));
+        assertArrayEquals(Arrays.copyOf(series.getBusyServers(0), n), Arrays.copyOf(read.getBusyServers(0), n));
+        assertArrayEquals(Arrays.copyOf(series.getServedCounts(0), n), Arrays.copyOf(read.getServedCounts(0), n));
+    }
+
+    @Test
+    void csvHasOneRowPerSampleAndStation(@TempDir Path dir) throws Exception {
+        StationTimeSeries series = clockwork(44).getTimeSeries();
+        Path file = dir.resolve("series.csv");
+
+        CsvExporter.writeTimeSeriesToCsv(file.toString(), series);
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1 + series.size(), lines.size());
+        assertEquals("Time,Station,QueueLength,BusyServers,Served", lines.get(0));
+        assertEquals("0.0,Desk,0,0,0", lines.get(1));
+        assertEquals("10.0,Desk,0,1,0", lines.get(3));
+        assertEquals("40.0,Desk,0,1,3", lines.get(9));
+    }
+}
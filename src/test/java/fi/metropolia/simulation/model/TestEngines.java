@@ -0,0 +1,41 @@
+package fi.metropolia.simulation.model;
+
+import fi.metropolia.simulation.framework.Trace;
+
+/**
+ * Engines for tests, of the default camp unless a configuration is given: headless (no console view) and
+ * tracing errors only
+ */
+public final class TestEngines {
+
+    private TestEngines() {
+    }
+
+    /** @return Engine with neither seed nor duration, e.g. to restore a checkpoint into */
+    public static SimulationEngine headless() {
+        return headless(CampNetworkConfig.defaultCamp());
+    }
+
+    /** @return Engine of the given camp with neither seed nor duration */
+    public static SimulationEngine headless(CampNetworkConfig config) {
+        Trace.setTraceLevel(Trace.Level.ERR);
+        SimulationEngine engine = new SimulationEngine(config);
+        engine.setView(null);
+        return engine;
+    }
+
+    /** @return Seeded engine that retains its survivors */
+    public static SimulationEngine retaining(long seed, double minutes) {
+        SimulationEngine engine = headless();
+        engine.setSeed(seed);
+        engine.setSimulationDuration(minutes);
+        return engine;
+    }
+
+    /** @return Seeded engine in streaming statistics mode */
+    public static SimulationEngine streaming(long seed, double minutes) {
+        SimulationEngine engine = retaining(seed, minutes);
+        engine.setStreamingStatistics(true);
+        return engine;
+    }
+}
@@ -0,0 +1,97 @@
+package fi.metropolia.simulation.model;
+
+import fi.metropolia.simulation.view.console.RescueCampSimulationView;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WarmupTruncationTest {
+
+    /** Records when waiting times and survivor figures are observed, and the statistics resets */
+    private static class Recorder implements SimulationListener {
+        final List<List<Double>> serviceStarts = new ArrayList<>();   // per station
+        final List<Double> exits = new ArrayList<>();
+        final List<Double> resetSince = new ArrayList<>();
+
+        @Override
+        public void serviceStarted(double time, int station, Survivor survivor, double duration) {
+            while (serviceStarts.size() <= station) serviceStarts.add(new ArrayList<>());
+            serviceStarts.get(station).add(time);
+        }
+        @Override
+        public void survivorExited(double time, Survivor survivor) { exits.add(time); }
+        @Override
+        public void statisticsReset(double time, double since) { resetSince.add(since); }
+
+        static long countAfter(List<Double> times, double truncation) {
+            return times.stream().filter(t -> t > truncation).count();
+        }
+    }
+
+    @Test
+    void runWithoutWarmupKeepsAllStatistics() {
+        // One arrival every 10 minutes, served in 3: nobody ever waits, so MSER truncates at the start
+        CampNetworkConfig config = new CampNetworkConfig()
+                .setArrivalDistribution(new DistributionSpec("constant", 10))
+                .setArrivalRoute("desk");
+        config.addStation("desk", "Desk", new DistributionSpec("constant", 3)).setRoute(CampNetworkConfig.EXIT);
+        SimulationEngine engine = TestEngines.headless(config);
+        engine.setStreamingStatistics(true);
+        engine.setWarmupDetection(true);
+        engine.setSimulationDuration(5000);
+        Recorder recorder = new Recorder();
+        engine.addListener(recorder);
+        engine.startSimulation();
+
+        assertEquals(0, engine.getWarmupTruncationTime(), 0.0);
+        assertTrue(recorder.resetSince.isEmpty());
+        assertEquals(0, engine.getStatisticsStartTime(), 0.0);
+        RescueCampServicePoint desk = engine.getServicePoints().get(0);
+        assertEquals(recorder.serviceStarts.get(0).size(), desk.getWaitingTimeTally().getCount());
+        assertEquals(recorder.exits.size(), engine.getTimeInCampTally().getCount());
+        assertEquals(0.3, desk.getUtilization(), 0.001);   // time-weighted from the start
+    }
+
+    @Test
+    void observationsAfterTheTruncationPointSurviveTheReset() {
+        SimulationEngine engine = TestEngines.streaming(7, 20000);
+        engine.setWarmupDetection(true);
+        Recorder recorder = new Recorder();
+        engine.addListener(recorder);
+        engine.startSimulation();
+
+        double truncation = engine.getWarmupTruncationTime();
+        assertTrue(truncation > 0, "truncation " + truncation);
+        assertEquals(List.of(truncation), recorder.resetSince);
+        assertTrue(engine.getStatisticsStartTime() > truncation);   // detected later than the point itself
+
+        for (int i = 0; i < recorder.serviceStarts.size(); i++) {
+            RescueCampServicePoint sp = engine.getServicePoints().get(i);
+            assertEquals(Recorder.countAfter(recorder.serviceStarts.get(i), truncation),
+                    sp.getWaitingTimeTally().getCount(), sp.getServicePointName());
+        }
+        long settled = Recorder.countAfter(recorder.exits, truncation);
+        assertTrue(settled < recorder.exits.size());
+        assertEquals(settled, engine.getTimeInCampTally().getCount());
+        assertEquals(settled, engine.getSurvivorWaitingTimeTally().getCount());
+        assertEquals(settled, engine.getTimeInCampSketch().getCount());
+        assertEquals(0, engine.getWarmupDroppedObservations());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RescueCampSimulationView view = new RescueCampSimulationView(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        view.displayWarmup(engine);
+        view.displayOverallStatistics(engine.getTimeInCampTally(), engine.getSurvivorWaitingTimeTally());
+        String printed = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(printed.contains(String.format("ends at %.2f minutes", truncation)), printed);
+        assertFalse(printed.contains("replay buffer"), printed);   // nothing was dropped
+        assertTrue(printed.contains("Survivors in these statistics (after any warm-up truncation): " + settled), printed);
+    }
+}
@@ -0,0 +1,88 @@
+package fi.metropolia.simulation.results;
+
+import fi.metropolia.simulation.model.RescueCampServicePoint;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.Survivor;
+import fi.metropolia.simulation.model.TestEngines;
+import fi.metropolia.simulation.statistics.RunningStatistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static fi.metropolia.simulation.results.ColumnarResultsWriter.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarResultsTest {
+    private static final double TICK = 1e-6;
+
+    @Test
+    void engineResultsReadBackPerColumn(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("run.rqc");
+        SimulationEngine engine = TestEngines.retaining(21, 100000);
+        engine.setResultsPath(file);
+        engine.startSimulation();
+
+        try (ColumnarResultsReader reader = new ColumnarResultsReader(file)) {
+            assertEquals(engine.getAllSurvivors().size(), reader.getRowCount(SURVIVORS));
+
+            // Mean time in camp by age category from two columns only
+            Map<String, RunningStatistics> byAge = reader.groupBy(SURVIVORS, AGE_CATEGORY,
+                    reader.readOffsets(SURVIVORS, COMPLETION_TIME));
+            for (Survivor.AgeCategory category : Survivor.AgeCategory.values()) {
+                RunningStatistics expected = new RunningStatistics();
+                for (Survivor s : engine.getFullyProcessedSurvivors()) {
+                    if (s.getAgeCategory() == category) expected.add(s.getTotalTimeInCamp());
+                }
+                RunningStatistics actual = byAge.get(category.name());
+                assertEquals(expected.getCount(), actual.getCount());
+                assertEquals(expected.getMean(), actual.getMean(), 2 * TICK);
+            }
+
+            List<RescueCampServicePoint> stations = engine.getServicePoints();
+            int[] served = reader.readInts(STATIONS, SERVED);
+            String[] names = reader.getDictionary(STATIONS, NAME);
+            for (int i = 0; i < stations.size(); i++) {
+                assertEquals(stations.get(i).getServicePointName(), names[i]);
+                assertEquals(stations.get(i).getTotalServed(), served[i]);
+            }
+        }
+    }
+
+    @Test
+    void valuesSurviveSeveralChunks(@TempDir Path dir) throws Exception {
+        SimulationEngine engine = TestEngines.retaining(4, 20000);
+        engine.startSimulation();
+        List<Survivor> survivors = engine.getAllSurvivors();
+        int copies = ColumnarResultsWriter.CHUNK_ROWS / survivors.size() + 2;
+
+        Path file = dir.resolve("chunks.rqc");
+        try (ColumnarResultsWriter writer = new ColumnarResultsWriter(file)) {
+            for (int c = 0; c < copies; c++) writer.writeAll(survivors);
+        }
+
+        try (ColumnarResultsReader reader = new ColumnarResultsReader(file)) {
+            int rows = reader.getRowCount(SURVIVORS);
+            assertEquals(copies * survivors.size(), rows);
+            assertTrue(rows > ColumnarResultsWriter.CHUNK_ROWS);
+            int[] ids = reader.readInts(SURVIVORS, ID);
+            int[] homes = reader.readInts(SURVIVORS, ASSIGNED_HOME);
+            String[] homeNames = reader.getDictionary(SURVIVORS, ASSIGNED_HOME);
+            double[] arrivals = reader.readDoubles(SURVIVORS, ARRIVAL_TIME);
+            double[] assignments = reader.readDoubles(SURVIVORS, ASSIGNMENT_TIME);
+            double[] waits = reader.readDoubles(SURVIVORS, WAITING_TIME);
+            for (int row = 0; row < rows; row++) {
+                Survivor s = survivors.get(row % survivors.size());
+                String home = s.getAssignedHomeName();
+                assertEquals(s.getSurvivorId(), ids[row]);
+                assertEquals(home == null ? "" : home, homeNames[homes[row]]);
+                assertEquals(s.getCampArrivalTime(), arrivals[row], TICK);
+                assertEquals(s.getAssignmentTime(), assignments[row], 2 * TICK);
+                assertEquals(s.getTotalWaitingTime(), waits[row], 0);
+            }
+        }
+    }
+}
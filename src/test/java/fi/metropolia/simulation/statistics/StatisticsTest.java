@@ -0,0 +1,244 @@
+package fi.metropolia.simulation.statistics;
+
+import fi.metropolia.simulation.framework.Clock;
+import fi.metropolia.simulation.model.RescueCampServicePoint;
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.TestEngines;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatisticsTest {
+
+    @Test
+    void runningStatisticsMatchesTwoPassResult() {
+        double[] values = {4, 7, 13, 16, 2.5, 9};
+        RunningStatistics stats = new RunningStatistics();
+        double sum = 0;
+        for (double v : values) {
+            stats.add(v);
+            sum += v;
+        }
+        double mean = sum / values.length;
+        double squares = 0;
+        for (double v : values) squares += (v - mean) * (v - mean);
+
+        assertEquals(values.length, stats.getCount());
+        assertEquals(mean, stats.getMean(), 1e-12);
+        assertEquals(squares / (values.length - 1), stats.getVariance(), 1e-12);
+        assertEquals(2.5, stats.getMin());
+        assertEquals(16, stats.getMax());
+    }
+
+    @Test
+    void p2QuantileTracksUniformPercentiles() {
+        Random random = new Random(42);
+        P2Quantile median = new P2Quantile(0.5);
+        P2Quantile p95 = new P2Quantile(0.95);
+        for (int i = 0; i < 100_000; i++) {
+            double x = random.nextDouble() * 100;
+            median.add(x);
+            p95.add(x);
+        }
+        assertEquals(50, median.getQuantile(), 1.0);
+        assertEquals(95, p95.getQuantile(), 1.0);
+    }
+
+    @Test
+    void logHistogramPercentilesWithinOnePercentAndMergeable() {
+        LogHistogram first = new LogHistogram();
+        LogHistogram second = new LogHistogram();
+        for (int i = 1; i <= 10_000; i++) {
+            (i % 2 == 0 ? first : second).record(i / 10.0);
+        }
+        first.add(second);
+
+        assertEquals(10_000, first.getTotalCount());
+        assertEquals(500.0, first.getPercentile(50), 5.0);
+        assertEquals(950.0, first.getPercentile(95), 9.5);
+        assertEquals(1000.0, first.getPercentile(100), 1e-9);
+
+        // Worst case: a value at a bucket's lower edge is reported as the upper edge
+        for (double v = 0.2; v < 500_000; v *= 1.0137) {
+            for (double x : new double[]{v, 524.32}) {
+                LogHistogram histogram = new LogHistogram();
+                histogram.record(x);
+                histogram.record(2 * LogHistogram.DEFAULT_MAX_VALUE);   // so the upper edge is not clamped
+                assertTrue(Math.abs(histogram.getPercentile(50) - x) / x < 0.01, "value " + x);
+            }
+        }
+    }
+
+    @Test
+    void mserFindsTheEndOfAnInitialTransient() {
+        Random random = new Random(3);
+        MserWarmup warmup = new MserWarmup(64);   // small, so batches are merged on the way
+        for (int i = 0; i < 200; i++) {
+            warmup.add(i, random.nextGaussian());
+            assertFalse(warmup.isDetected() && i < 99, "needs 20 batches");
+        }
+        // A transient decaying over the first ~300 observations, then noise around 10
+        warmup = new MserWarmup(64);
+        for (int i = 0; i < 5000; i++) warmup.add(i, 10 - 10 * Math.exp(-i / 60.0) + random.nextGaussian());
+        assertTrue(warmup.isDetected());
+        assertTrue(warmup.getBatchSize() > MserWarmup.BATCH_SIZE);
+        assertTrue(warmup.getTruncationCount() >= 100 && warmup.getTruncationCount() <= 800,
+                "truncated " + warmup.getTruncationCount());
+        assertEquals(warmup.getTruncationCount() - 1, warmup.getTruncationTime(), 0.0);
+    }
+
+    @Test
+    void timeWeightedStatisticIntegratesThePiecewiseConstantValue() throws Exception {
+        TimeWeightedStatistic queue = new TimeWeightedStatistic();
+        queue.update(2, 3);    // 0 on [0, 2)
+        queue.update(5, 1);    // 3 on [2, 5)
+        queue.update(10, 4);   // 1 on [5, 10)
+
+        assertEquals(9 + 5, queue.getArea(10), 1e-12);
+        assertEquals(14 + 4 * 2.5, queue.getArea(12.5), 1e-12);   // the current value runs on
+        assertEquals(24.0 / 12.5, queue.getTimeAverage(12.5), 1e-12);
+        assertEquals(4, queue.getMax(), 0.0);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        queue.writeState(new DataOutputStream(bytes));
+        TimeWeightedStatistic copy = new TimeWeightedStatistic();
+        copy.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(queue.getTimeAverage(20), copy.getTimeAverage(20), 0.0);
+
+        queue.reset(20);       // history gone, the value of 4 is kept
+        queue.update(24, 0);
+        assertEquals(2.0, queue.getTimeAverage(28), 1e-12);
+        assertEquals(20, queue.getStartTime(), 0.0);
+    }
+
+    @Test
+    void stationFiguresSatisfyLittlesLaw() {
+        SimulationEngine engine = TestEngines.streaming(12, 200_000);
+        engine.startSimulation();
+        double now = Clock.getInstance().getClock();
+
+        for (RescueCampServicePoint sp : engine.getServicePoints()) {
+            String name = sp.getServicePointName();
+            Tally sojourn = sp.getSojournTimeTally();
+            Tally waiting = sp.getWaitingTimeTally();
+            assertTrue(sojourn.getCount() > 1000, name);
+            // L = lambda W and Lq = lambda Wq, with lambda the served survivors per minute
+            double lambda = sojourn.getCount() / now;
+            assertEquals(lambda * sojourn.getMean(), sp.getAverageNumberInStation(now),
+                    0.01 * sp.getAverageNumberInStation(now), name + " L");
+            assertEquals(waiting.getCount() / now * waiting.getMean(), sp.getAverageNumberInQueue(now),
+                    0.01 * sp.getAverageNumberInQueue(now) + 1e-9, name + " Lq");
+            // The server is busy for the summed service times
+            assertEquals(sp.getServiceTimeTally().getSum() / now, sp.getUtilization(now), 0.01, name + " rho");
+            assertEquals(sp.getAverageNumberInStation(now) - sp.getAverageNumberInQueue(now), sp.getUtilization(now),
+                    1e-9, name);
+        }
+    }
+
+    @Test
+    void observationBufferReplaysTheRecentObservationsAfterATime() throws Exception {
+        ObservationBuffer buffer = new ObservationBuffer(4);
+        for (int t = 1; t <= 6; t++) buffer.add(t, t % 2, 10 * t);   // 1 and 2 are dropped
+
+        assertEquals(4, buffer.size());
+        assertEquals(2, buffer.getDropped());
+        List<String> seen = new ArrayList<>();
+        assertEquals(2, buffer.replayAfter(4, (series, value) -> seen.add(series + ":" + value)));
+        assertEquals(List.of("1:50.0", "0:60.0"), seen);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        buffer.writeState(new DataOutputStream(bytes));
+        ObservationBuffer copy = new ObservationBuffer(4);
+        copy.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        copy.add(7, 0, 70);
+        seen.clear();
+        copy.replayAfter(0, (series, value) -> seen.add(series + ":" + value));
+        assertEquals(List.of("0:40.0", "1:50.0", "0:60.0", "0:70.0"), seen);
+        assertEquals(3, copy.getDropped());
+    }
+
+    @Test
+    void batchMeansWidenTheIntervalForCorrelatedObservations() {
+        // AR(1) with phi 0.9 around 5: the plain t interval treats 200k observations as independent
+        Random random = new Random(11);
+        BatchMeans batches = new BatchMeans();
+        RunningStatistics plain = new RunningStatistics();
+        double x = 0;
+        for (int i = 0; i < 200_000; i++) {
+            x = 0.9 * x + random.nextGaussian();
+            batches.add(5 + x);
+            plain.add(5 + x);
+        }
+        assertEquals(200_000, batches.getCount());
+        assertTrue(batches.getBatchCount() >= 32 && batches.getBatchCount() < 64);
+        assertEquals(Long.bitCount(batches.getBatchSize()), 1);
+        double halfWidth = batches.getHalfWidth(0.95);
+        assertEquals(5, batches.getMean(), halfWidth);
+        // Variance of the mean is about (1 + phi) / (1 - phi) = 19 times the naive one
+        double ratio = halfWidth / StudentT.halfWidth(plain, 0.95);
+        assertTrue(ratio > 2.5 && ratio < 6.5, "ratio " + ratio);
+        assertTrue(Math.abs(batches.getLag1Correlation()) < 0.4);
+    }
+
+    @Test
+    void mergedSketchesMatchTheExactQuantilesOfAllRuns() {
+        // Ten "replications" of exponential times with different means, sketched separately and merged
+        Random random = new Random(5);
+        double[] all = new double[500_000];
+        KllSketch merged = new KllSketch();
+        for (int run = 0; run < 10; run++) {
+            KllSketch sketch = new KllSketch(200, run);
+            for (int i = 0; i < 50_000; i++) {
+                double x = -(60 + 10 * run) * Math.log(1 - random.nextDouble());
+                sketch.update(x);
+                all[run * 50_000 + i] = x;
+            }
+            assertTrue(sketch.toBytes().length < 8_000, "serialized " + sketch.toBytes().length);
+            merged.merge(KllSketch.fromBytes(sketch.toBytes()));
+        }
+        Arrays.sort(all);
+        assertEquals(all.length, merged.getCount());
+        assertEquals(all[0], merged.getQuantile(0), 0.0);
+        assertEquals(all[all.length - 1], merged.getQuantile(1), 0.0);
+        for (double q : new double[]{0.5, 0.95, 0.99}) {
+            // Rank of the estimate within the exact data is within 2% of q
+            double rank = (double) Math.abs(Arrays.binarySearch(all, merged.getQuantile(q))) / all.length;
+            assertEquals(q, rank, 0.02, "q " + q);
+        }
+        assertEquals(merged.getQuantile(0.95), KllSketch.fromBytes(merged.toBytes()).getQuantile(0.95), 0.0);
+    }
+
+    @Test
+    void sketchCompactionFollowsItsSeed() {
+        double[] data = new Random(8).doubles(20_000).toArray();
+        KllSketch first = new KllSketch(200, 1);
+        KllSketch same = new KllSketch(200, 1);
+        KllSketch other = new KllSketch(200, 2);
+        for (double x : data) {
+            first.update(x);
+            same.update(x);
+            other.update(x);
+        }
+        assertArrayEquals(first.toBytes(), same.toBytes());
+        assertFalse(Arrays.equals(first.toBytes(), other.toBytes()), "seeds 1 and 2 compacted alike");
+
+        // reset() starts the offsets over from the seed, so the next replication repeats the first
+        byte[] before = first.toBytes();
+        first.reset();
+        for (double x : data) first.update(x);
+        assertArrayEquals(before, first.toBytes());
+        assertEquals(1, KllSketch.fromBytes(before).getSeed());
+    }
+}
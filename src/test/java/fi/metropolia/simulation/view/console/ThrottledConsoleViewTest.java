@@ -0,0 +1,73 @@
+package fi.metropolia.simulation.view.console;
+
+import fi.metropolia.simulation.model.SimulationEngine;
+import fi.metropolia.simulation.model.Survivor;
+import fi.metropolia.simulation.model.TestEngines;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThrottledConsoleViewTest {
+
+    /** Run an engine with the view printing into memory; returns the output lines */
+    private static List<String> run(SimulationEngine engine, long progressIntervalMillis, int reportEvery) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        engine.setView(new ThrottledConsoleView(new PrintStream(bytes, false, StandardCharsets.UTF_8),
+                progressIntervalMillis, reportEvery));
+        engine.startSimulation();
+        return bytes.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private static long count(List<String> lines, String prefix) {
+        return lines.stream().filter(l -> l.startsWith(prefix)).count();
+    }
+
+    @Test
+    void reportsEveryNthSurvivorOnce() {
+        SimulationEngine engine = TestEngines.retaining(13, 5000);
+
+        List<String> lines = run(engine, 0, 25);
+
+        List<Survivor> settled = engine.getFullyProcessedSurvivors();
+        assertTrue(settled.size() > 100);
+        assertEquals(settled.size() / 25, count(lines, "Survivor #"));
+        assertEquals(0, count(lines, "[progress]"));
+        Survivor s = settled.get(24);   // the 25th to leave
+        String expected = String.format(
+                "Survivor #%d settled: arrived %.2f, in camp %.2f, waiting %.2f min, age %d (%s), %s, medical %b, communication %b",
+                s.getSurvivorId(), s.getCampArrivalTime(), s.getTotalTimeInCamp(), s.getTotalWaitingTime(),
+                s.getSurvivorAge(), s.getAgeCategory(), s.getHealthCondition(), s.requiresMedicalTreatment(),
+                s.requestsCommunicationService());
+        assertEquals(expected, lines.stream().filter(l -> l.startsWith("Survivor #")).findFirst().orElseThrow());
+        assertTrue(lines.stream().anyMatch(l -> l.startsWith("Wall-clock time: ")));
+    }
+
+    @Test
+    void progressLinesAreThrottled() {
+        SimulationEngine engine = TestEngines.streaming(13, 200000);
+
+        // An hour between progress lines: only the final line of the run
+        List<String> slow = run(engine, 3_600_000, 0);
+        assertEquals(1, count(slow, "[progress]"));
+        String last = slow.stream().filter(l -> l.startsWith("[progress]")).findFirst().orElseThrow();
+        assertTrue(last.startsWith("[progress] t="), last);
+        assertTrue(last.contains(", arrived " + engine.getTotalSurvivorArrivals() + ", settled "), last);
+        assertTrue(last.contains(" survivors/s, queues " + engine.getServicePoints().get(0).getServicePointName() + "="
+                + engine.getServicePoints().get(0).getCurrentQueueLength()), last);
+        assertEquals(0, count(slow, "Survivor #"));
+
+        // Every millisecond: still at most one line per 256 callbacks (arrivals and exits), plus the final one
+        SimulationEngine busy = TestEngines.streaming(13, 200000);
+        List<String> fast = run(busy, 1, 0);
+        long callbacks = busy.getTotalSurvivorArrivals() + busy.getTotalSurvivorsProcessed();
+        long progress = count(fast, "[progress]");
+        assertTrue(progress >= 2, "progress lines: " + progress);
+        assertTrue(progress <= callbacks / 256 + 1, "progress lines: " + progress);
+    }
+}